@@ -0,0 +1,66 @@
+package com.dartscorer.config;
+
+import com.dartscorer.dto.BinaryWireFormat;
+import com.dartscorer.dto.GameStateDTO;
+import com.dartscorer.dto.RecordThrowRequest;
+import com.dartscorer.resource.GameResource;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Writes game states and errors, and reads throws, in the {@link BinaryWireFormat} media type
+ */
+@Provider
+@Produces(BinaryWireFormat.MEDIA_TYPE)
+@Consumes(BinaryWireFormat.MEDIA_TYPE)
+public class BinaryWireFormatProvider implements MessageBodyWriter<Object>, MessageBodyReader<RecordThrowRequest> {
+    
+    /**
+     * Largest throw body accepted, so a broken device cannot send an unbounded one
+     */
+    private static final int MAX_THROW_SIZE = 16;
+    
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return GameStateDTO.class.isAssignableFrom(type) || GameResource.ErrorResponse.class.isAssignableFrom(type);
+    }
+    
+    @Override
+    public void writeTo(Object entity, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) throws IOException {
+        byte[] bytes = entity instanceof GameStateDTO state
+            ? BinaryWireFormat.encode(state)
+            : BinaryWireFormat.encodeError(((GameResource.ErrorResponse) entity).message);
+        entityStream.write(bytes);
+    }
+    
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == RecordThrowRequest.class;
+    }
+    
+    @Override
+    public RecordThrowRequest readFrom(Class<RecordThrowRequest> type, Type genericType, Annotation[] annotations,
+                                       MediaType mediaType, MultivaluedMap<String, String> httpHeaders,
+                                       InputStream entityStream) throws IOException {
+        byte[] bytes = entityStream.readNBytes(MAX_THROW_SIZE);
+        try {
+            return BinaryWireFormat.decodeThrow(bytes);
+        } catch (BinaryWireFormat.DecodingException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.dartscorer.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithParentName;
+
+import java.util.Map;
+
+/**
+ * Calibration of the boards scored by cameras, by board id.
+ *
+ * Set as {@code darts.board."<id>".offset-x}, {@code offset-y} and {@code rotation}.
+ */
+@ConfigMapping(prefix = "darts.board")
+public interface BoardCalibrationConfig {
+    
+    @WithParentName
+    Map<String, Calibration> boards();
+    
+    interface Calibration {
+        
+        /**
+         * Position of the centre of the bull reported by the camera, in millimetres
+         */
+        @WithDefault("0")
+        double offsetX();
+        
+        @WithDefault("0")
+        double offsetY();
+        
+        /**
+         * Degrees the camera is turned clockwise from the board, so that its 20 is off the vertical
+         */
+        @WithDefault("0")
+        double rotation();
+    }
+}
\ No newline at end of file
@@ -15,8 +15,9 @@ public class CorsFilter implements ContainerResponseFilter {
         responseContext.getHeaders().add("Access-Control-Allow-Origin", "*");
         responseContext.getHeaders().add("Access-Control-Allow-Credentials", "true");
         responseContext.getHeaders().add("Access-Control-Allow-Headers", 
-            "origin, content-type, accept, authorization");
+            "origin, content-type, accept, authorization, idempotency-key, x-client-id");
         responseContext.getHeaders().add("Access-Control-Allow-Methods", 
             "GET, POST, PUT, DELETE, OPTIONS, HEAD, PATCH");
+        responseContext.getHeaders().add("Access-Control-Expose-Headers", "x-total-count");
     }
 }
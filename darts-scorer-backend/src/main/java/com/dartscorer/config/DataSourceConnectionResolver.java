@@ -0,0 +1,30 @@
+package com.dartscorer.config;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.customized.QuarkusConnectionProvider;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantConnectionResolver;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+
+/**
+ * Connections of the datasources chosen by {@link DataSourceRouting}
+ */
+@ApplicationScoped
+@PersistenceUnitExtension
+public class DataSourceConnectionResolver implements TenantConnectionResolver {
+    
+    @Inject
+    AgroalDataSource primary;
+    
+    @Inject
+    @DataSource(DataSourceRouting.REPLICA)
+    AgroalDataSource replica;
+    
+    @Override
+    public ConnectionProvider resolve(String tenantId) {
+        return new QuarkusConnectionProvider(DataSourceRouting.REPLICA.equals(tenantId) ? replica : primary);
+    }
+}
\ No newline at end of file
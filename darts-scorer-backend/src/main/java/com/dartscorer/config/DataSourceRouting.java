@@ -0,0 +1,74 @@
+package com.dartscorer.config;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantResolver;
+import jakarta.enterprise.context.RequestScoped;
+
+import java.util.function.Supplier;
+
+/**
+ * Chooses the datasource of the Hibernate session of each request.
+ *
+ * Requests to {@link ReplicaRead} endpoints read from the replica datasource;
+ * everything else, including the state returned after a mutation and the
+ * background jobs, uses the primary. The session is bound to its datasource
+ * when it is opened, so the choice must be made before the first query.
+ *
+ * Hibernate asks for the datasource through the request context, so threads
+ * started by the application run their database work with
+ * {@link #runOnPrimary} or {@link #callOnPrimary}.
+ */
+@RequestScoped
+@PersistenceUnitExtension
+public class DataSourceRouting implements TenantResolver {
+    
+    public static final String PRIMARY = "<default>";
+    public static final String REPLICA = "replica";
+    
+    private boolean replica;
+    
+    /**
+     * Send the queries of the current request to the replica
+     */
+    public void useReplica() {
+        replica = true;
+    }
+    
+    /**
+     * Run a task of a background thread in its own request context, so its sessions use the primary
+     */
+    public static void runOnPrimary(Runnable task) {
+        callOnPrimary(() -> {
+            task.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Call a task of a background thread in its own request context, so its sessions use the primary
+     */
+    public static <T> T callOnPrimary(Supplier<T> task) {
+        ManagedContext requestContext = Arc.container().requestContext();
+        if (requestContext.isActive()) {
+            return task.get();
+        }
+        requestContext.activate();
+        try {
+            return task.get();
+        } finally {
+            requestContext.terminate();
+        }
+    }
+    
+    @Override
+    public String getDefaultTenantId() {
+        return PRIMARY;
+    }
+    
+    @Override
+    public String resolveTenantId() {
+        return replica ? REPLICA : PRIMARY;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.dartscorer.config;
+
+import jakarta.ws.rs.NameBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Endpoint whose request body is kept by {@link ForwardableBodyInterceptor}, so it can be forwarded unchanged
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Forwardable {
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.dartscorer.config;
+
+import io.quarkus.vertx.http.runtime.CurrentVertxRequest;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Keeps the body of the requests to {@link Forwardable} endpoints as received.
+ *
+ * A game mutation for a game owned by another instance is sent to that
+ * instance with the bytes and content type the client sent, whatever the
+ * format, rather than with the request read back into JSON.
+ */
+@Provider
+@Forwardable
+public class ForwardableBodyInterceptor implements ReaderInterceptor {
+    
+    /**
+     * Key of the body bytes in the routing context of the request
+     */
+    public static final String BODY = ForwardableBodyInterceptor.class.getName() + ".body";
+    
+    @Inject
+    CurrentVertxRequest currentRequest;
+    
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException, WebApplicationException {
+        byte[] body = context.getInputStream().readAllBytes();
+        if (currentRequest.getCurrent() != null) {
+            currentRequest.getCurrent().put(BODY, body);
+        }
+        context.setInputStream(new ByteArrayInputStream(body));
+        return context.proceed();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.dartscorer.config;
+
+import jakarta.ws.rs.NameBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Endpoint whose response serialization is timed by {@link SerializationPhaseInterceptor}
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Profiled {
+    
+    /**
+     * Operation reported in the {@link com.dartscorer.event.GamePhaseEvent}
+     */
+    String value() default "";
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.dartscorer.config;
+
+import com.dartscorer.resource.GameResource;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Token-bucket limits per client and per game, and a global cap on concurrent expensive reads.
+ *
+ * Runs before the resource method, so a rejected request gets a 429 with
+ * Retry-After without any database work. Clients are identified by their
+ * address, which a request header cannot change; behind a load balancer the
+ * address comes from its forwarding headers once it is trusted with
+ * {@code quarkus.http.proxy.*}. A concurrent read holds its permit until the
+ * response has been written or the connection closed, including streamed
+ * responses. A request forwarded by another instance to the owner of its game
+ * was already charged there, so it is not charged again when it carries the
+ * secret shared by the instances; otherwise it would also be charged to the
+ * bucket of the forwarding instance, shared by all its clients.
+ */
+@Provider
+@RateLimited
+public class RateLimitFilter implements ContainerRequestFilter {
+    
+    /**
+     * Header with the secret shared by the instances, sent with the requests they forward to each other
+     */
+    public static final String FORWARD_SECRET = "Darts-Forward-Secret";
+    
+    /**
+     * Buckets kept before full ones, which behave like new ones, are dropped
+     */
+    private static final int MAX_IDLE_BUCKETS = 10_000;
+    
+    @ConfigProperty(name = "darts.rate-limit.enabled", defaultValue = "true")
+    boolean enabled;
+    
+    @ConfigProperty(name = "darts.rate-limit.client.rate", defaultValue = "50")
+    double clientRate;
+    
+    @ConfigProperty(name = "darts.rate-limit.client.burst", defaultValue = "100")
+    int clientBurst;
+    
+    @ConfigProperty(name = "darts.rate-limit.game.rate", defaultValue = "10")
+    double gameRate;
+    
+    @ConfigProperty(name = "darts.rate-limit.game.burst", defaultValue = "30")
+    int gameBurst;
+    
+    @ConfigProperty(name = "darts.rate-limit.max-concurrent-reads", defaultValue = "16")
+    int maxConcurrentReads;
+    
+    @ConfigProperty(name = "darts.instance.forward-secret")
+    Optional<String> forwardSecret;
+    
+    @Context
+    ResourceInfo resourceInfo;
+    
+    @Context
+    RoutingContext routingContext;
+    
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> gameBuckets = new ConcurrentHashMap<>();
+    private final AtomicInteger concurrentReads = new AtomicInteger();
+    
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (!enabled) {
+            return;
+        }
+        RateLimited limits = resourceInfo.getResourceMethod().getAnnotation(RateLimited.class);
+        if (limits == null) {
+            limits = resourceInfo.getResourceClass().getAnnotation(RateLimited.class);
+        }
+        long now = System.nanoTime();
+        
+        // Already charged by the instance that forwarded it
+        boolean forwarded = forwarded(requestContext);
+        long wait = forwarded ? 0 : take(clientBuckets, clientAddress(), clientRate, clientBurst, now);
+        if (wait == 0 && !forwarded && limits.perGame()) {
+            String gameId = requestContext.getUriInfo().getPathParameters().getFirst("id");
+            if (gameId != null) {
+                wait = take(gameBuckets, gameId, gameRate, gameBurst, now);
+            }
+        }
+        if (wait > 0) {
+            requestContext.abortWith(tooManyRequests("Too many requests", wait));
+            return;
+        }
+        
+        if (limits.expensive()) {
+            if (concurrentReads.incrementAndGet() > maxConcurrentReads) {
+                concurrentReads.decrementAndGet();
+                requestContext.abortWith(tooManyRequests("Server busy", TimeUnit.SECONDS.toNanos(1)));
+                return;
+            }
+            // Called once the response has ended, after any streamed body, or when the client disconnects
+            routingContext.addEndHandler(result -> concurrentReads.decrementAndGet());
+        }
+    }
+    
+    private boolean forwarded(ContainerRequestContext requestContext) {
+        String secret = requestContext.getHeaderString(FORWARD_SECRET);
+        return secret != null && forwardSecret.isPresent()
+            && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                forwardSecret.get().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String clientAddress() {
+        SocketAddress address = routingContext.request().remoteAddress();
+        return address != null ? address.host() : "unknown";
+    }
+    
+    private static long take(Map<String, TokenBucket> buckets, String key, double rate, int burst, long now) {
+        if (buckets.size() > MAX_IDLE_BUCKETS) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(rate, burst, now)).tryAcquire(now);
+    }
+    
+    private static Response tooManyRequests(String message, long waitNanos) {
+        long seconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        return Response.status(Response.Status.TOO_MANY_REQUESTS)
+            .header("Retry-After", seconds)
+            .type(MediaType.APPLICATION_JSON)
+            .entity(new GameResource.ErrorResponse(message))
+            .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.dartscorer.config;
+
+import jakarta.ws.rs.NameBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Endpoint limited by {@link RateLimitFilter}
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface RateLimited {
+    
+    /**
+     * Also limit the requests per game, using the {@code id} path parameter
+     */
+    boolean perGame() default false;
+    
+    /**
+     * Count the request against the global cap of concurrent expensive reads
+     */
+    boolean expensive() default false;
+}
\ No newline at end of file
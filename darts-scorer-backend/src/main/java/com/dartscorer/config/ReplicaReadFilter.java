@@ -0,0 +1,33 @@
+package com.dartscorer.config;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.ext.Provider;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+/**
+ * Routes the requests of {@link ReplicaRead} endpoints to the replica datasource.
+ *
+ * Their session reads the second-level cache but never puts into it, so rows
+ * from a lagging replica cannot replace newer ones read from the primary.
+ */
+@Provider
+@ReplicaRead
+public class ReplicaReadFilter implements ContainerRequestFilter {
+    
+    @Inject
+    @PersistenceUnitExtension
+    DataSourceRouting routing;
+    
+    @Inject
+    Session session;
+    
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        routing.useReplica();
+        session.setCacheMode(CacheMode.GET);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.dartscorer.config;
+
+import com.dartscorer.event.GamePhaseEvent;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import java.io.IOException;
+
+/**
+ * Times the serialization of the responses of {@link Profiled} endpoints with a {@link GamePhaseEvent}
+ */
+@Provider
+@Profiled
+public class SerializationPhaseInterceptor implements WriterInterceptor {
+    
+    @Context
+    ResourceInfo resourceInfo;
+    
+    @Context
+    UriInfo uriInfo;
+    
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        String operation = resourceInfo.getResourceMethod().getAnnotation(Profiled.class).value();
+        String id = uriInfo.getPathParameters().getFirst("id");
+        GamePhaseEvent phase = GamePhaseEvent.start(operation, "serialization", id != null ? Long.valueOf(id) : null);
+        context.proceed();
+        phase.finish();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.dartscorer.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ *
+ * Stored as the single time at which the bucket will be full again (the
+ * generic cell rate algorithm), so taking a token is one compare-and-set.
+ * A bucket refills {@code rate} tokens per second up to {@code burst} tokens.
+ */
+final class TokenBucket {
+    
+    private final long interval;
+    private final long tolerance;
+    
+    /**
+     * Time in nanoseconds at which the bucket is full again
+     */
+    private final AtomicLong fullAt;
+    
+    TokenBucket(double rate, int burst, long now) {
+        this.interval = (long) (1_000_000_000L / rate);
+        this.tolerance = interval * (burst - 1);
+        this.fullAt = new AtomicLong(now);
+    }
+    
+    /**
+     * Take a token if one is available
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next one
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long start = current - now > 0 ? current : now;
+            long wait = start - tolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, start + interval)) {
+                return 0;
+            }
+        }
+    }
+    
+    /**
+     * A full bucket behaves like a new one and can be dropped
+     */
+    boolean isFull(long now) {
+        return fullAt.get() - now <= 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.dartscorer.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the result of a scan of the throw archive
+ */
+public class ArchiveScanDTO {
+    
+    /**
+     * Rows read, the rows of the archive or of the requested game
+     */
+    public Long rowsScanned;
+    
+    /**
+     * Throws matching the filters, and their total score
+     */
+    public Long count;
+    public Long points;
+    
+    public Long scanMicros;
+    
+    /**
+     * Totals by the requested key, ordered by key; absent without grouping
+     */
+    public List<Group> groups;
+    
+    public ArchiveScanDTO() {
+    }
+    
+    /**
+     * Totals of the throws with the same player, game, sector or multiplier
+     */
+    public static class Group {
+        
+        public Long key;
+        public Long count;
+        public Long points;
+        
+        public Group() {
+        }
+        
+        public Group(Long key, Long count, Long points) {
+            this.key = key;
+            this.count = count;
+            this.points = points;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.dartscorer.dto;
+
+/**
+ * DTO for the size and backlog of the throw archive
+ */
+public class ArchiveStatusDTO {
+    
+    public Boolean enabled;
+    public String directory;
+    
+    /**
+     * Rows in the column files, including those of discarded games
+     */
+    public Long rows;
+    
+    /**
+     * Rows of games put back in progress or deleted, skipped by scans
+     */
+    public Long discardedRows;
+    
+    public Integer games;
+    public Long sizeBytes;
+    
+    /**
+     * Appends and discards waiting for the writer
+     */
+    public Integer pending;
+    
+    public ArchiveStatusDTO() {
+    }
+}
\ No newline at end of file
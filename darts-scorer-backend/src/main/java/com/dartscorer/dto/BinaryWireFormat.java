@@ -0,0 +1,384 @@
+package com.dartscorer.dto;
+
+import com.dartscorer.model.GameMode;
+import com.dartscorer.model.GameStatus;
+import com.dartscorer.rules.CricketRules;
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of game state and throws, for scoreboards and board controllers.
+ *
+ * A frame starts with the format version and the frame type. Players are
+ * written once, in game order, and referenced everywhere else by their index.
+ * Numbers are varints (scores zigzag-encoded) and a dart is a single byte
+ * holding sector and multiplier. Throw and turn ids are not sent; throw
+ * scores are derived from sector and multiplier. Game modes and statuses
+ * have fixed codes, so reordering or adding constants does not change the
+ * meaning of frames already understood by devices.
+ *
+ * <pre>
+ * game state  u8 version, u8 1, varint id, u8 mode, u8 status,
+ *             u8 player count, per player (varint id, varint name length, UTF-8 name),
+ *             u8 current player index, u8 winner index + 1 (0 = none),
+ *             per player zigzag score, u8 flags (1 = current turn, 2 = cricket marks),
+ *             [turn], u8 recent turn count, turns,
+ *             [per player varint marks, 2 bits per cricket target]
+ * turn        varint turn number, u8 player index, zigzag total score,
+ *             u8 dart count | 4 bust | 8 has remaining score, [zigzag remaining score], darts
+ * dart        u8 sector &lt;&lt; 2 | multiplier
+ * error       u8 version, u8 0, varint length, UTF-8 message
+ * throw       u8 dart (request body of a throw submission)
+ * </pre>
+ */
+public final class BinaryWireFormat {
+    
+    public static final String MEDIA_TYPE = "application/vnd.dartscorer.v1+binary";
+    
+    public static final int VERSION = 1;
+    
+    private static final int ERROR_FRAME = 0;
+    private static final int GAME_STATE_FRAME = 1;
+    
+    private static final int HAS_CURRENT_TURN = 1;
+    private static final int HAS_CRICKET = 2;
+    
+    private static final int DART_COUNT = 3;
+    private static final int BUST = 4;
+    private static final int HAS_REMAINING_SCORE = 8;
+    
+    private BinaryWireFormat() {
+    }
+    
+    /**
+     * Thrown for a malformed or unexpected frame
+     */
+    public static class DecodingException extends IllegalArgumentException {
+        public DecodingException(String message) {
+            super(message);
+        }
+    }
+    
+    public static byte[] encode(GameStateDTO state) {
+        Writer out = new Writer();
+        out.writeByte(VERSION);
+        out.writeByte(GAME_STATE_FRAME);
+        out.writeVarLong(state.id);
+        out.writeByte(modeCode(state.gameMode));
+        out.writeByte(statusCode(state.status));
+        
+        Map<Long, Integer> dictionary = new HashMap<>();
+        out.writeByte(state.players.size());
+        for (PlayerDTO player : state.players) {
+            dictionary.put(player.id, dictionary.size());
+            out.writeVarLong(player.id);
+            out.writeString(player.name);
+        }
+        out.writeByte(state.currentPlayerIndex);
+        out.writeByte(state.winner != null ? dictionary.get(state.winner.id) + 1 : 0);
+        for (PlayerDTO player : state.players) {
+            out.writeZigZag(state.playerScores.getOrDefault(player.id, 0));
+        }
+        
+        out.writeByte((state.currentTurn != null ? HAS_CURRENT_TURN : 0) | (state.cricket != null ? HAS_CRICKET : 0));
+        if (state.currentTurn != null) {
+            writeTurn(out, state.currentTurn, dictionary);
+        }
+        List<TurnDTO> recentTurns = state.recentTurns != null ? state.recentTurns : List.of();
+        out.writeByte(recentTurns.size());
+        for (TurnDTO turn : recentTurns) {
+            writeTurn(out, turn, dictionary);
+        }
+        if (state.cricket != null) {
+            for (PlayerDTO player : state.players) {
+                List<Integer> marks = state.cricket.marks.get(player.id);
+                int packed = 0;
+                for (int target = 0; target < marks.size(); target++) {
+                    packed |= marks.get(target) << (target * 2);
+                }
+                out.writeVarLong(packed);
+            }
+        }
+        return out.toByteArray();
+    }
+    
+    public static GameStateDTO decode(byte[] bytes) {
+        Reader in = new Reader(bytes);
+        if (in.readFrame() != GAME_STATE_FRAME) {
+            throw new DecodingException("Not a game state frame");
+        }
+        GameStateDTO state = new GameStateDTO();
+        state.id = in.readVarLong();
+        state.gameMode = mode(in.readByte());
+        state.status = status(in.readByte());
+        
+        int playerCount = in.readByte();
+        state.players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            state.players.add(new PlayerDTO(in.readVarLong(), in.readString()));
+        }
+        state.currentPlayerIndex = in.readByte();
+        state.currentPlayer = state.players.get(state.currentPlayerIndex);
+        int winner = in.readByte();
+        state.winner = winner > 0 ? state.players.get(winner - 1) : null;
+        state.playerScores = new HashMap<>();
+        for (PlayerDTO player : state.players) {
+            state.playerScores.put(player.id, in.readZigZag());
+        }
+        
+        int flags = in.readByte();
+        if ((flags & HAS_CURRENT_TURN) != 0) {
+            state.currentTurn = readTurn(in, state.players);
+        }
+        int recentTurns = in.readByte();
+        state.recentTurns = new ArrayList<>(recentTurns);
+        for (int i = 0; i < recentTurns; i++) {
+            state.recentTurns.add(readTurn(in, state.players));
+        }
+        if ((flags & HAS_CRICKET) != 0) {
+            state.cricket = readCricket(in, state.players);
+        }
+        return state;
+    }
+    
+    public static byte[] encodeError(String message) {
+        Writer out = new Writer();
+        out.writeByte(VERSION);
+        out.writeByte(ERROR_FRAME);
+        out.writeString(message != null ? message : "");
+        return out.toByteArray();
+    }
+    
+    /**
+     * Message of an error frame
+     */
+    public static String decodeError(byte[] bytes) {
+        Reader in = new Reader(bytes);
+        if (in.readFrame() != ERROR_FRAME) {
+            throw new DecodingException("Not an error frame");
+        }
+        return in.readString();
+    }
+    
+    public static byte[] encodeThrow(RecordThrowRequest request) {
+        return new byte[] { (byte) packDart(request.sector, request.multiplier) };
+    }
+    
+    public static RecordThrowRequest decodeThrow(byte[] bytes) {
+        if (bytes.length != 1) {
+            throw new DecodingException("A throw is a single byte");
+        }
+        int dart = bytes[0] & 0xFF;
+        return new RecordThrowRequest(dart >>> 2, dart & 3);
+    }
+    
+    /**
+     * Wire code of a game mode; a new mode takes the next free code, codes are never reused
+     */
+    private static int modeCode(GameMode mode) {
+        return switch (mode) {
+            case TRAINING -> 0;
+            case STANDARD_301 -> 1;
+            case DOUBLE_OUT_301 -> 2;
+            case DOUBLE_IN_DOUBLE_OUT_301 -> 3;
+            case MASTER_OUT_301 -> 4;
+            case STANDARD_501 -> 5;
+            case DOUBLE_OUT_501 -> 6;
+            case DOUBLE_IN_DOUBLE_OUT_501 -> 7;
+            case MASTER_OUT_501 -> 8;
+            case STANDARD_701 -> 9;
+            case DOUBLE_OUT_701 -> 10;
+            case DOUBLE_IN_DOUBLE_OUT_701 -> 11;
+            case MASTER_OUT_701 -> 12;
+            case CRICKET -> 13;
+            case CUT_THROAT_CRICKET -> 14;
+        };
+    }
+    
+    /**
+     * Wire code of a game status, fixed like those of the modes
+     */
+    private static int statusCode(GameStatus status) {
+        return switch (status) {
+            case SETUP -> 0;
+            case IN_PROGRESS -> 1;
+            case COMPLETED -> 2;
+            case CANCELLED -> 3;
+        };
+    }
+    
+    private static GameMode mode(int code) {
+        for (GameMode mode : GameMode.values()) {
+            if (modeCode(mode) == code) {
+                return mode;
+            }
+        }
+        throw new DecodingException("Unknown game mode " + code);
+    }
+    
+    private static GameStatus status(int code) {
+        for (GameStatus status : GameStatus.values()) {
+            if (statusCode(status) == code) {
+                return status;
+            }
+        }
+        throw new DecodingException("Unknown game status " + code);
+    }
+    
+    private static int packDart(int sector, int multiplier) {
+        if (sector < 0 || sector > 63 || multiplier < 0 || multiplier > 3) {
+            throw new IllegalArgumentException("Dart out of range: " + sector + "x" + multiplier);
+        }
+        return sector << 2 | multiplier;
+    }
+    
+    private static void writeTurn(Writer out, TurnDTO turn, Map<Long, Integer> dictionary) {
+        out.writeVarLong(turn.turnNumber);
+        out.writeByte(dictionary.get(turn.player.id));
+        out.writeZigZag(turn.totalScore);
+        out.writeByte(turn.dartThrows.size()
+            | (Boolean.TRUE.equals(turn.isBust) ? BUST : 0)
+            | (turn.remainingScore != null ? HAS_REMAINING_SCORE : 0));
+        if (turn.remainingScore != null) {
+            out.writeZigZag(turn.remainingScore);
+        }
+        for (ThrowDTO dart : turn.dartThrows) {
+            out.writeByte(packDart(dart.sector, dart.multiplier));
+        }
+    }
+    
+    private static TurnDTO readTurn(Reader in, List<PlayerDTO> players) {
+        TurnDTO turn = new TurnDTO();
+        turn.turnNumber = (int) in.readVarLong();
+        turn.player = players.get(in.readByte());
+        turn.totalScore = in.readZigZag();
+        int flags = in.readByte();
+        turn.isBust = (flags & BUST) != 0;
+        turn.remainingScore = (flags & HAS_REMAINING_SCORE) != 0 ? in.readZigZag() : null;
+        int darts = flags & DART_COUNT;
+        turn.dartThrows = new ArrayList<>(darts);
+        for (int i = 0; i < darts; i++) {
+            int dart = in.readByte();
+            int sector = dart >>> 2;
+            int multiplier = dart & 3;
+            turn.dartThrows.add(new ThrowDTO(null, sector, multiplier, sector * multiplier, i + 1));
+        }
+        return turn;
+    }
+    
+    private static CricketStateDTO readCricket(Reader in, List<PlayerDTO> players) {
+        CricketStateDTO cricket = new CricketStateDTO();
+        cricket.targets = new ArrayList<>(CricketRules.TARGETS.length);
+        for (int sector : CricketRules.TARGETS) {
+            cricket.targets.add(sector);
+        }
+        cricket.marks = new HashMap<>();
+        int closed = (1 << CricketRules.TARGETS.length) - 1;
+        for (PlayerDTO player : players) {
+            long packed = in.readVarLong();
+            List<Integer> marks = new ArrayList<>(CricketRules.TARGETS.length);
+            for (int target = 0; target < CricketRules.TARGETS.length; target++) {
+                int mark = (int) (packed >>> (target * 2)) & 3;
+                marks.add(mark);
+                if (mark < 3) {
+                    closed &= ~(1 << target);
+                }
+            }
+            cricket.marks.put(player.id, marks);
+        }
+        cricket.closedTargets = new ArrayList<>();
+        for (int target = 0; target < CricketRules.TARGETS.length; target++) {
+            if ((closed & (1 << target)) != 0) {
+                cricket.closedTargets.add(CricketRules.TARGETS[target]);
+            }
+        }
+        return cricket;
+    }
+    
+    private static final class Writer extends ByteArrayOutputStream {
+        
+        Writer() {
+            super(64);
+        }
+        
+        void writeByte(int value) {
+            write(value);
+        }
+        
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+        
+        void writeZigZag(int value) {
+            writeVarLong(Integer.toUnsignedLong((value << 1) ^ (value >> 31)));
+        }
+        
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            write(utf8, 0, utf8.length);
+        }
+    }
+    
+    private static final class Reader {
+        
+        private final ByteBuffer buffer;
+        
+        Reader(byte[] bytes) {
+            buffer = ByteBuffer.wrap(bytes);
+        }
+        
+        int readFrame() {
+            int version = readByte();
+            if (version != VERSION) {
+                throw new DecodingException("Unsupported format version " + version);
+            }
+            return readByte();
+        }
+        
+        int readByte() {
+            try {
+                return buffer.get() & 0xFF;
+            } catch (BufferUnderflowException e) {
+                throw new DecodingException("Truncated frame");
+            }
+        }
+        
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new DecodingException("Malformed varint");
+        }
+        
+        int readZigZag() {
+            int value = (int) readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+        
+        String readString() {
+            int length = (int) readVarLong();
+            if (length > buffer.remaining()) {
+                throw new DecodingException("Truncated frame");
+            }
+            String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+    }
+}
\ No newline at end of file
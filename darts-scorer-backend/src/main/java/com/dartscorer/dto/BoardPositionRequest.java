@@ -0,0 +1,27 @@
+package com.dartscorer.dto;
+
+/**
+ * Request DTO for recording a throw from the position of the dart on the board
+ */
+public class BoardPositionRequest {
+    
+    /**
+     * Millimetres from the centre of the bull, x towards the right and y towards the 20
+     */
+    public Double x;
+    public Double y;
+    
+    /**
+     * Board the camera watches, to apply its calibration (none if not set)
+     */
+    public String boardId;
+    
+    public BoardPositionRequest() {
+    }
+    
+    public BoardPositionRequest(Double x, Double y, String boardId) {
+        this.x = x;
+        this.y = y;
+        this.boardId = boardId;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.dartscorer.dto;
+
+import com.dartscorer.model.Game;
+import com.dartscorer.model.Player;
+import com.dartscorer.rules.CricketRules;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO representing the marks of a cricket game
+ */
+public class CricketStateDTO {
+    
+    /**
+     * Sectors to close (15-20 and 25 for bull)
+     */
+    public List<Integer> targets;
+    
+    /**
+     * Marks (0-3) per player id, in the same order as targets
+     */
+    public Map<Long, List<Integer>> marks;
+    
+    /**
+     * Targets closed by every player (no more points can be scored on them)
+     */
+    public List<Integer> closedTargets;
+    
+    public CricketStateDTO() {
+    }
+    
+    /**
+     * Create DTO from entity, or null if the game is not a cricket game
+     */
+    public static CricketStateDTO from(Game game) {
+        if (game == null || game.cricketState == null) {
+            return null;
+        }
+        return from(game.players, game.cricketState);
+    }
+    
+    /**
+     * Create DTO from the packed state of each player, in game order
+     */
+    public static CricketStateDTO from(List<Player> players, long[] state) {
+        CricketStateDTO dto = new CricketStateDTO();
+        dto.targets = new ArrayList<>(CricketRules.TARGETS.length);
+        for (int sector : CricketRules.TARGETS) {
+            dto.targets.add(sector);
+        }
+        
+        dto.marks = new HashMap<>();
+        for (int i = 0; i < players.size(); i++) {
+            List<Integer> playerMarks = new ArrayList<>(CricketRules.TARGETS.length);
+            for (int target = 0; target < CricketRules.TARGETS.length; target++) {
+                playerMarks.add(CricketRules.marks(state[i], target));
+            }
+            dto.marks.put(players.get(i).id, playerMarks);
+        }
+        
+        int closed = CricketRules.closedByAll(state);
+        dto.closedTargets = new ArrayList<>();
+        for (int target = 0; target < CricketRules.TARGETS.length; target++) {
+            if ((closed & (1 << target)) != 0) {
+                dto.closedTargets.add(CricketRules.TARGETS[target]);
+            }
+        }
+        
+        return dto;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.dartscorer.dto;
+
+/**
+ * Request DTO for an event pushed by an electronic board
+ */
+public class DeviceEventRequest {
+    
+    public enum Type {
+        THROW,
+        NEXT_PLAYER
+    }
+    
+    public Long gameId;
+    
+    /**
+     * THROW if not set
+     */
+    public Type type;
+    
+    public Integer sector;
+    public Integer multiplier;
+    
+    public DeviceEventRequest() {
+    }
+    
+    public DeviceEventRequest(Long gameId, Integer sector, Integer multiplier) {
+        this.gameId = gameId;
+        this.type = Type.THROW;
+        this.sector = sector;
+        this.multiplier = multiplier;
+    }
+}
\ No newline at end of file
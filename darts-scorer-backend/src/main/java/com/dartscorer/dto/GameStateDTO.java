@@ -4,27 +4,103 @@ import com.dartscorer.model.Game;
 import com.dartscorer.model.GameMode;
 import com.dartscorer.model.GameStatus;
 import com.dartscorer.model.Turn;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * DTO representing the complete state of a game
+ * DTO representing the complete state of a game, or the sections of it a client asked for
  */
 public class GameStateDTO {
     
+    /**
+     * Recent turns returned unless the client asks for another number
+     */
+    public static final int RECENT_TURNS = 10;
+    
+    public static final int MAX_RECENT_TURNS = 100;
+    
+    /**
+     * Optional sections of a game state; id, mode, status and current player index are always returned
+     */
+    public enum Section {
+        PLAYERS("players"),
+        CURRENT_PLAYER("currentPlayer"),
+        PLAYER_SCORES("playerScores"),
+        CURRENT_TURN("currentTurn"),
+        RECENT_TURNS("recentTurns"),
+        WINNER("winner"),
+        CRICKET("cricket");
+        
+        /**
+         * Name of the section in the JSON response
+         */
+        public final String field;
+        
+        Section(String field) {
+            this.field = field;
+        }
+        
+        public static Section ofField(String field) {
+            for (Section section : values()) {
+                if (section.field.equals(field)) {
+                    return section;
+                }
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * Sections to compute and number of recent turns
+     */
+    public record Projection(Set<Section> sections, int recentTurns) {
+        
+        public static final Projection ALL = new Projection(EnumSet.allOf(Section.class), RECENT_TURNS);
+        
+        public boolean includes(Section section) {
+            return sections.contains(section);
+        }
+        
+        /**
+         * Check if the sections are computed from the turns of the game
+         */
+        public boolean readsTurns() {
+            return includes(Section.CURRENT_TURN) || includes(Section.RECENT_TURNS) || includes(Section.PLAYER_SCORES);
+        }
+    }
+    
     public Long id;
     public GameMode gameMode;
     public GameStatus status;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public List<PlayerDTO> players;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public PlayerDTO currentPlayer;
+    
     public Integer currentPlayerIndex;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public Map<Long, Integer> playerScores;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public TurnDTO currentTurn;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public List<TurnDTO> recentTurns;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public PlayerDTO winner;
     
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public CricketStateDTO cricket;
+    
     public GameStateDTO() {
     }
     
@@ -32,6 +108,17 @@ public class GameStateDTO {
      * Create DTO from entity
      */
     public static GameStateDTO from(Game game) {
+        return from(game, Projection.ALL);
+    }
+    
+    /**
+     * Create DTO from entity with only some sections.
+     *
+     * A section left out is not computed: the turns of the game and their
+     * throws are only loaded for the current turn, the recent turns or the
+     * scores of a non-cricket game, and the winner only for its section.
+     */
+    public static GameStateDTO from(Game game, Projection projection) {
         if (game == null) {
             return null;
         }
@@ -40,36 +127,50 @@ public class GameStateDTO {
         dto.id = game.id;
         dto.gameMode = game.gameMode;
         dto.status = game.status;
-        dto.players = game.players.stream()
-            .map(PlayerDTO::from)
-            .collect(Collectors.toList());
-        dto.currentPlayer = PlayerDTO.from(game.getCurrentPlayer());
         dto.currentPlayerIndex = game.currentPlayerIndex;
+        if (projection.includes(Section.PLAYERS)) {
+            dto.players = game.players.stream()
+                .map(PlayerDTO::from)
+                .collect(Collectors.toList());
+        }
+        if (projection.includes(Section.CURRENT_PLAYER)) {
+            dto.currentPlayer = PlayerDTO.from(game.getCurrentPlayer());
+        }
         
-        // Get current turn (incomplete) or last turn (if complete)
-        Turn currentTurn = game.getCurrentTurn();
-        if (currentTurn == null && !game.turns.isEmpty()) {
-            // If no incomplete turn, get the last turn for the current player
-            currentTurn = game.turns.stream()
-                .filter(t -> t.player.id.equals(game.getCurrentPlayer().id))
-                .reduce((first, second) -> second)
-                .orElse(null);
+        if (projection.includes(Section.CURRENT_TURN)) {
+            // Get current turn (incomplete) or last turn (if complete)
+            Turn currentTurn = game.getCurrentTurn();
+            if (currentTurn == null && !game.turns.isEmpty()) {
+                // If no incomplete turn, get the last turn for the current player
+                currentTurn = game.turns.stream()
+                    .filter(t -> t.player.id.equals(game.getCurrentPlayer().id))
+                    .reduce((first, second) -> second)
+                    .orElse(null);
+            }
+            dto.currentTurn = TurnDTO.from(currentTurn);
         }
-        dto.currentTurn = TurnDTO.from(currentTurn);
         
-        dto.winner = PlayerDTO.from(game.winner);
+        if (projection.includes(Section.WINNER)) {
+            dto.winner = PlayerDTO.from(game.winner);
+        }
+        if (projection.includes(Section.CRICKET)) {
+            dto.cricket = CricketStateDTO.from(game);
+        }
         
-        // Calculate current scores for all players
-        dto.playerScores = new HashMap<>();
-        for (var player : game.players) {
-            dto.playerScores.put(player.id, game.getPlayerScore(player));
+        if (projection.includes(Section.PLAYER_SCORES)) {
+            // Calculate current scores for all players
+            dto.playerScores = new HashMap<>();
+            for (var player : game.players) {
+                dto.playerScores.put(player.id, game.getPlayerScore(player));
+            }
         }
         
-        // Get recent turns (last 10)
-        dto.recentTurns = game.turns.stream()
-            .skip(Math.max(0, game.turns.size() - 10))
-            .map(TurnDTO::from)
-            .collect(Collectors.toList());
+        if (projection.includes(Section.RECENT_TURNS)) {
+            dto.recentTurns = projection.recentTurns() == 0 ? List.of() : game.turns.stream()
+                .skip(Math.max(0, game.turns.size() - projection.recentTurns()))
+                .map(TurnDTO::from)
+                .collect(Collectors.toList());
+        }
         
         return dto;
     }
@@ -0,0 +1,38 @@
+package com.dartscorer.dto;
+
+/**
+ * DTO for the record of two players in the completed games they played together
+ */
+public class HeadToHeadDTO {
+    
+    public Integer games;
+    public Side player;
+    public Side opponent;
+    
+    public HeadToHeadDTO() {
+    }
+    
+    /**
+     * Totals of one of the two players in their common games
+     */
+    public static class Side {
+        
+        public Long playerId;
+        public Integer wins;
+        
+        /**
+         * Darts and points in training and X01 games
+         */
+        public Long darts;
+        public Long points;
+        public Double threeDartAverage;
+        
+        /**
+         * Highest checkout in X01 games won against the opponent, 0 if none
+         */
+        public Integer highestCheckout;
+        
+        public Side() {
+        }
+    }
+}
\ No newline at end of file
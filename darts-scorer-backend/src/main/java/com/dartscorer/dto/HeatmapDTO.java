@@ -0,0 +1,36 @@
+package com.dartscorer.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for a player's hit frequency per sector and multiplier
+ */
+public class HeatmapDTO {
+    
+    public Long playerId;
+    
+    /**
+     * First day included (null for no lower bound)
+     */
+    public LocalDate from;
+    
+    /**
+     * Last day included (null for no upper bound)
+     */
+    public LocalDate to;
+    
+    public Long totalDarts;
+    
+    /**
+     * Sector of each row of counts: bull (25) first, then 1 to 20
+     */
+    public int[] sectors;
+    
+    /**
+     * Hits per row and multiplier (0-3). Misses are counted in the bull row with multiplier 0.
+     */
+    public int[][] counts;
+    
+    public HeatmapDTO() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.dartscorer.dto;
+
+import com.dartscorer.model.GameMode;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Request DTO for importing a match recorded offline
+ */
+public class ImportMatchRequest {
+    
+    public GameMode gameMode;
+    
+    /**
+     * Players in throwing order
+     */
+    public List<String> playerNames;
+    
+    /**
+     * Start of the match (defaults to the first dart, or the import time)
+     */
+    public LocalDateTime startedAt;
+    
+    /**
+     * Darts of each turn in order, players taking turns as with nextPlayer.
+     * Every turn but the last must have 3 darts.
+     */
+    public List<List<Dart>> turns;
+    
+    public ImportMatchRequest() {
+    }
+    
+    /**
+     * A single dart of an imported match
+     */
+    public static class Dart {
+        public Integer sector;
+        public Integer multiplier;
+        
+        /**
+         * When the dart was thrown (defaults to the import time)
+         */
+        public LocalDateTime timestamp;
+        
+        public Dart() {
+        }
+    }
+}
\ No newline at end of file
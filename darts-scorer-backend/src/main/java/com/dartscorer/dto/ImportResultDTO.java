@@ -0,0 +1,21 @@
+package com.dartscorer.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the outcome of a match import
+ */
+public class ImportResultDTO {
+    
+    /**
+     * Ids of the created games, in request order
+     */
+    public List<Long> gameIds;
+    
+    public Integer turns;
+    public Long darts;
+    public Long elapsedMillis;
+    
+    public ImportResultDTO() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.dartscorer.dto;
+
+/**
+ * DTO for the events of a device request taken by the ingestion buffers
+ */
+public class IngestResultDTO {
+    
+    /**
+     * Events queued, always the first ones of the request
+     */
+    public Integer accepted;
+    
+    /**
+     * Events left out because a buffer was full, to be sent again
+     */
+    public Integer rejected;
+    
+    public IngestResultDTO() {
+    }
+    
+    public IngestResultDTO(int accepted, int rejected) {
+        this.accepted = accepted;
+        this.rejected = rejected;
+    }
+}
\ No newline at end of file
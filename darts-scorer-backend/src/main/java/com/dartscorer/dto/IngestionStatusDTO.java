@@ -0,0 +1,48 @@
+package com.dartscorer.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the queues and counters of the device event ingestion
+ */
+public class IngestionStatusDTO {
+    
+    public Long accepted;
+    
+    /**
+     * Events refused because their buffer was full
+     */
+    public Long rejected;
+    
+    public Long applied;
+    
+    /**
+     * Events dropped because the game refused them (game over, turn complete, owned by another instance)
+     */
+    public Long failed;
+    
+    public Long batches;
+    public List<Partition> partitions;
+    
+    public IngestionStatusDTO() {
+    }
+    
+    /**
+     * Buffer and consumer of a partition of the games
+     */
+    public static class Partition {
+        
+        public Integer partition;
+        public Integer depth;
+        public Integer capacity;
+        public Integer lastBatchSize;
+        
+        /**
+         * Time between the arrival of the oldest event of the last batch and its commit
+         */
+        public Long lagMillis;
+        
+        public Partition() {
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.dartscorer.dto;
+
+/**
+ * DTO for a player's position in a leaderboard
+ */
+public class LeaderboardEntryDTO {
+    
+    public Integer rank;
+    public PlayerDTO player;
+    public Double threeDartAverage;
+    public Long darts;
+    public Integer wins;
+    public Integer highestCheckout;
+    
+    public LeaderboardEntryDTO() {
+    }
+}
\ No newline at end of file
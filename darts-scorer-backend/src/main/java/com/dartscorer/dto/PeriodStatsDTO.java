@@ -0,0 +1,28 @@
+package com.dartscorer.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for a player's totals over a range of days, in training and X01 games
+ */
+public class PeriodStatsDTO {
+    
+    /**
+     * First day included
+     */
+    public LocalDate from;
+    
+    /**
+     * Last day included
+     */
+    public LocalDate to;
+    
+    public Long darts;
+    public Long points;
+    public Long busts;
+    public Long checkouts;
+    public Double threeDartAverage;
+    
+    public PeriodStatsDTO() {
+    }
+}
\ No newline at end of file
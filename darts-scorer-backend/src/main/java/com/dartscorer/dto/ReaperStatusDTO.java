@@ -0,0 +1,23 @@
+package com.dartscorer.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the activity of the idle game reaper
+ */
+public class ReaperStatusDTO {
+    
+    /**
+     * Games in progress without activity for this long are cancelled
+     */
+    public Long idleTimeoutSeconds;
+    
+    public Long runs;
+    public Long totalReaped;
+    public LocalDateTime lastRunAt;
+    public Integer lastRunReaped;
+    public Long lastRunMillis;
+    
+    public ReaperStatusDTO() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.dartscorer.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the state of the on-demand flight recording
+ */
+public class RecordingStatusDTO {
+    
+    /**
+     * NONE, RUNNING or STOPPED
+     */
+    public String state;
+    
+    public LocalDateTime startedAt;
+    public LocalDateTime stoppedAt;
+    
+    /**
+     * Length the recording was started with
+     */
+    public Long durationSeconds;
+    
+    /**
+     * Size of the recording file once stopped
+     */
+    public Long sizeBytes;
+    
+    public RecordingStatusDTO() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.dartscorer.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the progress of a statistics recomputation
+ */
+public class StatsRecomputeStatusDTO {
+    
+    /**
+     * IDLE, RUNNING, COMPLETED or FAILED
+     */
+    public String state;
+    
+    public LocalDateTime startedAt;
+    public LocalDateTime finishedAt;
+    
+    /**
+     * Number of game id ranges the history was split into
+     */
+    public Integer partitions;
+    
+    public Integer partitionsDone;
+    public Long throwsProcessed;
+    public Long elapsedMillis;
+    public Double throwsPerSecond;
+    
+    /**
+     * Failure message, if the job failed
+     */
+    public String error;
+    
+    public StatsRecomputeStatusDTO() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.dartscorer.event;
+
+import com.dartscorer.model.Game;
+import com.dartscorer.model.GameMode;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Fired when a game is won, or when its winning throw is undone.
+ */
+public class GameCompletedEvent {
+    
+    public final Long gameId;
+    
+    /**
+     * Revision of the game once the transaction firing the event commits
+     * ({@link Game#DELETED_REVISION} if it deletes the game)
+     */
+    public final long revision;
+    
+    /**
+     * Id of the winning throw
+     */
+    public final Long throwId;
+    
+    public final GameMode gameMode;
+    public final Long winnerId;
+    public final List<Long> playerIds;
+    
+    /**
+     * Darts thrown and points scored in the game by each player of {@link #playerIds},
+     * in training and X01 games (zero in other modes)
+     */
+    public final int[] playerDarts;
+    public final int[] playerPoints;
+    
+    /**
+     * Score of the winning turn in X01 modes, 0 otherwise
+     */
+    public final int checkout;
+    
+    /**
+     * When the winning throw was thrown
+     */
+    public final LocalDateTime timestamp;
+    
+    /**
+     * True if the game was put back in progress, in which case the event reverts a previous one
+     */
+    public final boolean reverted;
+    
+    public GameCompletedEvent(Long gameId, long revision, Long throwId, GameMode gameMode, Long winnerId,
+                              List<Long> playerIds, int[] playerDarts, int[] playerPoints, int checkout,
+                              LocalDateTime timestamp, boolean reverted) {
+        this.gameId = gameId;
+        this.revision = revision;
+        this.throwId = throwId;
+        this.gameMode = gameMode;
+        this.winnerId = winnerId;
+        this.playerIds = playerIds;
+        this.playerDarts = playerDarts;
+        this.playerPoints = playerPoints;
+        this.checkout = checkout;
+        this.timestamp = timestamp;
+        this.reverted = reverted;
+    }
+    
+    /**
+     * +1 for a completed game, -1 for a reverted one
+     */
+    public int direction() {
+        return reverted ? -1 : 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.dartscorer.event;
+
+import com.dartscorer.model.Game;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.hibernate.Hibernate;
+
+/**
+ * Java Flight Recorder event timing one phase of recording a throw or moving to the next player.
+ *
+ * Unlike the other events of this package it is not fired through CDI: it is
+ * committed to the flight recorder, and costs next to nothing while no
+ * recording has it enabled (see {@code RecordingService}).
+ */
+@Name("com.dartscorer.GamePhase")
+@Label("Game Phase")
+@Category("Darts Scorer")
+@Description("A phase of recording a throw or moving to the next player")
+@StackTrace(false)
+public class GamePhaseEvent extends Event {
+    
+    public static final String RECORD_THROW = "recordThrow";
+    public static final String NEXT_PLAYER = "nextPlayer";
+    
+    @Label("Operation")
+    public String operation;
+    
+    @Label("Phase")
+    public String phase;
+    
+    @Label("Game Id")
+    public long gameId;
+    
+    @Label("Turn Count")
+    @Description("Turns of the game, or -1 if they are not loaded")
+    public int turnCount;
+    
+    @Label("Entities Loaded")
+    @Description("Entities in the persistence context at the end of the phase, or -1 outside of it")
+    public int entitiesLoaded;
+    
+    /**
+     * Start timing a phase
+     */
+    public static GamePhaseEvent start(String operation, String phase, Long gameId) {
+        GamePhaseEvent event = new GamePhaseEvent();
+        event.operation = operation;
+        event.phase = phase;
+        event.gameId = gameId != null ? gameId : 0;
+        event.begin();
+        return event;
+    }
+    
+    /**
+     * End a phase run in a persistence context, reading the counts only if the event is recorded
+     */
+    public void finish(Game game) {
+        end();
+        if (shouldCommit()) {
+            turnCount = game != null && Hibernate.isInitialized(game.turns) ? game.turns.size() : -1;
+            entitiesLoaded = Game.getSession().getStatistics().getEntityCount();
+            commit();
+        }
+    }
+    
+    /**
+     * End a phase run outside of the persistence context
+     */
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            turnCount = -1;
+            entitiesLoaded = -1;
+            commit();
+        }
+    }
+}
\ No newline at end of file
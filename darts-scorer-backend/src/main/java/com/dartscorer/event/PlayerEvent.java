@@ -0,0 +1,21 @@
+package com.dartscorer.event;
+
+/**
+ * Fired when a player is created or deleted.
+ */
+public class PlayerEvent {
+    
+    public final Long playerId;
+    public final String name;
+    
+    /**
+     * True if the player was deleted, false if created
+     */
+    public final boolean deleted;
+    
+    public PlayerEvent(Long playerId, String name, boolean deleted) {
+        this.playerId = playerId;
+        this.name = name;
+        this.deleted = deleted;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.dartscorer.event;
+
+import com.dartscorer.model.Game;
+import com.dartscorer.model.GameMode;
+import java.time.LocalDateTime;
+
+/**
+ * Fired when a throw is recorded or undone.
+ *
+ * Observers that keep derived state in memory should observe it
+ * {@code during = TransactionPhase.AFTER_SUCCESS}, so rolled back throws are
+ * never applied.
+ */
+public class ThrowEvent {
+    
+    public final Long throwId;
+    public final Long gameId;
+    
+    /**
+     * Revision of the game once the transaction firing the event commits
+     * ({@link Game#DELETED_REVISION} if it deletes the game)
+     */
+    public final long revision;
+    
+    public final GameMode gameMode;
+    public final Long playerId;
+    public final int sector;
+    public final int multiplier;
+    
+    /**
+     * Points credited to the player by this throw (negative when a bust reverts the turn)
+     */
+    public final int points;
+    
+    /**
+     * True if this throw busted the turn (X01 modes)
+     */
+    public final boolean bust;
+    
+    public final LocalDateTime timestamp;
+    
+    /**
+     * True if the throw was undone, in which case the event reverts a previous one
+     */
+    public final boolean undone;
+    
+    public ThrowEvent(Long throwId, Long gameId, long revision, GameMode gameMode, Long playerId, int sector,
+                      int multiplier, int points, boolean bust, LocalDateTime timestamp, boolean undone) {
+        this.throwId = throwId;
+        this.gameId = gameId;
+        this.revision = revision;
+        this.gameMode = gameMode;
+        this.playerId = playerId;
+        this.sector = sector;
+        this.multiplier = multiplier;
+        this.points = points;
+        this.bust = bust;
+        this.timestamp = timestamp;
+        this.undone = undone;
+    }
+    
+    /**
+     * +1 for a recorded throw, -1 for an undone one
+     */
+    public int direction() {
+        return undone ? -1 : 1;
+    }
+}
\ No newline at end of file
@@ -1,17 +1,37 @@
 package com.dartscorer.model;
 
+import com.dartscorer.rules.CricketRules;
+import com.dartscorer.rules.GameRules;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.*;
+import org.hibernate.CacheMode;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.jpa.HibernateHints;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Entity representing a darts game.
+ *
+ * The players collection is kept in the second-level cache. The game row is
+ * only cached by the instance owning the game, which alone writes it (see
+ * {@code GameService#getGame} and {@code GameLeases}). Turns are not cached;
+ * only those of finished games are kept in memory (see
+ * {@code FinishedGameCache}).
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = @Index(name = "idx_game_status_activity", columnList = "status, lastActivityAt"))
 public class Game extends PanacheEntity {
     
+    /**
+     * Revision carried by the events of the transaction deleting a game
+     */
+    public static final long DELETED_REVISION = Long.MAX_VALUE;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     public GameMode gameMode;
@@ -27,12 +47,19 @@ public class Game extends PanacheEntity {
         inverseJoinColumns = @JoinColumn(name = "player_id")
     )
     @OrderColumn(name = "player_order")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     public List<Player> players = new ArrayList<>();
     
     @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, orphanRemoval = true)
-    @OrderBy("turnNumber ASC")
+    @OrderBy("turnNumber ASC, id ASC")
     public List<Turn> turns = new ArrayList<>();
     
+    /**
+     * State snapshots taken every few turns, to replay the game from any point
+     */
+    @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, orphanRemoval = true)
+    public List<GameSnapshot> snapshots = new ArrayList<>();
+    
     /**
      * Index of the current player (0-based)
      */
@@ -45,6 +72,12 @@ public class Game extends PanacheEntity {
     @Column(nullable = false)
     public Integer currentTurnNumber = 0;
     
+    /**
+     * Number of most recent throws that can still be undone
+     */
+    @Column
+    public Integer undoableThrows = 0;
+    
     /**
      * Winner of the game (if completed)
      */
@@ -58,11 +91,37 @@ public class Game extends PanacheEntity {
     @Column
     public LocalDateTime completedAt;
     
+    /**
+     * Last throw, turn change or undo, used to find abandoned games
+     */
+    @Column
+    public LocalDateTime lastActivityAt;
+    
+    /**
+     * Number of changes to the throws or result of the game, carried by the
+     * statistics events they fire (null for games created before it existed)
+     */
+    @Column
+    public Long revision = 0L;
+    
+    /**
+     * Packed cricket marks and points, one entry per player (cricket modes only)
+     */
+    @Column
+    public long[] cricketState;
+    
+    /**
+     * Rules of the game mode, resolved once per game
+     */
+    @Transient
+    private GameRules rules;
+    
     /**
      * Default constructor
      */
     public Game() {
         this.startedAt = LocalDateTime.now();
+        this.lastActivityAt = startedAt;
     }
     
     /**
@@ -71,6 +130,7 @@ public class Game extends PanacheEntity {
     public Game(GameMode gameMode) {
         this.gameMode = gameMode;
         this.startedAt = LocalDateTime.now();
+        this.lastActivityAt = startedAt;
     }
     
     /**
@@ -95,6 +155,9 @@ public class Game extends PanacheEntity {
         }
         this.status = GameStatus.IN_PROGRESS;
         this.startedAt = LocalDateTime.now();
+        if (getRules() instanceof CricketRules) {
+            this.cricketState = new long[players.size()];
+        }
     }
     
     /**
@@ -118,6 +181,23 @@ public class Game extends PanacheEntity {
         }
     }
     
+    /**
+     * Move back to the previous player (reverse of nextPlayer)
+     */
+    public void previousPlayer() {
+        if (currentPlayerIndex == 0) {
+            currentTurnNumber--;
+        }
+        currentPlayerIndex = (currentPlayerIndex - 1 + players.size()) % players.size();
+    }
+    
+    /**
+     * Get the most recent turn of the game
+     */
+    public Turn getLastTurn() {
+        return turns.isEmpty() ? null : turns.get(turns.size() - 1);
+    }
+    
     /**
      * Get the current turn for the current player
      */
@@ -128,38 +208,68 @@ public class Game extends PanacheEntity {
             .orElse(null);
     }
     
+    /**
+     * Get the scoring rules for this game
+     */
+    public GameRules getRules() {
+        if (rules == null) {
+            rules = gameMode.rules();
+        }
+        return rules;
+    }
+    
     /**
      * Create a new turn for the current player
      */
     public Turn createNewTurn() {
         Player currentPlayer = getCurrentPlayer();
         Turn turn = new Turn(this, currentPlayer, currentTurnNumber);
+        // The turn starts from the score the player reached in their previous turn
+        turn.startingScore = getPlayerScore(currentPlayer);
+        turn.remainingScore = turn.startingScore;
         turns.add(turn);
         return turn;
     }
     
     /**
-     * Get the current score for a player (for 301 modes)
+     * Take a snapshot of every player's state at the start of the last turn, if it is a multiple of the interval.
+     *
+     * A turn that is played again after an undo overwrites the snapshot taken
+     * the first time.
+     */
+    public void snapshotIfDue(int interval) {
+        int turnIndex = turns.size() - 1;
+        if (turnIndex <= 0 || turnIndex % interval != 0) {
+            return;
+        }
+        long[] state = new long[players.size()];
+        for (int i = 0; i < state.length; i++) {
+            state[i] = cricketState != null ? cricketState[i] : getPlayerScore(players.get(i));
+        }
+        for (GameSnapshot snapshot : snapshots) {
+            if (snapshot.turnIndex == turnIndex) {
+                snapshot.playerState = state;
+                return;
+            }
+        }
+        snapshots.add(new GameSnapshot(this, turnIndex, state));
+    }
+    
+    /**
+     * Get the current score for a player (remaining score in X01 modes, points otherwise)
      */
     public Integer getPlayerScore(Player player) {
-        if (gameMode == GameMode.TRAINING) {
-            // In training mode, return total score
-            return turns.stream()
-                .filter(t -> t.player.id.equals(player.id))
-                .mapToInt(t -> t.totalScore)
-                .sum();
-        } else {
-            // In 301 modes, return remaining score
-            Turn lastTurn = turns.stream()
-                .filter(t -> t.player.id.equals(player.id))
-                .reduce((first, second) -> second)
-                .orElse(null);
-            
-            if (lastTurn != null && lastTurn.remainingScore != null) {
-                return lastTurn.remainingScore;
+        if (cricketState != null) {
+            // Cut-throat points change outside the player's own turns, so read them from the game state
+            return CricketRules.points(cricketState[players.indexOf(player)]);
+        }
+        for (int i = turns.size() - 1; i >= 0; i--) {
+            Turn turn = turns.get(i);
+            if (turn.player.id.equals(player.id) && turn.remainingScore != null) {
+                return turn.remainingScore;
             }
-            return 301; // Starting score
         }
+        return getRules().startingScore();
     }
     
     /**
@@ -168,7 +278,16 @@ public class Game extends PanacheEntity {
     public void complete(Player winner) {
         this.status = GameStatus.COMPLETED;
         this.winner = winner;
-        this.completedAt = LocalDateTime.now();
+        this.completedAt = completionTime();
+    }
+    
+    /**
+     * Put a completed game back in progress (when its winning throw is undone)
+     */
+    public void reopen() {
+        this.status = GameStatus.IN_PROGRESS;
+        this.winner = null;
+        this.completedAt = null;
     }
     
     /**
@@ -176,7 +295,37 @@ public class Game extends PanacheEntity {
      */
     public void cancel() {
         this.status = GameStatus.CANCELLED;
-        this.completedAt = LocalDateTime.now();
+        this.completedAt = completionTime();
+    }
+    
+    /**
+     * Current time at the precision stored by the database, so the completion
+     * time read back from the row equals the one kept in memory
+     */
+    private static LocalDateTime completionTime() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+    
+    /**
+     * Start a change of the throws or result of the game, moving it to its next revision
+     */
+    public void revise() {
+        this.revision = revision == null ? 1 : revision + 1;
+    }
+    
+    /**
+     * Mark the game as being deleted, so the events reverting its statistics
+     * come after any revision it had
+     */
+    public void reviseForDeletion() {
+        this.revision = DELETED_REVISION;
+    }
+    
+    /**
+     * Record that the game was just played
+     */
+    public void touch() {
+        this.lastActivityAt = LocalDateTime.now();
     }
     
     /**
@@ -194,10 +343,16 @@ public class Game extends PanacheEntity {
     }
     
     /**
-     * Find active games
+     * Find active games.
+     *
+     * Games in progress change on every throw, so they are rarely cached:
+     * looking each of them up in the second-level cache would only slow the
+     * list down. The cache mode only applies to this query, not to the session.
      */
     public static List<Game> findActiveGames() {
-        return list("status", GameStatus.IN_PROGRESS);
+        return find("status", GameStatus.IN_PROGRESS)
+            .withHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+            .list();
     }
     
     /**
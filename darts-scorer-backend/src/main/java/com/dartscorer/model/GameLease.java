@@ -0,0 +1,52 @@
+package com.dartscorer.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing the ownership of a game by a backend instance.
+ *
+ * Only the owner applies mutations to the game. The lease is kept alive by
+ * heartbeats and can be taken over by another instance once it expires,
+ * which increments the fencing token.
+ */
+@Entity
+public class GameLease extends PanacheEntityBase {
+    
+    @Id
+    public Long gameId;
+    
+    @Column(nullable = false)
+    public String ownerId;
+    
+    /**
+     * Base URL other instances forward requests to (null if the owner cannot be reached directly)
+     */
+    @Column
+    public String ownerUrl;
+    
+    /**
+     * Incremented each time the lease changes owner
+     */
+    @Column(nullable = false)
+    public Long fencingToken;
+    
+    @Column(nullable = false)
+    public LocalDateTime expiresAt;
+    
+    @Column(nullable = false)
+    public LocalDateTime heartbeatAt;
+    
+    /**
+     * Default constructor required by JPA
+     */
+    public GameLease() {
+    }
+    
+    public boolean isExpired(LocalDateTime now) {
+        return expiresAt.isBefore(now);
+    }
+}
\ No newline at end of file
@@ -1,5 +1,10 @@
 package com.dartscorer.model;
 
+import com.dartscorer.rules.CricketRules;
+import com.dartscorer.rules.GameRules;
+import com.dartscorer.rules.TrainingRules;
+import com.dartscorer.rules.X01Rules;
+
 /**
  * Enum representing the different game modes available in the darts scorer application.
  */
@@ -7,15 +12,88 @@ public enum GameMode {
     /**
      * Training mode - free scoring without rules
      */
-    TRAINING,
+    TRAINING(TrainingRules.INSTANCE),
     
     /**
      * Standard 301 game - start from 301 and subtract scores
      */
-    STANDARD_301,
+    STANDARD_301(X01Rules.straightOut(301)),
     
     /**
      * 301 with double out - must finish with a double
      */
-    DOUBLE_OUT_301
+    DOUBLE_OUT_301(X01Rules.doubleOut(301)),
+    
+    /**
+     * 301 with double in and double out - must start and finish with a double
+     */
+    DOUBLE_IN_DOUBLE_OUT_301(X01Rules.doubleInDoubleOut(301)),
+    
+    /**
+     * 301 with master out - must finish with a double or a triple
+     */
+    MASTER_OUT_301(X01Rules.masterOut(301)),
+    
+    /**
+     * Standard 501 game - start from 501 and subtract scores
+     */
+    STANDARD_501(X01Rules.straightOut(501)),
+    
+    /**
+     * 501 with double out - must finish with a double
+     */
+    DOUBLE_OUT_501(X01Rules.doubleOut(501)),
+    
+    /**
+     * 501 with double in and double out - must start and finish with a double
+     */
+    DOUBLE_IN_DOUBLE_OUT_501(X01Rules.doubleInDoubleOut(501)),
+    
+    /**
+     * 501 with master out - must finish with a double or a triple
+     */
+    MASTER_OUT_501(X01Rules.masterOut(501)),
+    
+    /**
+     * Standard 701 game - start from 701 and subtract scores
+     */
+    STANDARD_701(X01Rules.straightOut(701)),
+    
+    /**
+     * 701 with double out - must finish with a double
+     */
+    DOUBLE_OUT_701(X01Rules.doubleOut(701)),
+    
+    /**
+     * 701 with double in and double out - must start and finish with a double
+     */
+    DOUBLE_IN_DOUBLE_OUT_701(X01Rules.doubleInDoubleOut(701)),
+    
+    /**
+     * 701 with master out - must finish with a double or a triple
+     */
+    MASTER_OUT_701(X01Rules.masterOut(701)),
+    
+    /**
+     * Cricket - close 15 to 20 and the bull, highest score wins
+     */
+    CRICKET(CricketRules.STANDARD),
+    
+    /**
+     * Cut-throat cricket - points go to the opponents, lowest score wins
+     */
+    CUT_THROAT_CRICKET(CricketRules.CUT_THROAT);
+    
+    private final GameRules rules;
+    
+    GameMode(GameRules rules) {
+        this.rules = rules;
+    }
+    
+    /**
+     * Get the scoring rules of this mode
+     */
+    public GameRules rules() {
+        return rules;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.dartscorer.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.*;
+
+/**
+ * State of every player at the start of a turn, taken every few turns.
+ *
+ * A game can be replayed from any point by loading the closest snapshot
+ * before it and applying the turns that follow, instead of replaying it
+ * from the first dart.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_snapshot_game_turn", columnList = "game_id, turnIndex"))
+public class GameSnapshot extends PanacheEntity {
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "game_id", nullable = false)
+    public Game game;
+    
+    /**
+     * Position in the game of the turn the snapshot was taken at (0-based)
+     */
+    @Column(nullable = false)
+    public Integer turnIndex;
+    
+    /**
+     * One value per player in game order: the score in X01 and training, the packed marks and points in cricket
+     */
+    @Column(nullable = false)
+    public long[] playerState;
+    
+    /**
+     * Default constructor
+     */
+    public GameSnapshot() {
+    }
+    
+    public GameSnapshot(Game game, Integer turnIndex, long[] playerState) {
+        this.game = game;
+        this.turnIndex = turnIndex;
+        this.playerState = playerState;
+    }
+}
\ No newline at end of file
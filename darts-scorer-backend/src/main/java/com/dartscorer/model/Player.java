@@ -1,14 +1,23 @@
 package com.dartscorer.model;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.hibernate.jpa.HibernateHints;
 import java.time.LocalDateTime;
 
 /**
  * Entity representing a player in the darts game.
+ *
+ * Players are kept in the second-level cache: they are read by every game
+ * and history request and change almost never.
  */
 @Entity
+@Cacheable
+@Table(indexes = @Index(name = "idx_player_name", columnList = "name, id"))
 public class Player extends PanacheEntity {
     
     @Column(nullable = false)
@@ -33,9 +42,11 @@ public class Player extends PanacheEntity {
     }
     
     /**
-     * Find player by name
+     * Find player by name (the result is kept in the query cache)
      */
     public static Player findByName(String name) {
-        return find("name", name).firstResult();
+        return find("name", name)
+            .withHint(HibernateHints.HINT_CACHEABLE, true)
+            .firstResult();
     }
 }
\ No newline at end of file
@@ -42,6 +42,12 @@ public class Throw extends PanacheEntity {
     @Column(nullable = false)
     public LocalDateTime timestamp;
     
+    /**
+     * Effect of the throw on the cricket state (marks added and points scored), used to undo it
+     */
+    @Column
+    public Integer effect;
+    
     /**
      * Default constructor
      */
@@ -33,13 +33,19 @@ public class Turn extends PanacheEntity {
     public Integer totalScore = 0;
     
     /**
-     * Remaining score after this turn (for 301 modes)
+     * Score of the player at the start of this turn
+     */
+    @Column
+    public Integer startingScore;
+    
+    /**
+     * Score of the player after this turn (remaining score in X01 modes, points otherwise)
      */
     @Column
     public Integer remainingScore;
     
     /**
-     * Flag indicating if this turn resulted in a bust (went below 0 in 301)
+     * Flag indicating if this turn resulted in a bust (invalid finish in X01 modes)
      */
     @Column(nullable = false)
     public Boolean isBust = false;
@@ -60,12 +66,21 @@ public class Turn extends PanacheEntity {
     }
     
     /**
-     * Add a throw to this turn and recalculate total score
+     * Add a throw to this turn and add its score to the total
      */
     public void addThrow(Throw dartThrow) {
         this.dartThrows.add(dartThrow);
         dartThrow.turn = this;
-        recalculateTotalScore();
+        this.totalScore += dartThrow.score;
+    }
+    
+    /**
+     * Remove the last throw of this turn and subtract it from the total score
+     */
+    public Throw removeLastThrow() {
+        Throw dartThrow = dartThrows.remove(dartThrows.size() - 1);
+        this.totalScore -= dartThrow.score;
+        return dartThrow;
     }
     
     /**
@@ -0,0 +1,178 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.dto.RecordingStatusDTO;
+import com.dartscorer.dto.StatsRecomputeStatusDTO;
+import com.dartscorer.service.DeviceIngestionService;
+import com.dartscorer.service.IdleGameReaper;
+import com.dartscorer.service.RecordingService;
+import com.dartscorer.service.StatsRecomputeService;
+import com.dartscorer.service.ThrowArchive;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.time.Duration;
+
+/**
+ * REST API for maintenance operations
+ */
+@Path("/api/admin")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Tag(name = "Admin", description = "Maintenance operations")
+public class AdminResource {
+    
+    @Inject
+    StatsRecomputeService statsRecomputeService;
+    
+    @Inject
+    RecordingService recordingService;
+    
+    @Inject
+    IdleGameReaper idleGameReaper;
+    
+    @Inject
+    DeviceIngestionService deviceIngestionService;
+    
+    @Inject
+    ThrowArchive throwArchive;
+    
+    /**
+     * Start a full recomputation of the player statistics
+     */
+    @POST
+    @Path("/stats/recompute")
+    @Operation(summary = "Recompute statistics", description = "Recomputes the leaderboards, heatmaps, daily statistics and head-to-head records from the full game history in the background")
+    public Response recomputeStats() {
+        try {
+            StatsRecomputeStatusDTO status = statsRecomputeService.start();
+            return Response.accepted(status).build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                .entity(new GameResource.ErrorResponse(e.getMessage()))
+                .build();
+        }
+    }
+    
+    /**
+     * Get the progress of the statistics recomputation
+     */
+    @GET
+    @Path("/stats/recompute")
+    @Operation(summary = "Get recomputation status", description = "Retrieves the progress and throughput of the current or last recomputation")
+    public Response getRecomputeStatus() {
+        return Response.ok(statsRecomputeService.getStatus()).build();
+    }
+    
+    /**
+     * Get the queues of the device event ingestion
+     */
+    @GET
+    @Path("/ingestion")
+    @Operation(summary = "Get ingestion status", description = "Retrieves the queue depth and lag of each ingestion partition and the counts of events accepted, refused, applied and dropped")
+    public Response getIngestionStatus() {
+        return Response.ok(deviceIngestionService.getStatus()).build();
+    }
+    
+    /**
+     * Get the size of the throw archive
+     */
+    @GET
+    @Path("/archive")
+    @Operation(summary = "Get archive status", description = "Retrieves the rows, games and size of the columnar throw archive and the games waiting to be archived")
+    public Response getArchiveStatus() {
+        return Response.ok(throwArchive.getStatus()).build();
+    }
+    
+    /**
+     * Run the idle game reaper now
+     */
+    @POST
+    @Path("/reaper/run")
+    @Operation(summary = "Reap idle games", description = "Cancels the games in progress idle for longer than the timeout, without waiting for the next scheduled run")
+    public Response runReaper() {
+        idleGameReaper.reap();
+        return Response.ok(idleGameReaper.getStatus()).build();
+    }
+    
+    /**
+     * Get the counts of the idle game reaper
+     */
+    @GET
+    @Path("/reaper")
+    @Operation(summary = "Get reaper status", description = "Retrieves the number of runs and of games cancelled by the idle game reaper")
+    public Response getReaperStatus() {
+        return Response.ok(idleGameReaper.getStatus()).build();
+    }
+    
+    /**
+     * Start a flight recording of the backend
+     */
+    @POST
+    @Path("/recording")
+    @Operation(summary = "Start flight recording", description = "Starts a Java Flight Recorder recording with low-overhead settings and the game phase events, stopping after the given number of seconds")
+    public Response startRecording(@QueryParam("seconds") @DefaultValue("60") long seconds) {
+        try {
+            RecordingStatusDTO status = recordingService.start(Duration.ofSeconds(seconds));
+            return Response.accepted(status).build();
+        } catch (BadRequestException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new GameResource.ErrorResponse(e.getMessage()))
+                .build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                .entity(new GameResource.ErrorResponse(e.getMessage()))
+                .build();
+        }
+    }
+    
+    /**
+     * Stop the flight recording early
+     */
+    @POST
+    @Path("/recording/stop")
+    @Operation(summary = "Stop flight recording", description = "Stops the running recording before its duration ends")
+    public Response stopRecording() {
+        return Response.ok(recordingService.stop()).build();
+    }
+    
+    /**
+     * Get the state of the flight recording
+     */
+    @GET
+    @Path("/recording")
+    @Operation(summary = "Get flight recording status", description = "Retrieves the state of the current or last recording")
+    public Response getRecordingStatus() {
+        return Response.ok(recordingService.getStatus()).build();
+    }
+    
+    /**
+     * Download the last flight recording
+     */
+    @GET
+    @Path("/recording/file")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    @Operation(summary = "Download flight recording", description = "Downloads the last stopped recording, to open with JDK Mission Control or the jfr tool")
+    public Response getRecordingFile() {
+        try {
+            java.nio.file.Path file = recordingService.getFile();
+            if (file == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(new GameResource.ErrorResponse("No recording"))
+                    .build();
+            }
+            return Response.ok(file.toFile())
+                .header("Content-Disposition", "attachment; filename=\"darts-scorer.jfr\"")
+                .build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(new GameResource.ErrorResponse(e.getMessage()))
+                .build();
+        }
+    }
+}
\ No newline at end of file
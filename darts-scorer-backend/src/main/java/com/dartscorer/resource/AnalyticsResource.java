@@ -0,0 +1,54 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.config.RateLimited;
+import com.dartscorer.dto.ArchiveScanDTO;
+import com.dartscorer.service.ThrowArchive;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.time.LocalDate;
+
+/**
+ * REST API for league-wide analytics, answered from the throw archive
+ */
+@Path("/api/analytics")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "Analytics", description = "League-wide throw analytics")
+public class AnalyticsResource {
+    
+    @Inject
+    ThrowArchive throwArchive;
+    
+    /**
+     * Count and total the throws of completed games matching the filters
+     */
+    @GET
+    @Path("/throws")
+    @RateLimited(expensive = true)
+    @Operation(summary = "Scan archived throws", description = "Counts and totals the throws of completed games by sector, multiplier, player, game and date, optionally grouped, from the columnar archive without querying the database")
+    public Response scanThrows(@QueryParam("sector") Integer sector,
+                               @QueryParam("multiplier") Integer multiplier,
+                               @QueryParam("playerId") Long playerId,
+                               @QueryParam("gameId") Long gameId,
+                               @QueryParam("from") LocalDate from,
+                               @QueryParam("to") LocalDate to,
+                               @QueryParam("groupBy") @DefaultValue("NONE") ThrowArchive.GroupBy groupBy) {
+        try {
+            ArchiveScanDTO dto = throwArchive.scan(
+                new ThrowArchive.Query(sector, multiplier, playerId, gameId, from, to, groupBy));
+            return Response.ok(dto).build();
+        } catch (BadRequestException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new GameResource.ErrorResponse(e.getMessage()))
+                .build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                .entity(new GameResource.ErrorResponse(e.getMessage()))
+                .build();
+        }
+    }
+}
\ No newline at end of file
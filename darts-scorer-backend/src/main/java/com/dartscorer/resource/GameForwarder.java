@@ -0,0 +1,102 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.config.ForwardableBodyInterceptor;
+import com.dartscorer.config.RateLimitFilter;
+import com.dartscorer.service.GameOwnedElsewhereException;
+import io.quarkus.vertx.http.runtime.CurrentVertxRequest;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Forwards game mutations to the backend instance that owns the game.
+ *
+ * The body is sent as the client sent it, with its content type, so a
+ * binary throw reaches the owner as such and nothing is lost or changed by
+ * reading it back; endpoints with a body are {@link com.dartscorer.config.Forwardable}.
+ */
+@ApplicationScoped
+public class GameForwarder {
+    
+    private static final Logger LOG = Logger.getLogger(GameForwarder.class);
+    
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    
+    @Inject
+    CurrentVertxRequest currentRequest;
+    
+    @ConfigProperty(name = "darts.instance.forward-secret")
+    Optional<String> forwardSecret;
+    
+    private final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(TIMEOUT)
+        .build();
+    
+    /**
+     * Send a request to the owner of a game and return its response as is, in the format the client accepts
+     *
+     * @param path request path and query, starting with /api
+     */
+    public Response forward(GameOwnedElsewhereException owner, String method, String path) {
+        return forward(owner, method, path, null);
+    }
+    
+    /**
+     * Send a request to the owner of a game with its idempotency key, so the owner deduplicates retries too
+     */
+    public Response forward(GameOwnedElsewhereException owner, String method, String path, String idempotencyKey) {
+        if (owner.ownerUrl == null) {
+            return Response.status(Response.Status.CONFLICT)
+                .entity(new GameResource.ErrorResponse(owner.getMessage()))
+                .build();
+        }
+        try {
+            RoutingContext current = currentRequest.getCurrent();
+            byte[] body = current != null ? current.get(ForwardableBodyInterceptor.BODY) : null;
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(owner.ownerUrl + path))
+                .timeout(TIMEOUT)
+                .method(method, body != null
+                    ? HttpRequest.BodyPublishers.ofByteArray(body)
+                    : HttpRequest.BodyPublishers.noBody());
+            if (idempotencyKey != null) {
+                request.header(GameResource.IDEMPOTENCY_KEY, idempotencyKey);
+            }
+            // The owner does not charge the rate limits again
+            forwardSecret.ifPresent(secret -> request.header(RateLimitFilter.FORWARD_SECRET, secret));
+            String contentType = current != null ? current.request().getHeader(HttpHeaders.CONTENT_TYPE) : null;
+            if (contentType != null) {
+                request.header(HttpHeaders.CONTENT_TYPE, contentType);
+            }
+            String accept = current != null ? current.request().getHeader(HttpHeaders.ACCEPT) : null;
+            if (accept != null) {
+                request.header(HttpHeaders.ACCEPT, accept);
+            }
+            HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            return Response.status(response.statusCode())
+                .entity(response.body().length == 0 ? null : response.body())
+                .type(response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElse(MediaType.APPLICATION_JSON))
+                .build();
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            LOG.warnf("Cannot forward game %d to instance %s: %s", owner.gameId, owner.ownerId, e.getMessage());
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .entity(new GameResource.ErrorResponse("Owner of the game is unreachable"))
+                .build();
+        }
+    }
+}
\ No newline at end of file
@@ -1,39 +1,88 @@
 package com.dartscorer.resource;
 
+import com.dartscorer.config.Forwardable;
+import com.dartscorer.config.Profiled;
+import com.dartscorer.config.RateLimited;
+import com.dartscorer.config.ReplicaRead;
 import com.dartscorer.dto.*;
+import com.dartscorer.event.GamePhaseEvent;
 import com.dartscorer.model.Game;
+import com.dartscorer.service.BoardPositionResolver;
+import com.dartscorer.service.DeviceIngestionService;
+import com.dartscorer.service.GameOwnedElsewhereException;
 import com.dartscorer.service.GameService;
+import com.dartscorer.service.MatchImportService;
+import com.dartscorer.service.ReplayService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
- * REST API for game management
+ * REST API for game management.
+ *
+ * Requests run on virtual threads, so a blocking database call does not hold
+ * a worker thread (see quarkus.virtual-threads.enabled). Game state and throws
+ * are also available in the compact {@link BinaryWireFormat} for devices.
+ * Endpoints returning a game state take {@link GameStateParams}, so a client
+ * gets, and the server computes, only the sections it shows.
  */
 @Path("/api/games")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 @Tag(name = "Games", description = "Game management operations")
+@RunOnVirtualThread
 public class GameResource {
     
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    
+    static final String NDJSON = "application/x-ndjson";
+    
     @Inject
     GameService gameService;
     
+    @Inject
+    GameForwarder gameForwarder;
+    
+    @Inject
+    MatchImportService matchImportService;
+    
+    @Inject
+    IdempotencyStore idempotencyStore;
+    
+    @Inject
+    BoardPositionResolver boardPositionResolver;
+    
+    @Inject
+    DeviceIngestionService deviceIngestionService;
+    
+    @Inject
+    ReplayService replayService;
+    
+    @Inject
+    ObjectMapper objectMapper;
+    
     /**
      * Create a new game
      */
     @POST
     @Operation(summary = "Create a new game", description = "Creates a new game with specified mode and players")
-    public Response createGame(CreateGameRequest request) {
+    public Response createGame(CreateGameRequest request, @BeanParam GameStateParams params) {
         try {
+            GameStateDTO.Projection projection = params.projection();
             Game game = gameService.createGame(request.gameMode, request.playerNames);
-            GameStateDTO dto = GameStateDTO.from(game);
+            GameStateDTO dto = GameStateDTO.from(game, projection);
             return Response.status(Response.Status.CREATED).entity(dto).build();
         } catch (BadRequestException e) {
             return Response.status(Response.Status.BAD_REQUEST)
@@ -42,34 +91,190 @@ public class GameResource {
         }
     }
     
+    /**
+     * Import matches recorded offline
+     */
+    @POST
+    @Path("/import")
+    @Operation(summary = "Import matches", description = "Imports complete matches recorded offline, validating every dart with the game rules")
+    public Response importMatches(List<ImportMatchRequest> matches) {
+        try {
+            ImportResultDTO result = matchImportService.importMatches(matches);
+            return Response.status(Response.Status.CREATED).entity(result).build();
+        } catch (BadRequestException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        }
+    }
+    
+    /**
+     * Queue the events pushed by an electronic board.
+     *
+     * Events are applied in the background in arrival order. When the buffers
+     * are full the response is 503 with the number of events accepted, and
+     * the device sends the remaining ones again after Retry-After. The events
+     * of a game owned by another instance are forwarded to it, or refused with
+     * 409 when they come with the events of other games.
+     */
+    @POST
+    @Path("/events")
+    @Forwardable
+    @Operation(summary = "Ingest device events", description = "Queues throws and turn changes pushed by electronic boards, applied in the background in micro-batches")
+    public Response ingestEvents(List<DeviceEventRequest> events) {
+        try {
+            IngestResultDTO result = deviceIngestionService.ingest(events);
+            if (result.rejected > 0) {
+                return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", 1)
+                    .entity(result)
+                    .build();
+            }
+            return Response.accepted(result).build();
+        } catch (NotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        } catch (BadRequestException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        } catch (GameOwnedElsewhereException e) {
+            return gameForwarder.forward(e, "POST", "/api/games/events");
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        }
+    }
+    
     /**
      * Get game state by ID
      */
     @GET
     @Path("/{id}")
-    @Operation(summary = "Get game state", description = "Retrieves the current state of a game")
-    public Response getGame(@PathParam("id") Long id) {
+    @ReplicaRead
+    @Produces({MediaType.APPLICATION_JSON, BinaryWireFormat.MEDIA_TYPE})
+    @Operation(summary = "Get game state", description = "Retrieves the current state of a game, optionally only the sections listed in fields and the given number of recent turns")
+    public Response getGame(@PathParam("id") Long id, @BeanParam GameStateParams params) {
         try {
-            Game game = gameService.getGame(id);
-            GameStateDTO dto = GameStateDTO.from(game);
+            GameStateDTO.Projection projection = params.projection();
+            Game game = gameService.readGame(id, projection.readsTurns());
+            GameStateDTO dto = GameStateDTO.from(game, projection);
             return Response.ok(dto).build();
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                 .entity(new ErrorResponse(e.getMessage()))
                 .build();
+        } catch (BadRequestException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
         }
     }
     
     /**
-     * Record a throw
+     * Record a throw.
+     *
+     * A retry sent with the same Idempotency-Key header gets the original
+     * response back and records nothing.
      */
     @POST
     @Path("/{id}/throw")
-    @Operation(summary = "Record a throw", description = "Records a dart throw in the current turn")
-    public Response recordThrow(@PathParam("id") Long id, RecordThrowRequest request) {
+    @RateLimited(perGame = true)
+    @Profiled(GamePhaseEvent.RECORD_THROW)
+    @Forwardable
+    @Consumes({MediaType.APPLICATION_JSON, BinaryWireFormat.MEDIA_TYPE})
+    @Produces({MediaType.APPLICATION_JSON, BinaryWireFormat.MEDIA_TYPE})
+    @Operation(summary = "Record a throw", description = "Records a dart throw in the current turn. Retries with the same Idempotency-Key header replay the original response")
+    public Response recordThrow(@PathParam("id") Long id, RecordThrowRequest request,
+                                @HeaderParam(IDEMPOTENCY_KEY) String idempotencyKey,
+                                @BeanParam GameStateParams params) {
+        Object fingerprint = request != null ? Arrays.asList(request.sector, request.multiplier) : null;
+        return idempotencyStore.execute("throw/" + id, idempotencyKey, fingerprint, () -> {
+            try {
+                GameStateDTO.Projection projection = params.projection();
+                Game game = gameService.recordThrow(id, request.sector, request.multiplier);
+                GamePhaseEvent phase = GamePhaseEvent.start(GamePhaseEvent.RECORD_THROW, "dto", id);
+                GameStateDTO dto = GameStateDTO.from(game, projection);
+                phase.finish(game);
+                return Response.ok(dto).build();
+            } catch (NotFoundException e) {
+                return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+            } catch (BadRequestException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+            } catch (GameOwnedElsewhereException e) {
+                return gameForwarder.forward(e, "POST", params.appendTo("/api/games/" + id + "/throw"),
+                    idempotencyKey);
+            }
+        });
+    }
+    
+    /**
+     * Record a throw from the position of the dart, as reported by a scoring camera.
+     *
+     * The position is resolved to a sector and multiplier with the calibration
+     * of the board, then recorded like any other throw.
+     */
+    @POST
+    @Path("/{id}/throw/position")
+    @RateLimited(perGame = true)
+    @Profiled(GamePhaseEvent.RECORD_THROW)
+    @Forwardable
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, BinaryWireFormat.MEDIA_TYPE})
+    @Operation(summary = "Record a throw by position", description = "Records a dart throw from its position on the board in millimetres from the centre, using the calibration of the board if one is given")
+    public Response recordThrowAt(@PathParam("id") Long id, BoardPositionRequest request,
+                                  @HeaderParam(IDEMPOTENCY_KEY) String idempotencyKey,
+                                  @BeanParam GameStateParams params) {
+        Object fingerprint = request != null ? Arrays.asList(request.boardId, request.x, request.y) : null;
+        return idempotencyStore.execute("throw/" + id, idempotencyKey, fingerprint, () -> {
+            try {
+                if (request == null) {
+                    throw new BadRequestException("Position x and y are required");
+                }
+                GameStateDTO.Projection projection = params.projection();
+                BoardPositionResolver.Hit hit = boardPositionResolver.resolve(request.boardId, request.x, request.y);
+                Game game = gameService.recordThrow(id, hit.sector(), hit.multiplier());
+                GamePhaseEvent phase = GamePhaseEvent.start(GamePhaseEvent.RECORD_THROW, "dto", id);
+                GameStateDTO dto = GameStateDTO.from(game, projection);
+                phase.finish(game);
+                return Response.ok(dto).build();
+            } catch (NotFoundException e) {
+                return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+            } catch (BadRequestException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+            } catch (GameOwnedElsewhereException e) {
+                return gameForwarder.forward(e, "POST", params.appendTo("/api/games/" + id + "/throw/position"),
+                    idempotencyKey);
+            }
+        });
+    }
+    
+    /**
+     * Move to next player
+     */
+    @POST
+    @Path("/{id}/next-player")
+    @RateLimited(perGame = true)
+    @Profiled(GamePhaseEvent.NEXT_PLAYER)
+    @Produces({MediaType.APPLICATION_JSON, BinaryWireFormat.MEDIA_TYPE})
+    @Operation(summary = "Next player", description = "Moves to the next player's turn")
+    public Response nextPlayer(@PathParam("id") Long id, @BeanParam GameStateParams params) {
         try {
-            Game game = gameService.recordThrow(id, request.sector, request.multiplier);
-            GameStateDTO dto = GameStateDTO.from(game);
+            GameStateDTO.Projection projection = params.projection();
+            Game game = gameService.nextPlayer(id);
+            GamePhaseEvent phase = GamePhaseEvent.start(GamePhaseEvent.NEXT_PLAYER, "dto", id);
+            GameStateDTO dto = GameStateDTO.from(game, projection);
+            phase.finish(game);
             return Response.ok(dto).build();
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
@@ -79,19 +284,25 @@ public class GameResource {
             return Response.status(Response.Status.BAD_REQUEST)
                 .entity(new ErrorResponse(e.getMessage()))
                 .build();
+        } catch (GameOwnedElsewhereException e) {
+            return gameForwarder.forward(e, "POST", params.appendTo("/api/games/" + id + "/next-player"));
         }
     }
     
     /**
-     * Move to next player
+     * Undo the last throws
      */
     @POST
-    @Path("/{id}/next-player")
-    @Operation(summary = "Next player", description = "Moves to the next player's turn")
-    public Response nextPlayer(@PathParam("id") Long id) {
+    @Path("/{id}/undo")
+    @RateLimited(perGame = true)
+    @Produces({MediaType.APPLICATION_JSON, BinaryWireFormat.MEDIA_TYPE})
+    @Operation(summary = "Undo throws", description = "Reverts the last throws, going back to the previous player if needed")
+    public Response undoThrows(@PathParam("id") Long id, @QueryParam("steps") @DefaultValue("1") int steps,
+                               @BeanParam GameStateParams params) {
         try {
-            Game game = gameService.nextPlayer(id);
-            GameStateDTO dto = GameStateDTO.from(game);
+            GameStateDTO.Projection projection = params.projection();
+            Game game = gameService.undoThrows(id, steps);
+            GameStateDTO dto = GameStateDTO.from(game, projection);
             return Response.ok(dto).build();
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
@@ -101,6 +312,8 @@ public class GameResource {
             return Response.status(Response.Status.BAD_REQUEST)
                 .entity(new ErrorResponse(e.getMessage()))
                 .build();
+        } catch (GameOwnedElsewhereException e) {
+            return gameForwarder.forward(e, "POST", params.appendTo("/api/games/" + id + "/undo?steps=" + steps));
         }
     }
     
@@ -109,6 +322,8 @@ public class GameResource {
      */
     @GET
     @Path("/{id}/history")
+    @RateLimited(expensive = true)
+    @ReplicaRead
     @Operation(summary = "Get game history", description = "Retrieves the history of all turns in the game")
     public Response getGameHistory(@PathParam("id") Long id) {
         try {
@@ -124,6 +339,74 @@ public class GameResource {
         }
     }
     
+    /**
+     * Get the state of a game at a past dart
+     */
+    @GET
+    @Path("/{id}/replay")
+    @ReplicaRead
+    @Produces({MediaType.APPLICATION_JSON, BinaryWireFormat.MEDIA_TYPE})
+    @Operation(summary = "Replay game state", description = "Retrieves the state of a game after the given number of darts of a turn (all of them if omitted)")
+    public Response getReplayState(@PathParam("id") Long id,
+                                   @QueryParam("turn") Integer turn,
+                                   @QueryParam("darts") Integer darts) {
+        if (turn == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse("Turn is required"))
+                .build();
+        }
+        try {
+            GameStateDTO dto = replayService.getStateAt(id, turn, darts);
+            return Response.ok(dto).build();
+        } catch (NotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        } catch (BadRequestException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        }
+    }
+    
+    /**
+     * Stream the state of a game after each dart, as newline-delimited JSON
+     */
+    @GET
+    @Path("/{id}/replay/stream")
+    @RateLimited(expensive = true)
+    @ReplicaRead
+    @Produces({NDJSON, MediaType.APPLICATION_JSON})
+    @Operation(summary = "Play through game", description = "Streams the state of a game after each dart from the given turn, one JSON document per line")
+    public Response playThrough(@PathParam("id") Long id, @QueryParam("fromTurn") @DefaultValue("0") int fromTurn) {
+        try {
+            replayService.checkTurn(id, fromTurn);
+        } catch (NotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        } catch (BadRequestException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        }
+        StreamingOutput stream = output -> {
+            try {
+                replayService.playThrough(id, fromTurn, frame -> {
+                    try {
+                        output.write(objectMapper.writeValueAsBytes(frame));
+                        output.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return Response.ok(stream, NDJSON).build();
+    }
+    
     /**
      * Delete a game
      */
@@ -138,6 +421,8 @@ public class GameResource {
             return Response.status(Response.Status.NOT_FOUND)
                 .entity(new ErrorResponse(e.getMessage()))
                 .build();
+        } catch (GameOwnedElsewhereException e) {
+            return gameForwarder.forward(e, "DELETE", "/api/games/" + id);
         }
     }
     
@@ -145,11 +430,21 @@ public class GameResource {
      * Get all active games
      */
     @GET
-    @Operation(summary = "Get active games", description = "Retrieves all games currently in progress")
-    public Response getActiveGames() {
+    @RateLimited(expensive = true)
+    @ReplicaRead
+    @Operation(summary = "Get active games", description = "Retrieves all games currently in progress, optionally only the sections listed in fields and the given number of recent turns")
+    public Response getActiveGames(@BeanParam GameStateParams params) {
+        GameStateDTO.Projection projection;
+        try {
+            projection = params.projection();
+        } catch (BadRequestException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ErrorResponse(e.getMessage()))
+                .build();
+        }
         List<Game> games = gameService.getActiveGames();
         List<GameStateDTO> dtos = games.stream()
-            .map(GameStateDTO::from)
+            .map(game -> GameStateDTO.from(game, projection))
             .collect(Collectors.toList());
         return Response.ok(dtos).build();
     }
@@ -0,0 +1,79 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.dto.BinaryWireFormat;
+import com.dartscorer.dto.GameStateDTO;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.HttpHeaders;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Query parameters choosing the sections of the game state returned by an endpoint.
+ *
+ * {@code fields} is a comma-separated list of section names, as in the JSON
+ * response ({@code currentTurn,playerScores}); without it every section is
+ * returned. {@code recentTurns} is the number of recent turns, 10 by default.
+ * The binary format always carries the players and their scores, which the
+ * rest of its frame refers to.
+ */
+public class GameStateParams {
+    
+    @QueryParam("fields")
+    String fields;
+    
+    @QueryParam("recentTurns")
+    Integer recentTurns;
+    
+    @HeaderParam(HttpHeaders.ACCEPT)
+    String accept;
+    
+    /**
+     * Sections and recent turns requested
+     *
+     * @throws BadRequestException for an unknown section or a number of turns out of range
+     */
+    GameStateDTO.Projection projection() {
+        if (recentTurns != null && (recentTurns < 0 || recentTurns > GameStateDTO.MAX_RECENT_TURNS)) {
+            throw new BadRequestException("Recent turns must be between 0 and " + GameStateDTO.MAX_RECENT_TURNS);
+        }
+        int turns = recentTurns != null ? recentTurns : GameStateDTO.RECENT_TURNS;
+        if (fields == null || fields.isBlank()) {
+            return turns == GameStateDTO.RECENT_TURNS
+                ? GameStateDTO.Projection.ALL
+                : new GameStateDTO.Projection(GameStateDTO.Projection.ALL.sections(), turns);
+        }
+        Set<GameStateDTO.Section> sections = EnumSet.noneOf(GameStateDTO.Section.class);
+        for (String field : fields.split(",")) {
+            GameStateDTO.Section section = GameStateDTO.Section.ofField(field.trim());
+            if (section == null) {
+                throw new BadRequestException("Unknown field: " + field.trim());
+            }
+            sections.add(section);
+        }
+        if (accept != null && accept.contains(BinaryWireFormat.MEDIA_TYPE)) {
+            sections.add(GameStateDTO.Section.PLAYERS);
+            sections.add(GameStateDTO.Section.PLAYER_SCORES);
+        }
+        return new GameStateDTO.Projection(sections, turns);
+    }
+    
+    /**
+     * Add the parameters to the path of a request forwarded to the owner of the game
+     */
+    String appendTo(String path) {
+        StringBuilder uri = new StringBuilder(path);
+        if (fields != null) {
+            uri.append(uri.indexOf("?") < 0 ? '?' : '&')
+                .append("fields=").append(URLEncoder.encode(fields, StandardCharsets.UTF_8));
+        }
+        if (recentTurns != null) {
+            uri.append(uri.indexOf("?") < 0 ? '?' : '&').append("recentTurns=").append(recentTurns);
+        }
+        return uri.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.dartscorer.resource;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Responses of recent requests sent with an idempotency key.
+ *
+ * A retry with the same key gets the stored response back without running
+ * the request again. A retry arriving while the first request is still
+ * running waits a few seconds for its response, then gets 409 and can try
+ * again later. Entries expire after a fixed time and the
+ * oldest ones are evicted once the store is full. Server errors are not
+ * stored, so the request can be retried.
+ */
+@ApplicationScoped
+public class IdempotencyStore {
+    
+    /**
+     * Response of a request, kept with the request it answered
+     */
+    private record Entry(Object request, long expiresAt, CompletableFuture<StoredResponse> response) {
+    }
+    
+    private record StoredResponse(int status, Object entity, String contentType) {
+    }
+    
+    private record Key(String scope, String key) {
+    }
+    
+    /**
+     * Position of an entry in the eviction queue, stale once its key has been given another entry
+     */
+    private record Queued(Key key, Entry entry) {
+    }
+    
+    @ConfigProperty(name = "darts.idempotency.ttl", defaultValue = "10m")
+    Duration ttl;
+    
+    @ConfigProperty(name = "darts.idempotency.max-entries", defaultValue = "10000")
+    int maxEntries;
+    
+    /**
+     * How long a retry waits for the request still running with the same key
+     */
+    @ConfigProperty(name = "darts.idempotency.wait-timeout", defaultValue = "5s")
+    Duration waitTimeout;
+    
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    
+    /**
+     * Entries in insertion order, which is also expiry order
+     */
+    private final Queue<Queued> order = new ConcurrentLinkedQueue<>();
+    
+    /**
+     * Run a request once per key and scope
+     *
+     * @param scope what the key applies to, so keys of different games never collide
+     * @param key idempotency key sent by the client, or null to always run the request
+     * @param request request body, to detect a key reused for a different request
+     * @param action runs the request
+     */
+    public Response execute(String scope, String key, Object request, Supplier<Response> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        long now = System.nanoTime();
+        evict(now);
+        
+        Key id = new Key(scope, key);
+        Entry entry = new Entry(request, now + ttl.toNanos(), new CompletableFuture<>());
+        Entry existing = entries.putIfAbsent(id, entry);
+        if (existing != null && existing.expiresAt - now > 0) {
+            return replay(existing, request);
+        }
+        if (existing != null) {
+            if (!entries.replace(id, existing, entry)) {
+                // Another retry replaced the expired entry first
+                return execute(scope, key, request, action);
+            }
+            order.remove(new Queued(id, existing));
+        }
+        order.add(new Queued(id, entry));
+        
+        Response response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            entries.remove(id, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+        if (response.getStatus() >= 500) {
+            entries.remove(id, entry);
+        }
+        entry.response.complete(new StoredResponse(response.getStatus(), response.getEntity(),
+            response.getHeaderString("Content-Type")));
+        return response;
+    }
+    
+    /**
+     * Number of stored responses
+     */
+    public int size() {
+        return entries.size();
+    }
+    
+    private Response replay(Entry entry, Object request) {
+        if (!Objects.equals(entry.request, request)) {
+            return Response.status(422)
+                .entity(new GameResource.ErrorResponse("Idempotency key was already used for a different request"))
+                .build();
+        }
+        StoredResponse stored;
+        try {
+            stored = entry.response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return inProgress();
+        } catch (ExecutionException | TimeoutException e) {
+            return inProgress();
+        }
+        Response.ResponseBuilder builder = Response.status(stored.status).entity(stored.entity);
+        if (stored.contentType != null) {
+            builder.type(stored.contentType);
+        }
+        return builder.header("Idempotent-Replayed", "true").build();
+    }
+    
+    private static Response inProgress() {
+        return Response.status(Response.Status.CONFLICT)
+            .entity(new GameResource.ErrorResponse("A request with the same idempotency key did not complete"))
+            .build();
+    }
+    
+    /**
+     * Drop expired entries from the head of the queue, then the oldest ones beyond the limit.
+     *
+     * Entries still running are kept, the retry would otherwise run the
+     * request again, and moved to the tail so the ones behind them can be
+     * dropped; each is skipped at most once per call.
+     */
+    private void evict(long now) {
+        Queued firstRunning = null;
+        Queued oldest;
+        while ((oldest = order.peek()) != null && oldest != firstRunning) {
+            Entry entry = entries.get(oldest.key);
+            if (entry != oldest.entry) {
+                // Removed, or replaced by a newer entry queued behind
+                order.remove(oldest);
+                continue;
+            }
+            if (entry.expiresAt - now > 0 && entries.size() < maxEntries) {
+                return;
+            }
+            if (!order.remove(oldest)) {
+                continue;
+            }
+            if (entry.response.isDone()) {
+                entries.remove(oldest.key, entry);
+            } else {
+                order.add(oldest);
+                if (firstRunning == null) {
+                    firstRunning = oldest;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
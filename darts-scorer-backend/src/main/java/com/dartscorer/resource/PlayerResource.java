@@ -1,7 +1,23 @@
 package com.dartscorer.resource;
 
+import com.dartscorer.config.ReplicaRead;
+import com.dartscorer.dto.HeadToHeadDTO;
+import com.dartscorer.dto.HeatmapDTO;
+import com.dartscorer.dto.LeaderboardEntryDTO;
+import com.dartscorer.dto.PeriodStatsDTO;
 import com.dartscorer.dto.PlayerDTO;
+import com.dartscorer.event.PlayerEvent;
 import com.dartscorer.model.Player;
+import com.dartscorer.service.DailyStatsService;
+import com.dartscorer.service.HeadToHeadService;
+import com.dartscorer.service.HeatmapService;
+import com.dartscorer.service.LeaderboardService;
+import com.dartscorer.service.PlayerSearchIndex;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.event.Event;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -9,6 +25,7 @@ import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,21 +36,183 @@ import java.util.stream.Collectors;
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 @Tag(name = "Players", description = "Player management operations")
+@RunOnVirtualThread
 public class PlayerResource {
     
+    static final String TOTAL_COUNT = "X-Total-Count";
+    
+    private static final int MAX_PAGE_SIZE = 200;
+    
+    @Inject
+    LeaderboardService leaderboardService;
+    
+    @Inject
+    HeatmapService heatmapService;
+    
+    @Inject
+    DailyStatsService dailyStatsService;
+    
+    @Inject
+    PlayerSearchIndex playerSearchIndex;
+    
+    @Inject
+    HeadToHeadService headToHeadService;
+    
+    @Inject
+    Event<PlayerEvent> playerEvents;
+    
     /**
-     * Get all players
+     * Get a page of players, ordered by name.
+     *
+     * The total number of players is returned in the X-Total-Count header.
      */
     @GET
-    @Operation(summary = "Get all players", description = "Retrieves all registered players")
-    public Response getAllPlayers() {
-        List<Player> players = Player.listAll();
+    @ReplicaRead
+    @Operation(summary = "Get players", description = "Retrieves a page of registered players ordered by name, with the total in the X-Total-Count header")
+    public Response getAllPlayers(@QueryParam("page") @DefaultValue("0") int page,
+                                  @QueryParam("size") @DefaultValue("50") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new GameResource.ErrorResponse("Page must not be negative and size must be between 1 and " + MAX_PAGE_SIZE))
+                .build();
+        }
+        List<Player> players = Player.findAll(Sort.by("name").and("id"))
+            .page(Page.of(page, size))
+            .list();
         List<PlayerDTO> dtos = players.stream()
             .map(PlayerDTO::from)
             .collect(Collectors.toList());
+        return Response.ok(dtos).header(TOTAL_COUNT, Player.count()).build();
+    }
+    
+    /**
+     * Search players by name prefix
+     */
+    @GET
+    @Path("/search")
+    @Operation(summary = "Search players", description = "Retrieves the players with a name word starting with the given prefix, ignoring case and accents")
+    public Response searchPlayers(@QueryParam("q") String query,
+                                  @QueryParam("limit") @DefaultValue("10") int limit) {
+        if (query == null || query.isBlank()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new GameResource.ErrorResponse("Query is required"))
+                .build();
+        }
+        if (limit < 1 || limit > 50) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new GameResource.ErrorResponse("Limit must be between 1 and 50"))
+                .build();
+        }
+        return Response.ok(playerSearchIndex.search(query, limit)).build();
+    }
+    
+    /**
+     * Get a leaderboard
+     */
+    @GET
+    @Path("/leaderboard")
+    @Operation(summary = "Get leaderboard", description = "Retrieves the top players by three-dart average, wins or highest checkout")
+    public Response getLeaderboard(@QueryParam("category") @DefaultValue("AVERAGE") LeaderboardService.Category category,
+                                   @QueryParam("limit") @DefaultValue("10") int limit) {
+        if (limit < 1 || limit > 100) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new GameResource.ErrorResponse("Limit must be between 1 and 100"))
+                .build();
+        }
+        List<LeaderboardEntryDTO> entries = leaderboardService.getTop(category, limit);
+        return Response.ok(entries).build();
+    }
+    
+    /**
+     * Get the rank of a player
+     */
+    @GET
+    @Path("/{id}/rank")
+    @Operation(summary = "Get player rank", description = "Retrieves the position of a player in a leaderboard")
+    public Response getPlayerRank(@PathParam("id") Long id,
+                                  @QueryParam("category") @DefaultValue("AVERAGE") LeaderboardService.Category category) {
+        LeaderboardEntryDTO entry = leaderboardService.getRank(category, id);
+        if (entry == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                .entity(new GameResource.ErrorResponse("Player is not ranked"))
+                .build();
+        }
+        return Response.ok(entry).build();
+    }
+    
+    /**
+     * Get the sector heatmap of a player
+     */
+    @GET
+    @Path("/{id}/heatmap")
+    @Operation(summary = "Get player heatmap", description = "Retrieves the hit count per sector and multiplier, optionally between two dates")
+    public Response getHeatmap(@PathParam("id") Long id,
+                               @QueryParam("from") LocalDate from,
+                               @QueryParam("to") LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new GameResource.ErrorResponse("From date must not be after to date"))
+                .build();
+        }
+        HeatmapDTO dto = heatmapService.getHeatmap(id, from, to);
+        return Response.ok(dto).build();
+    }
+    
+    /**
+     * Get the totals of a player over the last days
+     */
+    @GET
+    @Path("/{id}/stats/rolling")
+    @Operation(summary = "Get player rolling statistics", description = "Retrieves darts, points, busts, checkouts and three-dart average over the last 7, 30 and 90 days, or the given numbers of days")
+    public Response getRollingStats(@PathParam("id") Long id,
+                                    @QueryParam("days") List<Integer> days) {
+        List<Integer> windows = days == null || days.isEmpty() ? List.of(7, 30, 90) : days;
+        if (windows.stream().anyMatch(window -> window == null || window < 1 || window > 3660)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new GameResource.ErrorResponse("Days must be between 1 and 3660"))
+                .build();
+        }
+        List<PeriodStatsDTO> dtos = windows.stream()
+            .map(window -> dailyStatsService.getRolling(id, window))
+            .collect(Collectors.toList());
         return Response.ok(dtos).build();
     }
     
+    /**
+     * Get the totals of a player for each day, for form graphs
+     */
+    @GET
+    @Path("/{id}/stats/daily")
+    @Operation(summary = "Get player daily statistics", description = "Retrieves darts, points, busts, checkouts and three-dart average for each day the player threw, by default over the last 90 days")
+    public Response getDailyStats(@PathParam("id") Long id,
+                                  @QueryParam("from") LocalDate from,
+                                  @QueryParam("to") LocalDate to) {
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(89);
+        if (first.isAfter(last)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new GameResource.ErrorResponse("From date must not be after to date"))
+                .build();
+        }
+        return Response.ok(dailyStatsService.getDaily(id, first, last)).build();
+    }
+    
+    /**
+     * Get the record of a player against an opponent
+     */
+    @GET
+    @Path("/{id}/head-to-head/{opponentId}")
+    @Operation(summary = "Get head-to-head record", description = "Retrieves games, wins, three-dart averages and highest checkouts of two players in the completed games they played together")
+    public Response getHeadToHead(@PathParam("id") Long id, @PathParam("opponentId") Long opponentId) {
+        if (id.equals(opponentId)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new GameResource.ErrorResponse("A player has no head-to-head record with themselves"))
+                .build();
+        }
+        HeadToHeadDTO dto = headToHeadService.getHeadToHead(id, opponentId);
+        return Response.ok(dto).build();
+    }
+    
     /**
      * Get player by ID
      */
@@ -67,6 +246,7 @@ public class PlayerResource {
         
         Player player = new Player(playerDTO.name);
         player.persist();
+        playerEvents.fire(new PlayerEvent(player.id, player.name, false));
         
         return Response.status(Response.Status.CREATED)
             .entity(PlayerDTO.from(player))
@@ -89,6 +269,7 @@ public class PlayerResource {
         }
         
         player.delete();
+        playerEvents.fire(new PlayerEvent(player.id, player.name, true));
         return Response.noContent().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.dartscorer.rules;
+
+/**
+ * Cricket rules - close 15 to 20 and the bull, score on numbers the opponents have not closed.
+ *
+ * The state of a player is packed in a single {@code long}: the low 14 bits
+ * hold the marks (0-3) of the seven targets, two bits per target, and the
+ * high 32 bits hold the points. A game keeps one such value per player and
+ * every dart updates it in place.
+ */
+public final class CricketRules implements GameRules {
+    
+    public static final CricketRules STANDARD = new CricketRules(false);
+    public static final CricketRules CUT_THROAT = new CricketRules(true);
+    
+    /**
+     * Sectors to close, in target index order
+     */
+    public static final int[] TARGETS = {15, 16, 17, 18, 19, 20, 25};
+    
+    public static final int MARKS_TO_CLOSE = 3;
+    
+    /**
+     * Low bit of every target's mark pair, set when all seven targets are closed
+     */
+    private static final long ALL_CLOSED = 0x1555L;
+    private static final long MARKS_MASK = 0x3FFFL;
+    
+    private final boolean cutThroat;
+    
+    private CricketRules(boolean cutThroat) {
+        this.cutThroat = cutThroat;
+    }
+    
+    /**
+     * Whether points go to the opponents (lowest score wins)
+     */
+    public boolean isCutThroat() {
+        return cutThroat;
+    }
+    
+    @Override
+    public int startingScore() {
+        return 0;
+    }
+    
+    /**
+     * Apply a dart to the packed state of all players.
+     *
+     * @param state packed state per player, updated in place
+     * @param player index of the thrower
+     * @return the effect of the dart (see {@link #effectMarks} and {@link #effectPoints})
+     */
+    public int applyThrow(long[] state, int player, int sector, int multiplier) {
+        int target = targetIndex(sector);
+        if (target < 0 || multiplier == 0) {
+            return 0;
+        }
+        
+        int marks = marks(state[player], target);
+        int total = marks + multiplier;
+        int added = Math.min(total, MARKS_TO_CLOSE) - marks;
+        int points = 0;
+        
+        if (total > MARKS_TO_CLOSE && isOpenForAnyOpponent(state, player, target)) {
+            points = (total - MARKS_TO_CLOSE) * sector;
+        }
+        
+        state[player] += (long) added << (target * 2);
+        addPoints(state, player, target, points);
+        
+        return added | points << 2;
+    }
+    
+    /**
+     * Revert a dart previously applied with {@link #applyThrow}.
+     *
+     * Darts must be reverted in reverse order, so the opponents' marks are
+     * the same as when the dart was thrown.
+     */
+    public void revertThrow(long[] state, int player, int sector, int effect) {
+        int target = targetIndex(sector);
+        if (target < 0 || effect == 0) {
+            return;
+        }
+        addPoints(state, player, target, -effectPoints(effect));
+        state[player] -= (long) effectMarks(effect) << (target * 2);
+    }
+    
+    /**
+     * Find the winner, if any.
+     *
+     * A player wins once all targets are closed and no opponent is ahead
+     * (standard) or below (cut-throat) in points.
+     *
+     * @return the index of the winner, or -1
+     */
+    public int findWinner(long[] state) {
+        for (int i = 0; i < state.length; i++) {
+            if (!hasClosedAll(state[i])) {
+                continue;
+            }
+            int points = points(state[i]);
+            boolean leads = true;
+            for (int j = 0; j < state.length && leads; j++) {
+                int other = points(state[j]);
+                leads = cutThroat ? points <= other : points >= other;
+            }
+            if (leads) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Give the points of a dart to the thrower, or to the opponents that have not closed the target
+     */
+    private void addPoints(long[] state, int player, int target, int points) {
+        if (points == 0) {
+            return;
+        }
+        if (!cutThroat) {
+            state[player] += (long) points << 32;
+            return;
+        }
+        for (int i = 0; i < state.length; i++) {
+            if (i != player && !isClosed(state[i], target)) {
+                state[i] += (long) points << 32;
+            }
+        }
+    }
+    
+    private static boolean isOpenForAnyOpponent(long[] state, int player, int target) {
+        for (int i = 0; i < state.length; i++) {
+            if (i != player && !isClosed(state[i], target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Map a sector to its target index, or -1 if the sector does not count
+     */
+    public static int targetIndex(int sector) {
+        if (sector == 25) {
+            return 6;
+        }
+        return sector >= 15 && sector <= 20 ? sector - 15 : -1;
+    }
+    
+    /**
+     * Marks of a player on a target
+     */
+    public static int marks(long playerState, int target) {
+        return (int) (playerState >>> (target * 2)) & 0x3;
+    }
+    
+    /**
+     * Points of a player
+     */
+    public static int points(long playerState) {
+        return (int) (playerState >> 32);
+    }
+    
+    /**
+     * Check if a player has closed a target
+     */
+    public static boolean isClosed(long playerState, int target) {
+        return marks(playerState, target) == MARKS_TO_CLOSE;
+    }
+    
+    /**
+     * Bitmask of the targets closed by a player (bit i set for target index i)
+     */
+    public static int closedTargets(long playerState) {
+        long marks = playerState & MARKS_MASK;
+        long closed = marks & (marks >>> 1) & ALL_CLOSED;
+        int mask = 0;
+        for (int target = 0; target < TARGETS.length; target++) {
+            mask |= (int) (closed >>> target) & (1 << target);
+        }
+        return mask;
+    }
+    
+    /**
+     * Bitmask of the targets closed by every player
+     */
+    public static int closedByAll(long[] state) {
+        int mask = (1 << TARGETS.length) - 1;
+        for (long playerState : state) {
+            mask &= closedTargets(playerState);
+        }
+        return mask;
+    }
+    
+    /**
+     * Check if a player has closed every target
+     */
+    public static boolean hasClosedAll(long playerState) {
+        long marks = playerState & MARKS_MASK;
+        return (marks & (marks >>> 1) & ALL_CLOSED) == ALL_CLOSED;
+    }
+    
+    /**
+     * Marks added by a dart
+     */
+    public static int effectMarks(int effect) {
+        return effect & 0x3;
+    }
+    
+    /**
+     * Points scored by a dart
+     */
+    public static int effectPoints(int effect) {
+        return effect >>> 2;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.dartscorer.rules;
+
+/**
+ * Rules of a game mode.
+ *
+ * Implementations are stateless and work on primitive state only, so a
+ * single instance is shared by every game of the same mode and the per-dart
+ * path never allocates or boxes.
+ */
+public interface GameRules {
+    
+    /**
+     * Score every player starts from
+     */
+    int startingScore();
+}
\ No newline at end of file
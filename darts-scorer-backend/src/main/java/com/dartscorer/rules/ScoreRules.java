@@ -0,0 +1,32 @@
+package com.dartscorer.rules;
+
+/**
+ * Rules where each dart only changes the thrower's own score (training, X01)
+ */
+public interface ScoreRules extends GameRules {
+    
+    /**
+     * Returned by {@link #applyThrow} when the dart busts the turn
+     */
+    int BUST = -1;
+    
+    /**
+     * Apply a dart to a player's score.
+     *
+     * @param score the player's score before the dart
+     * @param sector the sector hit (0 for a miss, 1-20, 25 for bull)
+     * @param multiplier the multiplier (0 for a miss, 1-3)
+     * @return the player's score after the dart, or {@link #BUST}
+     */
+    int applyThrow(int score, int sector, int multiplier);
+    
+    /**
+     * Check if a score reached by a valid dart wins the game
+     */
+    boolean isWinningScore(int score);
+    
+    /**
+     * Points credited to the player when their score goes from before to after
+     */
+    int pointsScored(int before, int after);
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.dartscorer.rules;
+
+/**
+ * Training rules - free scoring, every dart adds to the player's total
+ */
+public final class TrainingRules implements ScoreRules {
+    
+    public static final TrainingRules INSTANCE = new TrainingRules();
+    
+    private TrainingRules() {
+    }
+    
+    @Override
+    public int startingScore() {
+        return 0;
+    }
+    
+    @Override
+    public int applyThrow(int score, int sector, int multiplier) {
+        return score + sector * multiplier;
+    }
+    
+    @Override
+    public boolean isWinningScore(int score) {
+        return false;
+    }
+    
+    @Override
+    public int pointsScored(int before, int after) {
+        return after - before;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.dartscorer.rules;
+
+/**
+ * Countdown rules (301, 501, 701...) - start from a fixed score and reach exactly 0.
+ *
+ * The allowed finishing multipliers are kept as a bitmask indexed by
+ * multiplier, so checking a checkout is a shift instead of a switch.
+ */
+public final class X01Rules implements ScoreRules {
+    
+    private static final int SINGLE = 1 << 1;
+    private static final int DOUBLE = 1 << 2;
+    private static final int TRIPLE = 1 << 3;
+    
+    private final int startingScore;
+    private final boolean doubleIn;
+    private final int finishMultipliers;
+    
+    private X01Rules(int startingScore, boolean doubleIn, int finishMultipliers) {
+        this.startingScore = startingScore;
+        this.doubleIn = doubleIn;
+        this.finishMultipliers = finishMultipliers;
+    }
+    
+    /**
+     * Any dart can finish the game
+     */
+    public static X01Rules straightOut(int startingScore) {
+        return new X01Rules(startingScore, false, SINGLE | DOUBLE | TRIPLE);
+    }
+    
+    /**
+     * The game must be finished with a double (bullseye included)
+     */
+    public static X01Rules doubleOut(int startingScore) {
+        return new X01Rules(startingScore, false, DOUBLE);
+    }
+    
+    /**
+     * Scoring starts with a double and the game must be finished with a double
+     */
+    public static X01Rules doubleInDoubleOut(int startingScore) {
+        return new X01Rules(startingScore, true, DOUBLE);
+    }
+    
+    /**
+     * The game must be finished with a double or a triple
+     */
+    public static X01Rules masterOut(int startingScore) {
+        return new X01Rules(startingScore, false, DOUBLE | TRIPLE);
+    }
+    
+    @Override
+    public int startingScore() {
+        return startingScore;
+    }
+    
+    @Override
+    public int applyThrow(int score, int sector, int multiplier) {
+        // With double in, darts do not count until the player opens with a double
+        if (doubleIn && score == startingScore && multiplier != 2) {
+            return score;
+        }
+        
+        int next = score - sector * multiplier;
+        if (next < 0) {
+            return BUST;
+        }
+        if (next == 0) {
+            return (finishMultipliers & (1 << multiplier)) != 0 ? 0 : BUST;
+        }
+        // 1 cannot be checked out when a single is not a valid finish
+        if (next == 1 && (finishMultipliers & SINGLE) == 0) {
+            return BUST;
+        }
+        return next;
+    }
+    
+    @Override
+    public boolean isWinningScore(int score) {
+        return score == 0;
+    }
+    
+    @Override
+    public int pointsScored(int before, int after) {
+        return before - after;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.dartscorer.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * File holding one column of the throw archive: a fixed-width little-endian
+ * value per row, in row order.
+ *
+ * Rows are appended with positional writes and read through memory
+ * mappings of {@link #CHUNK_ROWS} rows each, so a chunk index always fits an
+ * int whatever the width. Mappings are kept and only the last, partial chunk
+ * is mapped again when the column grows.
+ */
+final class ArchiveColumn implements Closeable {
+    
+    /**
+     * Rows per mapping, 512 MB for the widest column
+     */
+    static final int CHUNK_ROWS = 1 << 26;
+    
+    final int width;
+    
+    private final FileChannel channel;
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+    private long mappedRows;
+    
+    ArchiveColumn(Path file, int width) throws IOException {
+        this.width = width;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    }
+    
+    /**
+     * Complete rows in the file, including any not committed yet
+     */
+    long rows() throws IOException {
+        return channel.size() / width;
+    }
+    
+    /**
+     * Drop the rows from a position on, left by an append that was not committed
+     */
+    synchronized void truncate(long rows) throws IOException {
+        if (channel.size() > rows * width) {
+            channel.truncate(rows * width);
+        }
+        chunks = new ByteBuffer[0];
+        mappedRows = 0;
+    }
+    
+    /**
+     * Write values from a row on, without forcing them to disk
+     */
+    void write(long row, ByteBuffer values) throws IOException {
+        long position = row * width;
+        while (values.hasRemaining()) {
+            position += channel.write(values, position);
+        }
+    }
+    
+    void force() throws IOException {
+        channel.force(false);
+    }
+    
+    /**
+     * Mappings covering the first rows of the column, chunk {@code i} starting at row {@code i * CHUNK_ROWS}
+     */
+    synchronized ByteBuffer[] map(long rows) throws IOException {
+        if (rows <= mappedRows) {
+            return chunks;
+        }
+        int count = (int) ((rows + CHUNK_ROWS - 1) / CHUNK_ROWS);
+        // The last chunk mapped so far may be partial
+        int first = mappedRows % CHUNK_ROWS == 0 ? chunks.length : chunks.length - 1;
+        ByteBuffer[] mapped = Arrays.copyOf(chunks, count);
+        for (int i = first; i < count; i++) {
+            long start = (long) i * CHUNK_ROWS;
+            long end = Math.min(rows, start + CHUNK_ROWS);
+            mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, start * width, (end - start) * width)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        chunks = mapped;
+        mappedRows = rows;
+        return mapped;
+    }
+    
+    long sizeBytes() throws IOException {
+        return channel.size();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
\ No newline at end of file
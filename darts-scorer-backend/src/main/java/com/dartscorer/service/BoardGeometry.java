@@ -0,0 +1,215 @@
+package com.dartscorer.service;
+
+/**
+ * Geometry of a standard dartboard, resolving a position to the sector and multiplier hit.
+ *
+ * Positions are in millimetres from the centre of the bull, with x towards
+ * the right and y towards the 20. Radii follow the plan: bullseye 6.35mm,
+ * bull 15.9mm, triple ring 99-107mm, double ring 162-170mm, and anything
+ * further out is a miss.
+ *
+ * The board is precomputed once as a grid of square cells. A cell lying
+ * entirely inside one area stores that area, so most darts are resolved
+ * with a single array read. Only cells crossed by a wire store
+ * {@link #BOUNDARY} and are resolved exactly, comparing squared distances
+ * with the squared radii and the position with the sector edges; neither
+ * needs trigonometry.
+ */
+final class BoardGeometry {
+    
+    /**
+     * Sectors clockwise from the top
+     */
+    static final int[] SECTORS = {20, 1, 18, 4, 13, 6, 10, 15, 2, 17, 3, 19, 7, 16, 8, 11, 14, 9, 12, 5};
+    
+    static final double BULLSEYE_RADIUS = 6.35;
+    static final double BULL_RADIUS = 15.9;
+    static final double TRIPLE_INNER_RADIUS = 99;
+    static final double TRIPLE_OUTER_RADIUS = 107;
+    static final double DOUBLE_INNER_RADIUS = 162;
+    static final double DOUBLE_OUTER_RADIUS = 170;
+    
+    /**
+     * Side of a grid cell in millimetres
+     */
+    static final double CELL = 0.5;
+    
+    private static final int SIZE = (int) Math.ceil(2 * DOUBLE_OUTER_RADIUS / CELL);
+    
+    /**
+     * Area codes: miss, bull and bullseye, then single, triple and double of each sector
+     */
+    private static final byte MISS = 0;
+    private static final byte BULL = 1;
+    private static final byte BULLSEYE = 2;
+    private static final byte BOUNDARY = -1;
+    
+    private static final int[] SECTOR_OF = new int[3 + 3 * SECTORS.length];
+    private static final int[] MULTIPLIER_OF = new int[SECTOR_OF.length];
+    
+    /**
+     * Rings from the centre outwards, as squared outer radii: bullseye, bull,
+     * inner single, triple, outer single and double
+     */
+    private static final double[] RING_LIMITS = {
+        BULLSEYE_RADIUS * BULLSEYE_RADIUS,
+        BULL_RADIUS * BULL_RADIUS,
+        TRIPLE_INNER_RADIUS * TRIPLE_INNER_RADIUS,
+        TRIPLE_OUTER_RADIUS * TRIPLE_OUTER_RADIUS,
+        DOUBLE_INNER_RADIUS * DOUBLE_INNER_RADIUS,
+        DOUBLE_OUTER_RADIUS * DOUBLE_OUTER_RADIUS
+    };
+    
+    private static final int[] RING_MULTIPLIERS = {2, 1, 1, 3, 1, 2};
+    
+    /**
+     * Direction of the edge where each sector starts, going clockwise
+     */
+    private static final double[] EDGE_X = new double[SECTORS.length];
+    private static final double[] EDGE_Y = new double[SECTORS.length];
+    
+    private static final byte[] GRID = new byte[SIZE * SIZE];
+    
+    static {
+        SECTOR_OF[BULL] = 25;
+        MULTIPLIER_OF[BULL] = 1;
+        SECTOR_OF[BULLSEYE] = 25;
+        MULTIPLIER_OF[BULLSEYE] = 2;
+        for (int i = 0; i < SECTORS.length; i++) {
+            for (int multiplier = 1; multiplier <= 3; multiplier++) {
+                SECTOR_OF[code(i, multiplier)] = SECTORS[i];
+                MULTIPLIER_OF[code(i, multiplier)] = multiplier;
+            }
+            double edge = Math.toRadians(i * 18 - 9);
+            EDGE_X[i] = Math.sin(edge);
+            EDGE_Y[i] = Math.cos(edge);
+        }
+        
+        for (int row = 0; row < SIZE; row++) {
+            double y0 = row * CELL - DOUBLE_OUTER_RADIUS;
+            for (int column = 0; column < SIZE; column++) {
+                double x0 = column * CELL - DOUBLE_OUTER_RADIUS;
+                GRID[row * SIZE + column] = resolveCell(x0, y0, x0 + CELL, y0 + CELL);
+            }
+        }
+    }
+    
+    private BoardGeometry() {
+    }
+    
+    /**
+     * Area hit by a dart at a position
+     *
+     * @return area code, see {@link #sector} and {@link #multiplier}
+     */
+    static int resolve(double x, double y) {
+        double column = (x + DOUBLE_OUTER_RADIUS) / CELL;
+        double row = (y + DOUBLE_OUTER_RADIUS) / CELL;
+        if (column >= 0 && column < SIZE && row >= 0 && row < SIZE) {
+            byte code = GRID[(int) row * SIZE + (int) column];
+            if (code != BOUNDARY) {
+                return code;
+            }
+        }
+        return resolveExactly(x, y);
+    }
+    
+    /**
+     * Sector of an area code: 0 for a miss, 1-20, 25 for bull
+     */
+    static int sector(int code) {
+        return SECTOR_OF[code];
+    }
+    
+    /**
+     * Multiplier of an area code: 0 for a miss, 1-3
+     */
+    static int multiplier(int code) {
+        return MULTIPLIER_OF[code];
+    }
+    
+    /**
+     * Share of the grid cells crossed by a wire, resolved exactly
+     */
+    static double boundaryShare() {
+        int boundary = 0;
+        for (byte code : GRID) {
+            if (code == BOUNDARY) {
+                boundary++;
+            }
+        }
+        return (double) boundary / GRID.length;
+    }
+    
+    /**
+     * Area of a position from its distance to the centre and the sector edges.
+     *
+     * A dart on a wire counts for the inner ring and for the sector that starts there.
+     */
+    private static byte resolveExactly(double x, double y) {
+        int ring = ring(x * x + y * y);
+        if (ring == RING_LIMITS.length) {
+            return MISS;
+        }
+        if (ring < 2) {
+            return ring == 0 ? BULLSEYE : BULL;
+        }
+        return code(sectorIndex(x, y), RING_MULTIPLIERS[ring]);
+    }
+    
+    /**
+     * Area of a whole cell, or {@link #BOUNDARY} if the cell is not inside a single area
+     */
+    private static byte resolveCell(double x0, double y0, double x1, double y1) {
+        double nearX = x0 > 0 ? x0 : (x1 < 0 ? x1 : 0);
+        double nearY = y0 > 0 ? y0 : (y1 < 0 ? y1 : 0);
+        double farX = Math.max(Math.abs(x0), Math.abs(x1));
+        double farY = Math.max(Math.abs(y0), Math.abs(y1));
+        int ring = ring(nearX * nearX + nearY * nearY);
+        if (ring != ring(farX * farX + farY * farY)) {
+            return BOUNDARY;
+        }
+        if (ring < 2 || ring == RING_LIMITS.length) {
+            return resolveExactly(x0, y0);
+        }
+        // Outside the bull the cell does not contain the centre, and a sector is
+        // convex, so the cell is inside a sector when all its corners are
+        int sector = sectorIndex(x0, y0);
+        if (sectorIndex(x1, y0) != sector || sectorIndex(x0, y1) != sector || sectorIndex(x1, y1) != sector) {
+            return BOUNDARY;
+        }
+        return code(sector, RING_MULTIPLIERS[ring]);
+    }
+    
+    /**
+     * Ring of a squared distance from the centre, {@code RING_LIMITS.length} outside the board
+     */
+    private static int ring(double distanceSquared) {
+        int ring = 0;
+        while (ring < RING_LIMITS.length && distanceSquared > RING_LIMITS[ring]) {
+            ring++;
+        }
+        return ring;
+    }
+    
+    /**
+     * Index in {@link #SECTORS} of the sector containing a position other than the centre.
+     *
+     * A sector is the 18° between its own edge, which the position is
+     * clockwise of, and the edge of the next sector, which it is not.
+     */
+    private static int sectorIndex(double x, double y) {
+        for (int i = 0; i < SECTORS.length; i++) {
+            int next = (i + 1) % SECTORS.length;
+            if (EDGE_X[i] * y - EDGE_Y[i] * x <= 0 && EDGE_X[next] * y - EDGE_Y[next] * x > 0) {
+                return i;
+            }
+        }
+        // Only reached through rounding exactly on an edge
+        return 0;
+    }
+    
+    private static byte code(int sectorIndex, int multiplier) {
+        return (byte) (3 + sectorIndex * 3 + multiplier - 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.dartscorer.service;
+
+import com.dartscorer.config.BoardCalibrationConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Service turning the positions reported by scoring cameras into the sector and multiplier hit.
+ *
+ * The calibration of each board is applied first: the offset moves the
+ * position to the centre of the bull and the rotation, whose sine and cosine
+ * are computed once at startup, turns it back to the board. The position is
+ * then looked up in the {@link BoardGeometry} grid.
+ */
+@ApplicationScoped
+public class BoardPositionResolver {
+    
+    /**
+     * Dart hit at a position
+     *
+     * @param sector 0 for a miss, 1-20, 25 for bull
+     * @param multiplier 0 for a miss, 1-3
+     */
+    public record Hit(int sector, int multiplier) {
+    }
+    
+    private record Calibration(double offsetX, double offsetY, double cos, double sin) {
+    }
+    
+    private static final Calibration NONE = new Calibration(0, 0, 1, 0);
+    
+    @Inject
+    BoardCalibrationConfig config;
+    
+    private final Map<String, Calibration> calibrations = new HashMap<>();
+    
+    @PostConstruct
+    void init() {
+        config.boards().forEach((boardId, board) -> {
+            double rotation = Math.toRadians(board.rotation());
+            calibrations.put(boardId, new Calibration(board.offsetX(), board.offsetY(),
+                Math.cos(rotation), Math.sin(rotation)));
+        });
+    }
+    
+    /**
+     * Area of the board hit by a dart
+     *
+     * @param boardId board the position was measured on, or null to use it as is
+     * @param x millimetres from the centre of the bull towards the right
+     * @param y millimetres from the centre of the bull towards the 20
+     */
+    public Hit resolve(String boardId, Double x, Double y) {
+        if (x == null || y == null || !Double.isFinite(x) || !Double.isFinite(y)) {
+            throw new BadRequestException("Position x and y are required");
+        }
+        Calibration calibration = NONE;
+        if (boardId != null) {
+            calibration = calibrations.get(boardId);
+            if (calibration == null) {
+                throw new BadRequestException("Unknown board: " + boardId);
+            }
+        }
+        double dx = x - calibration.offsetX;
+        double dy = y - calibration.offsetY;
+        int code = BoardGeometry.resolve(
+            dx * calibration.cos + dy * calibration.sin,
+            dy * calibration.cos - dx * calibration.sin);
+        return new Hit(BoardGeometry.sector(code), BoardGeometry.multiplier(code));
+    }
+}
\ No newline at end of file
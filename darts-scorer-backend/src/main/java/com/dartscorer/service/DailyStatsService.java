@@ -0,0 +1,289 @@
+package com.dartscorer.service;
+
+import com.dartscorer.dto.PeriodStatsDTO;
+import com.dartscorer.event.GameCompletedEvent;
+import com.dartscorer.event.PlayerEvent;
+import com.dartscorer.event.ThrowEvent;
+import com.dartscorer.model.GameMode;
+import com.dartscorer.model.GameStatus;
+import com.dartscorer.rules.ScoreRules;
+import com.dartscorer.rules.X01Rules;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service keeping per-player totals by day, for rolling averages and form graphs.
+ *
+ * Every day a player threw in a training or X01 game has a bucket with its
+ * darts, points, busts and checkouts, updated after each committed throw.
+ * A window of days is answered by adding up at most one bucket per day,
+ * never by scanning throws. The buckets are backfilled from the game
+ * history once at startup, and recomputed by {@link StatsRecomputeService};
+ * days played on other instances show up after its next periodic run.
+ */
+@ApplicationScoped
+public class DailyStatsService {
+    
+    private static final Logger LOG = Logger.getLogger(DailyStatsService.class);
+    
+    // Positions in a bucket
+    static final int DARTS = 0;
+    static final int POINTS = 1;
+    static final int BUSTS = 2;
+    static final int CHECKOUTS = 3;
+    static final int FIELDS = 4;
+    
+    /**
+     * Buckets of a single player by epoch day
+     */
+    private static final class PlayerDays {
+        final TreeMap<Long, long[]> days = new TreeMap<>();
+        
+        void add(long day, int field, long value) {
+            days.computeIfAbsent(day, d -> new long[FIELDS])[field] += value;
+        }
+        
+        long[] sum(long first, long last) {
+            long[] total = new long[FIELDS];
+            for (long[] bucket : days.subMap(first, true, last, true).values()) {
+                for (int field = 0; field < FIELDS; field++) {
+                    total[field] += bucket[field];
+                }
+            }
+            return total;
+        }
+    }
+    
+    @Inject
+    EntityManager entityManager;
+    
+    private volatile Map<Long, PlayerDays> players = new ConcurrentHashMap<>();
+    
+    private final RecomputeBuffer recompute = new RecomputeBuffer();
+    
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        backfill();
+    }
+    
+    /**
+     * Rebuild every bucket from the game history.
+     *
+     * Points and busts are counted on the day of the first dart of their turn,
+     * checkouts on the day the game was won.
+     */
+    @Transactional
+    public void backfill() {
+        long start = System.nanoTime();
+        List<GameMode> scoreModes = Arrays.stream(GameMode.values())
+            .filter(mode -> mode.rules() instanceof ScoreRules)
+            .toList();
+        List<GameMode> countdownModes = Arrays.stream(GameMode.values())
+            .filter(mode -> mode.rules() instanceof X01Rules)
+            .toList();
+        
+        Map<Long, PlayerDays> rebuilt = new HashMap<>();
+        
+        for (Object[] row : query("select t.player.id, extract(date from th.timestamp), count(th.id) "
+                + "from Throw th join th.turn t join t.game g where g.gameMode in ?1 "
+                + "group by t.player.id, extract(date from th.timestamp)", scoreModes)) {
+            add(rebuilt, row, DARTS, row[2]);
+        }
+        
+        for (Object[] row : query("select t.player.id, extract(date from th.timestamp), "
+                + "sum(case when g.gameMode = ?2 then t.remainingScore - t.startingScore "
+                + "else t.startingScore - t.remainingScore end), "
+                + "sum(case when t.isBust = true then 1 else 0 end) "
+                + "from Turn t join t.game g join t.dartThrows th "
+                + "where g.gameMode in ?1 and th.throwNumber = 1 and t.startingScore is not null "
+                + "group by t.player.id, extract(date from th.timestamp)", scoreModes, GameMode.TRAINING)) {
+            add(rebuilt, row, POINTS, row[2]);
+            add(rebuilt, row, BUSTS, row[3]);
+        }
+        
+        for (Object[] row : query("select g.winner.id, extract(date from g.completedAt), count(g.id) from Game g "
+                + "where g.status = ?1 and g.winner is not null and g.gameMode in ?2 "
+                + "group by g.winner.id, extract(date from g.completedAt)", GameStatus.COMPLETED, countdownModes)) {
+            add(rebuilt, row, CHECKOUTS, row[2]);
+        }
+        
+        players = new ConcurrentHashMap<>(rebuilt);
+        LOG.infof("Daily statistics backfilled for %d players in %d ms", rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<Object[]> query(String jpql, Object... parameters) {
+        var query = entityManager.createQuery(jpql);
+        for (int i = 0; i < parameters.length; i++) {
+            query.setParameter(i + 1, parameters[i]);
+        }
+        return query.getResultList();
+    }
+    
+    private static void add(Map<Long, PlayerDays> buckets, Object[] row, int field, Object value) {
+        if (value == null) {
+            return;
+        }
+        buckets.computeIfAbsent(((Number) row[0]).longValue(), id -> new PlayerDays())
+            .add(toLocalDate(row[1]).toEpochDay(), field, ((Number) value).longValue());
+    }
+    
+    void onThrow(@Observes(during = TransactionPhase.AFTER_SUCCESS) ThrowEvent event) {
+        // Cricket points are not comparable with X01 scoring
+        if (!(event.gameMode.rules() instanceof ScoreRules)) {
+            return;
+        }
+        recompute.apply(event, () -> apply(players, event));
+    }
+    
+    void onGameCompleted(@Observes(during = TransactionPhase.AFTER_SUCCESS) GameCompletedEvent event) {
+        if (event.checkout == 0) {
+            return;
+        }
+        recompute.apply(event, () -> apply(players, event));
+    }
+    
+    void onPlayer(@Observes(during = TransactionPhase.AFTER_SUCCESS) PlayerEvent event) {
+        if (event.deleted) {
+            recompute.apply(event, () -> players.remove(event.playerId));
+        }
+    }
+    
+    private static void apply(Map<Long, PlayerDays> players, ThrowEvent event) {
+        long day = event.timestamp.toLocalDate().toEpochDay();
+        PlayerDays buckets = players.computeIfAbsent(event.playerId, id -> new PlayerDays());
+        synchronized (buckets) {
+            buckets.add(day, DARTS, event.direction());
+            buckets.add(day, POINTS, (long) event.direction() * event.points);
+            if (event.bust) {
+                buckets.add(day, BUSTS, event.direction());
+            }
+        }
+    }
+    
+    private static void apply(Map<Long, PlayerDays> players, GameCompletedEvent event) {
+        PlayerDays buckets = players.computeIfAbsent(event.winnerId, id -> new PlayerDays());
+        synchronized (buckets) {
+            buckets.add(event.timestamp.toLocalDate().toEpochDay(), CHECKOUTS, event.direction());
+        }
+    }
+    
+    /**
+     * Start keeping the events applied from now on, to replay them on top of recomputed buckets
+     */
+    void beginRecompute() {
+        recompute.begin();
+    }
+    
+    void abortRecompute() {
+        recompute.abort();
+    }
+    
+    /**
+     * Replace every bucket with recomputed ones, replaying the events
+     * applied since {@link #beginRecompute()} with a later game revision.
+     *
+     * Unlike the backfill, recomputed points and busts are counted on the day
+     * of each dart and checkouts on the day of the winning dart, as live
+     * throws count them.
+     */
+    void replaceAll(StatsAccumulator totals, GameRevisions revisions) {
+        Map<Long, PlayerDays> rebuilt = new ConcurrentHashMap<>();
+        totals.days.forEach((key, bucket) -> {
+            PlayerDays buckets = rebuilt.computeIfAbsent(totals.playerIds[StatsAccumulator.slotOf(key)],
+                id -> new PlayerDays());
+            buckets.days.put(StatsAccumulator.dayOf(key), bucket.clone());
+        });
+        
+        recompute.replace(events -> {
+            revisions.noteDeletions(events);
+            for (Object event : events) {
+                if (event instanceof ThrowEvent throwEvent) {
+                    if (!revisions.includes(throwEvent)) {
+                        apply(rebuilt, throwEvent);
+                    }
+                } else if (event instanceof GameCompletedEvent gameEvent) {
+                    if (!revisions.includes(gameEvent)) {
+                        apply(rebuilt, gameEvent);
+                    }
+                } else if (event instanceof PlayerEvent playerEvent) {
+                    rebuilt.remove(playerEvent.playerId);
+                }
+            }
+            players = rebuilt;
+        });
+    }
+    
+    /**
+     * Totals of a player over the last days, today included
+     */
+    public PeriodStatsDTO getRolling(Long playerId, int days) {
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(days - 1L);
+        return toDTO(from, to, sum(playerId, from.toEpochDay(), to.toEpochDay()));
+    }
+    
+    /**
+     * Totals of a player for each day between two dates (both inclusive) on which they threw
+     */
+    public List<PeriodStatsDTO> getDaily(Long playerId, LocalDate from, LocalDate to) {
+        List<PeriodStatsDTO> series = new ArrayList<>();
+        PlayerDays buckets = players.get(playerId);
+        if (buckets == null) {
+            return series;
+        }
+        synchronized (buckets) {
+            buckets.days.subMap(from.toEpochDay(), true, to.toEpochDay(), true).forEach((day, bucket) -> {
+                if (bucket[DARTS] != 0) {
+                    LocalDate date = LocalDate.ofEpochDay(day);
+                    series.add(toDTO(date, date, bucket));
+                }
+            });
+        }
+        return series;
+    }
+    
+    private long[] sum(Long playerId, long first, long last) {
+        PlayerDays buckets = players.get(playerId);
+        if (buckets == null) {
+            return new long[FIELDS];
+        }
+        synchronized (buckets) {
+            return buckets.sum(first, last);
+        }
+    }
+    
+    private static PeriodStatsDTO toDTO(LocalDate from, LocalDate to, long[] bucket) {
+        PeriodStatsDTO dto = new PeriodStatsDTO();
+        dto.from = from;
+        dto.to = to;
+        dto.darts = bucket[DARTS];
+        dto.points = bucket[POINTS];
+        dto.busts = bucket[BUSTS];
+        dto.checkouts = bucket[CHECKOUTS];
+        dto.threeDartAverage = bucket[DARTS] == 0 ? 0.0 : Math.round(bucket[POINTS] * 300.0 / bucket[DARTS]) / 100.0;
+        return dto;
+    }
+    
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+}
\ No newline at end of file
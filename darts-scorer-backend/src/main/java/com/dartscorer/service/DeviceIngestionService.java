@@ -0,0 +1,290 @@
+package com.dartscorer.service;
+
+import com.dartscorer.config.DataSourceRouting;
+import com.dartscorer.dto.DeviceEventRequest;
+import com.dartscorer.dto.IngestResultDTO;
+import com.dartscorer.dto.IngestionStatusDTO;
+import com.dartscorer.model.Game;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Service taking the event streams of electronic boards off the request threads.
+ *
+ * Games are split into partitions by id. Each partition has a bounded
+ * lock-free ring buffer that any number of device requests add to, and a
+ * single consumer thread, so the events of a game are applied in arrival
+ * order and two consumers never work on the same game. The consumer takes
+ * the events waiting, up to a batch, and applies them through
+ * {@link GameService} in one transaction. If the game refuses one of them
+ * the batch is rolled back and applied again one event per transaction, so
+ * only that event is lost. When a buffer is full the request is told how
+ * many of its events were queued, and the device sends the others again later.
+ * Events are only queued for games this instance owns: the events of a game
+ * owned by another instance must be sent to its owner.
+ */
+@ApplicationScoped
+public class DeviceIngestionService {
+    
+    private static final Logger LOG = Logger.getLogger(DeviceIngestionService.class);
+    
+    /**
+     * Longest sleep of an idle consumer, which is otherwise woken by the next event
+     */
+    private static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    @Inject
+    GameService gameService;
+    
+    @Inject
+    GameOwnershipService ownership;
+    
+    @ConfigProperty(name = "darts.ingest.partitions", defaultValue = "4")
+    int partitionCount;
+    
+    @ConfigProperty(name = "darts.ingest.buffer-size", defaultValue = "4096")
+    int bufferSize;
+    
+    @ConfigProperty(name = "darts.ingest.batch-size", defaultValue = "100")
+    int batchSize;
+    
+    /**
+     * Event waiting in a buffer
+     */
+    private record QueuedEvent(long gameId, DeviceEventRequest.Type type, int sector, int multiplier, long receivedAt) {
+    }
+    
+    /**
+     * Buffer and consumer of the games with the same id modulo the partition count
+     */
+    private final class Partition implements Runnable {
+        final int index;
+        final MpscRingBuffer<QueuedEvent> buffer = new MpscRingBuffer<>(bufferSize);
+        final AtomicBoolean sleeping = new AtomicBoolean();
+        final Thread consumer;
+        volatile int lastBatchSize;
+        volatile long lagNanos;
+        
+        Partition(int index) {
+            this.index = index;
+            this.consumer = new Thread(this, "device-ingest-" + index);
+            consumer.setDaemon(true);
+        }
+        
+        boolean offer(QueuedEvent event) {
+            if (!buffer.offer(event)) {
+                return false;
+            }
+            if (sleeping.get()) {
+                LockSupport.unpark(consumer);
+            }
+            return true;
+        }
+        
+        @Override
+        public void run() {
+            List<QueuedEvent> batch = new ArrayList<>(batchSize);
+            while (running) {
+                if (buffer.drainTo(batch, batchSize) == 0) {
+                    sleeping.set(true);
+                    if (buffer.isEmpty() && running) {
+                        LockSupport.parkNanos(this, IDLE_WAIT);
+                    }
+                    sleeping.set(false);
+                    continue;
+                }
+                process(batch);
+                batch.clear();
+            }
+            // Apply what was accepted before the shutdown
+            while (buffer.drainTo(batch, batchSize) > 0) {
+                process(batch);
+                batch.clear();
+            }
+        }
+        
+        private void process(List<QueuedEvent> batch) {
+            try {
+                DataSourceRouting.runOnPrimary(() -> QuarkusTransaction.requiringNew().run(() -> batch.forEach(
+                    DeviceIngestionService.this::apply)));
+                applied.add(batch.size());
+            } catch (RuntimeException e) {
+                for (QueuedEvent event : batch) {
+                    try {
+                        DataSourceRouting.runOnPrimary(() -> QuarkusTransaction.requiringNew().run(() -> apply(event)));
+                        applied.increment();
+                    } catch (GameOwnedElsewhereException lost) {
+                        // The lease expired after the event was accepted
+                        failed.increment();
+                        LOG.warnf("Device event %s for game %d dropped: %s", event.type, event.gameId,
+                            lost.getMessage());
+                    } catch (RuntimeException eventFailure) {
+                        failed.increment();
+                        LOG.debugf("Device event %s for game %d refused: %s", event.type, event.gameId,
+                            eventFailure.getMessage());
+                    }
+                }
+            }
+            batches.increment();
+            lastBatchSize = batch.size();
+            lagNanos = System.nanoTime() - batch.get(0).receivedAt;
+        }
+    }
+    
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    
+    private Partition[] partitions;
+    private volatile boolean running;
+    
+    void onStart(@Observes StartupEvent event) {
+        if (partitionCount < 1 || batchSize < 1) {
+            throw new IllegalStateException("darts.ingest.partitions and darts.ingest.batch-size must be positive");
+        }
+        running = true;
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i);
+            partitions[i].consumer.start();
+        }
+    }
+    
+    void onStop(@Observes ShutdownEvent event) {
+        running = false;
+        if (partitions == null) {
+            return;
+        }
+        for (Partition partition : partitions) {
+            LockSupport.unpark(partition.consumer);
+        }
+        for (Partition partition : partitions) {
+            try {
+                partition.consumer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Queue the events of a device, in order
+     *
+     * All events are checked before any is queued, and the lease of each of
+     * their games is taken. Events for a game that does not exist are
+     * refused before any lease is taken, so no lease row is ever created for
+     * it. Queuing stops at the first full buffer, so the events not accepted
+     * are always the last ones.
+     *
+     * @throws NotFoundException if one of the games does not exist
+     * @throws GameOwnedElsewhereException if the events are for a single game, owned by another instance
+     * @throws IllegalStateException if one of several games is owned by another instance
+     */
+    public IngestResultDTO ingest(List<DeviceEventRequest> events) {
+        if (events == null || events.isEmpty()) {
+            throw new BadRequestException("At least one event is required");
+        }
+        List<QueuedEvent> queued = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            try {
+                queued.add(validate(events.get(i)));
+            } catch (BadRequestException e) {
+                throw new BadRequestException("Event " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        
+        Set<Long> gameIds = new LinkedHashSet<>();
+        queued.forEach(event -> gameIds.add(event.gameId));
+        if (DataSourceRouting.callOnPrimary(() -> Game.count("id in ?1", gameIds)) < gameIds.size()) {
+            throw new NotFoundException("Game not found");
+        }
+        for (Long gameId : gameIds) {
+            try {
+                ownership.acquire(gameId);
+            } catch (GameOwnedElsewhereException e) {
+                if (gameIds.size() == 1) {
+                    throw e;
+                }
+                // Forwarding the whole request could bounce it between owners of different games
+                throw new IllegalStateException(e.getMessage() + ": send its events separately");
+            }
+        }
+        
+        int count = 0;
+        for (QueuedEvent event : queued) {
+            if (!partitions[Math.floorMod(event.gameId, partitions.length)].offer(event)) {
+                break;
+            }
+            count++;
+        }
+        accepted.add(count);
+        rejected.add(queued.size() - count);
+        return new IngestResultDTO(count, queued.size() - count);
+    }
+    
+    /**
+     * Get the depth and lag of every partition and the event counters
+     */
+    public IngestionStatusDTO getStatus() {
+        IngestionStatusDTO status = new IngestionStatusDTO();
+        status.accepted = accepted.sum();
+        status.rejected = rejected.sum();
+        status.applied = applied.sum();
+        status.failed = failed.sum();
+        status.batches = batches.sum();
+        status.partitions = new ArrayList<>(partitions.length);
+        for (Partition partition : partitions) {
+            IngestionStatusDTO.Partition dto = new IngestionStatusDTO.Partition();
+            dto.partition = partition.index;
+            dto.depth = partition.buffer.size();
+            dto.capacity = partition.buffer.capacity();
+            dto.lastBatchSize = partition.lastBatchSize;
+            dto.lagMillis = TimeUnit.NANOSECONDS.toMillis(partition.lagNanos);
+            status.partitions.add(dto);
+        }
+        return status;
+    }
+    
+    private QueuedEvent validate(DeviceEventRequest event) {
+        if (event == null || event.gameId == null) {
+            throw new BadRequestException("Game id is required");
+        }
+        DeviceEventRequest.Type type = event.type != null ? event.type : DeviceEventRequest.Type.THROW;
+        if (type == DeviceEventRequest.Type.NEXT_PLAYER) {
+            return new QueuedEvent(event.gameId, type, 0, 0, System.nanoTime());
+        }
+        if (event.sector == null || event.multiplier == null) {
+            throw new BadRequestException("Sector and multiplier are required");
+        }
+        gameService.validateThrow(event.sector, event.multiplier);
+        return new QueuedEvent(event.gameId, type, event.sector, event.multiplier, System.nanoTime());
+    }
+    
+    private void apply(QueuedEvent event) {
+        if (event.type == DeviceEventRequest.Type.NEXT_PLAYER) {
+            gameService.nextPlayer(event.gameId);
+        } else {
+            gameService.recordThrow(event.gameId, event.sector, event.multiplier);
+        }
+    }
+}
\ No newline at end of file
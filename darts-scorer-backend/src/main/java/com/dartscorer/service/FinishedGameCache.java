@@ -0,0 +1,100 @@
+package com.dartscorer.service;
+
+import com.dartscorer.model.Game;
+import com.dartscorer.model.GameStatus;
+import com.dartscorer.model.Turn;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Hibernate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns of finished games kept in memory, so reading a finished game only loads its row.
+ *
+ * Turns and throws are not in the second-level cache: a game in progress
+ * changes them on every throw, and every instance would keep its own copy.
+ * A finished game is kept here for one completion. An undo can reopen it,
+ * here or on another instance, so its turns are only used while the game row
+ * read from the database has the completion time they were loaded for, and a
+ * game completed again is loaded again.
+ *
+ * The turns are detached entities shared by concurrent readers, only handed
+ * to the read endpoints; the game given them is detached from its session
+ * first, so they never take part in a flush.
+ */
+@ApplicationScoped
+public class FinishedGameCache {
+    
+    /**
+     * Turns of a game as of one completion
+     */
+    private record Entry(LocalDateTime completedAt, List<Turn> turns) {
+    }
+    
+    @ConfigProperty(name = "darts.cache.finished-games", defaultValue = "5000")
+    int maxGames;
+    
+    private Map<Long, Entry> games;
+    
+    @PostConstruct
+    void init() {
+        games = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxGames;
+            }
+        });
+    }
+    
+    /**
+     * Give a finished game the turns kept for its completion, loading and keeping them on a miss.
+     *
+     * The game is detached from the current session. Turns read from a
+     * lagging replica never replace those of a later completion.
+     *
+     * @return false if the game is not finished, it is then left as it is
+     */
+    public boolean loadTurns(Game game) {
+        if ((game.status != GameStatus.COMPLETED && game.status != GameStatus.CANCELLED) || game.completedAt == null) {
+            return false;
+        }
+        Hibernate.initialize(game.winner);
+        Entry entry = games.get(game.id);
+        if (entry != null && entry.completedAt.equals(game.completedAt)) {
+            Game.getEntityManager().detach(game);
+            game.turns = entry.turns;
+            return true;
+        }
+        
+        for (Turn turn : game.turns) {
+            Hibernate.initialize(turn.player);
+            Hibernate.initialize(turn.dartThrows);
+        }
+        Game.getEntityManager().detach(game);
+        Entry loaded = new Entry(game.completedAt, List.copyOf(game.turns));
+        Entry kept = games.merge(game.id, loaded,
+            (cached, fresh) -> fresh.completedAt.isAfter(cached.completedAt) ? fresh : cached);
+        game.turns = kept.completedAt.equals(game.completedAt) ? kept.turns : loaded.turns;
+        return true;
+    }
+    
+    /**
+     * Forget the turns of a game reopened or deleted on this instance
+     */
+    public void evict(Long gameId) {
+        games.remove(gameId);
+    }
+    
+    /**
+     * Check if the turns of a game are kept, for any completion
+     */
+    public boolean contains(Long gameId) {
+        return games.containsKey(gameId);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.dartscorer.service;
+
+import com.dartscorer.config.DataSourceRouting;
+import com.dartscorer.event.GameCompletedEvent;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the turns of finished games into the {@link FinishedGameCache}.
+ *
+ * A finished game is read once from the primary in the background, so its
+ * first read from a client finds its turns in memory. Games are loaded one
+ * at a time; when the queue is full (for example during a large import)
+ * games are skipped and simply cached the first time they are read.
+ */
+@ApplicationScoped
+public class GameCacheWarmer {
+    
+    private static final Logger LOG = Logger.getLogger(GameCacheWarmer.class);
+    
+    @ConfigProperty(name = "darts.cache.warm-up-queue", defaultValue = "1000")
+    int queueSize;
+    
+    @Inject
+    GameService gameService;
+    
+    private ThreadPoolExecutor executor;
+    
+    void onStart(@Observes StartupEvent event) {
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+            runnable -> {
+                Thread thread = new Thread(runnable, "game-cache-warmer");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+    }
+    
+    void onStop(@Observes ShutdownEvent event) {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+    
+    void onGameCompleted(@Observes(during = TransactionPhase.AFTER_SUCCESS) GameCompletedEvent event) {
+        if (!event.reverted) {
+            warm(event.gameId);
+        }
+    }
+    
+    /**
+     * Queue a completed game to be loaded into the cache
+     */
+    public void warm(Long gameId) {
+        if (executor != null) {
+            executor.execute(() -> load(gameId));
+        }
+    }
+    
+    /**
+     * Number of games waiting to be loaded
+     */
+    public int pending() {
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+    
+    private void load(Long gameId) {
+        try {
+            DataSourceRouting.runOnPrimary(() -> QuarkusTransaction.requiringNew().run(() ->
+                gameService.readGame(gameId, true)));
+        } catch (RuntimeException e) {
+            LOG.debugf(e, "Could not cache game %d", gameId);
+        }
+    }
+}
\ No newline at end of file
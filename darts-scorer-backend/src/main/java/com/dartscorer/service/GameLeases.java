@@ -0,0 +1,268 @@
+package com.dartscorer.service;
+
+import com.dartscorer.model.Game;
+import com.dartscorer.model.GameLease;
+import com.dartscorer.model.GameStatus;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Game leases held by one backend instance.
+ *
+ * The leases owned by the instance are kept in memory with their fencing
+ * token and expiry, so mutating an owned game does not read the lease table.
+ * Leases are claimed on first use, renewed by {@link #heartbeat()} and taken
+ * over by another instance once expired. Several instances can share one
+ * database, each with its own id.
+ *
+ * The owner keeps the row of its games in the second-level cache, as it is
+ * the only instance writing it. The cached row and players of a game are
+ * evicted when a lease is claimed, since another instance may have written
+ * the game before, and when it is lost or released. Turns and throws are
+ * never in the second-level cache.
+ */
+public class GameLeases {
+    
+    /**
+     * Lease owned by this instance
+     */
+    private record Lease(long token, LocalDateTime expiresAt) {
+    }
+    
+    /**
+     * Expiry of released leases. Rows are kept rather than deleted, so fencing tokens only grow.
+     */
+    private static final LocalDateTime RELEASED = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final EntityManager entityManager;
+    private final String instanceId;
+    private final String instanceUrl;
+    private final Duration leaseDuration;
+    private final Clock clock;
+    
+    private final Map<Long, Lease> owned = new ConcurrentHashMap<>();
+    
+    public GameLeases(EntityManager entityManager, String instanceId, String instanceUrl,
+                      Duration leaseDuration, Clock clock) {
+        this.entityManager = entityManager;
+        this.instanceId = instanceId;
+        this.instanceUrl = instanceUrl;
+        this.leaseDuration = leaseDuration;
+        this.clock = clock;
+    }
+    
+    public String getInstanceId() {
+        return instanceId;
+    }
+    
+    /**
+     * Check if this instance holds an unexpired lease on a game
+     */
+    public boolean owns(long gameId) {
+        Lease lease = owned.get(gameId);
+        return lease != null && lease.expiresAt.isAfter(now());
+    }
+    
+    /**
+     * Get the lease of a game, claiming it if it is free or expired
+     *
+     * @return the fencing token of the lease
+     * @throws GameOwnedElsewhereException if another instance holds the lease
+     */
+    public long acquire(long gameId) {
+        Lease lease = owned.get(gameId);
+        if (lease != null && lease.expiresAt.isAfter(now())) {
+            return lease.token;
+        }
+        evict(gameId);
+        Lease claimed;
+        try {
+            claimed = QuarkusTransaction.requiringNew().call(() -> claim(gameId));
+        } catch (GameOwnedElsewhereException e) {
+            drop(gameId);
+            throw e;
+        } catch (RuntimeException e) {
+            // Another instance created the lease at the same time: claim again against its row
+            claimed = QuarkusTransaction.requiringNew().call(() -> claim(gameId));
+        }
+        // Only remembered once committed, so other threads fence against a row they can see
+        owned.put(gameId, claimed);
+        return claimed.token;
+    }
+    
+    /**
+     * Acquire the lease of a game and check its token against the lease row.
+     *
+     * Must run in the transaction of the mutation, before the game is loaded.
+     * A stale owner whose token was replaced by a takeover is rejected, even
+     * if it still believes it holds the lease. The update locks the lease row
+     * until the mutation commits, so a takeover waits for it, and only touches
+     * the lease table: the game and its cached collections are left alone.
+     *
+     * @throws GameOwnedElsewhereException if another instance holds the lease
+     */
+    public void fence(long gameId) {
+        long token = acquire(gameId);
+        int updated = entityManager.createQuery(
+                "update GameLease l set l.fencingToken = :token "
+                + "where l.gameId = :gameId and l.ownerId = :owner and l.fencingToken = :token")
+            .setParameter("gameId", gameId)
+            .setParameter("owner", instanceId)
+            .setParameter("token", token)
+            .executeUpdate();
+        if (updated > 0) {
+            return;
+        }
+        
+        drop(gameId);
+        GameLease lease = entityManager.find(GameLease.class, gameId);
+        throw new GameOwnedElsewhereException(gameId,
+            lease != null ? lease.ownerId : null,
+            lease != null ? lease.ownerUrl : null);
+    }
+    
+    /**
+     * Renew every lease of this instance and release the leases of games no longer in progress
+     *
+     * @return the number of leases still owned
+     */
+    public int heartbeat() {
+        LocalDateTime now = now();
+        LocalDateTime expiresAt = now.plus(leaseDuration);
+        Map<Long, Lease> renewed = QuarkusTransaction.requiringNew().call(() -> {
+            entityManager.createQuery(
+                    "update GameLease l set l.expiresAt = :released where l.ownerId = :owner "
+                    + "and l.gameId not in (select g.id from Game g where g.status = :status)")
+                .setParameter("released", RELEASED)
+                .setParameter("owner", instanceId)
+                .setParameter("status", GameStatus.IN_PROGRESS)
+                .executeUpdate();
+            // A lease still owned was not taken over, so it can be extended even if expired
+            entityManager.createQuery(
+                    "update GameLease l set l.expiresAt = :expiresAt, l.heartbeatAt = :now "
+                    + "where l.ownerId = :owner and l.expiresAt > :released")
+                .setParameter("expiresAt", expiresAt)
+                .setParameter("now", now)
+                .setParameter("owner", instanceId)
+                .setParameter("released", RELEASED)
+                .executeUpdate();
+            List<Object[]> rows = entityManager.createQuery(
+                    "select l.gameId, l.fencingToken from GameLease l where l.ownerId = :owner and l.expiresAt > :released",
+                    Object[].class)
+                .setParameter("owner", instanceId)
+                .setParameter("released", RELEASED)
+                .getResultList();
+            Map<Long, Lease> leases = new HashMap<>();
+            for (Object[] row : rows) {
+                leases.put((Long) row[0], new Lease((Long) row[1], expiresAt));
+            }
+            return leases;
+        });
+        Set<Long> lost = new HashSet<>(owned.keySet());
+        lost.removeAll(renewed.keySet());
+        lost.forEach(this::drop);
+        owned.putAll(renewed);
+        return renewed.size();
+    }
+    
+    /**
+     * Give up the lease of a game, so another instance can take it over at once
+     */
+    public void release(long gameId) {
+        drop(gameId);
+        QuarkusTransaction.requiringNew().run(() -> entityManager
+            .createQuery("update GameLease l set l.expiresAt = :released where l.gameId = :gameId and l.ownerId = :owner")
+            .setParameter("released", RELEASED)
+            .setParameter("gameId", gameId)
+            .setParameter("owner", instanceId)
+            .executeUpdate());
+    }
+    
+    /**
+     * Give up every lease of this instance
+     */
+    public void releaseAll() {
+        Set.copyOf(owned.keySet()).forEach(this::drop);
+        QuarkusTransaction.requiringNew().run(() -> entityManager
+            .createQuery("update GameLease l set l.expiresAt = :released where l.ownerId = :owner")
+            .setParameter("released", RELEASED)
+            .setParameter("owner", instanceId)
+            .executeUpdate());
+    }
+    
+    /**
+     * Renew our own lease, take over an expired one or create a missing one
+     */
+    private Lease claim(long gameId) {
+        LocalDateTime now = now();
+        LocalDateTime expiresAt = now.plus(leaseDuration);
+        int updated = entityManager.createQuery(
+                "update GameLease l set "
+                + "l.fencingToken = case when l.ownerId = :owner then l.fencingToken else l.fencingToken + 1 end, "
+                + "l.ownerId = :owner, l.ownerUrl = :url, l.expiresAt = :expiresAt, l.heartbeatAt = :now "
+                + "where l.gameId = :gameId and (l.ownerId = :owner or l.expiresAt < :now)")
+            .setParameter("owner", instanceId)
+            .setParameter("url", instanceUrl)
+            .setParameter("expiresAt", expiresAt)
+            .setParameter("now", now)
+            .setParameter("gameId", gameId)
+            .executeUpdate();
+        
+        long token;
+        if (updated > 0) {
+            token = entityManager.createQuery("select l.fencingToken from GameLease l where l.gameId = :gameId", Long.class)
+                .setParameter("gameId", gameId)
+                .getSingleResult();
+        } else {
+            GameLease current = entityManager.find(GameLease.class, gameId);
+            if (current != null && !instanceId.equals(current.ownerId)) {
+                throw new GameOwnedElsewhereException(gameId, current.ownerId, current.ownerUrl);
+            }
+            if (current != null) {
+                // Another thread of this instance created the lease after the update
+                return new Lease(current.fencingToken, current.expiresAt);
+            }
+            GameLease lease = new GameLease();
+            lease.gameId = gameId;
+            lease.ownerId = instanceId;
+            lease.ownerUrl = instanceUrl;
+            lease.fencingToken = 1L;
+            lease.expiresAt = expiresAt;
+            lease.heartbeatAt = now;
+            entityManager.persist(lease);
+            entityManager.flush();
+            token = lease.fencingToken;
+        }
+        return new Lease(token, expiresAt);
+    }
+    
+    /**
+     * Forget a lease of this instance and its cached game
+     */
+    private void drop(long gameId) {
+        owned.remove(gameId);
+        evict(gameId);
+    }
+    
+    private void evict(long gameId) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Game.class, gameId);
+        cache.evictCollectionData(Game.class.getName() + ".players", gameId);
+    }
+    
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.dartscorer.service;
+
+/**
+ * Thrown when a game is owned by another backend instance, which must apply its mutations
+ */
+public class GameOwnedElsewhereException extends RuntimeException {
+    
+    public final Long gameId;
+    public final String ownerId;
+    
+    /**
+     * Base URL of the owner, null if it cannot be reached directly
+     */
+    public final String ownerUrl;
+    
+    public GameOwnedElsewhereException(Long gameId, String ownerId, String ownerUrl) {
+        super("Game " + gameId + " is owned by instance " + ownerId);
+        this.gameId = gameId;
+        this.ownerId = ownerId;
+        this.ownerUrl = ownerUrl;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.dartscorer.service;
+
+import com.dartscorer.config.DataSourceRouting;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service deciding which backend instance applies the mutations of a game.
+ *
+ * Wraps the {@link GameLeases} of this instance and renews them with a
+ * heartbeat every third of the lease duration. Leases are released on
+ * shutdown so other instances can take the games over at once.
+ */
+@ApplicationScoped
+public class GameOwnershipService {
+    
+    private static final Logger LOG = Logger.getLogger(GameOwnershipService.class);
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @ConfigProperty(name = "darts.instance.id")
+    Optional<String> instanceId;
+    
+    @ConfigProperty(name = "darts.instance.url")
+    Optional<String> instanceUrl;
+    
+    @ConfigProperty(name = "darts.lease.duration", defaultValue = "30s")
+    Duration leaseDuration;
+    
+    private GameLeases leases;
+    private ScheduledExecutorService heartbeat;
+    
+    @PostConstruct
+    void init() {
+        String id = instanceId.orElseGet(() -> UUID.randomUUID().toString());
+        leases = new GameLeases(entityManager, id, instanceUrl.orElse(null), leaseDuration, Clock.systemDefaultZone());
+    }
+    
+    void onStart(@Observes StartupEvent event) {
+        long period = Math.max(1, leaseDuration.toMillis() / 3);
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleAtFixedRate(this::renewLeases, period, period, TimeUnit.MILLISECONDS);
+        LOG.infof("Instance %s owns games with %d s leases", leases.getInstanceId(), leaseDuration.toSeconds());
+    }
+    
+    void onStop(@Observes ShutdownEvent event) {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        try {
+            DataSourceRouting.runOnPrimary(leases::releaseAll);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not release game leases", e);
+        }
+    }
+    
+    /**
+     * Make sure this instance owns a game before mutating it (see {@link GameLeases#fence})
+     *
+     * @throws GameOwnedElsewhereException if another instance owns the game
+     */
+    public void fence(Long gameId) {
+        leases.fence(gameId);
+    }
+    
+    /**
+     * Take the lease of a game before accepting mutations to apply later, unless another instance holds it
+     *
+     * @throws GameOwnedElsewhereException if another instance owns the game
+     */
+    public void acquire(Long gameId) {
+        DataSourceRouting.runOnPrimary(() -> leases.acquire(gameId));
+    }
+    
+    /**
+     * Check if this instance currently owns a game
+     */
+    public boolean owns(Long gameId) {
+        return leases.owns(gameId);
+    }
+    
+    public String getInstanceId() {
+        return leases.getInstanceId();
+    }
+    
+    private void renewLeases() {
+        try {
+            DataSourceRouting.runOnPrimary(leases::heartbeat);
+        } catch (RuntimeException e) {
+            // Leases that cannot be renewed expire and are taken over by other instances
+            LOG.warn("Game lease heartbeat failed", e);
+        }
+    }
+}
\ No newline at end of file
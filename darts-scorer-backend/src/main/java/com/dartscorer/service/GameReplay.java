@@ -0,0 +1,172 @@
+package com.dartscorer.service;
+
+import com.dartscorer.dto.CricketStateDTO;
+import com.dartscorer.dto.GameStateDTO;
+import com.dartscorer.dto.PlayerDTO;
+import com.dartscorer.dto.TurnDTO;
+import com.dartscorer.model.Game;
+import com.dartscorer.model.GameStatus;
+import com.dartscorer.model.Player;
+import com.dartscorer.model.Throw;
+import com.dartscorer.model.Turn;
+import com.dartscorer.rules.CricketRules;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Replays the turns of a game on a detached copy, starting from a known state.
+ *
+ * Darts are applied with {@link GameService#processThrow} on copies of the
+ * turns and throws, so the replayed state follows the same rules as the live
+ * game and the stored entities are never modified.
+ */
+final class GameReplay {
+    
+    /**
+     * Turns shown in the recent turns of a game state, the default of {@link GameStateDTO#from}
+     */
+    static final int RECENT_TURNS = GameStateDTO.RECENT_TURNS;
+    
+    private final GameService gameService;
+    private final Game game;
+    private final Game board;
+    private final Map<Long, Integer> playerIndex = new HashMap<>();
+    
+    /**
+     * Score or packed cricket state of each player, in game order
+     */
+    private final long[] state;
+    
+    private final Deque<Turn> recentTurns = new ArrayDeque<>(RECENT_TURNS);
+    private Turn currentTurn;
+    
+    /**
+     * @param state state of each player at the start of the first replayed turn (see GameSnapshot)
+     */
+    GameReplay(GameService gameService, Game game, long[] state) {
+        this.gameService = gameService;
+        this.game = game;
+        this.state = state.clone();
+        for (int i = 0; i < game.players.size(); i++) {
+            playerIndex.put(game.players.get(i).id, i);
+        }
+        board = new Game(game.gameMode);
+        board.players = game.players;
+        board.status = GameStatus.IN_PROGRESS;
+        board.cricketState = game.cricketState != null ? this.state : null;
+    }
+    
+    /**
+     * State of each player at the start of a game
+     */
+    static long[] initialState(Game game) {
+        long[] state = new long[game.players.size()];
+        if (game.cricketState == null) {
+            Arrays.fill(state, game.getRules().startingScore());
+        }
+        return state;
+    }
+    
+    /**
+     * Show a turn played before the replay starts in the recent turns, without applying it
+     */
+    void skip(Turn turn) {
+        remember(copy(turn));
+    }
+    
+    /**
+     * Start replaying a turn
+     */
+    void startTurn(Turn turn) {
+        int player = playerIndex.get(turn.player.id);
+        board.currentPlayerIndex = player;
+        currentTurn = copy(turn);
+        currentTurn.dartThrows.clear();
+        currentTurn.totalScore = 0;
+        currentTurn.isBust = false;
+        if (board.cricketState == null) {
+            currentTurn.startingScore = (int) state[player];
+        } else {
+            currentTurn.startingScore = CricketRules.points(state[player]);
+        }
+        currentTurn.remainingScore = currentTurn.startingScore;
+        remember(currentTurn);
+    }
+    
+    /**
+     * Apply a dart of the turn being replayed
+     */
+    void addThrow(Throw dartThrow) {
+        Throw copy = new Throw(currentTurn, dartThrow.sector, dartThrow.multiplier, dartThrow.throwNumber);
+        copy.id = dartThrow.id;
+        copy.timestamp = dartThrow.timestamp;
+        currentTurn.addThrow(copy);
+        gameService.processThrow(board, currentTurn, copy, dartThrow.sector, dartThrow.multiplier);
+        if (board.cricketState == null) {
+            state[board.currentPlayerIndex] = currentTurn.remainingScore;
+        }
+    }
+    
+    /**
+     * Replay a whole turn
+     */
+    void play(Turn turn) {
+        startTurn(turn);
+        for (Throw dartThrow : turn.dartThrows) {
+            addThrow(dartThrow);
+        }
+    }
+    
+    /**
+     * State of the game at this point of the replay
+     */
+    GameStateDTO toDTO() {
+        GameStateDTO dto = new GameStateDTO();
+        dto.id = game.id;
+        dto.gameMode = game.gameMode;
+        dto.status = board.status;
+        dto.players = game.players.stream()
+            .map(PlayerDTO::from)
+            .collect(Collectors.toList());
+        dto.currentPlayerIndex = board.currentPlayerIndex;
+        dto.currentPlayer = PlayerDTO.from(game.players.get(board.currentPlayerIndex));
+        dto.currentTurn = TurnDTO.from(currentTurn);
+        dto.winner = PlayerDTO.from(board.winner);
+        
+        dto.playerScores = new HashMap<>();
+        List<Player> players = game.players;
+        for (int i = 0; i < players.size(); i++) {
+            int score = board.cricketState != null ? CricketRules.points(state[i]) : (int) state[i];
+            dto.playerScores.put(players.get(i).id, score);
+        }
+        dto.cricket = board.cricketState != null ? CricketStateDTO.from(players, state) : null;
+        dto.recentTurns = recentTurns.stream()
+            .map(TurnDTO::from)
+            .collect(Collectors.toList());
+        return dto;
+    }
+    
+    private void remember(Turn turn) {
+        if (recentTurns.size() == RECENT_TURNS) {
+            recentTurns.removeFirst();
+        }
+        recentTurns.addLast(turn);
+    }
+    
+    private Turn copy(Turn turn) {
+        Turn copy = new Turn(board, turn.player, turn.turnNumber);
+        copy.id = turn.id;
+        copy.dartThrows.addAll(turn.dartThrows);
+        copy.totalScore = turn.totalScore;
+        copy.startingScore = turn.startingScore;
+        copy.remainingScore = turn.remainingScore;
+        copy.isBust = turn.isBust;
+        return copy;
+    }
+}
\ No newline at end of file
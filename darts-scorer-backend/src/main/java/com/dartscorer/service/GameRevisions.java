@@ -0,0 +1,75 @@
+package com.dartscorer.service;
+
+import com.dartscorer.event.GameCompletedEvent;
+import com.dartscorer.event.ThrowEvent;
+import com.dartscorer.model.Game;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Revision of each game as read by the statistics recomputation.
+ *
+ * Every statistics event carries the revision its transaction gave the game,
+ * and the revisions of a game grow in commit order, so an event is part of
+ * the recomputed totals exactly when its revision is at most the one read.
+ * Throw ids give no such order, as they are allocated in blocks by several
+ * instances. Indexed by game id, from the first game id of the snapshot.
+ */
+final class GameRevisions {
+    
+    private static final long NOT_READ = -1;
+    
+    private final long firstGameId;
+    private final long[] revisions;
+    private final Set<Long> deleted = new HashSet<>();
+    
+    GameRevisions(long firstGameId, long lastGameId) {
+        this.firstGameId = firstGameId;
+        this.revisions = new long[(int) Math.max(0, lastGameId - firstGameId + 1)];
+        Arrays.fill(revisions, NOT_READ);
+    }
+    
+    /**
+     * Record the revision a game was read at, by the worker scanning its id range
+     */
+    void read(long gameId, long revision) {
+        revisions[(int) (gameId - firstGameId)] = revision;
+    }
+    
+    /**
+     * Note the games deleted while the recomputation ran, from the events kept meanwhile
+     */
+    void noteDeletions(List<Object> events) {
+        for (Object event : events) {
+            if (event instanceof ThrowEvent throwEvent && throwEvent.revision == Game.DELETED_REVISION) {
+                deleted.add(throwEvent.gameId);
+            } else if (event instanceof GameCompletedEvent gameEvent && gameEvent.revision == Game.DELETED_REVISION) {
+                deleted.add(gameEvent.gameId);
+            }
+        }
+    }
+    
+    boolean includes(ThrowEvent event) {
+        return includes(event.gameId, event.revision);
+    }
+    
+    boolean includes(GameCompletedEvent event) {
+        return includes(event.gameId, event.revision);
+    }
+    
+    /**
+     * Check if the recomputed totals already include an event of a game.
+     *
+     * A game that was not read was either created after its range was
+     * scanned, so none of its events are included, or deleted before, so
+     * none of them may be replayed.
+     */
+    private boolean includes(long gameId, long revision) {
+        long index = gameId - firstGameId;
+        long read = index >= 0 && index < revisions.length ? revisions[(int) index] : NOT_READ;
+        return read == NOT_READ ? deleted.contains(gameId) : revision <= read;
+    }
+}
\ No newline at end of file
@@ -1,10 +1,24 @@
 package com.dartscorer.service;
 
+import com.dartscorer.event.GameCompletedEvent;
+import com.dartscorer.event.GamePhaseEvent;
+import com.dartscorer.event.PlayerEvent;
+import com.dartscorer.event.ThrowEvent;
 import com.dartscorer.model.*;
+import com.dartscorer.rules.CricketRules;
+import com.dartscorer.rules.GameRules;
+import com.dartscorer.rules.ScoreRules;
+import com.dartscorer.rules.X01Rules;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.BadRequestException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 import java.util.List;
 
 /**
@@ -13,18 +27,41 @@ import java.util.List;
 @ApplicationScoped
 public class GameService {
     
+    private static final Logger LOG = Logger.getLogger(GameService.class);
+    
+    /**
+     * Maximum number of throws that can be undone in a row
+     */
+    @ConfigProperty(name = "darts.undo.max-depth", defaultValue = "10")
+    int maxUndoDepth;
+    
+    /**
+     * Turns between two replay snapshots of a game
+     */
+    @ConfigProperty(name = "darts.replay.snapshot-interval", defaultValue = "10")
+    int snapshotInterval;
+    
+    @Inject
+    GameOwnershipService ownership;
+    
+    @Inject
+    FinishedGameCache finishedGames;
+    
+    @Inject
+    Event<ThrowEvent> throwEvents;
+    
+    @Inject
+    Event<GameCompletedEvent> gameCompletedEvents;
+    
+    @Inject
+    Event<PlayerEvent> playerEvents;
+    
     /**
      * Create a new game with players
      */
     @Transactional
     public Game createGame(GameMode gameMode, List<String> playerNames) {
-        if (playerNames == null || playerNames.isEmpty()) {
-            throw new BadRequestException("At least one player is required");
-        }
-        
-        if (playerNames.size() > 8) {
-            throw new BadRequestException("Maximum 8 players allowed");
-        }
+        validatePlayers(playerNames);
         
         // Create game
         Game game = new Game(gameMode);
@@ -35,6 +72,7 @@ public class GameService {
             if (player == null) {
                 player = new Player(playerName);
                 player.persist();
+                playerEvents.fire(new PlayerEvent(player.id, player.name, false));
             }
             game.addPlayer(player);
         }
@@ -50,11 +88,35 @@ public class GameService {
         return game;
     }
     
+    int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+    
+    /**
+     * Check the number of players of a new game
+     */
+    void validatePlayers(List<String> playerNames) {
+        if (playerNames == null || playerNames.isEmpty()) {
+            throw new BadRequestException("At least one player is required");
+        }
+        
+        if (playerNames.size() > 8) {
+            throw new BadRequestException("Maximum 8 players allowed");
+        }
+    }
+    
     /**
-     * Get game by ID
+     * Get game by ID.
+     *
+     * The row of a game owned by this instance is read from the second-level
+     * cache, so a mutation of an owned game runs without loading it. Other
+     * games may be written by another instance and are read from the database;
+     * their players are fetched in the same load, so they bypass the cache too.
      */
     public Game getGame(Long gameId) {
-        Game game = Game.findById(gameId);
+        Game game = ownership.owns(gameId)
+            ? Game.findById(gameId)
+            : Game.getEntityManager().find(Game.class, gameId, CacheRetrieveMode.BYPASS, CacheStoreMode.BYPASS);
         if (game == null) {
             throw new NotFoundException("Game not found");
         }
@@ -62,126 +124,332 @@ public class GameService {
     }
     
     /**
-     * Record a throw in the current turn
+     * Get a game to read its state, for the endpoints that do not change it.
+     *
+     * A finished game comes with the turns kept in memory for its completion
+     * (see {@link FinishedGameCache}) and is detached from the session.
+     *
+     * @param withTurns false if the turns are not read, so none are loaded
+     */
+    public Game readGame(Long gameId, boolean withTurns) {
+        Game game = getGame(gameId);
+        if (withTurns) {
+            finishedGames.loadTurns(game);
+        }
+        return game;
+    }
+    
+    /**
+     * Record a throw in the current turn.
+     *
+     * Each phase is timed by a {@link GamePhaseEvent}. The inserts run when
+     * the transaction commits, after the persist phase.
      */
     @Transactional
     public Game recordThrow(Long gameId, Integer sector, Integer multiplier) {
+        GamePhaseEvent phase = GamePhaseEvent.start(GamePhaseEvent.RECORD_THROW, "load", gameId);
+        ownership.fence(gameId);
         Game game = getGame(gameId);
+        phase.finish(game);
         
+        phase = GamePhaseEvent.start(GamePhaseEvent.RECORD_THROW, "validation", gameId);
         if (!game.isInProgress()) {
             throw new BadRequestException("Game is not in progress");
         }
         
-        // Validate input
-        // Sector 0 is allowed for miss (no score)
-        if (sector < 0 || sector > 25) {
-            throw new BadRequestException("Invalid sector: must be between 0 and 25");
-        }
-        
-        // For miss (sector 0), multiplier must be 0
-        if (sector == 0 && multiplier != 0) {
-            throw new BadRequestException("Miss (sector 0) must have multiplier 0");
-        }
-        
-        // For non-miss throws, validate multiplier
-        if (sector > 0 && (multiplier < 1 || multiplier > 3)) {
-            throw new BadRequestException("Invalid multiplier: must be 1, 2, or 3");
-        }
-        
-        // Bull (25) can only be single (1) or double (2)
-        if (sector == 25 && multiplier == 3) {
-            throw new BadRequestException("Bull cannot be triple");
-        }
+        validateThrow(sector, multiplier);
+        game.revise();
+        phase.finish(game);
         
         // Get or create current turn
+        phase = GamePhaseEvent.start(GamePhaseEvent.RECORD_THROW, "turnLookup", gameId);
         Turn currentTurn = game.getCurrentTurn();
         if (currentTurn == null) {
             currentTurn = game.createNewTurn();
             currentTurn.persist();
+            game.snapshotIfDue(snapshotInterval);
         }
         
         // Check if turn is already complete
         if (currentTurn.isComplete()) {
             throw new BadRequestException("Current turn is already complete. Call nextPlayer first.");
         }
+        phase.finish(game);
         
         // Create and add throw
+        phase = GamePhaseEvent.start(GamePhaseEvent.RECORD_THROW, "persist", gameId);
         int throwNumber = currentTurn.getThrowCount() + 1;
         Throw dartThrow = new Throw(currentTurn, sector, multiplier, throwNumber);
         dartThrow.persist();
         
         currentTurn.addThrow(dartThrow);
+        phase.finish(game);
         
         // Process throw based on game mode
-        processThrow(game, currentTurn, dartThrow);
+        phase = GamePhaseEvent.start(GamePhaseEvent.RECORD_THROW, "processThrow", gameId);
+        int scoreBefore = currentTurn.remainingScore;
+        boolean bustBefore = currentTurn.isBust;
+        processThrow(game, currentTurn, dartThrow, sector, multiplier);
+        phase.finish(game);
+        
+        fireThrowEvent(game, currentTurn, dartThrow, scoreBefore, currentTurn.isBust && !bustBefore, false);
+        if (game.isCompleted()) {
+            fireGameCompletedEvent(game, currentTurn, dartThrow, false);
+        }
+        
+        game.undoableThrows = Math.min(game.undoableThrows + 1, maxUndoDepth);
+        game.touch();
         
         return game;
     }
     
     /**
-     * Process a throw based on game mode
+     * Check that a sector and multiplier describe a dart that can land on the board
      */
-    private void processThrow(Game game, Turn turn, Throw dartThrow) {
-        switch (game.gameMode) {
-            case TRAINING:
-                // In training mode, just accumulate score
-                break;
-                
-            case STANDARD_301:
-            case DOUBLE_OUT_301:
-                process301Throw(game, turn, dartThrow);
-                break;
+    void validateThrow(Integer sector, Integer multiplier) {
+        // Sector 0 is allowed for miss (no score)
+        if (sector < 0 || sector > 25) {
+            throw new BadRequestException("Invalid sector: must be between 0 and 25");
+        }
+        
+        // For miss (sector 0), multiplier must be 0
+        if (sector == 0 && multiplier != 0) {
+            throw new BadRequestException("Miss (sector 0) must have multiplier 0");
+        }
+        
+        // For non-miss throws, validate multiplier
+        if (sector > 0 && (multiplier < 1 || multiplier > 3)) {
+            throw new BadRequestException("Invalid multiplier: must be 1, 2, or 3");
+        }
+        
+        // Bull (25) can only be single (1) or double (2)
+        if (sector == 25 && multiplier == 3) {
+            throw new BadRequestException("Bull cannot be triple");
         }
     }
     
     /**
-     * Process a throw in 301 mode
+     * Process a throw with the rules of the game mode
      */
-    private void process301Throw(Game game, Turn turn, Throw dartThrow) {
-        // Get current score for player
-        Integer currentScore = game.getPlayerScore(turn.player);
+    void processThrow(Game game, Turn turn, Throw dartThrow, int sector, int multiplier) {
+        GameRules rules = game.getRules();
+        if (rules instanceof CricketRules cricket) {
+            dartThrow.effect = processCricketThrow(game, turn, cricket, sector, multiplier);
+        } else {
+            processScoreThrow(game, turn, (ScoreRules) rules, sector, multiplier);
+        }
+    }
+    
+    /**
+     * Process a throw in a mode where only the thrower's score changes
+     */
+    private void processScoreThrow(Game game, Turn turn, ScoreRules rules, int sector, int multiplier) {
+        // Darts thrown after a bust do not count
+        if (turn.isBust) {
+            return;
+        }
         
-        // Calculate new score after this throw
-        Integer newScore = currentScore - dartThrow.score;
+        int newScore = rules.applyThrow(turn.remainingScore, sector, multiplier);
         
-        // Check for bust (went below 0 or exactly 0 without proper finish)
-        if (newScore < 0) {
+        if (newScore == ScoreRules.BUST) {
+            // Score goes back to the start of the turn
             turn.isBust = true;
-            turn.remainingScore = currentScore; // Score remains unchanged
+            turn.remainingScore = turn.startingScore;
             return;
         }
         
-        // Check for exact finish
-        if (newScore == 0) {
-            // In DOUBLE_OUT mode, must finish with a double
-            if (game.gameMode == GameMode.DOUBLE_OUT_301 && !dartThrow.isDouble()) {
-                turn.isBust = true;
-                turn.remainingScore = currentScore;
-                return;
-            }
-            
-            // Valid finish!
-            turn.remainingScore = 0;
+        turn.remainingScore = newScore;
+        if (rules.isWinningScore(newScore)) {
             game.complete(turn.player);
-            return;
         }
+    }
+    
+    /**
+     * Process a throw in cricket, updating the packed marks of the game in place
+     *
+     * @return the effect of the throw, needed to undo it
+     */
+    private int processCricketThrow(Game game, Turn turn, CricketRules rules, int sector, int multiplier) {
+        long[] state = game.cricketState;
+        int player = game.currentPlayerIndex;
+        int effect = rules.applyThrow(state, player, sector, multiplier);
         
-        // Valid throw, update remaining score
-        turn.remainingScore = newScore;
+        turn.remainingScore = CricketRules.points(state[player]);
+        
+        int winner = rules.findWinner(state);
+        if (winner >= 0) {
+            game.complete(game.players.get(winner));
+        }
+        return effect;
+    }
+    
+    /**
+     * Undo the last throws of a game.
+     *
+     * Only the affected turns are touched: the removed throw is reverted on
+     * the packed cricket state, or the turn is replayed from its starting
+     * score in the other modes (at most two darts).
+     */
+    @Transactional
+    public Game undoThrows(Long gameId, int steps) {
+        ownership.fence(gameId);
+        Game game = getGame(gameId);
+        
+        if (!game.isInProgress() && !game.isCompleted()) {
+            throw new BadRequestException("Game is not in progress");
+        }
+        
+        if (steps < 1) {
+            throw new BadRequestException("Steps must be at least 1");
+        }
+        
+        if (steps > game.undoableThrows) {
+            throw new BadRequestException("Cannot undo more than " + game.undoableThrows + " throws");
+        }
+        
+        game.revise();
+        for (int i = 0; i < steps; i++) {
+            undoLastThrow(game);
+        }
+        game.touch();
+        
+        return game;
+    }
+    
+    /**
+     * Undo the last throw of a game
+     */
+    private void undoLastThrow(Game game) {
+        Turn turn = game.getLastTurn();
+        
+        // An empty turn was opened by nextPlayer: go back to the previous player
+        if (turn != null && turn.getThrowCount() == 0 && game.turns.size() > 1) {
+            game.turns.remove(turn);
+            game.previousPlayer();
+            turn = game.getLastTurn();
+        }
+        
+        if (turn == null || turn.getThrowCount() == 0) {
+            throw new BadRequestException("No throw to undo");
+        }
+        
+        // Fired before the throw is removed, so it carries the totals of the game as it was won
+        if (game.isCompleted()) {
+            fireGameCompletedEvent(game, turn, turn.dartThrows.get(turn.getThrowCount() - 1), true);
+            game.reopen();
+            finishedGames.evict(game.id);
+        }
+        
+        Throw dartThrow = turn.removeLastThrow();
+        int scoreBefore = turn.remainingScore;
+        boolean bustBefore = turn.isBust;
+        
+        GameRules rules = game.getRules();
+        if (rules instanceof CricketRules cricket) {
+            if (dartThrow.effect == null) {
+                throw new BadRequestException("Throw cannot be undone");
+            }
+            int player = game.players.indexOf(turn.player);
+            cricket.revertThrow(game.cricketState, player, dartThrow.sector, dartThrow.effect);
+            turn.remainingScore = CricketRules.points(game.cricketState[player]);
+        } else {
+            // Replay the darts left in the turn from the score it started with
+            turn.isBust = false;
+            turn.remainingScore = turn.startingScore;
+            for (Throw remaining : turn.dartThrows) {
+                processScoreThrow(game, turn, (ScoreRules) rules, remaining.sector, remaining.multiplier);
+            }
+        }
+        
+        game.undoableThrows--;
+        fireThrowEvent(game, turn, dartThrow, scoreBefore, bustBefore && !turn.isBust, true);
+    }
+    
+    /**
+     * Notify observers that a throw was recorded or undone
+     *
+     * @param bust true if the throw busted the turn, or if undoing it cleared the bust
+     */
+    void fireThrowEvent(Game game, Turn turn, Throw dartThrow, int scoreBefore, boolean bust, boolean undone) {
+        fireThrowEvent(game, turn, dartThrow, scoreBefore, turn.remainingScore, bust, undone);
     }
     
     /**
-     * Move to next player
+     * Notify observers of a throw whose effect on the turn score is already known
+     */
+    void fireThrowEvent(Game game, Turn turn, Throw dartThrow, int scoreBefore, int scoreAfter, boolean bust,
+                        boolean undone) {
+        int points = game.getRules() instanceof ScoreRules rules
+            ? rules.pointsScored(scoreBefore, scoreAfter)
+            : scoreAfter - scoreBefore;
+        throwEvents.fire(new ThrowEvent(
+            dartThrow.id,
+            game.id,
+            game.revision,
+            game.gameMode,
+            turn.player.id,
+            dartThrow.sector,
+            dartThrow.multiplier,
+            undone ? -points : points,
+            bust,
+            dartThrow.timestamp,
+            undone
+        ));
+    }
+    
+    /**
+     * Notify observers that a game was won, or that its winning throw was undone
+     */
+    void fireGameCompletedEvent(Game game, Turn winningTurn, Throw winningThrow, boolean reverted) {
+        int checkout = game.getRules() instanceof X01Rules ? winningTurn.startingScore : 0;
+        List<Long> playerIds = game.players.stream().map(p -> p.id).toList();
+        
+        // Totals of the game as it stands when won, which is also how it stands when the win is undone
+        int[] darts = new int[playerIds.size()];
+        int[] points = new int[playerIds.size()];
+        if (game.getRules() instanceof ScoreRules rules) {
+            for (Turn turn : game.turns) {
+                int index = playerIds.indexOf(turn.player.id);
+                darts[index] += turn.getThrowCount();
+                if (turn.startingScore != null && turn.remainingScore != null) {
+                    points[index] += rules.pointsScored(turn.startingScore, turn.remainingScore);
+                }
+            }
+        }
+        
+        gameCompletedEvents.fire(new GameCompletedEvent(
+            game.id,
+            game.revision,
+            winningThrow.id,
+            game.gameMode,
+            game.winner.id,
+            playerIds,
+            darts,
+            points,
+            checkout,
+            winningThrow.timestamp,
+            reverted
+        ));
+    }
+    
+    /**
+     * Move to next player, timing each phase with a {@link GamePhaseEvent}
      */
     @Transactional
     public Game nextPlayer(Long gameId) {
+        GamePhaseEvent phase = GamePhaseEvent.start(GamePhaseEvent.NEXT_PLAYER, "load", gameId);
+        ownership.fence(gameId);
         Game game = getGame(gameId);
+        phase.finish(game);
         
+        phase = GamePhaseEvent.start(GamePhaseEvent.NEXT_PLAYER, "validation", gameId);
         if (!game.isInProgress()) {
             throw new BadRequestException("Game is not in progress");
         }
+        phase.finish(game);
         
         // Get the last turn for the current player
+        phase = GamePhaseEvent.start(GamePhaseEvent.NEXT_PLAYER, "turnLookup", gameId);
         Turn lastTurn = game.turns.stream()
             .filter(t -> t.player.id.equals(game.getCurrentPlayer().id))
             .reduce((first, second) -> second)
@@ -191,30 +459,59 @@ public class GameService {
         if (lastTurn == null || !lastTurn.isComplete()) {
             throw new BadRequestException("Current turn is not complete");
         }
+        phase.finish(game);
         
         // Move to next player
+        phase = GamePhaseEvent.start(GamePhaseEvent.NEXT_PLAYER, "persist", gameId);
         game.nextPlayer();
         
         // Create new turn for next player
         Turn nextTurn = game.createNewTurn();
-        
-        // Set initial remaining score for 301 modes
-        if (game.gameMode != GameMode.TRAINING) {
-            nextTurn.remainingScore = game.getPlayerScore(game.getCurrentPlayer());
-        }
-        
         nextTurn.persist();
+        game.snapshotIfDue(snapshotInterval);
+        game.touch();
+        phase.finish(game);
         
         return game;
     }
     
     /**
-     * Delete a game
+     * Delete a game.
+     *
+     * Its throws are undone first, last to first, so the observers keeping
+     * results in memory (leaderboard, heatmap, daily stats, head-to-head,
+     * throw archive) drop the game through the reverted events they already
+     * handle.
      */
     @Transactional
     public void deleteGame(Long gameId) {
+        ownership.fence(gameId);
         Game game = getGame(gameId);
+        game.reviseForDeletion();
+        revertThrows(game);
         game.delete();
+        finishedGames.evict(gameId);
+    }
+    
+    /**
+     * Undo every throw of a game, firing the reverted events
+     */
+    private void revertThrows(Game game) {
+        // Cricket throws recorded before their effect was stored cannot be reverted
+        if (game.getRules() instanceof CricketRules && game.turns.stream()
+                .flatMap(turn -> turn.dartThrows.stream())
+                .anyMatch(dartThrow -> dartThrow.effect == null)) {
+            LOG.warnf("Cannot revert the throws of game %d, its results stay in memory until restart", game.id);
+            return;
+        }
+        Turn turn;
+        while ((turn = game.getLastTurn()) != null) {
+            if (turn.getThrowCount() == 0) {
+                game.turns.remove(turn);
+            } else {
+                undoLastThrow(game);
+            }
+        }
     }
     
     /**
@@ -228,7 +525,7 @@ public class GameService {
      * Get game history (recent turns)
      */
     public List<Turn> getGameHistory(Long gameId) {
-        Game game = getGame(gameId);
+        Game game = readGame(gameId, true);
         return game.turns;
     }
 }
\ No newline at end of file
@@ -0,0 +1,317 @@
+package com.dartscorer.service;
+
+import com.dartscorer.dto.HeadToHeadDTO;
+import com.dartscorer.event.GameCompletedEvent;
+import com.dartscorer.event.PlayerEvent;
+import com.dartscorer.model.GameMode;
+import com.dartscorer.model.GameStatus;
+import com.dartscorer.rules.ScoreRules;
+import com.dartscorer.rules.X01Rules;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service keeping the head-to-head record of every pair of players.
+ *
+ * Each pair that completed a game together has a record with the games
+ * played and, for both players, the wins, darts, points and checkouts of
+ * those games, keyed by the two player ids, so any pair is found with one
+ * hash lookup. A game with more than two players counts for each pair of its
+ * players. Records are updated when a game is won or its win is undone,
+ * backfilled from the game history once at startup, and recomputed by
+ * {@link StatsRecomputeService}. Games won on another instance only count
+ * here from its next periodic recomputation.
+ */
+@ApplicationScoped
+public class HeadToHeadService {
+    
+    private static final Logger LOG = Logger.getLogger(HeadToHeadService.class);
+    
+    /**
+     * Two players, the lower id first
+     */
+    private record Pair(long low, long high) {
+        
+        static Pair of(long first, long second) {
+            return first < second ? new Pair(first, second) : new Pair(second, first);
+        }
+        
+        boolean contains(long playerId) {
+            return low == playerId || high == playerId;
+        }
+    }
+    
+    /**
+     * Totals of one player of a pair
+     */
+    private static final class Side {
+        int wins;
+        long darts;
+        long points;
+        
+        /**
+         * Checkout scores with their number of occurrences, so an undone checkout can be removed
+         */
+        TreeMap<Integer, Integer> checkouts;
+        
+        void addCheckout(int checkout, int direction) {
+            if (checkouts == null) {
+                checkouts = new TreeMap<>();
+            }
+            if (checkouts.merge(checkout, direction, Integer::sum) == 0) {
+                checkouts.remove(checkout);
+            }
+        }
+        
+        int highestCheckout() {
+            return checkouts == null || checkouts.isEmpty() ? 0 : checkouts.lastKey();
+        }
+    }
+    
+    /**
+     * Record of a pair of players
+     */
+    private static final class Rivalry {
+        int games;
+        final Side low = new Side();
+        final Side high = new Side();
+        
+        Side side(Pair pair, long playerId) {
+            return pair.low == playerId ? low : high;
+        }
+    }
+    
+    /**
+     * A completed game, while backfilling
+     */
+    private static final class PlayedGame {
+        Long winnerId;
+        int checkout;
+        final List<Long> playerIds = new ArrayList<>(2);
+        final Map<Long, long[]> totals = new HashMap<>();
+        
+        long[] totals(Long playerId) {
+            return totals.computeIfAbsent(playerId, id -> new long[2]);
+        }
+    }
+    
+    @Inject
+    EntityManager entityManager;
+    
+    private volatile Map<Pair, Rivalry> rivalries = new ConcurrentHashMap<>();
+    
+    private final RecomputeBuffer recompute = new RecomputeBuffer();
+    
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        backfill();
+    }
+    
+    /**
+     * Rebuild every record from the completed games
+     */
+    @Transactional
+    public void backfill() {
+        long start = System.nanoTime();
+        List<GameMode> scoreModes = Arrays.stream(GameMode.values())
+            .filter(mode -> mode.rules() instanceof ScoreRules)
+            .toList();
+        List<GameMode> countdownModes = Arrays.stream(GameMode.values())
+            .filter(mode -> mode.rules() instanceof X01Rules)
+            .toList();
+        
+        Map<Long, PlayedGame> games = new HashMap<>();
+        for (Object[] row : query("select g.id, g.winner.id, p.id from Game g join g.players p where g.status = ?1",
+                GameStatus.COMPLETED)) {
+            PlayedGame game = games.computeIfAbsent(((Number) row[0]).longValue(), id -> new PlayedGame());
+            game.winnerId = row[1] != null ? ((Number) row[1]).longValue() : null;
+            game.playerIds.add(((Number) row[2]).longValue());
+        }
+        
+        for (Object[] row : query("select t.game.id, t.player.id, count(th.id) from Throw th join th.turn t join t.game g "
+                + "where g.status = ?1 and g.gameMode in ?2 group by t.game.id, t.player.id",
+                GameStatus.COMPLETED, scoreModes)) {
+            PlayedGame game = games.get(((Number) row[0]).longValue());
+            if (game != null) {
+                game.totals(((Number) row[1]).longValue())[0] = ((Number) row[2]).longValue();
+            }
+        }
+        
+        for (Object[] row : query("select t.game.id, t.player.id, "
+                + "sum(case when g.gameMode = ?3 then t.remainingScore - t.startingScore "
+                + "else t.startingScore - t.remainingScore end) "
+                + "from Turn t join t.game g where g.status = ?1 and g.gameMode in ?2 and t.startingScore is not null "
+                + "group by t.game.id, t.player.id", GameStatus.COMPLETED, scoreModes, GameMode.TRAINING)) {
+            PlayedGame game = games.get(((Number) row[0]).longValue());
+            if (game != null && row[2] != null) {
+                game.totals(((Number) row[1]).longValue())[1] = ((Number) row[2]).longValue();
+            }
+        }
+        
+        for (Object[] row : query("select g.id, t.startingScore from Turn t join t.game g "
+                + "where g.status = ?1 and t.player = g.winner and t.remainingScore = 0 "
+                + "and t.startingScore is not null and g.gameMode in ?2", GameStatus.COMPLETED, countdownModes)) {
+            PlayedGame game = games.get(((Number) row[0]).longValue());
+            if (game != null) {
+                game.checkout = ((Number) row[1]).intValue();
+            }
+        }
+        
+        Map<Pair, Rivalry> rebuilt = new HashMap<>();
+        for (PlayedGame game : games.values()) {
+            for (int i = 0; i < game.playerIds.size(); i++) {
+                for (int j = i + 1; j < game.playerIds.size(); j++) {
+                    Long first = game.playerIds.get(i);
+                    Long second = game.playerIds.get(j);
+                    Pair pair = Pair.of(first, second);
+                    Rivalry rivalry = rebuilt.computeIfAbsent(pair, p -> new Rivalry());
+                    rivalry.games++;
+                    for (Long playerId : List.of(first, second)) {
+                        long[] totals = game.totals.getOrDefault(playerId, new long[2]);
+                        apply(rivalry.side(pair, playerId), playerId.equals(game.winnerId), totals[0], totals[1],
+                            game.checkout, 1);
+                    }
+                }
+            }
+        }
+        
+        rivalries = new ConcurrentHashMap<>(rebuilt);
+        LOG.infof("Head-to-head records backfilled for %d pairs from %d games in %d ms",
+            rebuilt.size(), games.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<Object[]> query(String jpql, Object... parameters) {
+        var query = entityManager.createQuery(jpql);
+        for (int i = 0; i < parameters.length; i++) {
+            query.setParameter(i + 1, parameters[i]);
+        }
+        return query.getResultList();
+    }
+    
+    void onGameCompleted(@Observes(during = TransactionPhase.AFTER_SUCCESS) GameCompletedEvent event) {
+        recompute.apply(event, () -> apply(rivalries, event.playerIds, event.winnerId, event.playerDarts,
+            event.playerPoints, event.checkout, event.direction()));
+    }
+    
+    void onPlayer(@Observes(during = TransactionPhase.AFTER_SUCCESS) PlayerEvent event) {
+        if (event.deleted) {
+            recompute.apply(event, () -> rivalries.keySet().removeIf(pair -> pair.contains(event.playerId)));
+        }
+    }
+    
+    /**
+     * Count a game won, or its win undone, for each pair of its players
+     */
+    private static void apply(Map<Pair, Rivalry> rivalries, List<Long> playerIds, Long winnerId, int[] darts,
+                              int[] points, int checkout, int direction) {
+        for (int i = 0; i < playerIds.size(); i++) {
+            for (int j = i + 1; j < playerIds.size(); j++) {
+                Pair pair = Pair.of(playerIds.get(i), playerIds.get(j));
+                Rivalry rivalry = rivalries.computeIfAbsent(pair, p -> new Rivalry());
+                synchronized (rivalry) {
+                    rivalry.games += direction;
+                    for (int index : new int[] {i, j}) {
+                        Long playerId = playerIds.get(index);
+                        apply(rivalry.side(pair, playerId), playerId.equals(winnerId),
+                            (long) direction * darts[index], (long) direction * points[index], checkout, direction);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Start keeping the games applied from now on, to replay them on top of recomputed records
+     */
+    void beginRecompute() {
+        recompute.begin();
+    }
+    
+    void abortRecompute() {
+        recompute.abort();
+    }
+    
+    /**
+     * Replace every record with recomputed ones, replaying the games won or
+     * reopened since {@link #beginRecompute()} with a later game revision
+     */
+    void replaceAll(StatsAccumulator totals, GameRevisions revisions) {
+        Map<Pair, Rivalry> rebuilt = new ConcurrentHashMap<>();
+        for (StatsAccumulator.WonGame game : totals.wonGames) {
+            apply(rebuilt, game.playerIds(), game.winnerId(), game.darts(), game.points(), game.checkout(), 1);
+        }
+        
+        recompute.replace(events -> {
+            revisions.noteDeletions(events);
+            for (Object event : events) {
+                if (event instanceof GameCompletedEvent gameEvent) {
+                    if (!revisions.includes(gameEvent)) {
+                        apply(rebuilt, gameEvent.playerIds, gameEvent.winnerId, gameEvent.playerDarts,
+                            gameEvent.playerPoints, gameEvent.checkout, gameEvent.direction());
+                    }
+                } else if (event instanceof PlayerEvent playerEvent) {
+                    rebuilt.keySet().removeIf(pair -> pair.contains(playerEvent.playerId));
+                }
+            }
+            rivalries = rebuilt;
+        });
+    }
+    
+    private static void apply(Side side, boolean winner, long darts, long points, int checkout, int direction) {
+        side.darts += darts;
+        side.points += points;
+        if (winner) {
+            side.wins += direction;
+            if (checkout > 0) {
+                side.addCheckout(checkout, direction);
+            }
+        }
+    }
+    
+    /**
+     * Record of a player against an opponent, all zero if they never completed a game together
+     */
+    public HeadToHeadDTO getHeadToHead(Long playerId, Long opponentId) {
+        Pair pair = Pair.of(playerId, opponentId);
+        Rivalry rivalry = rivalries.get(pair);
+        HeadToHeadDTO dto = new HeadToHeadDTO();
+        if (rivalry == null) {
+            dto.games = 0;
+            dto.player = toDTO(playerId, new Side());
+            dto.opponent = toDTO(opponentId, new Side());
+            return dto;
+        }
+        synchronized (rivalry) {
+            dto.games = rivalry.games;
+            dto.player = toDTO(playerId, rivalry.side(pair, playerId));
+            dto.opponent = toDTO(opponentId, rivalry.side(pair, opponentId));
+        }
+        return dto;
+    }
+    
+    private static HeadToHeadDTO.Side toDTO(Long playerId, Side side) {
+        HeadToHeadDTO.Side dto = new HeadToHeadDTO.Side();
+        dto.playerId = playerId;
+        dto.wins = side.wins;
+        dto.darts = side.darts;
+        dto.points = side.points;
+        dto.threeDartAverage = side.darts == 0 ? 0.0 : Math.round(side.points * 300.0 / side.darts) / 100.0;
+        dto.highestCheckout = side.highestCheckout();
+        return dto;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,279 @@
+package com.dartscorer.service;
+
+import com.dartscorer.config.DataSourceRouting;
+import com.dartscorer.dto.HeatmapDTO;
+import com.dartscorer.event.PlayerEvent;
+import com.dartscorer.event.ThrowEvent;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Service keeping per-player hit counts by sector and multiplier.
+ *
+ * Counts are kept in primitive arrays, one for all time and one per day a
+ * player threw, updated after each committed throw. Reads only add up
+ * arrays and never scan throw rows. The arrays are backfilled once at
+ * startup by reading the throw table in parallel id ranges, and
+ * recomputed by {@link StatsRecomputeService}, which also brings in the
+ * throws recorded by other instances.
+ */
+@ApplicationScoped
+public class HeatmapService {
+    
+    private static final Logger LOG = Logger.getLogger(HeatmapService.class);
+    
+    /**
+     * Sector of each heatmap row: bull first, then 1 to 20
+     */
+    public static final int[] SECTORS = {25, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20};
+    
+    public static final int MULTIPLIERS = 4;
+    
+    static final int CELLS = SECTORS.length * MULTIPLIERS;
+    
+    /**
+     * Hit counts of a single player
+     */
+    private static final class PlayerHeatmap {
+        final int[] total = new int[CELLS];
+        
+        /**
+         * Daily counts by epoch day
+         */
+        final TreeMap<Long, int[]> days = new TreeMap<>();
+        
+        void add(long day, int cell, int count) {
+            total[cell] += count;
+            days.computeIfAbsent(day, d -> new int[CELLS])[cell] += count;
+        }
+        
+        void merge(PlayerHeatmap other) {
+            for (int cell = 0; cell < CELLS; cell++) {
+                total[cell] += other.total[cell];
+            }
+            other.days.forEach((day, counts) -> {
+                int[] merged = days.computeIfAbsent(day, d -> new int[CELLS]);
+                for (int cell = 0; cell < CELLS; cell++) {
+                    merged[cell] += counts[cell];
+                }
+            });
+        }
+    }
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @ConfigProperty(name = "darts.heatmap.backfill-threads", defaultValue = "4")
+    int backfillThreads;
+    
+    private volatile Map<Long, PlayerHeatmap> heatmaps = new ConcurrentHashMap<>();
+    
+    private final RecomputeBuffer recompute = new RecomputeBuffer();
+    
+    void onStart(@Observes StartupEvent event) {
+        backfill();
+    }
+    
+    /**
+     * Rebuild every heatmap from the throw table, one id range per thread
+     */
+    public void backfill() {
+        long start = System.nanoTime();
+        Object[] bounds = QuarkusTransaction.requiringNew().call(() -> (Object[]) entityManager
+            .createQuery("select min(th.id), max(th.id) from Throw th")
+            .getSingleResult());
+        
+        Map<Long, PlayerHeatmap> rebuilt = new HashMap<>();
+        if (bounds[0] != null) {
+            long minId = ((Number) bounds[0]).longValue();
+            long maxId = ((Number) bounds[1]).longValue();
+            int partitions = Math.max(1, backfillThreads);
+            long step = (maxId - minId) / partitions + 1;
+            
+            ExecutorService executor = Executors.newFixedThreadPool(partitions);
+            try {
+                List<Future<Map<Long, PlayerHeatmap>>> results = new ArrayList<>();
+                for (long from = minId; from <= maxId; from += step) {
+                    long lo = from;
+                    long hi = Math.min(maxId, from + step - 1);
+                    results.add(executor.submit(() -> DataSourceRouting.callOnPrimary(() ->
+                        QuarkusTransaction.requiringNew().call(() -> loadRange(lo, hi)))));
+                }
+                for (Future<Map<Long, PlayerHeatmap>> result : results) {
+                    result.get().forEach((playerId, heatmap) ->
+                        rebuilt.merge(playerId, heatmap, (a, b) -> {
+                            a.merge(b);
+                            return a;
+                        }));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Heatmap backfill interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Heatmap backfill failed", e.getCause());
+            } finally {
+                executor.shutdown();
+            }
+        }
+        
+        heatmaps = new ConcurrentHashMap<>(rebuilt);
+        LOG.infof("Heatmaps backfilled for %d players in %d ms", rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    /**
+     * Aggregate the throws of an id range by player, day and cell
+     */
+    private Map<Long, PlayerHeatmap> loadRange(long fromId, long toId) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createQuery(
+                "select t.player.id, th.sector, th.multiplier, extract(date from th.timestamp), count(th.id) "
+                + "from Throw th join th.turn t where th.id between ?1 and ?2 "
+                + "group by t.player.id, th.sector, th.multiplier, extract(date from th.timestamp)")
+            .setParameter(1, fromId)
+            .setParameter(2, toId)
+            .getResultList();
+        
+        Map<Long, PlayerHeatmap> partial = new HashMap<>();
+        for (Object[] row : rows) {
+            Long playerId = ((Number) row[0]).longValue();
+            int cell = cell(((Number) row[1]).intValue(), ((Number) row[2]).intValue());
+            long day = toLocalDate(row[3]).toEpochDay();
+            partial.computeIfAbsent(playerId, id -> new PlayerHeatmap())
+                .add(day, cell, ((Number) row[4]).intValue());
+        }
+        return partial;
+    }
+    
+    void onThrow(@Observes(during = TransactionPhase.AFTER_SUCCESS) ThrowEvent event) {
+        recompute.apply(event, () -> apply(heatmaps, event));
+    }
+    
+    void onPlayer(@Observes(during = TransactionPhase.AFTER_SUCCESS) PlayerEvent event) {
+        if (event.deleted) {
+            recompute.apply(event, () -> heatmaps.remove(event.playerId));
+        }
+    }
+    
+    private static void apply(Map<Long, PlayerHeatmap> heatmaps, ThrowEvent event) {
+        PlayerHeatmap heatmap = heatmaps.computeIfAbsent(event.playerId, id -> new PlayerHeatmap());
+        synchronized (heatmap) {
+            heatmap.add(event.timestamp.toLocalDate().toEpochDay(), cell(event.sector, event.multiplier), event.direction());
+        }
+    }
+    
+    /**
+     * Start keeping the throws applied from now on, to replay them on top of recomputed counts
+     */
+    void beginRecompute() {
+        recompute.begin();
+    }
+    
+    void abortRecompute() {
+        recompute.abort();
+    }
+    
+    /**
+     * Replace every heatmap with recomputed counts, replaying the throws
+     * applied since {@link #beginRecompute()} with a later game revision
+     */
+    void replaceAll(StatsAccumulator totals, GameRevisions revisions) {
+        Map<Long, PlayerHeatmap> rebuilt = new ConcurrentHashMap<>();
+        totals.hits.forEach((key, counts) -> {
+            PlayerHeatmap heatmap = rebuilt.computeIfAbsent(totals.playerIds[StatsAccumulator.slotOf(key)],
+                id -> new PlayerHeatmap());
+            for (int cell = 0; cell < CELLS; cell++) {
+                if (counts[cell] != 0) {
+                    heatmap.add(StatsAccumulator.dayOf(key), cell, counts[cell]);
+                }
+            }
+        });
+        
+        recompute.replace(events -> {
+            revisions.noteDeletions(events);
+            for (Object event : events) {
+                if (event instanceof ThrowEvent throwEvent) {
+                    if (!revisions.includes(throwEvent)) {
+                        apply(rebuilt, throwEvent);
+                    }
+                } else if (event instanceof PlayerEvent playerEvent) {
+                    rebuilt.remove(playerEvent.playerId);
+                }
+            }
+            heatmaps = rebuilt;
+        });
+    }
+    
+    /**
+     * Get the heatmap of a player, optionally limited to a range of days (both inclusive)
+     */
+    public HeatmapDTO getHeatmap(Long playerId, LocalDate from, LocalDate to) {
+        int[] counts = new int[CELLS];
+        PlayerHeatmap heatmap = heatmaps.get(playerId);
+        if (heatmap != null) {
+            synchronized (heatmap) {
+                if (from == null && to == null) {
+                    System.arraycopy(heatmap.total, 0, counts, 0, CELLS);
+                } else {
+                    long first = from != null ? from.toEpochDay() : Long.MIN_VALUE;
+                    long last = to != null ? to.toEpochDay() : Long.MAX_VALUE;
+                    for (int[] day : heatmap.days.subMap(first, true, last, true).values()) {
+                        for (int cell = 0; cell < CELLS; cell++) {
+                            counts[cell] += day[cell];
+                        }
+                    }
+                }
+            }
+        }
+        
+        HeatmapDTO dto = new HeatmapDTO();
+        dto.playerId = playerId;
+        dto.from = from;
+        dto.to = to;
+        dto.sectors = SECTORS.clone();
+        dto.counts = new int[SECTORS.length][MULTIPLIERS];
+        long total = 0;
+        for (int row = 0; row < SECTORS.length; row++) {
+            for (int multiplier = 0; multiplier < MULTIPLIERS; multiplier++) {
+                int count = counts[row * MULTIPLIERS + multiplier];
+                dto.counts[row][multiplier] = count;
+                total += count;
+            }
+        }
+        dto.totalDarts = total;
+        return dto;
+    }
+    
+    /**
+     * Index of a sector and multiplier in the count arrays (bull and misses share row 0)
+     */
+    static int cell(int sector, int multiplier) {
+        int row = sector == 25 ? 0 : sector;
+        return row * MULTIPLIERS + multiplier;
+    }
+    
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+}
\ No newline at end of file
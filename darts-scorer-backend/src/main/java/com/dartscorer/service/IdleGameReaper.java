@@ -0,0 +1,182 @@
+package com.dartscorer.service;
+
+import com.dartscorer.config.DataSourceRouting;
+import com.dartscorer.dto.ReaperStatusDTO;
+import com.dartscorer.model.Game;
+import com.dartscorer.model.GameStatus;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancels abandoned games, so the games in progress stay a bounded working set.
+ *
+ * A game in progress whose last activity is older than the idle timeout is
+ * found through the index on status and last activity, without reading its
+ * turns. Games are cancelled a small batch per transaction, each fenced like
+ * any other mutation; games owned by another instance are left to that
+ * instance. Cancelled games drop out of the lease heartbeat, and their
+ * players are evicted from the second-level cache.
+ */
+@ApplicationScoped
+public class IdleGameReaper {
+    
+    private static final Logger LOG = Logger.getLogger(IdleGameReaper.class);
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @Inject
+    GameOwnershipService ownership;
+    
+    @ConfigProperty(name = "darts.reaper.idle-timeout", defaultValue = "24h")
+    Duration idleTimeout;
+    
+    @ConfigProperty(name = "darts.reaper.interval", defaultValue = "15m")
+    Duration interval;
+    
+    @ConfigProperty(name = "darts.reaper.batch-size", defaultValue = "50")
+    int batchSize;
+    
+    private ScheduledExecutorService scheduler;
+    
+    private long runs;
+    private long totalReaped;
+    private LocalDateTime lastRunAt;
+    private int lastRunReaped;
+    private long lastRunMillis;
+    
+    void onStart(@Observes StartupEvent event) {
+        DataSourceRouting.runOnPrimary(() -> QuarkusTransaction.requiringNew().run(this::backfillActivity));
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idle-game-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::scheduledRun, period, period, TimeUnit.MILLISECONDS);
+    }
+    
+    void onStop(@Observes ShutdownEvent event) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    /**
+     * Give games created before the last activity was tracked the time of their last throw
+     */
+    private void backfillActivity() {
+        int updated = entityManager.createQuery(
+                "update Game g set g.lastActivityAt = coalesce("
+                + "(select max(th.timestamp) from Throw th where th.turn.game = g), g.startedAt) "
+                + "where g.lastActivityAt is null")
+            .executeUpdate();
+        if (updated > 0) {
+            LOG.infof("Last activity set on %d games", updated);
+        }
+    }
+    
+    private void scheduledRun() {
+        try {
+            reap();
+        } catch (RuntimeException e) {
+            LOG.warn("Idle game reaper failed", e);
+        }
+    }
+    
+    /**
+     * Cancel every game idle for longer than the timeout
+     *
+     * @return the number of games cancelled
+     */
+    public synchronized int reap() {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minus(idleTimeout);
+        int reaped = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            List<Long> candidates = DataSourceRouting.callOnPrimary(() -> QuarkusTransaction.requiringNew().call(() ->
+                entityManager.createQuery(
+                        "select g.id from Game g where g.status = ?1 and g.lastActivityAt < ?2 and g.id > ?3 order by g.id",
+                        Long.class)
+                    .setParameter(1, GameStatus.IN_PROGRESS)
+                    .setParameter(2, cutoff)
+                    .setParameter(3, from)
+                    .setMaxResults(batchSize)
+                    .getResultList()));
+            if (candidates.isEmpty()) {
+                break;
+            }
+            List<Long> cancelled = DataSourceRouting.callOnPrimary(() -> QuarkusTransaction.requiringNew().call(() ->
+                cancel(candidates, cutoff)));
+            Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+            for (Long gameId : cancelled) {
+                cache.evictCollectionData(Game.class.getName() + ".players", gameId);
+            }
+            reaped += cancelled.size();
+            afterId = candidates.get(candidates.size() - 1);
+            if (candidates.size() < batchSize) {
+                break;
+            }
+        }
+        
+        runs++;
+        totalReaped += reaped;
+        lastRunAt = LocalDateTime.now();
+        lastRunReaped = reaped;
+        lastRunMillis = (System.nanoTime() - start) / 1_000_000;
+        if (reaped > 0) {
+            LOG.infof("Cancelled %d games idle for more than %s", reaped, idleTimeout);
+        }
+        return reaped;
+    }
+    
+    /**
+     * Cancel a batch of games, checking again under the fence that they are still idle
+     */
+    private List<Long> cancel(List<Long> gameIds, LocalDateTime cutoff) {
+        List<Long> cancelled = new ArrayList<>();
+        for (Long gameId : gameIds) {
+            try {
+                ownership.fence(gameId);
+            } catch (GameOwnedElsewhereException e) {
+                continue;
+            }
+            Game game = Game.findById(gameId);
+            if (game != null && game.isInProgress() && game.lastActivityAt.isBefore(cutoff)) {
+                game.cancel();
+                cancelled.add(gameId);
+            }
+        }
+        return cancelled;
+    }
+    
+    public synchronized ReaperStatusDTO getStatus() {
+        ReaperStatusDTO dto = new ReaperStatusDTO();
+        dto.idleTimeoutSeconds = idleTimeout.toSeconds();
+        dto.runs = runs;
+        dto.totalReaped = totalReaped;
+        dto.lastRunAt = lastRunAt;
+        dto.lastRunReaped = lastRunReaped;
+        dto.lastRunMillis = lastRunMillis;
+        return dto;
+    }
+}
\ No newline at end of file
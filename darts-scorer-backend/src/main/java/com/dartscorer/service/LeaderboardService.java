@@ -0,0 +1,407 @@
+package com.dartscorer.service;
+
+import com.dartscorer.dto.LeaderboardEntryDTO;
+import com.dartscorer.dto.PlayerDTO;
+import com.dartscorer.event.GameCompletedEvent;
+import com.dartscorer.event.PlayerEvent;
+import com.dartscorer.event.ThrowEvent;
+import com.dartscorer.model.GameMode;
+import com.dartscorer.model.GameStatus;
+import com.dartscorer.model.Player;
+import com.dartscorer.rules.ScoreRules;
+import com.dartscorer.rules.X01Rules;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service keeping the player leaderboards up to date.
+ *
+ * Player totals live in memory and are updated from throw and game events
+ * after each commit, so rankings never need an aggregate query over the
+ * throw history. They are rebuilt once at startup, and recomputed from the
+ * full history by {@link StatsRecomputeService}, periodically too: the
+ * events only come from this instance, so games played on other instances
+ * reach the rankings at the next recomputation.
+ */
+@ApplicationScoped
+public class LeaderboardService {
+    
+    private static final Logger LOG = Logger.getLogger(LeaderboardService.class);
+    
+    /**
+     * Available leaderboards
+     */
+    public enum Category {
+        /**
+         * Three-dart average in training and X01 games
+         */
+        AVERAGE,
+        
+        /**
+         * Games won
+         */
+        WINS,
+        
+        /**
+         * Highest X01 checkout
+         */
+        CHECKOUT
+    }
+    
+    /**
+     * Totals of a single player
+     */
+    private static final class Standing {
+        long darts;
+        long points;
+        int wins;
+        
+        /**
+         * Checkout scores with their number of occurrences, so an undone checkout can be removed
+         */
+        final TreeMap<Integer, Integer> checkouts = new TreeMap<>();
+        
+        long average() {
+            // Three-dart average in hundredths of a point
+            return darts == 0 ? 0 : Math.round(points * 300.0 / darts);
+        }
+        
+        int highestCheckout() {
+            return checkouts.isEmpty() ? 0 : checkouts.lastKey();
+        }
+    }
+    
+    @Inject
+    EntityManager entityManager;
+    
+    private final Map<Long, Standing> standings = new HashMap<>();
+    private final Map<Category, RankedIndex> rankings = new EnumMap<>(Category.class);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Events applied while a recomputation is running, null otherwise
+     */
+    private List<Object> pendingEvents;
+    
+    public LeaderboardService() {
+        for (Category category : Category.values()) {
+            rankings.put(category, new RankedIndex());
+        }
+    }
+    
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        rebuild();
+    }
+    
+    /**
+     * Rebuild every leaderboard from the database
+     */
+    @Transactional
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<GameMode> scoreModes = Arrays.stream(GameMode.values())
+            .filter(mode -> mode.rules() instanceof ScoreRules)
+            .toList();
+        List<GameMode> countdownModes = Arrays.stream(GameMode.values())
+            .filter(mode -> mode.rules() instanceof X01Rules)
+            .toList();
+        
+        Map<Long, Standing> rebuilt = new HashMap<>();
+        
+        for (Object[] row : query("select t.player.id, count(th.id) from Throw th join th.turn t join t.game g "
+                + "where g.gameMode in ?1 group by t.player.id", scoreModes)) {
+            standing(rebuilt, row[0]).darts = ((Number) row[1]).longValue();
+        }
+        
+        for (Object[] row : query("select t.player.id, sum(coalesce(t.startingScore - t.remainingScore, 0)) "
+                + "from Turn t join t.game g where g.gameMode in ?1 group by t.player.id", countdownModes)) {
+            standing(rebuilt, row[0]).points += ((Number) row[1]).longValue();
+        }
+        
+        for (Object[] row : query("select t.player.id, sum(coalesce(t.remainingScore - t.startingScore, 0)) "
+                + "from Turn t join t.game g where g.gameMode in ?1 group by t.player.id", List.of(GameMode.TRAINING))) {
+            standing(rebuilt, row[0]).points += ((Number) row[1]).longValue();
+        }
+        
+        for (Object[] row : query("select g.winner.id, count(g.id) from Game g "
+                + "where g.status = ?1 and g.winner is not null group by g.winner.id", GameStatus.COMPLETED)) {
+            standing(rebuilt, row[0]).wins = ((Number) row[1]).intValue();
+        }
+        
+        for (Object[] row : query("select g.winner.id, t.startingScore from Turn t join t.game g "
+                + "where g.status = ?1 and t.player = g.winner and t.remainingScore = 0 "
+                + "and t.startingScore is not null and g.gameMode in ?2", GameStatus.COMPLETED, countdownModes)) {
+            standing(rebuilt, row[0]).checkouts.merge(((Number) row[1]).intValue(), 1, Integer::sum);
+        }
+        
+        lock.writeLock().lock();
+        try {
+            standings.clear();
+            standings.putAll(rebuilt);
+            rankings.values().forEach(RankedIndex::clear);
+            rebuilt.forEach(this::reindex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        LOG.infof("Leaderboards rebuilt for %d players in %d ms", rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    void onThrow(@Observes(during = TransactionPhase.AFTER_SUCCESS) ThrowEvent event) {
+        // Cricket points are not comparable with X01 scoring
+        if (!(event.gameMode.rules() instanceof ScoreRules)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            reindex(event.playerId, apply(standings, event));
+            buffer(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    void onGameCompleted(@Observes(during = TransactionPhase.AFTER_SUCCESS) GameCompletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            reindex(event.winnerId, apply(standings, event));
+            buffer(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    void onPlayer(@Observes(during = TransactionPhase.AFTER_SUCCESS) PlayerEvent event) {
+        if (!event.deleted) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            standings.remove(event.playerId);
+            rankings.values().forEach(ranking -> ranking.remove(event.playerId));
+            buffer(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Start keeping the events applied from now on, to replay them on top of recomputed totals
+     */
+    void beginRecompute() {
+        lock.writeLock().lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Stop keeping events without replacing the totals
+     */
+    void abortRecompute() {
+        lock.writeLock().lock();
+        try {
+            pendingEvents = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Replace every total with recomputed ones in a single step.
+     *
+     * The recomputed totals cover each game as of the revision it was read
+     * at; the events applied since {@link #beginRecompute()} with a later
+     * revision are replayed on top of them.
+     */
+    void replaceAll(StatsAccumulator totals, GameRevisions revisions) {
+        Map<Long, Standing> rebuilt = new HashMap<>();
+        for (int slot = 0; slot < totals.playerIds.length; slot++) {
+            if (totals.darts[slot] != 0 || totals.wins[slot] != 0) {
+                Standing standing = standing(rebuilt, totals.playerIds[slot]);
+                standing.darts = totals.darts[slot];
+                standing.points = totals.points[slot];
+                standing.wins = totals.wins[slot];
+            }
+        }
+        for (int i = 0; i < totals.checkoutCount; i++) {
+            standing(rebuilt, totals.playerIds[totals.checkouts[i * 2]])
+                .checkouts.merge(totals.checkouts[i * 2 + 1], 1, Integer::sum);
+        }
+        
+        lock.writeLock().lock();
+        try {
+            if (pendingEvents != null) {
+                revisions.noteDeletions(pendingEvents);
+                for (Object event : pendingEvents) {
+                    if (event instanceof ThrowEvent throwEvent) {
+                        if (!revisions.includes(throwEvent)) {
+                            apply(rebuilt, throwEvent);
+                        }
+                    } else if (event instanceof GameCompletedEvent gameEvent) {
+                        if (!revisions.includes(gameEvent)) {
+                            apply(rebuilt, gameEvent);
+                        }
+                    } else if (event instanceof PlayerEvent playerEvent) {
+                        rebuilt.remove(playerEvent.playerId);
+                    }
+                }
+                pendingEvents = null;
+            }
+            standings.clear();
+            standings.putAll(rebuilt);
+            rankings.values().forEach(RankedIndex::clear);
+            rebuilt.forEach(this::reindex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void buffer(Object event) {
+        if (pendingEvents != null) {
+            pendingEvents.add(event);
+        }
+    }
+    
+    private static Standing apply(Map<Long, Standing> standings, ThrowEvent event) {
+        Standing standing = standings.computeIfAbsent(event.playerId, id -> new Standing());
+        standing.darts += event.direction();
+        standing.points += (long) event.direction() * event.points;
+        return standing;
+    }
+    
+    private static Standing apply(Map<Long, Standing> standings, GameCompletedEvent event) {
+        Standing standing = standings.computeIfAbsent(event.winnerId, id -> new Standing());
+        standing.wins += event.direction();
+        if (event.checkout > 0) {
+            if (event.reverted) {
+                standing.checkouts.computeIfPresent(event.checkout, (score, count) -> count > 1 ? count - 1 : null);
+            } else {
+                standing.checkouts.merge(event.checkout, 1, Integer::sum);
+            }
+        }
+        return standing;
+    }
+    
+    /**
+     * Get the first entries of a leaderboard
+     */
+    public List<LeaderboardEntryDTO> getTop(Category category, int limit) {
+        List<LeaderboardEntryDTO> entries = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            long[] ids = rankings.get(category).top(limit);
+            for (int i = 0; i < ids.length; i++) {
+                entries.add(toEntry(ids[i], i + 1));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        fillPlayers(entries);
+        return entries;
+    }
+    
+    /**
+     * Get the position of a player in a leaderboard, or null if the player is not ranked
+     */
+    public LeaderboardEntryDTO getRank(Category category, Long playerId) {
+        LeaderboardEntryDTO entry;
+        lock.readLock().lock();
+        try {
+            int rank = rankings.get(category).rank(playerId);
+            if (rank < 0) {
+                return null;
+            }
+            entry = toEntry(playerId, rank);
+        } finally {
+            lock.readLock().unlock();
+        }
+        fillPlayers(List.of(entry));
+        return entry;
+    }
+    
+    /**
+     * Update the position of a player in every leaderboard
+     */
+    private void reindex(Long playerId, Standing standing) {
+        if (standing.darts > 0) {
+            rankings.get(Category.AVERAGE).put(playerId, standing.average());
+        } else {
+            rankings.get(Category.AVERAGE).remove(playerId);
+        }
+        if (standing.wins > 0) {
+            rankings.get(Category.WINS).put(playerId, standing.wins);
+        } else {
+            rankings.get(Category.WINS).remove(playerId);
+        }
+        if (!standing.checkouts.isEmpty()) {
+            rankings.get(Category.CHECKOUT).put(playerId, standing.highestCheckout());
+        } else {
+            rankings.get(Category.CHECKOUT).remove(playerId);
+        }
+    }
+    
+    private LeaderboardEntryDTO toEntry(long playerId, int rank) {
+        Standing standing = standings.get(playerId);
+        LeaderboardEntryDTO entry = new LeaderboardEntryDTO();
+        entry.rank = rank;
+        entry.player = new PlayerDTO(playerId, null);
+        entry.darts = standing.darts;
+        entry.threeDartAverage = standing.average() / 100.0;
+        entry.wins = standing.wins;
+        entry.highestCheckout = standing.highestCheckout();
+        return entry;
+    }
+    
+    /**
+     * Load the names of the ranked players with a single query
+     */
+    private void fillPlayers(List<LeaderboardEntryDTO> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Long> ids = entries.stream().map(e -> e.player.id).toList();
+        Map<Long, Player> players = Player.<Player>list("id in ?1", ids).stream()
+            .collect(Collectors.toMap(p -> p.id, Function.identity()));
+        for (LeaderboardEntryDTO entry : entries) {
+            Player player = players.get(entry.player.id);
+            if (player != null) {
+                entry.player.name = player.name;
+            }
+        }
+    }
+    
+    private static Standing standing(Map<Long, Standing> standings, Object playerId) {
+        return standings.computeIfAbsent(((Number) playerId).longValue(), id -> new Standing());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<Object[]> query(String hql, Object... params) {
+        var query = entityManager.createQuery(hql);
+        for (int i = 0; i < params.length; i++) {
+            query.setParameter(i + 1, params[i]);
+        }
+        return query.getResultList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,231 @@
+package com.dartscorer.service;
+
+import com.dartscorer.dto.ImportMatchRequest;
+import com.dartscorer.dto.ImportResultDTO;
+import com.dartscorer.event.PlayerEvent;
+import com.dartscorer.model.Game;
+import com.dartscorer.model.Player;
+import com.dartscorer.model.Throw;
+import com.dartscorer.model.Turn;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service importing complete matches recorded offline.
+ *
+ * Darts are replayed in memory with the same validation and rules as
+ * {@link GameService#recordThrow}, without reloading the game for each one.
+ * Rows are written with JDBC batching and ids come from pooled sequences,
+ * and the persistence context is flushed and cleared every few thousand
+ * darts so memory stays bounded. A request is imported entirely or not at all.
+ */
+@ApplicationScoped
+public class MatchImportService {
+    
+    @Inject
+    GameService gameService;
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @Inject
+    Event<PlayerEvent> playerEvents;
+    
+    /**
+     * Darts written between two flushes of the persistence context
+     */
+    @ConfigProperty(name = "darts.import.flush-interval", defaultValue = "2000")
+    int flushInterval;
+    
+    /**
+     * Import a list of matches in a single transaction
+     */
+    @Transactional
+    public ImportResultDTO importMatches(List<ImportMatchRequest> matches) {
+        if (matches == null || matches.isEmpty()) {
+            throw new BadRequestException("At least one match is required");
+        }
+        long start = System.nanoTime();
+        Map<String, Long> playerIds = resolvePlayers(matches);
+        
+        ImportResultDTO result = new ImportResultDTO();
+        result.gameIds = new ArrayList<>(matches.size());
+        result.turns = 0;
+        result.darts = 0L;
+        int unflushed = 0;
+        
+        for (int i = 0; i < matches.size(); i++) {
+            Game game;
+            try {
+                game = importMatch(matches.get(i), playerIds);
+            } catch (BadRequestException e) {
+                throw new BadRequestException("Match " + (i + 1) + ": " + e.getMessage());
+            }
+            int darts = game.turns.stream().mapToInt(Turn::getThrowCount).sum();
+            result.gameIds.add(game.id);
+            result.turns += game.turns.size();
+            result.darts += darts;
+            
+            unflushed += darts;
+            if (unflushed >= flushInterval) {
+                entityManager.flush();
+                entityManager.clear();
+                unflushed = 0;
+            }
+        }
+        
+        result.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+    
+    /**
+     * Find or create every player of the request with a single query
+     */
+    private Map<String, Long> resolvePlayers(List<ImportMatchRequest> matches) {
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = 0; i < matches.size(); i++) {
+            ImportMatchRequest match = matches.get(i);
+            if (match == null || match.gameMode == null) {
+                throw new BadRequestException("Match " + (i + 1) + ": Game mode is required");
+            }
+            try {
+                gameService.validatePlayers(match.playerNames);
+            } catch (BadRequestException e) {
+                throw new BadRequestException("Match " + (i + 1) + ": " + e.getMessage());
+            }
+            names.addAll(match.playerNames);
+        }
+        
+        Map<String, Long> playerIds = new HashMap<>();
+        for (Player player : Player.<Player>list("name in ?1", names)) {
+            playerIds.put(player.name, player.id);
+        }
+        for (String name : names) {
+            if (!playerIds.containsKey(name)) {
+                Player player = new Player(name);
+                player.persist();
+                playerEvents.fire(new PlayerEvent(player.id, player.name, false));
+                playerIds.put(name, player.id);
+            }
+        }
+        return playerIds;
+    }
+    
+    /**
+     * Replay the darts of a match on a new game.
+     *
+     * The whole game is built in memory and persisted once at the end, so every
+     * row is a single batched insert with no follow-up update. The score of
+     * the turn before and after each dart is kept to fire the throw events
+     * once the ids are assigned.
+     */
+    private Game importMatch(ImportMatchRequest match, Map<String, Long> playerIds) {
+        List<List<ImportMatchRequest.Dart>> turns = match.turns != null ? match.turns : List.of();
+        
+        Game game = new Game(match.gameMode);
+        for (String name : match.playerNames) {
+            game.addPlayer(entityManager.getReference(Player.class, playerIds.get(name)));
+        }
+        game.start();
+        game.startedAt = startedAt(match, turns);
+        
+        Turn turn = game.createNewTurn();
+        int[] scores = new int[turns.size() * 3 * 2];
+        boolean[] busts = new boolean[turns.size() * 3];
+        int darts = 0;
+        
+        for (int t = 0; t < turns.size(); t++) {
+            List<ImportMatchRequest.Dart> turnDarts = turns.get(t);
+            try {
+                if (t > 0) {
+                    // Same rule as nextPlayer: only a complete turn can be followed by another one
+                    if (!turn.isComplete()) {
+                        throw new BadRequestException("Previous turn is not complete");
+                    }
+                    game.nextPlayer();
+                    turn = game.createNewTurn();
+                    game.snapshotIfDue(gameService.getSnapshotInterval());
+                }
+                if (turnDarts == null || turnDarts.isEmpty() || turnDarts.size() > 3) {
+                    throw new BadRequestException("A turn must have 1 to 3 darts");
+                }
+                for (ImportMatchRequest.Dart dart : turnDarts) {
+                    scores[darts * 2] = turn.remainingScore;
+                    boolean bustBefore = turn.isBust;
+                    importDart(game, turn, dart);
+                    scores[darts * 2 + 1] = turn.remainingScore;
+                    busts[darts] = turn.isBust && !bustBefore;
+                    darts++;
+                }
+            } catch (BadRequestException e) {
+                throw new BadRequestException("Turn " + (t + 1) + ": " + e.getMessage());
+            }
+        }
+        
+        game.lastActivityAt = turn.getThrowCount() > 0
+            ? turn.dartThrows.get(turn.getThrowCount() - 1).timestamp
+            : game.startedAt;
+        Throw winningThrow = null;
+        if (game.isCompleted()) {
+            winningThrow = turn.dartThrows.get(turn.getThrowCount() - 1);
+            game.completedAt = winningThrow.timestamp;
+        }
+        
+        // Turns, throws and snapshots are inserted by cascade
+        game.persist();
+        
+        int dart = 0;
+        for (Turn played : game.turns) {
+            for (Throw dartThrow : played.dartThrows) {
+                gameService.fireThrowEvent(game, played, dartThrow, scores[dart * 2], scores[dart * 2 + 1],
+                    busts[dart], false);
+                dart++;
+            }
+        }
+        if (winningThrow != null) {
+            gameService.fireGameCompletedEvent(game, turn, winningThrow, false);
+        }
+        return game;
+    }
+    
+    private void importDart(Game game, Turn turn, ImportMatchRequest.Dart dart) {
+        if (!game.isInProgress()) {
+            throw new BadRequestException("Game is already over");
+        }
+        if (dart == null || dart.sector == null || dart.multiplier == null) {
+            throw new BadRequestException("Sector and multiplier are required");
+        }
+        gameService.validateThrow(dart.sector, dart.multiplier);
+        
+        Throw dartThrow = new Throw(turn, dart.sector, dart.multiplier, turn.getThrowCount() + 1);
+        if (dart.timestamp != null) {
+            dartThrow.timestamp = dart.timestamp;
+        }
+        turn.addThrow(dartThrow);
+        gameService.processThrow(game, turn, dartThrow, dart.sector, dart.multiplier);
+    }
+    
+    private static LocalDateTime startedAt(ImportMatchRequest match, List<List<ImportMatchRequest.Dart>> turns) {
+        if (match.startedAt != null) {
+            return match.startedAt;
+        }
+        if (!turns.isEmpty() && turns.get(0) != null && !turns.get(0).isEmpty()
+                && turns.get(0).get(0) != null && turns.get(0).get(0).timestamp != null) {
+            return turns.get(0).get(0).timestamp;
+        }
+        return LocalDateTime.now();
+    }
+}
\ No newline at end of file
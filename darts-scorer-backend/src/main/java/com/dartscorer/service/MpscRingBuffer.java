@@ -0,0 +1,111 @@
+package com.dartscorer.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * Each slot has a sequence number telling whether it is free for the
+ * producer at a position or filled for the consumer (Vyukov's bounded
+ * queue). Producers claim a position with one compare-and-set on the tail
+ * and publish the element by advancing the slot sequence; the consumer only
+ * reads sequences and advances the head, so it never contends with them.
+ * A full buffer is reported to the producer instead of blocking it.
+ */
+final class MpscRingBuffer<E> {
+    
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    
+    private final AtomicLong tail = new AtomicLong();
+    
+    /**
+     * Written by the consumer only, read by others for the depth
+     */
+    private final AtomicLong head = new AtomicLong();
+    
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.elements = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    /**
+     * Add an element, from any thread
+     *
+     * @return false if the buffer is full
+     */
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long available = sequences.getAcquire(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    // Volatile, so a consumer going to sleep either sees it or is woken (see isEmpty)
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (available < 0) {
+                return false;
+            }
+            // Otherwise another producer took the position, try the next one
+        }
+    }
+    
+    /**
+     * Move up to a number of elements to a list, from the consumer thread only
+     *
+     * @return the number of elements moved
+     */
+    @SuppressWarnings("unchecked")
+    int drainTo(List<? super E> target, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.getAcquire(index) != position + 1) {
+                // Empty, or the producer of this position has not published yet
+                break;
+            }
+            target.add((E) elements[index]);
+            elements[index] = null;
+            sequences.setRelease(index, position + elements.length);
+            position++;
+            drained++;
+        }
+        head.setRelease(position);
+        return drained;
+    }
+    
+    /**
+     * Check for an element to consume, with a volatile read so that a consumer
+     * announcing it will sleep before checking cannot miss a producer
+     */
+    boolean isEmpty() {
+        long position = head.get();
+        return sequences.get((int) position & mask) != position + 1;
+    }
+    
+    /**
+     * Elements waiting, approximate while producers are adding
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head.getAcquire());
+    }
+    
+    int capacity() {
+        return elements.length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,177 @@
+package com.dartscorer.service;
+
+import com.dartscorer.dto.PlayerDTO;
+import com.dartscorer.event.PlayerEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over player names, for type-ahead search.
+ *
+ * Every word of a name is a key, so "Mario Rossi" is found by "mar" and by
+ * "ros"; keys ignore case and accents. Keys are kept in a sorted array, so a
+ * search is a binary search followed by a scan of the matches. Writers
+ * replace the array with an updated copy and readers never lock. The index
+ * is built at startup and updated from player events after each commit.
+ */
+@ApplicationScoped
+public class PlayerSearchIndex {
+    
+    private static final Logger LOG = Logger.getLogger(PlayerSearchIndex.class);
+    
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    
+    /**
+     * A word of a player name, followed by the rest of the name
+     */
+    private record Entry(String key, long playerId, String name) {
+    }
+    
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key)
+        .thenComparingLong(Entry::playerId);
+    
+    @Inject
+    EntityManager entityManager;
+    
+    private volatile Entry[] entries = new Entry[0];
+    
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        rebuild();
+    }
+    
+    /**
+     * Rebuild the index from the database
+     */
+    @Transactional
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<Entry> rebuilt = new ArrayList<>();
+        for (Object[] row : entityManager.createQuery("select p.id, p.name from Player p", Object[].class)
+                .getResultList()) {
+            rebuilt.addAll(entries((Long) row[0], (String) row[1]));
+        }
+        Entry[] sorted = rebuilt.toArray(new Entry[0]);
+        Arrays.sort(sorted, ORDER);
+        synchronized (this) {
+            entries = sorted;
+        }
+        LOG.infof("Player search index built with %d keys in %d ms", sorted.length, (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    void onPlayer(@Observes(during = TransactionPhase.AFTER_SUCCESS) PlayerEvent event) {
+        if (event.deleted) {
+            remove(event.playerId);
+        } else {
+            add(event.playerId, event.name);
+        }
+    }
+    
+    /**
+     * Players with a name word starting with a prefix, in alphabetical order of the matching word
+     *
+     * @param limit maximum number of players returned
+     */
+    public List<PlayerDTO> search(String prefix, int limit) {
+        String key = normalize(prefix);
+        Entry[] snapshot = entries;
+        List<PlayerDTO> matches = new ArrayList<>(Math.min(limit, 16));
+        Set<Long> seen = new HashSet<>();
+        for (int i = lowerBound(snapshot, key); i < snapshot.length && matches.size() < limit; i++) {
+            Entry entry = snapshot[i];
+            if (!entry.key.startsWith(key)) {
+                break;
+            }
+            if (seen.add(entry.playerId)) {
+                matches.add(new PlayerDTO(entry.playerId, entry.name));
+            }
+        }
+        return matches;
+    }
+    
+    /**
+     * Number of keys in the index
+     */
+    public int size() {
+        return entries.length;
+    }
+    
+    private synchronized void add(long playerId, String name) {
+        Entry[] current = entries;
+        List<Entry> added = entries(playerId, name);
+        Entry[] updated = Arrays.copyOf(current, current.length + added.size());
+        int size = current.length;
+        for (Entry entry : added) {
+            int position = Arrays.binarySearch(updated, 0, size, entry, ORDER);
+            if (position >= 0) {
+                // Already indexed
+                continue;
+            }
+            position = -position - 1;
+            System.arraycopy(updated, position, updated, position + 1, size - position);
+            updated[position] = entry;
+            size++;
+        }
+        entries = size == updated.length ? updated : Arrays.copyOf(updated, size);
+    }
+    
+    private synchronized void remove(long playerId) {
+        entries = Arrays.stream(entries)
+            .filter(entry -> entry.playerId != playerId)
+            .toArray(Entry[]::new);
+    }
+    
+    private static List<Entry> entries(long playerId, String name) {
+        String normalized = normalize(name);
+        List<Entry> keys = new ArrayList<>(2);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                keys.add(new Entry(normalized.substring(i), playerId, name));
+            }
+        }
+        return keys;
+    }
+    
+    /**
+     * First entry with a key not lower than the given one
+     */
+    private static int lowerBound(Entry[] sorted, String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle].key.compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String plain = MARKS.matcher(decomposed).replaceAll("");
+        return SPACES.matcher(plain).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.dartscorer.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ranking of ids by a long value, highest first (ties broken by lowest id).
+ *
+ * Backed by a treap whose nodes keep their subtree size, so updates, the
+ * rank of an id and the k-th entry all take O(log n). Not thread safe.
+ */
+public class RankedIndex {
+    
+    private static final class Node {
+        final long value;
+        final long id;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+        
+        Node(long value, long id) {
+            this.value = value;
+            this.id = id;
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+    
+    private final Map<Long, Long> values = new HashMap<>();
+    private Node root;
+    
+    /**
+     * Set the value of an id, moving it to its new position
+     */
+    public void put(long id, long value) {
+        Long previous = values.put(id, value);
+        if (previous != null) {
+            if (previous == value) {
+                return;
+            }
+            root = delete(root, previous, id);
+        }
+        root = insert(root, new Node(value, id));
+    }
+    
+    /**
+     * Remove an id from the ranking
+     */
+    public void remove(long id) {
+        Long previous = values.remove(id);
+        if (previous != null) {
+            root = delete(root, previous, id);
+        }
+    }
+    
+    /**
+     * Remove every id
+     */
+    public void clear() {
+        values.clear();
+        root = null;
+    }
+    
+    /**
+     * Check if an id is ranked
+     */
+    public boolean contains(long id) {
+        return values.containsKey(id);
+    }
+    
+    /**
+     * Get the value of an id (0 if not ranked)
+     */
+    public long value(long id) {
+        Long value = values.get(id);
+        return value != null ? value : 0;
+    }
+    
+    /**
+     * Number of ranked ids
+     */
+    public int size() {
+        return size(root);
+    }
+    
+    /**
+     * Get the 1-based rank of an id, or -1 if not ranked
+     */
+    public int rank(long id) {
+        Long value = values.get(id);
+        if (value == null) {
+            return -1;
+        }
+        int rank = 1;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(value, id, node.value, node.id);
+            if (cmp == 0) {
+                return rank + size(node.left);
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Get the ids of the first n entries, best first
+     */
+    public long[] top(int n) {
+        long[] ids = new long[Math.max(0, Math.min(n, size()))];
+        collect(root, ids, new int[1]);
+        return ids;
+    }
+    
+    private static void collect(Node node, long[] ids, int[] count) {
+        if (node == null || count[0] == ids.length) {
+            return;
+        }
+        collect(node.left, ids, count);
+        if (count[0] < ids.length) {
+            ids[count[0]++] = node.id;
+        }
+        collect(node.right, ids, count);
+    }
+    
+    private static int compare(long value, long id, long otherValue, long otherId) {
+        if (value != otherValue) {
+            return value > otherValue ? -1 : 1;
+        }
+        return Long.compare(id, otherId);
+    }
+    
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+    
+    private static Node update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+    
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            Node[] parts = split(node, added.value, added.id);
+            added.left = parts[0];
+            added.right = parts[1];
+            return update(added);
+        }
+        if (compare(added.value, added.id, node.value, node.id) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return update(node);
+    }
+    
+    private static Node delete(Node node, long value, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(value, id, node.value, node.id);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, value, id);
+        } else {
+            node.right = delete(node.right, value, id);
+        }
+        return update(node);
+    }
+    
+    /**
+     * Split into the entries before the given key and the entries at or after it
+     */
+    private static Node[] split(Node node, long value, long id) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (compare(node.value, node.id, value, id) < 0) {
+            Node[] parts = split(node.right, value, id);
+            node.right = parts[0];
+            parts[0] = update(node);
+            return parts;
+        }
+        Node[] parts = split(node.left, value, id);
+        node.left = parts[1];
+        parts[1] = update(node);
+        return parts;
+    }
+    
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.dartscorer.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Events applied to an in-memory aggregate while a statistics recomputation
+ * runs, replayed on top of the recomputed values when they replace it.
+ *
+ * Live updates run concurrently with each other but never with the
+ * replacement, so no event is applied to the old values after they were
+ * handed over, or missed by the replay.
+ */
+final class RecomputeBuffer {
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Events kept since the recomputation started, null when none is running
+     */
+    private Queue<Object> pending;
+    
+    /**
+     * Start keeping the events applied from now on
+     */
+    void begin() {
+        lock.writeLock().lock();
+        try {
+            pending = new ConcurrentLinkedQueue<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Stop keeping events without replacing the aggregate
+     */
+    void abort() {
+        lock.writeLock().lock();
+        try {
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Apply a live event, keeping it if a recomputation is running
+     */
+    void apply(Object event, Runnable update) {
+        lock.readLock().lock();
+        try {
+            update.run();
+            if (pending != null) {
+                pending.add(event);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Replace the aggregate in a single step, given the events kept since {@link #begin()}
+     */
+    void replace(Consumer<List<Object>> replacement) {
+        lock.writeLock().lock();
+        try {
+            replacement.accept(pending != null ? new ArrayList<>(pending) : List.of());
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
\ No newline at end of file
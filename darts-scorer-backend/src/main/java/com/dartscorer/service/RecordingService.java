@@ -0,0 +1,154 @@
+package com.dartscorer.service;
+
+import com.dartscorer.dto.RecordingStatusDTO;
+import com.dartscorer.event.GamePhaseEvent;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.ws.rs.BadRequestException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Service running a bounded Java Flight Recorder recording on demand.
+ *
+ * The recording uses the JDK default settings, designed for production
+ * use, plus every {@link GamePhaseEvent}. It stops by itself after the
+ * requested duration and never keeps more than the configured size on disk,
+ * so a latency spike can be profiled without restarting the backend. Only
+ * one recording exists at a time; starting a new one discards the last file.
+ */
+@ApplicationScoped
+public class RecordingService {
+    
+    private static final Logger LOG = Logger.getLogger(RecordingService.class);
+    
+    @ConfigProperty(name = "darts.recording.max-duration", defaultValue = "10m")
+    Duration maxDuration;
+    
+    @ConfigProperty(name = "darts.recording.max-size", defaultValue = "100M")
+    MemorySize maxSize;
+    
+    private Recording recording;
+    private Path file;
+    private LocalDateTime startedAt;
+    
+    /**
+     * Start a recording
+     *
+     * @throws IllegalStateException if a recording is already running
+     */
+    public synchronized RecordingStatusDTO start(Duration duration) {
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            throw new BadRequestException("Duration must be between 1 and " + maxDuration.toSeconds() + " seconds");
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        discard();
+        
+        try {
+            file = Files.createTempFile("darts-scorer-", ".jfr");
+            recording = new Recording(Configuration.getConfiguration("default"));
+            recording.enable(GamePhaseEvent.class);
+            recording.setName("darts-scorer");
+            recording.setToDisk(true);
+            recording.setMaxSize(maxSize.asLongValue());
+            recording.setDuration(duration);
+            recording.setDestination(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Default recording settings not available", e);
+        }
+        recording.start();
+        startedAt = LocalDateTime.now();
+        LOG.infof("Flight recording started for %d s", duration.toSeconds());
+        return status();
+    }
+    
+    /**
+     * Stop the running recording before its duration ends, writing it to its file
+     */
+    public synchronized RecordingStatusDTO stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        return status();
+    }
+    
+    public synchronized RecordingStatusDTO getStatus() {
+        return status();
+    }
+    
+    /**
+     * File of the last recording, or null if none was started
+     *
+     * @throws IllegalStateException if the recording is still running
+     */
+    public synchronized Path getFile() {
+        if (recording == null) {
+            return null;
+        }
+        if (recording.getState() != RecordingState.STOPPED && recording.getState() != RecordingState.CLOSED) {
+            throw new IllegalStateException("The recording is still running");
+        }
+        return file;
+    }
+    
+    void onStop(@Observes ShutdownEvent event) {
+        discard();
+    }
+    
+    private RecordingStatusDTO status() {
+        RecordingStatusDTO dto = new RecordingStatusDTO();
+        if (recording == null) {
+            dto.state = "NONE";
+            return dto;
+        }
+        boolean stopped = recording.getState() == RecordingState.STOPPED || recording.getState() == RecordingState.CLOSED;
+        dto.state = stopped ? "STOPPED" : "RUNNING";
+        dto.startedAt = startedAt;
+        dto.durationSeconds = recording.getDuration() != null ? recording.getDuration().toSeconds() : null;
+        if (stopped) {
+            dto.stoppedAt = LocalDateTime.ofInstant(recording.getStopTime(), ZoneId.systemDefault());
+            try {
+                dto.sizeBytes = Files.size(file);
+            } catch (IOException e) {
+                dto.sizeBytes = 0L;
+            }
+        }
+        return dto;
+    }
+    
+    /**
+     * Close the last recording and delete its file
+     */
+    private void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOG.warn("Could not delete the last flight recording", e);
+            }
+            file = null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.dartscorer.service;
+
+import com.dartscorer.dto.GameStateDTO;
+import com.dartscorer.model.Game;
+import com.dartscorer.model.GameSnapshot;
+import com.dartscorer.model.Throw;
+import com.dartscorer.model.Turn;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Service rebuilding the state of a game at any dart.
+ *
+ * A point of the game is reconstructed from the closest snapshot before it
+ * (see {@link Game#snapshotIfDue}) plus the turns played since, so a single
+ * position never loads more than one snapshot interval of turns besides the
+ * recent turns shown in the state.
+ */
+@ApplicationScoped
+public class ReplayService {
+    
+    private static final Sort TURN_ORDER = Sort.by("turnNumber").and("id");
+    
+    @Inject
+    GameService gameService;
+    
+    /**
+     * State of a game after some darts of one of its turns
+     *
+     * @param turnIndex position of the turn in the game history (0-based)
+     * @param darts darts of that turn already thrown, or null for all of them
+     */
+    public GameStateDTO getStateAt(Long gameId, int turnIndex, Integer darts) {
+        if (darts != null && (darts < 0 || darts > 3)) {
+            throw new BadRequestException("Darts must be between 0 and 3");
+        }
+        Game game = gameService.getGame(gameId);
+        GameReplay replay = replayUntil(game, turnIndex);
+        
+        Turn target = loadTurns(gameId, turnIndex, turnIndex).stream()
+            .findFirst()
+            .orElseThrow(() -> new NotFoundException("Turn not found"));
+        if (darts != null && darts > target.getThrowCount()) {
+            throw new BadRequestException("Turn has only " + target.getThrowCount() + " darts");
+        }
+        int count = darts != null ? darts : target.getThrowCount();
+        replay.startTurn(target);
+        for (Throw dartThrow : target.dartThrows.subList(0, count)) {
+            replay.addThrow(dartThrow);
+        }
+        return replay.toDTO();
+    }
+    
+    /**
+     * Check that a game has a turn at a position, before streaming from it
+     */
+    public void checkTurn(Long gameId, int turnIndex) {
+        gameService.getGame(gameId);
+        if (turnIndex < 0) {
+            throw new BadRequestException("Turn must not be negative");
+        }
+        if (turnIndex >= Turn.count("game.id", gameId)) {
+            throw new NotFoundException("Turn not found");
+        }
+    }
+    
+    /**
+     * Replay a game dart by dart, passing the state after each dart to a consumer.
+     *
+     * Turns are loaded one snapshot interval at a time.
+     *
+     * @param fromTurn first turn replayed (0-based)
+     */
+    public void playThrough(Long gameId, int fromTurn, Consumer<GameStateDTO> frames) {
+        Game game = gameService.getGame(gameId);
+        GameReplay replay = replayUntil(game, fromTurn);
+        
+        int pageSize = Math.max(gameService.getSnapshotInterval(), GameReplay.RECENT_TURNS);
+        for (int from = fromTurn; ; from += pageSize) {
+            List<Turn> turns = loadTurns(gameId, from, from + pageSize - 1);
+            for (Turn turn : turns) {
+                replay.startTurn(turn);
+                for (Throw dartThrow : turn.dartThrows) {
+                    replay.addThrow(dartThrow);
+                    frames.accept(replay.toDTO());
+                }
+            }
+            if (turns.size() < pageSize) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Replay of a game positioned at the start of a turn.
+     *
+     * Turns before the closest snapshot are only loaded to fill the recent turns.
+     */
+    private GameReplay replayUntil(Game game, int turnIndex) {
+        if (turnIndex < 0) {
+            throw new BadRequestException("Turn must not be negative");
+        }
+        GameSnapshot snapshot = GameSnapshot.<GameSnapshot>find("game.id = ?1 and turnIndex <= ?2",
+                Sort.descending("turnIndex"), game.id, turnIndex)
+            .firstResult();
+        int replayFrom = snapshot != null ? snapshot.turnIndex : 0;
+        GameReplay replay = new GameReplay(gameService, game,
+            snapshot != null ? snapshot.playerState : GameReplay.initialState(game));
+        if (turnIndex == 0) {
+            return replay;
+        }
+        
+        int loadFrom = Math.max(0, Math.min(replayFrom, turnIndex - GameReplay.RECENT_TURNS + 1));
+        List<Turn> turns = loadTurns(game.id, loadFrom, turnIndex - 1);
+        if (turns.size() != turnIndex - loadFrom) {
+            throw new NotFoundException("Turn not found");
+        }
+        for (int i = 0; i < turns.size(); i++) {
+            if (loadFrom + i < replayFrom) {
+                replay.skip(turns.get(i));
+            } else {
+                replay.play(turns.get(i));
+            }
+        }
+        return replay;
+    }
+    
+    /**
+     * Turns of a game between two positions, both included
+     */
+    private static List<Turn> loadTurns(Long gameId, int from, int to) {
+        return Turn.<Turn>find("game.id", TURN_ORDER, gameId)
+            .range(from, to)
+            .list();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.dartscorer.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Player totals gathered by one worker of the statistics recomputation.
+ *
+ * Totals are indexed by player slot, the position of the player id in a
+ * sorted array shared by all workers, so counting a throw is an array
+ * increment and merging two workers is a loop over primitive arrays.
+ * Heatmap counts and daily buckets are keyed by slot and epoch day, and the
+ * games won are kept whole for the head-to-head records.
+ */
+final class StatsAccumulator {
+    
+    final long[] playerIds;
+    final long[] darts;
+    final long[] points;
+    final int[] wins;
+    
+    /**
+     * Checkouts as (slot, score) pairs
+     */
+    int[] checkouts = new int[16];
+    int checkoutCount;
+    
+    /**
+     * Heatmap counts by {@link #key(int, long) slot and day}, laid out as in {@link HeatmapService}
+     */
+    final Map<Long, int[]> hits = new HashMap<>();
+    
+    /**
+     * Daily buckets by {@link #key(int, long) slot and day}, laid out as in {@link DailyStatsService}
+     */
+    final Map<Long, long[]> days = new HashMap<>();
+    
+    final List<WonGame> wonGames = new ArrayList<>();
+    
+    /**
+     * A game won, with the darts and points of each of its players as in a {@code GameCompletedEvent}
+     */
+    record WonGame(List<Long> playerIds, long winnerId, int[] darts, int[] points, int checkout) {
+    }
+    
+    StatsAccumulator(long[] playerIds) {
+        this.playerIds = playerIds;
+        this.darts = new long[playerIds.length];
+        this.points = new long[playerIds.length];
+        this.wins = new int[playerIds.length];
+    }
+    
+    /**
+     * Slot of a player, or a negative value for players deleted after the snapshot
+     */
+    int slot(long playerId) {
+        return Arrays.binarySearch(playerIds, playerId);
+    }
+    
+    void addCheckout(int slot, int score) {
+        if (checkoutCount * 2 == checkouts.length) {
+            checkouts = Arrays.copyOf(checkouts, checkouts.length * 2);
+        }
+        checkouts[checkoutCount * 2] = slot;
+        checkouts[checkoutCount * 2 + 1] = score;
+        checkoutCount++;
+    }
+    
+    void addHit(int slot, long day, int cell) {
+        hits.computeIfAbsent(key(slot, day), key -> new int[HeatmapService.CELLS])[cell]++;
+    }
+    
+    void addToDay(int slot, long day, int field, long value) {
+        days.computeIfAbsent(key(slot, day), key -> new long[DailyStatsService.FIELDS])[field] += value;
+    }
+    
+    static long key(int slot, long day) {
+        return (long) slot << 32 | (day & 0xFFFFFFFFL);
+    }
+    
+    static int slotOf(long key) {
+        return (int) (key >>> 32);
+    }
+    
+    static long dayOf(long key) {
+        return (int) key;
+    }
+    
+    /**
+     * Add the totals of another worker to this one
+     */
+    StatsAccumulator merge(StatsAccumulator other) {
+        for (int slot = 0; slot < playerIds.length; slot++) {
+            darts[slot] += other.darts[slot];
+            points[slot] += other.points[slot];
+            wins[slot] += other.wins[slot];
+        }
+        for (int i = 0; i < other.checkoutCount; i++) {
+            addCheckout(other.checkouts[i * 2], other.checkouts[i * 2 + 1]);
+        }
+        other.hits.forEach((key, counts) -> hits.merge(key, counts, (mine, theirs) -> {
+            for (int cell = 0; cell < mine.length; cell++) {
+                mine[cell] += theirs[cell];
+            }
+            return mine;
+        }));
+        other.days.forEach((key, bucket) -> days.merge(key, bucket, (mine, theirs) -> {
+            for (int field = 0; field < mine.length; field++) {
+                mine[field] += theirs[field];
+            }
+            return mine;
+        }));
+        wonGames.addAll(other.wonGames);
+        return this;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,485 @@
+package com.dartscorer.service;
+
+import com.dartscorer.config.DataSourceRouting;
+import com.dartscorer.dto.StatsRecomputeStatusDTO;
+import com.dartscorer.model.GameMode;
+import com.dartscorer.model.GameStatus;
+import com.dartscorer.rules.ScoreRules;
+import com.dartscorer.rules.X01Rules;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service recomputing the player statistics from the full game history.
+ *
+ * The games are split into id ranges, each scanned on a fork-join pool
+ * with a read-only scrolling query into its own primitive accumulator.
+ * Accumulators are merged as the tasks join, and the result replaces the
+ * leaderboard totals, heatmaps, daily buckets and head-to-head records, each
+ * in a single step. Only one job runs at a time.
+ *
+ * Those aggregates are kept in memory by every instance and only see the
+ * events committed on that instance, so throws recorded on another instance
+ * would never reach them. Every instance therefore recomputes them every
+ * {@code darts.stats.refresh-interval}: on several instances the statistics
+ * are eventually consistent, behind by at most that interval plus the time
+ * of a recomputation.
+ */
+@ApplicationScoped
+public class StatsRecomputeService {
+    
+    private static final Logger LOG = Logger.getLogger(StatsRecomputeService.class);
+    
+    /**
+     * Throws scanned between two progress updates
+     */
+    private static final int PROGRESS_STEP = 1024;
+    
+    public enum State {
+        IDLE, RUNNING, COMPLETED, FAILED
+    }
+    
+    /**
+     * Progress of a single run
+     */
+    private static final class Job {
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startNanos = System.nanoTime();
+        final AtomicInteger partitionsDone = new AtomicInteger();
+        final LongAdder throwsProcessed = new LongAdder();
+        volatile State state = State.RUNNING;
+        volatile int partitions;
+        volatile LocalDateTime finishedAt;
+        volatile long elapsedNanos;
+        volatile String error;
+        
+        // Snapshot taken before scanning
+        long[] playerIds;
+        long minGameId;
+        long maxGameId;
+        GameRevisions revisions;
+    }
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @Inject
+    LeaderboardService leaderboardService;
+    
+    @Inject
+    HeatmapService heatmapService;
+    
+    @Inject
+    DailyStatsService dailyStatsService;
+    
+    @Inject
+    HeadToHeadService headToHeadService;
+    
+    @ConfigProperty(name = "darts.stats.recompute.partition-size", defaultValue = "500")
+    int partitionSize;
+    
+    @ConfigProperty(name = "darts.stats.recompute.parallelism", defaultValue = "4")
+    int parallelism;
+    
+    @ConfigProperty(name = "darts.stats.recompute.fetch-size", defaultValue = "1000")
+    int fetchSize;
+    
+    /**
+     * Time between two recomputations started by this instance, zero to only recompute on request
+     */
+    @ConfigProperty(name = "darts.stats.refresh-interval", defaultValue = "5m")
+    Duration refreshInterval;
+    
+    private final AtomicReference<Job> current = new AtomicReference<>();
+    
+    private ScheduledExecutorService scheduler;
+    
+    void onStart(@Observes StartupEvent event) {
+        if (refreshInterval.isZero()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::scheduledRefresh, period, period, TimeUnit.MILLISECONDS);
+    }
+    
+    void onStop(@Observes ShutdownEvent event) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    /**
+     * Pick up the statistics of the other instances, unless a recomputation is already running
+     */
+    private void scheduledRefresh() {
+        try {
+            start();
+        } catch (IllegalStateException e) {
+            LOG.debug("Statistics refresh skipped, a recomputation is running");
+        } catch (RuntimeException e) {
+            LOG.warn("Statistics refresh failed to start", e);
+        }
+    }
+    
+    /**
+     * Start a recomputation in the background
+     *
+     * @throws IllegalStateException if a recomputation is already running
+     */
+    public StatsRecomputeStatusDTO start() {
+        Job previous = current.get();
+        if (previous != null && previous.state == State.RUNNING) {
+            throw new IllegalStateException("A statistics recomputation is already running");
+        }
+        Job job = new Job();
+        if (!current.compareAndSet(previous, job)) {
+            throw new IllegalStateException("A statistics recomputation is already running");
+        }
+        
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        pool.execute(() -> {
+            try {
+                DataSourceRouting.runOnPrimary(() -> run(job));
+            } finally {
+                pool.shutdown();
+            }
+        });
+        return toStatus(job);
+    }
+    
+    /**
+     * Get the progress of the current or last recomputation
+     */
+    public StatsRecomputeStatusDTO getStatus() {
+        return toStatus(current.get());
+    }
+    
+    /**
+     * Run a recomputation in the calling thread, which must belong to a fork-join pool
+     */
+    private void run(Job job) {
+        leaderboardService.beginRecompute();
+        heatmapService.beginRecompute();
+        dailyStatsService.beginRecompute();
+        headToHeadService.beginRecompute();
+        try {
+            QuarkusTransaction.requiringNew().run(() -> snapshot(job));
+            job.partitions = job.maxGameId < job.minGameId
+                ? 0
+                : (int) ((job.maxGameId - job.minGameId) / partitionSize + 1);
+            
+            StatsAccumulator totals = job.partitions == 0
+                ? new StatsAccumulator(job.playerIds)
+                : new PartitionTask(job, 0, job.partitions).invoke();
+            
+            leaderboardService.replaceAll(totals, job.revisions);
+            heatmapService.replaceAll(totals, job.revisions);
+            dailyStatsService.replaceAll(totals, job.revisions);
+            headToHeadService.replaceAll(totals, job.revisions);
+            job.state = State.COMPLETED;
+        } catch (RuntimeException e) {
+            leaderboardService.abortRecompute();
+            heatmapService.abortRecompute();
+            dailyStatsService.abortRecompute();
+            headToHeadService.abortRecompute();
+            job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.state = State.FAILED;
+            LOG.error("Statistics recomputation failed", e);
+        } finally {
+            job.elapsedNanos = System.nanoTime() - job.startNanos;
+            job.finishedAt = LocalDateTime.now();
+        }
+        LOG.infof("Statistics recomputed: %d throws in %d partitions, %d ms",
+            job.throwsProcessed.sum(), job.partitions, job.elapsedNanos / 1_000_000);
+    }
+    
+    /**
+     * Fix the players and game range covered by the job
+     */
+    private void snapshot(Job job) {
+        Object[] bounds = (Object[]) entityManager
+            .createQuery("select min(g.id), max(g.id) from Game g")
+            .getSingleResult();
+        job.minGameId = bounds[0] != null ? ((Number) bounds[0]).longValue() : 1;
+        job.maxGameId = bounds[1] != null ? ((Number) bounds[1]).longValue() : 0;
+        job.revisions = new GameRevisions(job.minGameId, job.maxGameId);
+        
+        List<Long> ids = entityManager
+            .createQuery("select p.id from Player p order by p.id", Long.class)
+            .getResultList();
+        job.playerIds = ids.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    /**
+     * Scan a range of partitions, splitting it in halves until a single partition is left
+     */
+    private final class PartitionTask extends RecursiveTask<StatsAccumulator> {
+        
+        private final Job job;
+        private final int from;
+        private final int to;
+        
+        PartitionTask(Job job, int from, int to) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected StatsAccumulator compute() {
+            if (to - from == 1) {
+                long lo = job.minGameId + (long) from * partitionSize;
+                long hi = Math.min(job.maxGameId, lo + partitionSize - 1);
+                StatsAccumulator totals = new StatsAccumulator(job.playerIds);
+                DataSourceRouting.runOnPrimary(() ->
+                    QuarkusTransaction.requiringNew().run(() -> scan(job, totals, lo, hi)));
+                job.partitionsDone.incrementAndGet();
+                return totals;
+            }
+            int mid = (from + to) >>> 1;
+            PartitionTask left = new PartitionTask(job, from, mid);
+            left.fork();
+            StatsAccumulator right = new PartitionTask(job, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+    
+    /**
+     * Add the throws and wins of a game id range to an accumulator, recording the revision of each game read.
+     *
+     * A single statement reads every game of the range with its turns and
+     * throws, so each game is seen at one revision. Darts are replayed per
+     * turn with the rules of the mode, crediting the same points as live
+     * throws on the same day. The players of a game never change, so they are
+     * read first; a game missing from them, or with a player unknown to the
+     * snapshot, was created after it and is left unread.
+     */
+    private void scan(Job job, StatsAccumulator totals, long fromGameId, long toGameId) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        
+        Map<Long, List<Long>> players = new HashMap<>();
+        for (Object[] row : session.createSelectionQuery(
+                    "select g.id, p.id from Game g join g.players p where g.id between :from and :to", Object[].class)
+                .setParameter("from", fromGameId)
+                .setParameter("to", toGameId)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .getResultList()) {
+            players.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>()).add(((Number) row[1]).longValue());
+        }
+        
+        try (ScrollableResults<Object[]> rows = session.createSelectionQuery(
+                    "select g.id, coalesce(g.revision, 0), g.gameMode, g.status, g.winner.id, "
+                    + "t.id, t.player.id, t.startingScore, t.remainingScore, th.sector, th.multiplier, th.timestamp "
+                    + "from Game g left join g.turns t left join t.dartThrows th "
+                    + "where g.id between :from and :to "
+                    + "order by g.id, t.id, th.throwNumber", Object[].class)
+                .setParameter("from", fromGameId)
+                .setParameter("to", toGameId)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .setFetchSize(fetchSize)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            GameTotals game = new GameTotals();
+            long turnId = -1;
+            int index = -1;
+            int slot = -1;
+            int startingScore = 0;
+            int score = 0;
+            boolean bust = false;
+            int unreported = 0;
+            
+            while (rows.next()) {
+                Object[] row = rows.get();
+                long gameId = ((Number) row[0]).longValue();
+                if (gameId != game.gameId) {
+                    game.addTo(totals, job.revisions);
+                    Long winnerId = row[3] == GameStatus.COMPLETED && row[4] != null ? ((Number) row[4]).longValue() : null;
+                    game.start(gameId, ((Number) row[1]).longValue(), (GameMode) row[2], players.get(gameId), winnerId, totals);
+                }
+                if (!game.known || row[5] == null) {
+                    continue;
+                }
+                
+                long rowTurnId = ((Number) row[5]).longValue();
+                if (rowTurnId != turnId) {
+                    turnId = rowTurnId;
+                    long playerId = ((Number) row[6]).longValue();
+                    index = game.playerIds.indexOf(playerId);
+                    slot = index >= 0 ? game.slots[index] : -1;
+                    startingScore = row[7] != null ? ((Number) row[7]).intValue()
+                        : game.rules != null ? game.rules.startingScore() : 0;
+                    score = startingScore;
+                    bust = false;
+                    if (game.winnerId != null && game.winnerId == playerId && row[7] != null
+                            && row[8] != null && ((Number) row[8]).intValue() == 0) {
+                        game.checkout = Math.max(game.checkout, ((Number) row[7]).intValue());
+                    }
+                }
+                if (row[9] == null || index < 0) {
+                    continue;
+                }
+                
+                if (++unreported == PROGRESS_STEP) {
+                    job.throwsProcessed.add(unreported);
+                    unreported = 0;
+                }
+                
+                int sector = ((Number) row[9]).intValue();
+                int multiplier = ((Number) row[10]).intValue();
+                LocalDateTime timestamp = (LocalDateTime) row[11];
+                long day = timestamp.toLocalDate().toEpochDay();
+                game.lastThrowAt = timestamp;
+                totals.addHit(slot, day, HeatmapService.cell(sector, multiplier));
+                
+                // Cricket is not part of the leaderboards and daily statistics
+                if (game.rules == null) {
+                    continue;
+                }
+                game.darts[index]++;
+                totals.addToDay(slot, day, DailyStatsService.DARTS, 1);
+                if (bust) {
+                    continue;
+                }
+                int next = game.rules.applyThrow(score, sector, multiplier);
+                if (next == ScoreRules.BUST) {
+                    bust = true;
+                    next = startingScore;
+                    totals.addToDay(slot, day, DailyStatsService.BUSTS, 1);
+                }
+                int points = game.rules.pointsScored(score, next);
+                game.points[index] += points;
+                totals.addToDay(slot, day, DailyStatsService.POINTS, points);
+                score = next;
+            }
+            game.addTo(totals, job.revisions);
+            job.throwsProcessed.add(unreported);
+        }
+    }
+    
+    /**
+     * Totals of the game being scanned, added to the partition once all of its rows are read
+     */
+    private static final class GameTotals {
+        long gameId = -1;
+        long revision;
+        ScoreRules rules;
+        boolean countdown;
+        
+        /**
+         * False for a game created after the snapshot, which is left unread
+         */
+        boolean known;
+        
+        List<Long> playerIds;
+        int[] slots;
+        int[] darts;
+        int[] points;
+        
+        /**
+         * Winner of a completed game, null otherwise
+         */
+        Long winnerId;
+        
+        int checkout;
+        LocalDateTime lastThrowAt;
+        
+        void start(long gameId, long revision, GameMode mode, List<Long> playerIds, Long winnerId,
+                   StatsAccumulator totals) {
+            this.gameId = gameId;
+            this.revision = revision;
+            this.rules = mode.rules() instanceof ScoreRules scoreRules ? scoreRules : null;
+            this.countdown = mode.rules() instanceof X01Rules;
+            this.playerIds = playerIds != null ? playerIds : List.of();
+            this.known = playerIds != null;
+            this.slots = new int[this.playerIds.size()];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = totals.slot(this.playerIds.get(i));
+                known &= slots[i] >= 0;
+            }
+            this.darts = new int[slots.length];
+            this.points = new int[slots.length];
+            this.winnerId = winnerId;
+            this.checkout = 0;
+            this.lastThrowAt = null;
+        }
+        
+        /**
+         * Add the game to the partition totals and record its revision
+         */
+        void addTo(StatsAccumulator totals, GameRevisions revisions) {
+            if (gameId < 0 || !known) {
+                return;
+            }
+            for (int i = 0; i < slots.length; i++) {
+                totals.darts[slots[i]] += darts[i];
+                totals.points[slots[i]] += points[i];
+            }
+            int winner = winnerId != null ? playerIds.indexOf(winnerId) : -1;
+            if (winner >= 0) {
+                int score = countdown ? checkout : 0;
+                totals.wins[slots[winner]]++;
+                if (score > 0) {
+                    totals.addCheckout(slots[winner], score);
+                    if (lastThrowAt != null) {
+                        totals.addToDay(slots[winner], lastThrowAt.toLocalDate().toEpochDay(), DailyStatsService.CHECKOUTS, 1);
+                    }
+                }
+                totals.wonGames.add(new StatsAccumulator.WonGame(playerIds, winnerId, darts, points, score));
+            }
+            revisions.read(gameId, revision);
+        }
+    }
+    
+    private StatsRecomputeStatusDTO toStatus(Job job) {
+        StatsRecomputeStatusDTO dto = new StatsRecomputeStatusDTO();
+        if (job == null) {
+            dto.state = State.IDLE.name();
+            return dto;
+        }
+        long elapsedNanos = job.state == State.RUNNING ? System.nanoTime() - job.startNanos : job.elapsedNanos;
+        long throwsProcessed = job.throwsProcessed.sum();
+        dto.state = job.state.name();
+        dto.startedAt = job.startedAt;
+        dto.finishedAt = job.finishedAt;
+        dto.partitions = job.partitions;
+        dto.partitionsDone = job.partitionsDone.get();
+        dto.throwsProcessed = throwsProcessed;
+        dto.elapsedMillis = elapsedNanos / 1_000_000;
+        dto.throwsPerSecond = elapsedNanos > 0 ? throwsProcessed * 1_000_000_000.0 / elapsedNanos : 0.0;
+        dto.error = job.error;
+        return dto;
+    }
+}
\ No newline at end of file
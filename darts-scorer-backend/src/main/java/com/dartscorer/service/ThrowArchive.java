@@ -0,0 +1,640 @@
+package com.dartscorer.service;
+
+import com.dartscorer.config.DataSourceRouting;
+import com.dartscorer.dto.ArchiveScanDTO;
+import com.dartscorer.dto.ArchiveStatusDTO;
+import com.dartscorer.event.GameCompletedEvent;
+import com.dartscorer.model.GameStatus;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.BadRequestException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Columnar copy of the throws of completed games, for analytics that must not load the database.
+ *
+ * Each column (game, player, sector, multiplier, score, timestamp) is a file
+ * of fixed-width values, one row per throw, and the throws of a game are
+ * contiguous rows. When a game is won its throws are read once from the
+ * database and appended by a single writer thread; the row count is written
+ * last, so an append interrupted by a crash is dropped at the next start.
+ * The archive is append-only: when a win is undone the rows of the game are
+ * recorded as discarded and scans skip them, and the game is appended again
+ * when it is won again. At startup games won while the archive was not
+ * running are appended, and games no longer completed are discarded.
+ *
+ * Scans read the memory-mapped columns directly, testing the narrow columns
+ * first and touching the wide ones only for the rows still matching, so they
+ * run at memory speed and never touch the database.
+ */
+@ApplicationScoped
+public class ThrowArchive {
+    
+    private static final Logger LOG = Logger.getLogger(ThrowArchive.class);
+    
+    /**
+     * Key of the totals returned by a scan
+     */
+    public enum GroupBy {
+        NONE, PLAYER, GAME, SECTOR, MULTIPLIER
+    }
+    
+    /**
+     * Filters and grouping of a scan, null filters matching every throw
+     *
+     * @param from first day included
+     * @param to last day included
+     */
+    public record Query(Integer sector, Integer multiplier, Long playerId, Long gameId,
+                        LocalDate from, LocalDate to, GroupBy groupBy) {
+    }
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @ConfigProperty(name = "darts.archive.enabled", defaultValue = "true")
+    boolean enabled;
+    
+    @ConfigProperty(name = "darts.archive.directory", defaultValue = "throw-archive")
+    Path directory;
+    
+    @ConfigProperty(name = "darts.archive.clear-on-start", defaultValue = "false")
+    boolean clearOnStart;
+    
+    @ConfigProperty(name = "darts.archive.batch-size", defaultValue = "500")
+    int batchSize;
+    
+    private ArchiveColumn games;
+    private ArchiveColumn players;
+    private ArchiveColumn sectors;
+    private ArchiveColumn multipliers;
+    private ArchiveColumn scores;
+    private ArchiveColumn timestamps;
+    private List<ArchiveColumn> columns;
+    
+    /**
+     * Committed row count
+     */
+    private FileChannel rowCount;
+    
+    /**
+     * Discarded row ranges, as start and end pairs
+     */
+    private FileChannel discards;
+    
+    /**
+     * Rows of every archived game not discarded, as start and end
+     */
+    private final Map<Long, long[]> ranges = new ConcurrentHashMap<>();
+    
+    /**
+     * Discarded row ranges ordered by start, as start and end pairs, replaced on every discard
+     */
+    private volatile long[] discarded = new long[0];
+    
+    private volatile long rows;
+    
+    private ThreadPoolExecutor writer;
+    
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Throw archive not readable in " + directory, e);
+        }
+        writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "throw-archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.execute(this::catchUp);
+    }
+    
+    void onStop(@Observes ShutdownEvent event) {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+            for (ArchiveColumn column : columns) {
+                column.close();
+            }
+            rowCount.close();
+            discards.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOG.warn("Throw archive not closed", e);
+        }
+    }
+    
+    void onGameCompleted(@Observes(during = TransactionPhase.AFTER_SUCCESS) GameCompletedEvent event) {
+        if (writer == null) {
+            return;
+        }
+        Long gameId = event.gameId;
+        if (event.reverted) {
+            writer.execute(() -> discard(gameId));
+        } else {
+            writer.execute(() -> append(List.of(gameId)));
+        }
+    }
+    
+    /**
+     * Open the column files, dropping rows not committed, and index the rows of each game
+     */
+    private void open() throws IOException {
+        if (clearOnStart && Files.isDirectory(directory)) {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+        Files.createDirectories(directory);
+        games = new ArchiveColumn(directory.resolve("game.col"), Long.BYTES);
+        players = new ArchiveColumn(directory.resolve("player.col"), Long.BYTES);
+        sectors = new ArchiveColumn(directory.resolve("sector.col"), Byte.BYTES);
+        multipliers = new ArchiveColumn(directory.resolve("multiplier.col"), Byte.BYTES);
+        scores = new ArchiveColumn(directory.resolve("score.col"), Byte.BYTES);
+        timestamps = new ArchiveColumn(directory.resolve("timestamp.col"), Long.BYTES);
+        columns = List.of(games, players, sectors, multipliers, scores, timestamps);
+        rowCount = FileChannel.open(directory.resolve("rows"), StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        discards = FileChannel.open(directory.resolve("discarded"), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        
+        long committed = 0;
+        if (rowCount.size() >= Long.BYTES) {
+            ByteBuffer buffer = buffer(Long.BYTES);
+            rowCount.read(buffer, 0);
+            committed = buffer.getLong(0);
+        }
+        for (ArchiveColumn column : columns) {
+            committed = Math.min(committed, column.rows());
+        }
+        for (ArchiveColumn column : columns) {
+            column.truncate(committed);
+        }
+        
+        int discardCount = (int) (discards.size() / (2 * Long.BYTES));
+        discards.truncate((long) discardCount * 2 * Long.BYTES);
+        ByteBuffer buffer = buffer(discardCount * 2 * Long.BYTES);
+        while (buffer.hasRemaining() && discards.read(buffer, buffer.position()) > 0) {
+            // Read the whole file
+        }
+        long[] ranges = new long[discardCount * 2];
+        buffer.flip().asLongBuffer().get(ranges);
+        discarded = sortRanges(ranges);
+        rows = committed;
+        
+        long start = System.nanoTime();
+        index();
+        LOG.infof("Throw archive opened in %s with %d rows of %d games in %d ms", directory, rows, this.ranges.size(),
+            (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    /**
+     * Find the rows of each game in the live ranges of the game column
+     */
+    private void index() throws IOException {
+        ByteBuffer[] chunks = games.map(rows);
+        long[] live = liveRanges(0, rows);
+        for (int r = 0; r < live.length; r += 2) {
+            long runStart = live[r];
+            long runGame = 0;
+            for (long row = live[r]; row < live[r + 1]; row++) {
+                long gameId = chunks[(int) (row / ArchiveColumn.CHUNK_ROWS)]
+                    .getLong((int) (row % ArchiveColumn.CHUNK_ROWS) * Long.BYTES);
+                if (row == runStart) {
+                    runGame = gameId;
+                } else if (gameId != runGame) {
+                    ranges.put(runGame, new long[] {runStart, row});
+                    runStart = row;
+                    runGame = gameId;
+                }
+            }
+            if (live[r + 1] > runStart) {
+                ranges.put(runGame, new long[] {runStart, live[r + 1]});
+            }
+        }
+    }
+    
+    /**
+     * Append the completed games missing from the archive and discard those no longer completed
+     */
+    private void catchUp() {
+        try {
+            long start = System.nanoTime();
+            List<Long> completed = DataSourceRouting.callOnPrimary(() -> QuarkusTransaction.requiringNew().call(() ->
+                entityManager.createQuery("select g.id from Game g where g.status = ?1 order by g.id", Long.class)
+                    .setParameter(1, GameStatus.COMPLETED)
+                    .getResultList()));
+            Set<Long> completedIds = new HashSet<>(completed);
+            int discardedGames = 0;
+            for (Long gameId : List.copyOf(ranges.keySet())) {
+                if (!completedIds.contains(gameId)) {
+                    discard(gameId);
+                    discardedGames++;
+                }
+            }
+            List<Long> missing = completed.stream().filter(gameId -> !ranges.containsKey(gameId)).toList();
+            for (int i = 0; i < missing.size(); i += batchSize) {
+                append(missing.subList(i, Math.min(missing.size(), i + batchSize)));
+            }
+            LOG.infof("Throw archive caught up: %d games appended, %d discarded in %d ms", missing.size(),
+                discardedGames, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            LOG.warn("Throw archive catch-up failed", e);
+        }
+    }
+    
+    /**
+     * Append the throws of completed games, in game, turn and throw order
+     */
+    private void append(List<Long> gameIds) {
+        List<Long> pending = gameIds.stream().filter(gameId -> !ranges.containsKey(gameId)).toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            List<Object[]> throwRows = DataSourceRouting.callOnPrimary(() -> QuarkusTransaction.requiringNew().call(() ->
+                entityManager.createQuery("select t.game.id, t.player.id, th.sector, th.multiplier, th.score, th.timestamp "
+                        + "from Throw th join th.turn t where t.game.id in ?1 and t.game.status = ?2 "
+                        + "order by t.game.id, t.turnNumber, t.id, th.throwNumber", Object[].class)
+                    .setParameter(1, pending)
+                    .setParameter(2, GameStatus.COMPLETED)
+                    .getResultList()));
+            int count = throwRows.size();
+            if (count == 0) {
+                return;
+            }
+            ByteBuffer gameValues = buffer(count * Long.BYTES);
+            ByteBuffer playerValues = buffer(count * Long.BYTES);
+            ByteBuffer sectorValues = buffer(count);
+            ByteBuffer multiplierValues = buffer(count);
+            ByteBuffer scoreValues = buffer(count);
+            ByteBuffer timestampValues = buffer(count * Long.BYTES);
+            Map<Long, long[]> appended = new HashMap<>();
+            long start = rows;
+            long runStart = start;
+            long runGame = ((Number) throwRows.get(0)[0]).longValue();
+            for (int i = 0; i < count; i++) {
+                Object[] row = throwRows.get(i);
+                long gameId = ((Number) row[0]).longValue();
+                if (gameId != runGame) {
+                    appended.put(runGame, new long[] {runStart, start + i});
+                    runStart = start + i;
+                    runGame = gameId;
+                }
+                gameValues.putLong(gameId);
+                playerValues.putLong(((Number) row[1]).longValue());
+                sectorValues.put(((Number) row[2]).byteValue());
+                multiplierValues.put(((Number) row[3]).byteValue());
+                scoreValues.put(((Number) row[4]).byteValue());
+                timestampValues.putLong(epochMillis((LocalDateTime) row[5]));
+            }
+            appended.put(runGame, new long[] {runStart, start + count});
+            
+            List<ByteBuffer> values = List.of(gameValues, playerValues, sectorValues, multiplierValues, scoreValues,
+                timestampValues);
+            for (int c = 0; c < columns.size(); c++) {
+                columns.get(c).write(start, values.get(c).flip());
+            }
+            for (ArchiveColumn column : columns) {
+                column.force();
+            }
+            ByteBuffer committed = buffer(Long.BYTES).putLong(0, start + count);
+            rowCount.write(committed, 0);
+            rowCount.force(false);
+            
+            ranges.putAll(appended);
+            rows = start + count;
+        } catch (IOException e) {
+            LOG.errorf(e, "Throws of games %s not archived, they will be at the next start", pending);
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Throws of games %s not archived, they will be at the next start", pending);
+        }
+    }
+    
+    /**
+     * Mark the rows of a game as discarded
+     */
+    private void discard(Long gameId) {
+        long[] range = ranges.get(gameId);
+        if (range == null) {
+            return;
+        }
+        try {
+            ByteBuffer entry = buffer(2 * Long.BYTES).putLong(range[0]).putLong(range[1]).flip();
+            long position = discards.size();
+            while (entry.hasRemaining()) {
+                position += discards.write(entry, position);
+            }
+            discards.force(false);
+            ranges.remove(gameId);
+            long[] updated = Arrays.copyOf(discarded, discarded.length + 2);
+            updated[discarded.length] = range[0];
+            updated[discarded.length + 1] = range[1];
+            discarded = sortRanges(updated);
+        } catch (IOException e) {
+            LOG.errorf(e, "Throws of game %d not discarded from the archive", gameId);
+        }
+    }
+    
+    /**
+     * Filter and total the archived throws
+     *
+     * @throws IllegalStateException if the archive is disabled
+     */
+    public ArchiveScanDTO scan(Query query) {
+        if (!enabled) {
+            throw new IllegalStateException("Throw archive is disabled");
+        }
+        if (query.sector != null && (query.sector < 0 || query.sector > 20) && query.sector != 25) {
+            throw new BadRequestException("Sector must be between 0 and 20, or 25");
+        }
+        if (query.multiplier != null && (query.multiplier < 0 || query.multiplier > 3)) {
+            throw new BadRequestException("Multiplier must be between 0 and 3");
+        }
+        if (query.from != null && query.to != null && query.from.isAfter(query.to)) {
+            throw new BadRequestException("From date must not be after to date");
+        }
+        
+        long start = System.nanoTime();
+        long snapshot = rows;
+        long[] live;
+        if (query.gameId != null) {
+            long[] range = ranges.get(query.gameId);
+            live = range == null || range[1] > snapshot ? new long[0] : range.clone();
+        } else {
+            live = liveRanges(0, snapshot);
+        }
+        
+        Scan scan = new Scan(query);
+        try {
+            scan.map(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long scanned = 0;
+        for (int r = 0; r < live.length; r += 2) {
+            scan.run(live[r], live[r + 1]);
+            scanned += live[r + 1] - live[r];
+        }
+        
+        ArchiveScanDTO dto = new ArchiveScanDTO();
+        dto.rowsScanned = scanned;
+        dto.count = scan.count;
+        dto.points = scan.points;
+        dto.groups = scan.groups();
+        dto.scanMicros = (System.nanoTime() - start) / 1_000;
+        return dto;
+    }
+    
+    /**
+     * One pass over the columns, with its filters and totals
+     */
+    private final class Scan {
+        final int sector;
+        final int multiplier;
+        final Long playerId;
+        final long fromMillis;
+        final long toMillis;
+        final GroupBy groupBy;
+        
+        ByteBuffer[] gameChunks;
+        ByteBuffer[] playerChunks;
+        ByteBuffer[] sectorChunks;
+        ByteBuffer[] multiplierChunks;
+        ByteBuffer[] scoreChunks;
+        ByteBuffer[] timestampChunks;
+        
+        long count;
+        long points;
+        
+        /**
+         * Count and points by sector or multiplier
+         */
+        final long[][] byValue = new long[26][2];
+        
+        /**
+         * Count and points by player or game; consecutive rows often share the key
+         */
+        final Map<Long, long[]> byKey = new HashMap<>();
+        long lastKey = -1;
+        long[] lastTotals;
+        
+        Scan(Query query) {
+            sector = query.sector != null ? query.sector : -1;
+            multiplier = query.multiplier != null ? query.multiplier : -1;
+            playerId = query.playerId;
+            fromMillis = query.from != null ? epochMillis(query.from.atStartOfDay()) : Long.MIN_VALUE;
+            toMillis = query.to != null ? epochMillis(query.to.plusDays(1).atStartOfDay()) : Long.MAX_VALUE;
+            groupBy = query.groupBy != null ? query.groupBy : GroupBy.NONE;
+        }
+        
+        void map(long snapshot) throws IOException {
+            gameChunks = games.map(snapshot);
+            playerChunks = players.map(snapshot);
+            sectorChunks = sectors.map(snapshot);
+            multiplierChunks = multipliers.map(snapshot);
+            scoreChunks = scores.map(snapshot);
+            timestampChunks = timestamps.map(snapshot);
+        }
+        
+        void run(long start, long end) {
+            boolean timed = fromMillis != Long.MIN_VALUE || toMillis != Long.MAX_VALUE;
+            long player = playerId != null ? playerId : 0;
+            for (long chunkStart = start; chunkStart < end; ) {
+                int chunk = (int) (chunkStart / ArchiveColumn.CHUNK_ROWS);
+                long base = (long) chunk * ArchiveColumn.CHUNK_ROWS;
+                int from = (int) (chunkStart - base);
+                int to = (int) (Math.min(end, base + ArchiveColumn.CHUNK_ROWS) - base);
+                ByteBuffer sectorColumn = sectorChunks[chunk];
+                ByteBuffer multiplierColumn = multiplierChunks[chunk];
+                ByteBuffer playerColumn = playerChunks[chunk];
+                ByteBuffer timestampColumn = timestampChunks[chunk];
+                ByteBuffer scoreColumn = scoreChunks[chunk];
+                for (int i = from; i < to; i++) {
+                    int rowSector = sectorColumn.get(i);
+                    if (sector >= 0 && rowSector != sector) {
+                        continue;
+                    }
+                    int rowMultiplier = multiplierColumn.get(i);
+                    if (multiplier >= 0 && rowMultiplier != multiplier) {
+                        continue;
+                    }
+                    if (playerId != null && playerColumn.getLong(i * Long.BYTES) != player) {
+                        continue;
+                    }
+                    if (timed) {
+                        long timestamp = timestampColumn.getLong(i * Long.BYTES);
+                        if (timestamp < fromMillis || timestamp >= toMillis) {
+                            continue;
+                        }
+                    }
+                    int score = scoreColumn.get(i);
+                    count++;
+                    points += score;
+                    switch (groupBy) {
+                        case SECTOR -> add(byValue[rowSector], score);
+                        case MULTIPLIER -> add(byValue[rowMultiplier], score);
+                        case PLAYER -> add(totals(playerColumn.getLong(i * Long.BYTES)), score);
+                        case GAME -> add(totals(gameChunks[chunk].getLong(i * Long.BYTES)), score);
+                        case NONE -> {
+                        }
+                    }
+                }
+                chunkStart = base + to;
+            }
+        }
+        
+        private long[] totals(long key) {
+            if (key != lastKey || lastTotals == null) {
+                lastKey = key;
+                lastTotals = byKey.computeIfAbsent(key, k -> new long[2]);
+            }
+            return lastTotals;
+        }
+        
+        private static void add(long[] totals, int score) {
+            totals[0]++;
+            totals[1] += score;
+        }
+        
+        List<ArchiveScanDTO.Group> groups() {
+            if (groupBy == GroupBy.NONE) {
+                return null;
+            }
+            List<ArchiveScanDTO.Group> groups = new ArrayList<>();
+            if (groupBy == GroupBy.SECTOR || groupBy == GroupBy.MULTIPLIER) {
+                for (int value = 0; value < byValue.length; value++) {
+                    if (byValue[value][0] > 0) {
+                        groups.add(new ArchiveScanDTO.Group((long) value, byValue[value][0], byValue[value][1]));
+                    }
+                }
+            } else {
+                new TreeMap<>(byKey).forEach((key, totals) ->
+                    groups.add(new ArchiveScanDTO.Group(key, totals[0], totals[1])));
+            }
+            return groups;
+        }
+    }
+    
+    /**
+     * Get the size of the archive and the work waiting for the writer
+     */
+    public ArchiveStatusDTO getStatus() {
+        ArchiveStatusDTO status = new ArchiveStatusDTO();
+        status.enabled = enabled;
+        status.directory = directory.toAbsolutePath().toString();
+        if (writer == null) {
+            return status;
+        }
+        long[] dead = discarded;
+        long deadRows = 0;
+        for (int r = 0; r < dead.length; r += 2) {
+            deadRows += dead[r + 1] - dead[r];
+        }
+        status.rows = rows;
+        status.discardedRows = deadRows;
+        status.games = ranges.size();
+        status.pending = writer.getQueue().size() + writer.getActiveCount();
+        long size = 0;
+        try {
+            for (ArchiveColumn column : columns) {
+                size += column.sizeBytes();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        status.sizeBytes = size;
+        return status;
+    }
+    
+    /**
+     * Ranges between two rows that are not discarded, as start and end pairs
+     */
+    private long[] liveRanges(long start, long end) {
+        long[] dead = discarded;
+        long[] live = new long[dead.length + 2];
+        int count = 0;
+        long position = start;
+        for (int r = 0; r < dead.length; r += 2) {
+            if (dead[r] > position) {
+                live[count++] = position;
+                live[count++] = Math.min(dead[r], end);
+            }
+            position = Math.max(position, dead[r + 1]);
+            if (position >= end) {
+                break;
+            }
+        }
+        if (position < end) {
+            live[count++] = position;
+            live[count++] = end;
+        }
+        return Arrays.copyOf(live, count);
+    }
+    
+    private static long[] sortRanges(long[] ranges) {
+        long[][] pairs = new long[ranges.length / 2][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new long[] {ranges[i * 2], ranges[i * 2 + 1]};
+        }
+        Arrays.sort(pairs, (a, b) -> Long.compare(a[0], b[0]));
+        long[] sorted = new long[ranges.length];
+        for (int i = 0; i < pairs.length; i++) {
+            sorted[i * 2] = pairs[i][0];
+            sorted[i * 2 + 1] = pairs[i][1];
+        }
+        return sorted;
+    }
+    
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    /**
+     * Throw timestamps are local times, stored as if they were UTC
+     */
+    private static long epochMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
\ No newline at end of file
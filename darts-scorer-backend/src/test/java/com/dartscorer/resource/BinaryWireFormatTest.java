@@ -0,0 +1,196 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.dto.BinaryWireFormat;
+import com.dartscorer.dto.GameStateDTO;
+import com.dartscorer.dto.PlayerDTO;
+import com.dartscorer.dto.RecordThrowRequest;
+import com.dartscorer.dto.TurnDTO;
+import com.dartscorer.model.GameMode;
+import com.dartscorer.model.GameStatus;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Game state and throws in the binary wire format, checked against the JSON representation
+ */
+@QuarkusTest
+class BinaryWireFormatTest {
+    
+    @Test
+    void gameStateMatchesJson() {
+        int id = createGame("STANDARD_301", "Binary A", "Binary B");
+        throwDart(id, 20, 3);
+        throwDart(id, 25, 2);
+        throwDart(id, 0, 0);
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/next-player").then().statusCode(200);
+        GameStateDTO afterThrow = throwDart(id, 19, 1);
+        
+        GameStateDTO json = given().get("/api/games/" + id).then().statusCode(200)
+            .extract().as(GameStateDTO.class);
+        GameStateDTO binary = getBinary(id);
+        
+        assertSameState(json, binary);
+        assertSameState(json, afterThrow);
+        assertEquals(191, binary.playerScores.get(binary.players.get(0).id));
+        assertEquals(List.of(0, 0), binary.recentTurns.get(0).dartThrows.stream().skip(2)
+            .flatMap(dart -> java.util.stream.Stream.of(dart.sector, dart.score)).toList());
+    }
+    
+    @Test
+    void cricketMarksAndWinner() {
+        int id = createGame("CRICKET", "Binary C");
+        for (int sector : new int[] { 20, 19, 18, 17, 16, 15 }) {
+            throwDart(id, sector, 3);
+            if (sector != 15) {
+                throwDart(id, 0, 0);
+                throwDart(id, 0, 0);
+                given().contentType(ContentType.JSON).post("/api/games/" + id + "/next-player").then().statusCode(200);
+            }
+        }
+        throwDart(id, 25, 2);
+        throwDart(id, 25, 1);
+        
+        GameStateDTO json = given().get("/api/games/" + id).then().statusCode(200)
+            .extract().as(GameStateDTO.class);
+        GameStateDTO binary = getBinary(id);
+        
+        assertSameState(json, binary);
+        assertEquals(GameStatus.COMPLETED, binary.status);
+        assertEquals("Binary C", binary.winner.name);
+        assertEquals(json.cricket.marks, binary.cricket.marks);
+        assertEquals(json.cricket.closedTargets, binary.cricket.closedTargets);
+    }
+    
+    @Test
+    void projectionKeepsPlayersAndScores() {
+        int id = createGame("STANDARD_301", "Binary E", "Binary F");
+        throwDart(id, 20, 1);
+        byte[] body = given().accept(BinaryWireFormat.MEDIA_TYPE).get("/api/games/" + id + "?fields=currentTurn")
+            .then().statusCode(200)
+            .extract().asByteArray();
+        GameStateDTO state = BinaryWireFormat.decode(body);
+        
+        assertEquals(2, state.players.size());
+        assertEquals(281, state.playerScores.get(state.players.get(0).id));
+        assertEquals(1, state.currentTurn.dartThrows.size());
+        assertTrue(state.recentTurns.isEmpty());
+    }
+    
+    @Test
+    void errorsAreErrorFrames() {
+        int id = createGame("STANDARD_301", "Binary D");
+        byte[] body = given().contentType(BinaryWireFormat.MEDIA_TYPE).accept(BinaryWireFormat.MEDIA_TYPE)
+            .body(BinaryWireFormat.encodeThrow(new RecordThrowRequest(25, 3)))
+            .post("/api/games/" + id + "/throw")
+            .then().statusCode(400)
+            .extract().asByteArray();
+        assertEquals("Bull cannot be triple", BinaryWireFormat.decodeError(body));
+        
+        byte[] missing = given().accept(BinaryWireFormat.MEDIA_TYPE).get("/api/games/999999")
+            .then().statusCode(404)
+            .extract().asByteArray();
+        assertEquals("Game not found", BinaryWireFormat.decodeError(missing));
+    }
+    
+    @Test
+    void modesAndStatusesHaveFixedCodes() {
+        GameStateDTO state = new GameStateDTO();
+        state.id = 1L;
+        state.gameMode = GameMode.CUT_THROAT_CRICKET;
+        state.status = GameStatus.COMPLETED;
+        state.players = List.of(new PlayerDTO(1L, "Binary G"));
+        state.currentPlayerIndex = 0;
+        state.playerScores = Map.of(1L, 0);
+        byte[] frame = BinaryWireFormat.encode(state);
+        
+        // Version, frame type and id take one byte each here
+        assertEquals(14, frame[3]);
+        assertEquals(2, frame[4]);
+        assertEquals(GameMode.CUT_THROAT_CRICKET, BinaryWireFormat.decode(frame).gameMode);
+        
+        frame[3] = 99;
+        assertThrows(BinaryWireFormat.DecodingException.class, () -> BinaryWireFormat.decode(frame));
+    }
+    
+    @Test
+    void jsonRemainsTheDefault() {
+        int id = createGame("STANDARD_301", "Binary E");
+        given().get("/api/games/" + id).then().statusCode(200).contentType(startsWith(ContentType.JSON.toString()));
+    }
+    
+    private static int createGame(String mode, String... players) {
+        return given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", mode, "playerNames", List.of(players)))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+    }
+    
+    /**
+     * Submit a throw as a binary body and decode the binary game state returned
+     */
+    private static GameStateDTO throwDart(int id, int sector, int multiplier) {
+        Response response = given().contentType(BinaryWireFormat.MEDIA_TYPE).accept(BinaryWireFormat.MEDIA_TYPE)
+            .body(BinaryWireFormat.encodeThrow(new RecordThrowRequest(sector, multiplier)))
+            .post("/api/games/" + id + "/throw");
+        response.then().statusCode(200).contentType(startsWith(BinaryWireFormat.MEDIA_TYPE));
+        return BinaryWireFormat.decode(response.asByteArray());
+    }
+    
+    private static GameStateDTO getBinary(int id) {
+        byte[] body = given().accept(BinaryWireFormat.MEDIA_TYPE).get("/api/games/" + id)
+            .then().statusCode(200)
+            .extract().asByteArray();
+        return BinaryWireFormat.decode(body);
+    }
+    
+    private static void assertSameState(GameStateDTO expected, GameStateDTO actual) {
+        assertEquals(expected.id, actual.id);
+        assertEquals(expected.gameMode, actual.gameMode);
+        assertEquals(expected.status, actual.status);
+        assertEquals(expected.players.stream().map(p -> p.id + p.name).toList(),
+            actual.players.stream().map(p -> p.id + p.name).toList());
+        assertEquals(expected.currentPlayerIndex, actual.currentPlayerIndex);
+        assertEquals(expected.currentPlayer.id, actual.currentPlayer.id);
+        assertEquals(expected.winner != null ? expected.winner.id : null, actual.winner != null ? actual.winner.id : null);
+        assertEquals(expected.playerScores, actual.playerScores);
+        assertSameTurn(expected.currentTurn, actual.currentTurn);
+        assertEquals(expected.recentTurns.size(), actual.recentTurns.size());
+        for (int i = 0; i < expected.recentTurns.size(); i++) {
+            assertSameTurn(expected.recentTurns.get(i), actual.recentTurns.get(i));
+        }
+        assertEquals(expected.cricket == null, actual.cricket == null);
+    }
+    
+    private static void assertSameTurn(TurnDTO expected, TurnDTO actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(expected.turnNumber, actual.turnNumber);
+        assertEquals(expected.player.id, actual.player.id);
+        assertEquals(expected.totalScore, actual.totalScore);
+        assertEquals(expected.remainingScore, actual.remainingScore);
+        assertEquals(expected.isBust, actual.isBust);
+        assertEquals(expected.dartThrows.size(), actual.dartThrows.size());
+        for (int i = 0; i < expected.dartThrows.size(); i++) {
+            var dart = expected.dartThrows.get(i);
+            var decoded = actual.dartThrows.get(i);
+            assertTrue(dart.sector.equals(decoded.sector) && dart.multiplier.equals(decoded.multiplier)
+                && dart.score.equals(decoded.score) && dart.throwNumber.equals(decoded.throwNumber),
+                "Dart " + (i + 1) + " of turn " + expected.turnNumber);
+        }
+    }
+}
\ No newline at end of file
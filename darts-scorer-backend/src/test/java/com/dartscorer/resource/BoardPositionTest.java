@@ -0,0 +1,96 @@
+package com.dartscorer.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Throws recorded from the position of the dart, with and without board calibration
+ */
+@QuarkusTest
+@TestProfile(BoardPositionTest.CalibratedBoard.class)
+class BoardPositionTest {
+    
+    /**
+     * Camera whose bull is at (10, -5) and turned a quarter clockwise
+     */
+    public static class CalibratedBoard implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "darts.board.\"cam-1\".offset-x", "10",
+                "darts.board.\"cam-1\".offset-y", "-5",
+                "darts.board.\"cam-1\".rotation", "90");
+        }
+    }
+    
+    @Test
+    void positionsAreResolved() {
+        int gameId = createGame();
+        
+        throwAt(gameId, 0.0, 103.0, null).statusCode(200)
+            .body("currentTurn.dartThrows[0].sector", is(20))
+            .body("currentTurn.dartThrows[0].multiplier", is(3));
+        throwAt(gameId, 1.0, -2.0, null).statusCode(200)
+            .body("currentTurn.dartThrows[1].sector", is(25))
+            .body("currentTurn.dartThrows[1].multiplier", is(2));
+        throwAt(gameId, 0.0, 200.0, null).statusCode(200)
+            .body("currentTurn.dartThrows[2].sector", is(0))
+            .body("currentTurn.dartThrows[2].multiplier", is(0))
+            .body("currentTurn.totalScore", is(110));
+    }
+    
+    @Test
+    void boardCalibrationIsApplied() {
+        int gameId = createGame();
+        
+        // Treble 20 seen by the camera to the left of its bull
+        throwAt(gameId, -93.0, -5.0, "cam-1").statusCode(200)
+            .body("currentTurn.dartThrows[0].sector", is(20))
+            .body("currentTurn.dartThrows[0].multiplier", is(3));
+        // The same position without calibration is a single 11
+        throwAt(gameId, -93.0, -5.0, null).statusCode(200)
+            .body("currentTurn.dartThrows[1].sector", is(11))
+            .body("currentTurn.dartThrows[1].multiplier", is(1));
+    }
+    
+    @Test
+    void invalidPositionsAreRejected() {
+        int gameId = createGame();
+        
+        throwAt(gameId, 0.0, 0.0, "unknown").statusCode(400);
+        throwAt(gameId, null, 10.0, null).statusCode(400);
+        throwAt(999999, 0.0, 0.0, null).statusCode(404);
+        given().get("/api/games/" + gameId).then().statusCode(200)
+            .body("currentTurn.dartThrows.size()", is(0));
+    }
+    
+    private static ValidatableResponse throwAt(int gameId, Double x, Double y, String boardId) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("x", x);
+        body.put("y", y);
+        body.put("boardId", boardId);
+        return given().contentType(ContentType.JSON)
+            .body(body)
+            .post("/api/games/" + gameId + "/throw/position")
+            .then();
+    }
+    
+    private static int createGame() {
+        return given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "TRAINING", "playerNames", List.of("Camera A", "Camera B")))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+    }
+}
\ No newline at end of file
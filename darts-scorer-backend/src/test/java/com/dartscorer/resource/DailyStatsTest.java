@@ -0,0 +1,106 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.service.DailyStatsService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rolling windows and daily series from the per-player daily buckets
+ */
+@QuarkusTest
+class DailyStatsTest {
+    
+    @Inject
+    DailyStatsService dailyStatsService;
+    
+    @Test
+    void bucketsFollowThrowsAndMatchTheBackfill() {
+        LocalDateTime past = LocalDate.now().minusDays(20).atTime(20, 0);
+        given().contentType(ContentType.JSON)
+            .body(List.of(Map.of(
+                "gameMode", "DOUBLE_OUT_301",
+                "playerNames", List.of("Daily Ada", "Daily Bea"),
+                "turns", List.of(
+                    darts(past, 20, 3, 20, 3, 20, 3),
+                    darts(past, 0, 0, 0, 0, 0, 0),
+                    darts(past, 20, 3, 11, 1, 25, 2)))))
+            .post("/api/games/import")
+            .then().statusCode(201);
+        
+        int id = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "DOUBLE_OUT_301", "playerNames", List.of("Daily Ada", "Daily Bea")))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+        throwDarts(id, 20, 3, 20, 3, 20, 3);
+        nextPlayer(id);
+        throwDarts(id, 0, 0, 0, 0, 0, 0);
+        nextPlayer(id);
+        throwDarts(id, 20, 3, 20, 3);
+        int ada = given().get("/api/players/search?q=daily ada").then().extract().path("[0].id");
+        
+        given().get("/api/players/" + ada + "/stats/rolling?days=7").then().statusCode(200)
+            .body("darts", contains(5))
+            .body("points", contains(180))
+            .body("busts", contains(1));
+        
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/undo").then().statusCode(200);
+        throwDarts(id, 1, 1);
+        
+        given().get("/api/players/" + ada + "/stats/rolling").then().statusCode(200)
+            .body("darts", contains(5, 11, 11))
+            .body("points", contains(241, 542, 542))
+            .body("busts", contains(0, 0, 0))
+            .body("checkouts", contains(0, 1, 1))
+            .body("threeDartAverage", contains(144.6f, 147.82f, 147.82f));
+        given().get("/api/players/" + ada + "/stats/daily?from=" + LocalDate.now().minusDays(30)).then().statusCode(200)
+            .body("from", contains(past.toLocalDate().toString(), LocalDate.now().toString()))
+            .body("darts", contains(6, 5))
+            .body("checkouts", contains(1, 0));
+        
+        String rolling = given().get("/api/players/" + ada + "/stats/rolling").asString();
+        String daily = given().get("/api/players/" + ada + "/stats/daily?from=" + LocalDate.now().minusDays(30)).asString();
+        dailyStatsService.backfill();
+        assertEquals(rolling, given().get("/api/players/" + ada + "/stats/rolling").asString());
+        assertEquals(daily, given().get("/api/players/" + ada + "/stats/daily?from=" + LocalDate.now().minusDays(30)).asString());
+    }
+    
+    @Test
+    void invalidParameters() {
+        given().get("/api/players/999999/stats/rolling?days=0").then().statusCode(400);
+        given().get("/api/players/999999/stats/daily?from=2025-02-01&to=2025-01-01").then().statusCode(400);
+        given().get("/api/players/999999/stats/daily").then().statusCode(200).body("$", empty());
+    }
+    
+    private static List<Map<String, Object>> darts(LocalDateTime timestamp, int... darts) {
+        return List.of(
+            Map.of("sector", darts[0], "multiplier", darts[1], "timestamp", timestamp.toString()),
+            Map.of("sector", darts[2], "multiplier", darts[3], "timestamp", timestamp.toString()),
+            Map.of("sector", darts[4], "multiplier", darts[5], "timestamp", timestamp.toString()));
+    }
+    
+    private static void throwDarts(int id, int... darts) {
+        for (int i = 0; i < darts.length; i += 2) {
+            given().contentType(ContentType.JSON)
+                .body(Map.of("sector", darts[i], "multiplier", darts[i + 1]))
+                .post("/api/games/" + id + "/throw")
+                .then().statusCode(200);
+        }
+    }
+    
+    private static void nextPlayer(int id) {
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/next-player").then().statusCode(200);
+    }
+}
\ No newline at end of file
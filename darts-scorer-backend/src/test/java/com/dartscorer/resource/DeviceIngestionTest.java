@@ -0,0 +1,178 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.service.GameLeases;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Device events are applied in the background, in order, and a refused event does not lose the others
+ */
+@QuarkusTest
+class DeviceIngestionTest {
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @Test
+    void eventsAreAppliedInOrder() {
+        int first = createGame("Device A", "Device B");
+        int second = createGame("Device C", "Device D");
+        
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            events.add(dart(first, 20, 3));
+            events.add(dart(second, 19, 1));
+        }
+        events.add(Map.of("gameId", first, "type", "NEXT_PLAYER"));
+        events.add(Map.of("gameId", second, "type", "NEXT_PLAYER"));
+        events.add(dart(first, 25, 2));
+        events.add(dart(second, 5, 1));
+        
+        long before = processed();
+        given().contentType(ContentType.JSON).body(events).post("/api/games/events")
+            .then().statusCode(202)
+            .body("accepted", is(10))
+            .body("rejected", is(0));
+        awaitProcessed(before + 10);
+        
+        given().get("/api/games/" + first).then().statusCode(200)
+            .body("currentPlayerIndex", is(1))
+            .body("currentTurn.dartThrows[0].sector", is(25))
+            .body("recentTurns[0].remainingScore", is(121));
+        given().get("/api/games/" + second).then().statusCode(200)
+            .body("currentPlayerIndex", is(1))
+            .body("recentTurns[0].remainingScore", is(244));
+    }
+    
+    @Test
+    void refusedEventIsDropped() {
+        int gameId = createGame("Device E", "Device F");
+        
+        List<Map<String, Object>> events = new ArrayList<>();
+        events.add(dart(gameId, 1, 1));
+        events.add(Map.of("gameId", gameId, "type", "NEXT_PLAYER"));
+        events.add(dart(gameId, 2, 1));
+        events.add(dart(gameId, 3, 1));
+        events.add(Map.of("gameId", gameId, "type", "NEXT_PLAYER"));
+        events.add(dart(gameId, 5, 1));
+        
+        long failedBefore = given().get("/api/admin/ingestion").then().extract().<Number>path("failed").longValue();
+        long before = processed();
+        given().contentType(ContentType.JSON).body(events).post("/api/games/events").then().statusCode(202);
+        awaitProcessed(before + 6);
+        
+        // The turn change before the turn is complete is refused, the events around it are kept
+        given().get("/api/games/" + gameId).then().statusCode(200)
+            .body("currentPlayerIndex", is(1))
+            .body("recentTurns[0].dartThrows.sector", is(List.of(1, 2, 3)))
+            .body("currentTurn.dartThrows[0].sector", is(5));
+        given().get("/api/admin/ingestion").then().statusCode(200)
+            .body("failed", greaterThan((int) failedBefore))
+            .body("partitions.size()", is(4))
+            .body("partitions[0].capacity", is(4096));
+    }
+    
+    @Test
+    void invalidEventsRejectTheRequest() {
+        int gameId = createGame("Device G", "Device H");
+        
+        given().contentType(ContentType.JSON)
+            .body(List.of(dart(gameId, 20, 1), dart(gameId, 26, 1)))
+            .post("/api/games/events")
+            .then().statusCode(400)
+            .body("message", is("Event 2: Invalid sector: must be between 0 and 25"));
+        given().contentType(ContentType.JSON).body(List.of()).post("/api/games/events").then().statusCode(400);
+        given().contentType(ContentType.JSON)
+            .body(List.of(Map.of("sector", 20, "multiplier", 1)))
+            .post("/api/games/events")
+            .then().statusCode(400);
+    }
+    
+    @Test
+    void eventsOfAGameOwnedElsewhereAreNotQueued() {
+        int owned = createGame("Device I", "Device J");
+        int local = createGame("Device K", "Device L");
+        // Another instance that cannot be reached directly, so the request is not forwarded
+        new GameLeases(entityManager, "device-owner", null, Duration.ofSeconds(30), Clock.systemDefaultZone())
+            .acquire(owned);
+        long accepted = given().get("/api/admin/ingestion").then().extract().<Number>path("accepted").longValue();
+        
+        given().contentType(ContentType.JSON)
+            .body(List.of(dart(owned, 20, 1), dart(owned, 20, 3)))
+            .post("/api/games/events")
+            .then().statusCode(409)
+            .body("message", is("Game " + owned + " is owned by instance device-owner"));
+        given().contentType(ContentType.JSON)
+            .body(List.of(dart(local, 20, 1), dart(owned, 20, 1)))
+            .post("/api/games/events")
+            .then().statusCode(409)
+            .body("message", is("Game " + owned + " is owned by instance device-owner: send its events separately"));
+        
+        given().get("/api/admin/ingestion").then().statusCode(200).body("accepted", is((int) accepted));
+        given().get("/api/games/" + owned).then().statusCode(200).body("currentTurn.dartThrows.size()", is(0));
+        given().get("/api/games/" + local).then().statusCode(200).body("currentTurn.dartThrows.size()", is(0));
+    }
+    
+    @Test
+    void eventsOfAMissingGameAreNotQueued() {
+        int local = createGame("Device M", "Device N");
+        long accepted = given().get("/api/admin/ingestion").then().extract().<Number>path("accepted").longValue();
+        
+        given().contentType(ContentType.JSON)
+            .body(List.of(dart(999999, 20, 1)))
+            .post("/api/games/events")
+            .then().statusCode(404)
+            .body("message", is("Game not found"));
+        given().contentType(ContentType.JSON)
+            .body(List.of(dart(local, 20, 1), dart(999999, 20, 1)))
+            .post("/api/games/events")
+            .then().statusCode(404);
+        
+        given().get("/api/admin/ingestion").then().statusCode(200).body("accepted", is((int) accepted));
+        given().get("/api/games/" + local).then().statusCode(200).body("currentTurn.dartThrows.size()", is(0));
+    }
+    
+    private static Map<String, Object> dart(int gameId, int sector, int multiplier) {
+        return Map.of("gameId", gameId, "sector", sector, "multiplier", multiplier);
+    }
+    
+    private static long processed() {
+        Map<String, Number> status = given().get("/api/admin/ingestion").then().statusCode(200).extract().path("$");
+        return status.get("applied").longValue() + status.get("failed").longValue();
+    }
+    
+    private static void awaitProcessed(long count) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (processed() < count) {
+            assertTrue(System.currentTimeMillis() < deadline, "Events not applied in time");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private static int createGame(String... players) {
+        return given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "STANDARD_301", "playerNames", List.of(players)))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+    }
+}
\ No newline at end of file
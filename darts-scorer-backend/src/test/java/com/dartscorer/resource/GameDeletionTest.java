@@ -0,0 +1,83 @@
+package com.dartscorer.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deleting a game takes its results out of the aggregates kept in memory
+ */
+@QuarkusTest
+class GameDeletionTest {
+    
+    @Test
+    void deletedGameLeavesNoResults() {
+        int id = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "DOUBLE_OUT_301", "playerNames", List.of("Del Ada", "Del Bea")))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+        int ada = given().get("/api/games/" + id).then().extract().path("players[0].id");
+        int bea = given().get("/api/games/" + id).then().extract().path("players[1].id");
+        throwDarts(id, 20, 3, 20, 3, 20, 3);
+        nextPlayer(id);
+        throwDarts(id, 0, 0, 0, 0, 0, 0);
+        nextPlayer(id);
+        throwDarts(id, 20, 3, 11, 1, 25, 2);
+        awaitRows(id, 9);
+        
+        given().get("/api/players/" + ada + "/head-to-head/" + bea).then().statusCode(200)
+            .body("games", is(1))
+            .body("player.wins", is(1));
+        given().get("/api/players/" + ada + "/heatmap").then().statusCode(200)
+            .body("totalDarts", is(6));
+        
+        given().delete("/api/games/" + id).then().statusCode(204);
+        
+        given().get("/api/games/" + id).then().statusCode(404);
+        given().get("/api/players/" + ada + "/head-to-head/" + bea).then().statusCode(200)
+            .body("games", is(0))
+            .body("player.wins", is(0))
+            .body("player.darts", is(0));
+        given().get("/api/players/" + ada + "/heatmap").then().statusCode(200)
+            .body("totalDarts", is(0));
+        given().get("/api/players/" + bea + "/heatmap").then().statusCode(200)
+            .body("totalDarts", is(0));
+        given().get("/api/analytics/throws?playerId=" + ada).then().statusCode(200)
+            .body("count", is(0));
+    }
+    
+    private static void awaitRows(int gameId, int rows) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (given().get("/api/analytics/throws?gameId=" + gameId).then().statusCode(200)
+                .extract().<Integer>path("rowsScanned") != rows) {
+            assertTrue(System.currentTimeMillis() < deadline, "Game not archived in time");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private static void throwDarts(int id, int... darts) {
+        for (int i = 0; i < darts.length; i += 2) {
+            given().contentType(ContentType.JSON)
+                .body(Map.of("sector", darts[i], "multiplier", darts[i + 1]))
+                .post("/api/games/" + id + "/throw")
+                .then().statusCode(200);
+        }
+    }
+    
+    private static void nextPlayer(int id) {
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/next-player").then().statusCode(200);
+    }
+}
\ No newline at end of file
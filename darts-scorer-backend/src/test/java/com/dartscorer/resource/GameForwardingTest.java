@@ -0,0 +1,83 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.dto.BinaryWireFormat;
+import com.dartscorer.dto.RecordThrowRequest;
+import com.dartscorer.service.GameLeases;
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mutations of a game owned by another instance reach it with the body and content type the client sent
+ */
+@QuarkusTest
+class GameForwardingTest {
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @Test
+    void forwardedRequestsKeepTheirBodyAndContentType() throws IOException {
+        int id = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "STANDARD_501", "playerNames", List.of("Forward Ada")))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+        
+        List<String> contentTypes = new ArrayList<>();
+        List<byte[]> bodies = new ArrayList<>();
+        HttpServer owner = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        owner.createContext("/", exchange -> {
+            contentTypes.add(exchange.getRequestHeaders().getFirst("Content-Type"));
+            bodies.add(exchange.getRequestBody().readAllBytes());
+            byte[] response = "{\"owner\":true}".getBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        owner.start();
+        try {
+            new GameLeases(entityManager, "forward-owner", "http://localhost:" + owner.getAddress().getPort(),
+                Duration.ofSeconds(30), Clock.systemDefaultZone()).acquire(id);
+            
+            byte[] binary = BinaryWireFormat.encodeThrow(new RecordThrowRequest(20, 3));
+            given().contentType(BinaryWireFormat.MEDIA_TYPE)
+                .body(binary)
+                .post("/api/games/" + id + "/throw")
+                .then().statusCode(200)
+                .body("owner", is(true));
+            String json = "{ \"sector\": 19,\n  \"multiplier\": 1 }";
+            given().contentType(ContentType.JSON)
+                .body(json)
+                .post("/api/games/" + id + "/throw")
+                .then().statusCode(200);
+            given().contentType(ContentType.JSON).post("/api/games/" + id + "/next-player").then().statusCode(200);
+            
+            assertEquals(3, bodies.size());
+            assertTrue(contentTypes.get(0).startsWith(BinaryWireFormat.MEDIA_TYPE), contentTypes.get(0));
+            assertArrayEquals(binary, bodies.get(0));
+            assertEquals(json, new String(bodies.get(1)));
+            assertEquals(0, bodies.get(2).length);
+        } finally {
+            owner.stop(0);
+        }
+    }
+}
\ No newline at end of file
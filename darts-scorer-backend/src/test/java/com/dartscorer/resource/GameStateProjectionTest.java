@@ -0,0 +1,132 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.dto.GameStateDTO;
+import com.dartscorer.model.Game;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Game state endpoints return only the requested sections and recent turns
+ */
+@QuarkusTest
+class GameStateProjectionTest {
+    
+    @Test
+    void sectionsAndRecentTurns() {
+        int id = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "STANDARD_301", "playerNames", List.of("Projection Ada", "Projection Bea")))
+            .post("/api/games?fields=playerScores")
+            .then().statusCode(201)
+            .body("id", notNullValue())
+            .body("status", is("IN_PROGRESS"))
+            .body("playerScores.size()", is(2))
+            .body("$", not(hasKey("players")))
+            .body("$", not(hasKey("recentTurns")))
+            .body("$", not(hasKey("currentPlayer")))
+            .body("$", not(hasKey("currentTurn")))
+            .body("$", not(hasKey("winner")))
+            .body("$", not(hasKey("cricket")))
+            .extract().path("id");
+        
+        given().contentType(ContentType.JSON)
+            .body(Map.of("sector", 20, "multiplier", 3))
+            .post("/api/games/" + id + "/throw?fields=currentTurn")
+            .then().statusCode(200)
+            .body("currentTurn.dartThrows", hasSize(1))
+            .body("$", not(hasKey("playerScores")))
+            .body("$", not(hasKey("currentPlayer")));
+        throwDarts(id, 2);
+        for (int turn = 0; turn < 3; turn++) {
+            given().contentType(ContentType.JSON).post("/api/games/" + id + "/next-player?fields=currentPlayer")
+                .then().statusCode(200)
+                .body("currentPlayer.name", is(turn % 2 == 0 ? "Projection Bea" : "Projection Ada"));
+            throwDarts(id, 3);
+        }
+        
+        // Sections requested but empty are left out too
+        given().get("/api/games/" + id).then().statusCode(200)
+            .body("recentTurns", hasSize(4))
+            .body("players", hasSize(2))
+            .body("currentPlayer.name", is("Projection Bea"))
+            .body("$", not(hasKey("winner")))
+            .body("$", not(hasKey("cricket")));
+        given().get("/api/games/" + id + "?recentTurns=2").then().statusCode(200)
+            .body("recentTurns", hasSize(2))
+            .body("recentTurns[1].player.name", is("Projection Bea"))
+            .body("playerScores.size()", is(2));
+        given().get("/api/games/" + id + "?fields=recentTurns, winner&recentTurns=0").then().statusCode(200)
+            .body("recentTurns", hasSize(0))
+            .body("$", not(hasKey("players")));
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/undo?fields=currentTurn")
+            .then().statusCode(200)
+            .body("currentTurn.dartThrows", hasSize(2));
+    }
+    
+    @Test
+    void invalidProjectionsChangeNothing() {
+        int id = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "STANDARD_301", "playerNames", List.of("Projection Cid")))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+        given().contentType(ContentType.JSON)
+            .body(Map.of("sector", 20, "multiplier", 1))
+            .post("/api/games/" + id + "/throw?fields=scores")
+            .then().statusCode(400);
+        given().get("/api/games/" + id + "?recentTurns=101").then().statusCode(400);
+        given().get("/api/games?fields=nothing").then().statusCode(400);
+        given().get("/api/games/" + id + "?fields=currentTurn").then().statusCode(200)
+            .body("currentTurn.dartThrows", hasSize(0));
+    }
+    
+    @Test
+    @TestTransaction
+    void skippedSectionsAreNotLoaded() {
+        Game cricket = Game.findById(createGame("CRICKET", "Projection Dan", "Projection Eve"));
+        GameStateDTO scores = GameStateDTO.from(cricket, new GameStateDTO.Projection(
+            EnumSet.of(GameStateDTO.Section.PLAYERS, GameStateDTO.Section.PLAYER_SCORES), 0));
+        assertEquals(2, scores.playerScores.size());
+        assertFalse(Hibernate.isInitialized(cricket.turns));
+        
+        Game x01 = Game.findById(createGame("STANDARD_301", "Projection Fay"));
+        GameStateDTO.from(x01, new GameStateDTO.Projection(EnumSet.of(GameStateDTO.Section.CURRENT_PLAYER), 0));
+        assertFalse(Hibernate.isInitialized(x01.turns));
+        GameStateDTO.from(x01, new GameStateDTO.Projection(EnumSet.of(GameStateDTO.Section.CURRENT_TURN), 0));
+        assertTrue(Hibernate.isInitialized(x01.turns));
+    }
+    
+    private static Long createGame(String mode, String... players) {
+        int id = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", mode, "playerNames", List.of(players)))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+        return (long) id;
+    }
+    
+    private static void throwDarts(int id, int count) {
+        for (int i = 0; i < count; i++) {
+            given().contentType(ContentType.JSON)
+                .body(Map.of("sector", 1, "multiplier", 1))
+                .post("/api/games/" + id + "/throw")
+                .then().statusCode(200);
+        }
+    }
+}
\ No newline at end of file
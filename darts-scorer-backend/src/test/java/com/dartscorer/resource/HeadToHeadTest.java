@@ -0,0 +1,119 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.service.HeadToHeadService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pair records follow completed and undone wins and match the backfill
+ */
+@QuarkusTest
+class HeadToHeadTest {
+    
+    @Inject
+    HeadToHeadService headToHeadService;
+    
+    @Test
+    void recordsFollowCompletedGames() {
+        given().contentType(ContentType.JSON)
+            .body(List.of(Map.of(
+                "gameMode", "DOUBLE_OUT_301",
+                "playerNames", List.of("H2H Ada", "H2H Bea", "H2H Cid"),
+                "turns", List.of(
+                    darts(20, 3, 20, 3, 20, 3),
+                    darts(0, 0, 0, 0, 0, 0),
+                    darts(1, 1, 1, 1, 1, 1),
+                    darts(20, 3, 11, 1, 25, 2)))))
+            .post("/api/games/import")
+            .then().statusCode(201);
+        int ada = playerId("h2h ada");
+        int bea = playerId("h2h bea");
+        int cid = playerId("h2h cid");
+        
+        given().get("/api/players/" + bea + "/head-to-head/" + cid).then().statusCode(200)
+            .body("games", is(1))
+            .body("player.wins", is(0))
+            .body("opponent.wins", is(0))
+            .body("opponent.points", is(3));
+        
+        int id = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "DOUBLE_OUT_301", "playerNames", List.of("H2H Bea", "H2H Ada")))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+        throwDarts(id, 0, 0, 0, 0, 0, 0);
+        nextPlayer(id);
+        throwDarts(id, 20, 3, 20, 3, 20, 3);
+        nextPlayer(id);
+        throwDarts(id, 0, 0, 0, 0, 0, 0);
+        nextPlayer(id);
+        throwDarts(id, 20, 3, 11, 1, 25, 2);
+        
+        given().get("/api/players/" + ada + "/head-to-head/" + bea).then().statusCode(200)
+            .body("games", is(2))
+            .body("player.playerId", is(ada))
+            .body("player.wins", is(2))
+            .body("player.darts", is(12))
+            .body("player.points", is(602))
+            .body("player.threeDartAverage", is(150.5f))
+            .body("player.highestCheckout", is(121))
+            .body("opponent.playerId", is(bea))
+            .body("opponent.wins", is(0))
+            .body("opponent.darts", is(9))
+            .body("opponent.highestCheckout", is(0));
+        
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/undo").then().statusCode(200);
+        given().get("/api/players/" + bea + "/head-to-head/" + ada).then().statusCode(200)
+            .body("games", is(1))
+            .body("opponent.wins", is(1))
+            .body("opponent.darts", is(6))
+            .body("player.darts", is(3));
+        throwDarts(id, 25, 2);
+        
+        String record = given().get("/api/players/" + ada + "/head-to-head/" + bea).asString();
+        headToHeadService.backfill();
+        assertEquals(record, given().get("/api/players/" + ada + "/head-to-head/" + bea).asString());
+    }
+    
+    @Test
+    void unknownPairs() {
+        given().get("/api/players/999998/head-to-head/999999").then().statusCode(200)
+            .body("games", is(0))
+            .body("player.wins", is(0))
+            .body("opponent.threeDartAverage", is(0.0f));
+        given().get("/api/players/999999/head-to-head/999999").then().statusCode(400);
+    }
+    
+    private static List<Map<String, Object>> darts(int... darts) {
+        return List.of(
+            Map.of("sector", darts[0], "multiplier", darts[1]),
+            Map.of("sector", darts[2], "multiplier", darts[3]),
+            Map.of("sector", darts[4], "multiplier", darts[5]));
+    }
+    
+    private static int playerId(String name) {
+        return given().get("/api/players/search?q=" + name).then().statusCode(200).extract().path("[0].id");
+    }
+    
+    private static void throwDarts(int id, int... darts) {
+        for (int i = 0; i < darts.length; i += 2) {
+            given().contentType(ContentType.JSON)
+                .body(Map.of("sector", darts[i], "multiplier", darts[i + 1]))
+                .post("/api/games/" + id + "/throw")
+                .then().statusCode(200);
+        }
+    }
+    
+    private static void nextPlayer(int id) {
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/next-player").then().statusCode(200);
+    }
+}
\ No newline at end of file
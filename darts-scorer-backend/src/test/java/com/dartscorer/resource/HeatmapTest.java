@@ -0,0 +1,122 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.service.HeatmapService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hit counts by sector and multiplier, for all time and per day, follow throws and match the backfill
+ */
+@QuarkusTest
+class HeatmapTest {
+    
+    @Inject
+    HeatmapService heatmapService;
+    
+    @Test
+    void countsFollowThrowsAndMatchTheBackfill() {
+        // The first turn is thrown just before midnight, the others just after
+        LocalDate firstDay = LocalDate.now().minusDays(20);
+        LocalDate secondDay = firstDay.plusDays(1);
+        LocalDateTime late = firstDay.atTime(23, 59, 59);
+        LocalDateTime early = secondDay.atTime(0, 0, 1);
+        given().contentType(ContentType.JSON)
+            .body(List.of(Map.of(
+                "gameMode", "DOUBLE_OUT_301",
+                "playerNames", List.of("Heat Ada", "Heat Bea"),
+                "turns", List.of(
+                    darts(late, 20, 3, 20, 3, 20, 3),
+                    darts(early, 0, 0, 0, 0, 0, 0),
+                    darts(early, 20, 3, 11, 1, 25, 2)))))
+            .post("/api/games/import")
+            .then().statusCode(201);
+        
+        int id = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "STANDARD_501", "playerNames", List.of("Heat Ada")))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+        throwDarts(id, 20, 1, 19, 3, 25, 1);
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/undo").then().statusCode(200);
+        int ada = playerId("heat ada");
+        int bea = playerId("heat bea");
+        
+        // Rows are bull (and misses) first, then sectors 1 to 20; columns are multipliers
+        given().get("/api/players/" + ada + "/heatmap").then().statusCode(200)
+            .body("totalDarts", is(8))
+            .body("sectors[0]", is(25))
+            .body("counts[20][3]", is(4))
+            .body("counts[20][1]", is(1))
+            .body("counts[19][3]", is(1))
+            .body("counts[11][1]", is(1))
+            .body("counts[0][2]", is(1))
+            .body("counts[0][1]", is(0));
+        given().get("/api/players/" + ada + "/heatmap?from=" + firstDay + "&to=" + firstDay).then().statusCode(200)
+            .body("totalDarts", is(3))
+            .body("counts[20][3]", is(3));
+        given().get("/api/players/" + ada + "/heatmap?from=" + secondDay + "&to=" + secondDay).then().statusCode(200)
+            .body("totalDarts", is(3))
+            .body("counts[20][3]", is(1))
+            .body("counts[11][1]", is(1))
+            .body("counts[0][2]", is(1));
+        given().get("/api/players/" + ada + "/heatmap?from=" + LocalDate.now()).then().statusCode(200)
+            .body("totalDarts", is(2))
+            .body("counts[20][1]", is(1))
+            .body("counts[19][3]", is(1));
+        given().get("/api/players/" + ada + "/heatmap?to=" + secondDay).then().statusCode(200)
+            .body("totalDarts", is(6));
+        given().get("/api/players/" + bea + "/heatmap").then().statusCode(200)
+            .body("totalDarts", is(3))
+            .body("counts[0][0]", is(3));
+        
+        List<String> queries = List.of("", "?from=" + firstDay + "&to=" + firstDay, "?from=" + secondDay,
+            "?from=" + LocalDate.now());
+        List<String> before = queries.stream()
+            .map(query -> given().get("/api/players/" + ada + "/heatmap" + query).asString())
+            .toList();
+        String beaBefore = given().get("/api/players/" + bea + "/heatmap").asString();
+        heatmapService.backfill();
+        for (int i = 0; i < queries.size(); i++) {
+            assertEquals(before.get(i), given().get("/api/players/" + ada + "/heatmap" + queries.get(i)).asString());
+        }
+        assertEquals(beaBefore, given().get("/api/players/" + bea + "/heatmap").asString());
+    }
+    
+    @Test
+    void unknownPlayerAndInvalidRange() {
+        given().get("/api/players/999999/heatmap").then().statusCode(200)
+            .body("totalDarts", is(0));
+        given().get("/api/players/999999/heatmap?from=2025-02-01&to=2025-01-01").then().statusCode(400);
+    }
+    
+    private static List<Map<String, Object>> darts(LocalDateTime timestamp, int... darts) {
+        return List.of(
+            Map.of("sector", darts[0], "multiplier", darts[1], "timestamp", timestamp.toString()),
+            Map.of("sector", darts[2], "multiplier", darts[3], "timestamp", timestamp.toString()),
+            Map.of("sector", darts[4], "multiplier", darts[5], "timestamp", timestamp.toString()));
+    }
+    
+    private static int playerId(String name) {
+        return given().get("/api/players/search?q=" + name).then().statusCode(200).extract().path("[0].id");
+    }
+    
+    private static void throwDarts(int id, int... darts) {
+        for (int i = 0; i < darts.length; i += 2) {
+            given().contentType(ContentType.JSON)
+                .body(Map.of("sector", darts[i], "multiplier", darts[i + 1]))
+                .post("/api/games/" + id + "/throw")
+                .then().statusCode(200);
+        }
+    }
+}
\ No newline at end of file
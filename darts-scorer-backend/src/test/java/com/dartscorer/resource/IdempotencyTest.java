@@ -0,0 +1,238 @@
+package com.dartscorer.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throws sent again with the same Idempotency-Key are recorded once
+ */
+@QuarkusTest
+class IdempotencyTest {
+    
+    @Inject
+    IdempotencyStore idempotencyStore;
+    
+    @Test
+    void retryReplaysTheOriginalResponse() {
+        int id = createGame("Idem Ada", "Idem Bea");
+        
+        throwDart(id, "retry-1", 20, 3)
+            .then().statusCode(200)
+            .header("Idempotent-Replayed", nullValue())
+            .body("currentTurn.remainingScore", is(441));
+        throwDart(id, "retry-1", 20, 3)
+            .then().statusCode(200)
+            .header("Idempotent-Replayed", is("true"))
+            .body("currentTurn.remainingScore", is(441));
+        
+        // Same key for another dart of the same game
+        throwDart(id, "retry-1", 19, 1)
+            .then().statusCode(422);
+        // The key only applies to its own game
+        throwDart(createGame("Idem Cid", "Idem Dan"), "retry-1", 19, 1)
+            .then().statusCode(200)
+            .header("Idempotent-Replayed", nullValue());
+        
+        given().get("/api/games/" + id).then().statusCode(200)
+            .body("currentTurn.dartThrows", hasSize(1));
+    }
+    
+    @Test
+    void concurrentSubmissionsRecordOneThrow() throws Exception {
+        int id = createGame("Idem Eve", "Idem Fay");
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<io.restassured.response.Response>> responses = List.of(
+                executor.submit(() -> {
+                    start.await();
+                    return throwDart(id, "concurrent-1", 20, 1);
+                }),
+                executor.submit(() -> {
+                    start.await();
+                    return throwDart(id, "concurrent-1", 20, 1);
+                }));
+            start.countDown();
+            // The other one is a replay, or a 409 if it gave up waiting for the first
+            int recorded = 0;
+            for (Future<io.restassured.response.Response> future : responses) {
+                io.restassured.response.Response response = future.get(30, TimeUnit.SECONDS);
+                boolean replayed = "true".equals(response.header("Idempotent-Replayed"));
+                if (response.statusCode() == 200 && !replayed) {
+                    recorded++;
+                } else {
+                    assertTrue(response.statusCode() == 409 || replayed, "Unexpected " + response.statusCode());
+                }
+            }
+            assertEquals(1, recorded);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        given().get("/api/games/" + id).then().statusCode(200)
+            .body("currentTurn.dartThrows", hasSize(1))
+            .body("currentTurn.remainingScore", is(481));
+    }
+    
+    @Test
+    void serverErrorsAreNotStored() {
+        AtomicInteger runs = new AtomicInteger();
+        Response failed = idempotencyStore.execute("test", "server-error", "request", () -> {
+            runs.incrementAndGet();
+            return Response.serverError().build();
+        });
+        assertEquals(500, failed.getStatus());
+        
+        Response retried = idempotencyStore.execute("test", "server-error", "request", () -> {
+            runs.incrementAndGet();
+            return Response.ok("done").build();
+        });
+        assertEquals(200, retried.getStatus());
+        assertEquals(2, runs.get());
+        
+        Response replayed = idempotencyStore.execute("test", "server-error", "request", () -> {
+            runs.incrementAndGet();
+            return Response.ok("again").build();
+        });
+        assertEquals("done", replayed.getEntity());
+        assertEquals(2, runs.get());
+    }
+    
+    @Test
+    void retryStopsWaitingForARequestStillRunning() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Response> first = CompletableFuture.supplyAsync(() ->
+            idempotencyStore.execute("test", "slow", "request", () -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Response.ok("slow").build();
+            }));
+        try {
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            
+            // darts.idempotency.wait-timeout is 1 second in tests, far below the entry time to live
+            long started = System.nanoTime();
+            Response retry = idempotencyStore.execute("test", "slow", "request",
+                () -> Response.ok("twice").build());
+            assertEquals(409, retry.getStatus());
+            assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            release.countDown();
+        }
+        assertEquals("slow", first.get(10, TimeUnit.SECONDS).getEntity());
+        assertEquals("slow", idempotencyStore.execute("test", "slow", "request",
+            () -> Response.ok("twice").build()).getEntity());
+    }
+    
+    @Test
+    void evictionSkipsRequestsStillRunning() throws Exception {
+        IdempotencyStore store = new IdempotencyStore();
+        store.ttl = Duration.ofMinutes(10);
+        store.maxEntries = 2;
+        store.waitTimeout = Duration.ofMillis(100);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Response> first = CompletableFuture.supplyAsync(() ->
+            store.execute("test", "running", "request", () -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Response.ok("running").build();
+            }));
+        try {
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            // The oldest entry is still running, the ones after it are evicted instead
+            for (int i = 0; i < 5; i++) {
+                store.execute("test", "done-" + i, "request", () -> Response.ok("done").build());
+                assertTrue(store.size() <= 2, "Store grew to " + store.size());
+            }
+            assertEquals(409, store.execute("test", "running", "request",
+                () -> Response.ok("twice").build()).getStatus());
+        } finally {
+            release.countDown();
+        }
+        assertEquals("running", first.get(10, TimeUnit.SECONDS).getEntity());
+        assertEquals("running", store.execute("test", "running", "request",
+            () -> Response.ok("twice").build()).getEntity());
+    }
+    
+    @Test
+    void replacedEntryLeavesNoStaleQueuePosition() throws Exception {
+        IdempotencyStore store = new IdempotencyStore();
+        store.ttl = Duration.ofMillis(200);
+        store.maxEntries = 2;
+        store.waitTimeout = Duration.ofMillis(100);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Response> first = CompletableFuture.supplyAsync(() ->
+            store.execute("test", "replaced", "request", () -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Response.ok("first").build();
+            }));
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        
+        // The expired entry is replaced while its request is still running
+        assertEquals("second", store.execute("test", "replaced", "request",
+            () -> Response.ok("second").build()).getEntity());
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        
+        // The first request completing leaves the newer entry in place, queued once
+        assertEquals(1, store.size());
+        assertEquals("second", store.execute("test", "replaced", "request",
+            () -> Response.ok("again").build()).getEntity());
+        store.execute("test", "other", "request", () -> Response.ok("other").build());
+        store.execute("test", "last", "request", () -> Response.ok("last").build());
+        assertEquals(2, store.size());
+    }
+    
+    private static io.restassured.response.Response throwDart(int id, String key, int sector, int multiplier) {
+        return given().contentType(ContentType.JSON)
+            .header("Idempotency-Key", key)
+            .body(Map.of("sector", sector, "multiplier", multiplier))
+            .post("/api/games/" + id + "/throw");
+    }
+    
+    private static int createGame(String... players) {
+        return given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "STANDARD_501", "playerNames", List.of(players)))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.dartscorer.resource;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Idle games are cancelled in batches, active ones are left alone
+ */
+@QuarkusTest
+@TestProfile(IdleGameReaperTest.SmallBatches.class)
+class IdleGameReaperTest {
+    
+    public static class SmallBatches implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("darts.reaper.batch-size", "2");
+        }
+    }
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @Test
+    void idleGamesAreCancelled() {
+        List<Integer> idle = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            idle.add(createGame("Reaper " + i));
+        }
+        int active = createGame("Reaper Active");
+        int played = createGame("Reaper Played");
+        for (int id : idle) {
+            setLastActivity(id, LocalDateTime.now().minusDays(2));
+        }
+        setLastActivity(played, LocalDateTime.now().minusDays(2));
+        given().contentType(ContentType.JSON)
+            .body(Map.of("sector", 20, "multiplier", 1))
+            .post("/api/games/" + played + "/throw")
+            .then().statusCode(200);
+        
+        long before = given().get("/api/admin/reaper").then().statusCode(200).extract().<Number>path("totalReaped").longValue();
+        given().contentType(ContentType.JSON).post("/api/admin/reaper/run").then().statusCode(200)
+            .body("lastRunReaped", is(5));
+        long after = given().get("/api/admin/reaper").then().statusCode(200).extract().<Number>path("totalReaped").longValue();
+        assertEquals(5, after - before);
+        
+        for (int id : idle) {
+            given().get("/api/games/" + id).then().statusCode(200).body("status", is("CANCELLED"));
+            given().get("/api/games").then().statusCode(200).body("id", not(hasItem(id)));
+        }
+        given().get("/api/games/" + active).then().statusCode(200).body("status", is("IN_PROGRESS"));
+        given().get("/api/games/" + played).then().statusCode(200).body("status", is("IN_PROGRESS"));
+        given().contentType(ContentType.JSON)
+            .body(Map.of("sector", 20, "multiplier", 1))
+            .post("/api/games/" + idle.get(0) + "/throw")
+            .then().statusCode(400);
+        
+        given().contentType(ContentType.JSON).post("/api/admin/reaper/run").then().statusCode(200)
+            .body("lastRunReaped", is(0));
+    }
+    
+    private void setLastActivity(int gameId, LocalDateTime lastActivity) {
+        QuarkusTransaction.requiringNew().run(() -> entityManager
+            .createQuery("update Game g set g.lastActivityAt = ?1 where g.id = ?2")
+            .setParameter(1, lastActivity)
+            .setParameter(2, (long) gameId)
+            .executeUpdate());
+    }
+    
+    private static int createGame(String player) {
+        return given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "STANDARD_301", "playerNames", List.of(player)))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+    }
+}
\ No newline at end of file
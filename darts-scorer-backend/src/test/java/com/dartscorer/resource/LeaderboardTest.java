@@ -0,0 +1,148 @@
+package com.dartscorer.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Leaderboards rank recorded games, follow score updates and page consistently with player ranks
+ */
+@QuarkusTest
+class LeaderboardTest {
+    
+    @Test
+    void winsAndCheckoutsFollowRecordedGames() {
+        given().contentType(ContentType.JSON)
+            .body(List.of(
+                game("Board Ada", "Board Bea"),
+                game("Board Ada", "Board Bea"),
+                game("Board Bea", "Board Ada")))
+            .post("/api/games/import")
+            .then().statusCode(201);
+        int ada = playerId("board ada");
+        int bea = playerId("board bea");
+        
+        int adaRank = given().get("/api/players/" + ada + "/rank?category=WINS").then().statusCode(200)
+            .body("player.id", is(ada))
+            .body("wins", is(2))
+            .extract().path("rank");
+        int beaRank = given().get("/api/players/" + bea + "/rank?category=WINS").then().statusCode(200)
+            .body("wins", is(1))
+            .extract().path("rank");
+        assertTrue(adaRank < beaRank);
+        
+        given().get("/api/players/" + ada + "/rank?category=CHECKOUT").then().statusCode(200)
+            .body("highestCheckout", is(121));
+        int cid = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "STANDARD_501", "playerNames", List.of("Board Cid")))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("players[0].id");
+        given().get("/api/players/" + cid + "/rank?category=WINS").then().statusCode(404);
+    }
+    
+    @Test
+    void tiesAreBrokenByLowestIdAndFollowUpdates() {
+        int id = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "STANDARD_501", "playerNames", List.of("Board Dan", "Board Eve")))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+        int dan = playerId("board dan");
+        int eve = playerId("board eve");
+        throwDarts(id, 19, 1, 19, 1, 19, 1);
+        nextPlayer(id);
+        throwDarts(id, 19, 1, 19, 1, 19, 1);
+        
+        // Same average: the player created first ranks first, right ahead of the other
+        int danRank = rank(dan);
+        assertEquals(danRank + 1, rank(eve));
+        
+        nextPlayer(id);
+        throwDarts(id, 1, 1, 1, 1, 1, 1);
+        given().get("/api/players/" + dan + "/rank").then().statusCode(200)
+            .body("threeDartAverage", is(30.0f));
+        assertTrue(rank(eve) < rank(dan));
+    }
+    
+    @Test
+    void pagesMatchPlayerRanks() {
+        given().contentType(ContentType.JSON)
+            .body(List.of(game("Board Fay", "Board Gus")))
+            .post("/api/games/import")
+            .then().statusCode(201);
+        
+        for (String category : List.of("AVERAGE", "WINS", "CHECKOUT")) {
+            JsonPath page = given().get("/api/players/leaderboard?limit=100&category=" + category)
+                .then().statusCode(200)
+                .extract().jsonPath();
+            List<Integer> ranks = page.getList("rank");
+            List<Integer> players = page.getList("player.id");
+            assertTrue(!ranks.isEmpty() && ranks.size() <= 100);
+            for (int i = 0; i < ranks.size(); i++) {
+                assertEquals(i + 1, ranks.get(i));
+                given().get("/api/players/" + players.get(i) + "/rank?category=" + category).then().statusCode(200)
+                    .body("rank", is(i + 1));
+            }
+            
+            // A shorter page is the start of the longer one
+            List<Integer> first = given().get("/api/players/leaderboard?limit=2&category=" + category)
+                .then().statusCode(200)
+                .extract().jsonPath().getList("player.id");
+            assertEquals(players.subList(0, Math.min(2, players.size())), first);
+        }
+        
+        given().get("/api/players/leaderboard?limit=0").then().statusCode(400);
+        given().get("/api/players/leaderboard?limit=101").then().statusCode(400);
+    }
+    
+    /**
+     * Game of 301 won by the first player with a 121 checkout on the third turn
+     */
+    private static Map<String, Object> game(String winner, String loser) {
+        return Map.of(
+            "gameMode", "STANDARD_301",
+            "playerNames", List.of(winner, loser),
+            "turns", List.of(
+                darts(20, 3, 20, 3, 20, 3),
+                darts(0, 0, 0, 0, 0, 0),
+                darts(20, 3, 11, 1, 25, 2)));
+    }
+    
+    private static List<Map<String, Object>> darts(int... darts) {
+        return List.of(
+            Map.of("sector", darts[0], "multiplier", darts[1]),
+            Map.of("sector", darts[2], "multiplier", darts[3]),
+            Map.of("sector", darts[4], "multiplier", darts[5]));
+    }
+    
+    private static int playerId(String name) {
+        return given().get("/api/players/search?q=" + name).then().statusCode(200).extract().path("[0].id");
+    }
+    
+    private static int rank(int playerId) {
+        return given().get("/api/players/" + playerId + "/rank").then().statusCode(200).extract().path("rank");
+    }
+    
+    private static void throwDarts(int id, int... darts) {
+        for (int i = 0; i < darts.length; i += 2) {
+            given().contentType(ContentType.JSON)
+                .body(Map.of("sector", darts[i], "multiplier", darts[i + 1]))
+                .post("/api/games/" + id + "/throw")
+                .then().statusCode(200);
+        }
+    }
+    
+    private static void nextPlayer(int id) {
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/next-player").then().statusCode(200);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.model.Game;
+import com.dartscorer.model.Player;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Imported matches are replayed with the game rules and stored all at once, or not at all
+ */
+@QuarkusTest
+class MatchImportTest {
+    
+    private static final LocalDateTime PLAYED = LocalDateTime.of(2025, 3, 14, 21, 0);
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @Test
+    void importedMatchIsStoredWithItsTurnsAndThrows() {
+        EntityStatistics games = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+            .getStatistics().getEntityStatistics(Game.class.getName());
+        long updates = games.getUpdateCount();
+        
+        int id = given().contentType(ContentType.JSON)
+            .body(List.of(match("Import Ada", "Import Bea",
+                darts(PLAYED, 20, 3, 20, 3, 20, 3),
+                darts(PLAYED.plusMinutes(1), 5, 1, 5, 1, 5, 1),
+                darts(PLAYED.plusMinutes(2), 20, 3, 19, 3, 1, 1),
+                darts(PLAYED.plusMinutes(3), 1, 1, 1, 1, 1, 1),
+                darts(PLAYED.plusMinutes(4), 1, 1, 1, 2))))
+            .post("/api/games/import")
+            .then().statusCode(201)
+            .body("gameIds", hasSize(1))
+            .body("turns", is(5))
+            .body("darts", is(14))
+            .extract().path("gameIds[0]");
+        // The game is inserted complete, with no follow-up update
+        assertEquals(updates, games.getUpdateCount());
+        
+        given().get("/api/games/" + id).then().statusCode(200)
+            .body("status", is("COMPLETED"))
+            .body("winner.name", is("Import Ada"))
+            .body("currentTurn.remainingScore", is(0));
+        given().get("/api/games/" + id + "/history").then().statusCode(200)
+            .body("", hasSize(5))
+            .body("player.name", is(List.of("Import Ada", "Import Bea", "Import Ada", "Import Bea", "Import Ada")))
+            .body("remainingScore", is(List.of(121, 286, 3, 283, 0)))
+            .body("[4].dartThrows.sector", is(List.of(1, 1)))
+            .body("[4].dartThrows.multiplier", is(List.of(1, 2)))
+            .body("[4].dartThrows.throwNumber", is(List.of(1, 2)));
+        
+        QuarkusTransaction.requiringNew().run(() -> {
+            Game game = Game.findById((long) id);
+            assertEquals(PLAYED.plusMinutes(4).plusSeconds(1), game.completedAt);
+            assertEquals(PLAYED, game.startedAt);
+        });
+    }
+    
+    @Test
+    void dartsAreCheckedWithTheGameRules() {
+        given().contentType(ContentType.JSON)
+            .body(List.of(match("Rules Ada", "Rules Bea", darts(20, 3, 20, 3, 20, 3), darts(26, 1))))
+            .post("/api/games/import")
+            .then().statusCode(400)
+            .body("message", is("Match 1: Turn 2: Invalid sector: must be between 0 and 25"));
+        given().contentType(ContentType.JSON)
+            .body(List.of(match("Rules Ada", "Rules Bea", darts(20, 3, 20, 3), darts(1, 1, 1, 1, 1, 1))))
+            .post("/api/games/import")
+            .then().statusCode(400)
+            .body("message", is("Match 1: Turn 2: Previous turn is not complete"));
+        given().contentType(ContentType.JSON)
+            .body(List.of(match("Rules Ada", "Rules Bea", darts(20, 3, 20, 3, 20, 3, 1, 1))))
+            .post("/api/games/import")
+            .then().statusCode(400)
+            .body("message", is("Match 1: Turn 1: A turn must have 1 to 3 darts"));
+        given().contentType(ContentType.JSON)
+            .body(List.of(match("Rules Ada", "Rules Bea",
+                darts(20, 3, 20, 3, 20, 3),
+                darts(1, 1, 1, 1, 1, 1),
+                darts(20, 3, 11, 1, 25, 2),
+                darts(1, 1))))
+            .post("/api/games/import")
+            .then().statusCode(400)
+            .body("message", is("Match 1: Turn 4: Game is already over"));
+        
+        // Leaving 1 busts the turn in double out, and the dart after the bust does not count
+        Map<String, Object> bust = match("Rules Ada", "Rules Bea",
+            darts(20, 3, 20, 3, 20, 3), darts(1, 1, 1, 1, 1, 1), darts(20, 3, 20, 3, 1, 1));
+        int id = given().contentType(ContentType.JSON)
+            .body(List.of(bust))
+            .post("/api/games/import")
+            .then().statusCode(201)
+            .extract().path("gameIds[0]");
+        given().get("/api/games/" + id).then().statusCode(200)
+            .body("status", is("IN_PROGRESS"))
+            .body("currentTurn.isBust", is(true))
+            .body("currentTurn.remainingScore", is(121));
+    }
+    
+    @Test
+    void invalidMatchRollsBackTheWholeImport() {
+        long before = QuarkusTransaction.requiringNew().<Long>call(() -> Game.count());
+        
+        given().contentType(ContentType.JSON)
+            .body(List.of(
+                match("Rollback Ada", "Rollback Bea", darts(20, 3, 20, 3, 20, 3), darts(1, 1, 1, 1, 1, 1)),
+                match("Rollback Cid", "Rollback Dan", darts(20, 3, 20, 3, 20, 3), darts(25, 3))))
+            .post("/api/games/import")
+            .then().statusCode(400)
+            .body("message", is("Match 2: Turn 2: Bull cannot be triple"));
+        
+        long after = QuarkusTransaction.requiringNew().<Long>call(() -> Game.count());
+        long players = QuarkusTransaction.requiringNew().<Long>call(() -> Player.count("name like ?1", "Rollback %"));
+        assertEquals(before, after);
+        assertEquals(0, players);
+    }
+    
+    private static Map<String, Object> match(String first, String second, List<Map<String, Object>>... turns) {
+        return Map.of(
+            "gameMode", "DOUBLE_OUT_301",
+            "playerNames", List.of(first, second),
+            "startedAt", PLAYED.toString(),
+            "turns", List.of(turns));
+    }
+    
+    /**
+     * Darts of a turn thrown a second apart from a time on
+     */
+    private static List<Map<String, Object>> darts(LocalDateTime at, int... darts) {
+        List<Map<String, Object>> turn = new ArrayList<>();
+        for (int i = 0; i < darts.length; i += 2) {
+            turn.add(Map.of("sector", darts[i], "multiplier", darts[i + 1], "timestamp", at.plusSeconds(i / 2).toString()));
+        }
+        return turn;
+    }
+    
+    private static List<Map<String, Object>> darts(int... darts) {
+        List<Map<String, Object>> turn = new ArrayList<>();
+        for (int i = 0; i < darts.length; i += 2) {
+            turn.add(Map.of("sector", darts[i], "multiplier", darts[i + 1]));
+        }
+        return turn;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.dartscorer.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * Type-ahead player search and paginated player listing
+ */
+@QuarkusTest
+class PlayerSearchTest {
+    
+    @Test
+    void searchMatchesWordPrefixesIgnoringCaseAndAccents() {
+        int nicolo = createPlayer("Nicolò Zanardelli");
+        createPlayer("Nicola Zanetti");
+        createPlayer("Zanna Bianca");
+        
+        given().get("/api/players/search?q=nicol").then().statusCode(200)
+            .body("name", contains("Nicola Zanetti", "Nicolò Zanardelli"));
+        given().get("/api/players/search?q=NICOLO").then().statusCode(200)
+            .body("name", contains("Nicolò Zanardelli"));
+        given().get("/api/players/search?q=zan").then().statusCode(200)
+            .body("name", contains("Nicolò Zanardelli", "Nicola Zanetti", "Zanna Bianca"));
+        given().get("/api/players/search?q=zan&limit=1").then().statusCode(200)
+            .body("name", contains("Nicolò Zanardelli"));
+        
+        given().delete("/api/players/" + nicolo).then().statusCode(204);
+        given().get("/api/players/search?q=nicol").then().statusCode(200)
+            .body("name", contains("Nicola Zanetti"));
+    }
+    
+    @Test
+    void playersCreatedWithAGameAreIndexed() {
+        given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "TRAINING", "playerNames", List.of("Quirino Search")))
+            .post("/api/games")
+            .then().statusCode(201);
+        given().get("/api/players/search?q=quirino").then().statusCode(200)
+            .body("name", contains("Quirino Search"));
+    }
+    
+    @Test
+    void searchValidatesParameters() {
+        given().get("/api/players/search").then().statusCode(400);
+        given().get("/api/players/search?q=a&limit=0").then().statusCode(400);
+        given().get("/api/players/search?q=xyzzy").then().statusCode(200).body("$", empty());
+    }
+    
+    @Test
+    void listingIsPaginated() {
+        createPlayer("Page A");
+        createPlayer("Page B");
+        
+        int total = Integer.parseInt(given().get("/api/players?size=1").then().statusCode(200)
+            .body("$", hasSize(1))
+            .header(PlayerResource.TOTAL_COUNT, notNullValue())
+            .extract().header(PlayerResource.TOTAL_COUNT));
+        given().get("/api/players?page=" + (total - 1) + "&size=1").then().statusCode(200).body("$", hasSize(1));
+        given().get("/api/players?page=" + total + "&size=1").then().statusCode(200).body("$", empty());
+        given().get("/api/players?size=1000").then().statusCode(400);
+        given().get("/api/players?size=" + total).then().statusCode(200)
+            .body("$", hasSize(total))
+            .body("id", everyItem(notNullValue()));
+        given().get("/api/players/search?q=page").then().body("name", contains("Page A", "Page B"))
+            .body("size()", is(2));
+    }
+    
+    private static int createPlayer(String name) {
+        return given().contentType(ContentType.JSON)
+            .body(Map.of("name", name))
+            .post("/api/players")
+            .then().statusCode(201)
+            .extract().path("id");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.config.RateLimitFilter;
+import com.dartscorer.config.RateLimited;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Requests over the limits get 429 with Retry-After.
+ *
+ * Every test request comes from the same address, so the client bucket is
+ * shared by the tests: the one exhausting it runs last.
+ */
+@QuarkusTest
+@TestProfile(RateLimitTest.SmallLimits.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RateLimitTest {
+    
+    public static class SmallLimits implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "darts.rate-limit.client.rate", "0.01",
+                "darts.rate-limit.client.burst", "30",
+                "darts.rate-limit.game.rate", "0.1",
+                "darts.rate-limit.game.burst", "3",
+                "darts.rate-limit.max-concurrent-reads", "1",
+                "darts.instance.forward-secret", "limit-secret");
+        }
+    }
+    
+    private static final CountDownLatch STREAMING = new CountDownLatch(1);
+    private static final CountDownLatch FINISH = new CountDownLatch(1);
+    
+    /**
+     * Expensive read whose streamed body is written only once the test lets it finish
+     */
+    @Path("/test/slow-stream")
+    public static class SlowStream {
+        
+        @GET
+        @RateLimited(expensive = true)
+        public Response stream() {
+            StreamingOutput body = output -> {
+                STREAMING.countDown();
+                try {
+                    FINISH.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                output.write("done".getBytes());
+            };
+            return Response.ok(body).build();
+        }
+    }
+    
+    @Test
+    @Order(1)
+    void gameLimitAnswersWithRetryAfter() {
+        int id = createGame("Limit Ada", "Limit Bea");
+        for (int i = 0; i < 3; i++) {
+            throwDart(id).then().statusCode(200);
+        }
+        // One token every 10 seconds
+        throwDart(id).then().statusCode(429)
+            .header("Retry-After", is("10"))
+            .body("message", is("Too many requests"));
+    }
+    
+    @Test
+    @Order(2)
+    void forwardedRequestsAreNotChargedAgain() {
+        int id = createGame("Limit Fwd");
+        // Charged by the instance that forwarded them
+        for (int i = 0; i < 5; i++) {
+            throwDart(id, "limit-secret").then().statusCode(200);
+        }
+        for (int i = 0; i < 3; i++) {
+            throwDart(id, i == 0 ? "wrong-secret" : null).then().statusCode(200);
+        }
+        throwDart(id, "wrong-secret").then().statusCode(429);
+    }
+    
+    @Test
+    @Order(3)
+    void concurrentReadHoldsItsPermitUntilTheStreamEnds() throws Exception {
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+            given().get("/test/slow-stream").then().statusCode(200).extract().asString());
+        try {
+            assertTrue(STREAMING.await(10, TimeUnit.SECONDS));
+            
+            // The resource method has returned, but its body is still being written
+            given().get("/test/slow-stream").then().statusCode(429)
+                .header("Retry-After", is("1"))
+                .body("message", is("Server busy"));
+        } finally {
+            FINISH.countDown();
+        }
+        assertEquals("done", first.get(10, TimeUnit.SECONDS));
+        
+        // The permit is released once the response has ended
+        long deadline = System.currentTimeMillis() + 10_000;
+        int status;
+        while ((status = given().get("/test/slow-stream").statusCode()) != 200) {
+            assertEquals(429, status);
+            assertTrue(System.currentTimeMillis() < deadline, "Permit not released");
+            Thread.sleep(20);
+        }
+    }
+    
+    @Test
+    @Order(4)
+    void clientLimitIgnoresClientIdHeader() {
+        // Three throws per game stay within the game limit, each one with another client id
+        int id = 0;
+        for (int i = 0; i < 40; i++) {
+            if (i % 3 == 0) {
+                id = createGame("Limit Cid " + i);
+            }
+            int status = given().contentType(ContentType.JSON)
+                .header("X-Client-Id", "client-" + i)
+                .body(Map.of("sector", 20, "multiplier", 1))
+                .post("/api/games/" + id + "/throw")
+                .statusCode();
+            if (status == 429) {
+                return;
+            }
+            assertEquals(200, status);
+        }
+        throw new AssertionError("Client limit not reached");
+    }
+    
+    private static io.restassured.response.Response throwDart(int id) {
+        return throwDart(id, null);
+    }
+    
+    private static io.restassured.response.Response throwDart(int id, String forwardSecret) {
+        RequestSpecification request = given().contentType(ContentType.JSON);
+        if (forwardSecret != null) {
+            request.header(RateLimitFilter.FORWARD_SECRET, forwardSecret);
+        }
+        return request.body(Map.of("sector", 20, "multiplier", 1))
+            .post("/api/games/" + id + "/throw");
+    }
+    
+    private static int createGame(String... players) {
+        return given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "STANDARD_501", "playerNames", List.of(players)))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+    }
+}
\ No newline at end of file
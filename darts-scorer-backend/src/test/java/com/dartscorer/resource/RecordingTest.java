@@ -0,0 +1,82 @@
+package com.dartscorer.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * On-demand flight recording with the game phase events
+ */
+@QuarkusTest
+class RecordingTest {
+    
+    @Test
+    void recordingCapturesEveryPhase() throws Exception {
+        int id = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "STANDARD_501", "playerNames", List.of("Recording A", "Recording B")))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+        
+        given().contentType(ContentType.JSON).post("/api/admin/recording?seconds=120").then().statusCode(202).body("state", is("RUNNING"));
+        given().contentType(ContentType.JSON).post("/api/admin/recording").then().statusCode(409);
+        given().get("/api/admin/recording/file").then().statusCode(409);
+        
+        for (int i = 0; i < 3; i++) {
+            given().contentType(ContentType.JSON)
+                .body(Map.of("sector", 20, "multiplier", 1))
+                .post("/api/games/" + id + "/throw")
+                .then().statusCode(200);
+        }
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/next-player").then().statusCode(200);
+        
+        given().contentType(ContentType.JSON).post("/api/admin/recording/stop").then().statusCode(200).body("state", is("STOPPED"));
+        byte[] recording = given().get("/api/admin/recording/file").then().statusCode(200).extract().asByteArray();
+        
+        Path file = Files.createTempFile("recording-test", ".jfr");
+        try {
+            Files.write(file, recording);
+            List<RecordedEvent> phases = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("com.dartscorer.GamePhase"))
+                .filter(event -> event.getLong("gameId") == id)
+                .toList();
+            
+            assertEquals(Set.of("load", "validation", "turnLookup", "persist", "processThrow", "dto", "serialization"),
+                phases(phases, "recordThrow"));
+            assertEquals(Set.of("load", "validation", "turnLookup", "persist", "dto", "serialization"),
+                phases(phases, "nextPlayer"));
+            assertTrue(phases.stream()
+                .filter(event -> event.getString("phase").equals("processThrow"))
+                .allMatch(event -> event.getInt("turnCount") == 1 && event.getInt("entitiesLoaded") > 0));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    void durationIsBounded() {
+        given().contentType(ContentType.JSON).post("/api/admin/recording?seconds=0").then().statusCode(400);
+        given().contentType(ContentType.JSON).post("/api/admin/recording?seconds=100000").then().statusCode(400);
+    }
+    
+    private static Set<String> phases(List<RecordedEvent> events, String operation) {
+        return events.stream()
+            .filter(event -> event.getString("operation").equals(operation))
+            .map(event -> event.getString("phase"))
+            .collect(Collectors.toSet());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.dartscorer.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replayed game states checked against the states returned while the game was played
+ */
+@QuarkusTest
+@TestProfile(ReplayTest.FrequentSnapshots.class)
+class ReplayTest {
+    
+    public static class FrequentSnapshots implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("darts.replay.snapshot-interval", "5", "darts.rate-limit.enabled", "false");
+        }
+    }
+    
+    private static final int[] SECTORS = { 15, 16, 17, 18, 19, 20, 25, 0, 1, 5 };
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    /**
+     * Live states by turn index and darts thrown in that turn
+     */
+    private final Map<String, JsonNode> live = new TreeMap<>();
+    private int turnIndex;
+    private int darts;
+    
+    @Test
+    void x01ReplayMatchesLiveStates() throws Exception {
+        int id = createGame("DOUBLE_OUT_501", "Replay A", "Replay B");
+        Random random = new Random(7);
+        playTurns(id, random, 21);
+        // Undo back into the turn before the snapshot taken at turn 20, then play it again differently
+        undo(id, 5);
+        playTurns(id, random, 14);
+        
+        assertTrue(turnIndex > 30);
+        assertReplayMatches(id);
+    }
+    
+    @Test
+    void cricketReplayMatchesLiveStates() throws Exception {
+        int id = createGame("CUT_THROAT_CRICKET", "Replay C", "Replay D", "Replay E");
+        playTurns(id, new Random(11), 40);
+        assertReplayMatches(id);
+    }
+    
+    @Test
+    void playThroughStreamsEveryDart() throws Exception {
+        int id = createGame("STANDARD_301", "Replay F", "Replay G");
+        playTurns(id, new Random(3), 25);
+        
+        List<JsonNode> frames = stream(id, 0);
+        long thrown = live.keySet().stream().filter(key -> !key.endsWith("/0")).count();
+        assertEquals(thrown, frames.size());
+        assertEquals(live.get(key(0, 1)), frames.get(0));
+        assertEquals(given().get("/api/games/" + id).then().statusCode(200).extract().asString(),
+            frames.get(frames.size() - 1).toString());
+        
+        int middle = (int) live.keySet().stream().map(key -> key.substring(0, 4)).distinct().count() / 2;
+        List<JsonNode> fromTurn = stream(id, middle);
+        assertEquals(live.get(key(middle, 1)), fromTurn.get(0));
+        assertEquals(frames.get(frames.size() - 1), fromTurn.get(fromTurn.size() - 1));
+    }
+    
+    @Test
+    void invalidPositions() {
+        int id = createGame("STANDARD_301", "Replay H");
+        given().get("/api/games/" + id + "/replay").then().statusCode(400);
+        given().get("/api/games/" + id + "/replay?turn=1").then().statusCode(404);
+        given().get("/api/games/" + id + "/replay?turn=0&darts=1").then().statusCode(400);
+        given().get("/api/games/" + id + "/replay?turn=0&darts=0").then().statusCode(200);
+        given().get("/api/games/999999/replay?turn=0").then().statusCode(404);
+        given().get("/api/games/999999/replay/stream").then().statusCode(404);
+        given().get("/api/games/" + id + "/replay/stream?fromTurn=1").then().statusCode(404);
+        given().get("/api/games/" + id + "/replay/stream?fromTurn=-1").then().statusCode(400);
+    }
+    
+    private void assertReplayMatches(int id) throws Exception {
+        for (Map.Entry<String, JsonNode> state : live.entrySet()) {
+            String[] position = state.getKey().split("/");
+            String replayed = given()
+                .get("/api/games/" + id + "/replay?turn=" + Integer.parseInt(position[0]) + "&darts=" + position[1])
+                .then().statusCode(200)
+                .extract().asString();
+            assertEquals(state.getValue(), objectMapper.readTree(replayed), "Turn " + position[0] + ", darts " + position[1]);
+        }
+    }
+    
+    /**
+     * Play random darts, recording the state returned after every throw and turn change
+     */
+    private void playTurns(int id, Random random, int turns) throws Exception {
+        for (int t = 0; t < turns; t++) {
+            while (darts < 3) {
+                int sector = SECTORS[random.nextInt(SECTORS.length)];
+                int multiplier = sector == 0 ? 0 : 1 + random.nextInt(sector == 25 ? 2 : 3);
+                JsonNode state = post("/api/games/" + id + "/throw", Map.of("sector", sector, "multiplier", multiplier));
+                live.put(key(turnIndex, ++darts), state);
+                if (state.get("status").asText().equals("COMPLETED")) {
+                    return;
+                }
+            }
+            live.put(key(++turnIndex, darts = 0), post("/api/games/" + id + "/next-player", null));
+        }
+    }
+    
+    private void undo(int id, int steps) throws Exception {
+        for (int i = 0; i < steps; i++) {
+            live.remove(key(turnIndex, darts));
+            if (darts == 0) {
+                turnIndex--;
+                darts = 3;
+                live.remove(key(turnIndex, darts));
+            }
+            darts--;
+            post("/api/games/" + id + "/undo", null);
+        }
+    }
+    
+    private JsonNode post(String path, Object body) throws Exception {
+        var request = given().contentType(ContentType.JSON);
+        if (body != null) {
+            request.body(body);
+        }
+        return objectMapper.readTree(request.post(path).then().statusCode(200).extract().asString());
+    }
+    
+    private List<JsonNode> stream(int id, int fromTurn) throws Exception {
+        String body = given().get("/api/games/" + id + "/replay/stream?fromTurn=" + fromTurn)
+            .then().log().ifValidationFails().statusCode(200).contentType(GameResource.NDJSON)
+            .extract().asString();
+        List<JsonNode> frames = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            frames.add(objectMapper.readTree(line));
+        }
+        return frames;
+    }
+    
+    private static String key(int turn, int darts) {
+        return String.format("%04d/%d", turn, darts);
+    }
+    
+    private static int createGame(String mode, String... players) {
+        return given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", mode, "playerNames", List.of(players)))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+    }
+}
\ No newline at end of file
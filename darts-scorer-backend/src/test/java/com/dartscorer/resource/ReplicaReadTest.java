@@ -0,0 +1,110 @@
+package com.dartscorer.resource;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Read-only endpoints on a replica that is a separate H2 database, refreshed by copying the primary
+ */
+@QuarkusTest
+@TestProfile(ReplicaReadTest.SeparateReplica.class)
+class ReplicaReadTest {
+    
+    public static class SeparateReplica implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.datasource.\"replica\".jdbc.url", "jdbc:h2:mem:dartsdb-replica;DB_CLOSE_DELAY=-1");
+        }
+    }
+    
+    @Inject
+    AgroalDataSource primary;
+    
+    @Inject
+    @DataSource("replica")
+    AgroalDataSource replica;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        replicate();
+    }
+    
+    @Test
+    void readsComeFromReplica() throws SQLException {
+        int id = createGame("Replica A", "Replica B");
+        
+        given().get("/api/games/" + id).then().statusCode(404);
+        given().get("/api/games/" + id + "/history").then().statusCode(404);
+        given().get("/api/players").then().statusCode(200).body("name", not(hasItem("Replica A")));
+        
+        replicate();
+        given().get("/api/games/" + id).then().statusCode(200).body("id", is(id));
+        given().get("/api/games").then().statusCode(200).body("id", hasItem(id));
+        given().get("/api/players").then().statusCode(200).body("name", hasItem("Replica A"));
+    }
+    
+    @Test
+    void mutationsReadTheirWritesFromPrimary() throws SQLException {
+        int id = createGame("Replica C", "Replica D");
+        replicate();
+        
+        given().contentType(ContentType.JSON)
+            .body(Map.of("sector", 20, "multiplier", 3))
+            .post("/api/games/" + id + "/throw")
+            .then().statusCode(200)
+            .body("currentTurn.dartThrows.size()", is(1));
+        given().get("/api/games/" + id).then().statusCode(200).body("currentTurn.dartThrows.size()", is(0));
+        
+        replicate();
+        given().get("/api/games/" + id).then().statusCode(200).body("currentTurn.dartThrows.size()", is(1));
+    }
+    
+    private int createGame(String... players) {
+        return given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "STANDARD_301", "playerNames", List.of(players)))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+    }
+    
+    /**
+     * Replace the replica with a copy of the primary
+     */
+    private void replicate() throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SCRIPT")) {
+            while (rows.next()) {
+                script.add(rows.getString(1));
+            }
+        }
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.dartscorer.resource;
+
+import com.dartscorer.event.GameCompletedEvent;
+import com.dartscorer.event.ThrowEvent;
+import com.dartscorer.model.GameMode;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * A recomputation restores leaderboards, heatmaps, daily statistics and head-to-head records that drifted
+ */
+@QuarkusTest
+class StatsRecomputeTest {
+    
+    @Inject
+    Event<ThrowEvent> throwEvents;
+    
+    @Inject
+    Event<GameCompletedEvent> gameCompletedEvents;
+    
+    @Test
+    void recomputationRestoresDriftedAggregates() throws InterruptedException {
+        LocalDate firstDay = LocalDate.now().minusDays(10);
+        LocalDateTime late = firstDay.atTime(23, 59, 59);
+        LocalDateTime early = firstDay.plusDays(1).atTime(0, 0, 1);
+        given().contentType(ContentType.JSON)
+            .body(List.of(Map.of(
+                "gameMode", "DOUBLE_OUT_301",
+                "playerNames", List.of("Recompute Ada", "Recompute Bea"),
+                "turns", List.of(
+                    darts(late, 20, 3, 20, 3, 20, 3),
+                    darts(early, 0, 0, 0, 0, 0, 0),
+                    darts(early, 20, 3, 11, 1, 25, 2)))))
+            .post("/api/games/import")
+            .then().statusCode(201);
+        
+        // A live game with a bust, an undo and a win
+        int id = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "DOUBLE_OUT_301", "playerNames", List.of("Recompute Bea", "Recompute Ada")))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+        throwDarts(id, 20, 3, 20, 3, 20, 3);
+        nextPlayer(id);
+        throwDarts(id, 5, 1, 7, 1);
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/undo").then().statusCode(200);
+        throwDarts(id, 1, 1, 1, 1);
+        nextPlayer(id);
+        throwDarts(id, 20, 3, 20, 3, 20, 3);
+        nextPlayer(id);
+        throwDarts(id, 19, 3, 0, 0, 0, 0);
+        nextPlayer(id);
+        throwDarts(id, 20, 3, 11, 1, 25, 2);
+        
+        int ada = playerId("recompute ada");
+        int bea = playerId("recompute bea");
+        List<String> urls = List.of(
+            "/api/players/" + ada + "/rank?category=AVERAGE",
+            "/api/players/" + ada + "/rank?category=WINS",
+            "/api/players/" + bea + "/rank?category=CHECKOUT",
+            "/api/players/" + ada + "/heatmap",
+            "/api/players/" + bea + "/heatmap",
+            "/api/players/" + ada + "/stats/daily?from=" + firstDay,
+            "/api/players/" + bea + "/stats/daily?from=" + firstDay,
+            "/api/players/" + ada + "/head-to-head/" + bea);
+        given().get(urls.get(2)).then().statusCode(200).body("highestCheckout", is(121));
+        given().get(urls.get(5)).then().statusCode(200).body("size()", is(3));
+        List<String> before = urls.stream().map(url -> given().get(url).then().statusCode(200).extract().asString()).toList();
+        
+        // Events that were never committed drift every aggregate
+        throwEvents.fire(new ThrowEvent(null, (long) id, 0, GameMode.DOUBLE_OUT_301, (long) ada, 20, 3, 60, false,
+            LocalDateTime.now(), false));
+        throwEvents.fire(new ThrowEvent(null, (long) id, 0, GameMode.DOUBLE_OUT_301, (long) bea, 25, 2, 50, true,
+            firstDay.atTime(12, 0), false));
+        gameCompletedEvents.fire(new GameCompletedEvent((long) id, 0, null, GameMode.DOUBLE_OUT_301, (long) bea,
+            List.of((long) bea, (long) ada), new int[] {3, 3}, new int[] {170, 0}, 170, LocalDateTime.now(), false));
+        for (int i = 0; i < urls.size(); i++) {
+            assertNotEquals(before.get(i), given().get(urls.get(i)).asString(), urls.get(i));
+        }
+        
+        given().contentType(ContentType.JSON).post("/api/admin/stats/recompute").then().statusCode(202);
+        for (int attempt = 0; attempt < 100 && "RUNNING".equals(recomputeState()); attempt++) {
+            Thread.sleep(100);
+        }
+        assertEquals("COMPLETED", recomputeState());
+        for (int i = 0; i < urls.size(); i++) {
+            assertEquals(before.get(i), given().get(urls.get(i)).asString(), urls.get(i));
+        }
+    }
+    
+    private static String recomputeState() {
+        return given().get("/api/admin/stats/recompute").then().statusCode(200).extract().path("state");
+    }
+    
+    private static List<Map<String, Object>> darts(LocalDateTime timestamp, int... darts) {
+        return List.of(
+            Map.of("sector", darts[0], "multiplier", darts[1], "timestamp", timestamp.toString()),
+            Map.of("sector", darts[2], "multiplier", darts[3], "timestamp", timestamp.toString()),
+            Map.of("sector", darts[4], "multiplier", darts[5], "timestamp", timestamp.toString()));
+    }
+    
+    private static int playerId(String name) {
+        return given().get("/api/players/search?q=" + name).then().statusCode(200).extract().path("[0].id");
+    }
+    
+    private static void throwDarts(int id, int... darts) {
+        for (int i = 0; i < darts.length; i += 2) {
+            given().contentType(ContentType.JSON)
+                .body(Map.of("sector", darts[i], "multiplier", darts[i + 1]))
+                .post("/api/games/" + id + "/throw")
+                .then().statusCode(200);
+        }
+    }
+    
+    private static void nextPlayer(int id) {
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/next-player").then().statusCode(200);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.dartscorer.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Completed games are archived, undone wins are discarded, and scans filter and group the columns
+ */
+@QuarkusTest
+class ThrowArchiveTest {
+    
+    @Test
+    void scansFollowCompletedGames() {
+        int id = given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", "DOUBLE_OUT_301", "playerNames", List.of("Archive Ada", "Archive Bea")))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+        int ada = given().get("/api/games/" + id).then().statusCode(200).extract().path("players[0].id");
+        int bea = given().get("/api/games/" + id).then().statusCode(200).extract().path("players[1].id");
+        throwDarts(id, 20, 3, 20, 3, 20, 3);
+        nextPlayer(id);
+        throwDarts(id, 0, 0, 0, 0, 0, 0);
+        nextPlayer(id);
+        throwDarts(id, 20, 3, 11, 1, 25, 2);
+        awaitRows(id, 9);
+        
+        given().get("/api/analytics/throws?gameId=" + id).then().statusCode(200)
+            .body("count", is(9))
+            .body("points", is(301))
+            .body("groups", nullValue());
+        given().get("/api/analytics/throws?gameId=" + id + "&sector=20&multiplier=3").then().statusCode(200)
+            .body("count", is(4))
+            .body("points", is(240));
+        given().get("/api/analytics/throws?gameId=" + id + "&groupBy=PLAYER").then().statusCode(200)
+            .body("groups.key", is(List.of(ada, bea)))
+            .body("groups.count", is(List.of(6, 3)))
+            .body("groups.points", is(List.of(301, 0)));
+        given().get("/api/analytics/throws?playerId=" + ada + "&groupBy=MULTIPLIER").then().statusCode(200)
+            .body("groups.key", is(List.of(1, 2, 3)))
+            .body("groups.count", is(List.of(1, 1, 4)));
+        String tomorrow = LocalDate.now().plusDays(1).toString();
+        given().get("/api/analytics/throws?playerId=" + ada + "&from=" + tomorrow).then().statusCode(200)
+            .body("count", is(0));
+        
+        // Undoing the win discards the rows, winning again appends the game anew
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/undo").then().statusCode(200);
+        awaitRows(id, 0);
+        given().get("/api/analytics/throws?playerId=" + bea).then().statusCode(200)
+            .body("count", is(0));
+        throwDarts(id, 25, 2);
+        awaitRows(id, 9);
+        given().get("/api/analytics/throws?playerId=" + ada + "&sector=25").then().statusCode(200)
+            .body("count", is(1));
+        given().get("/api/admin/archive").then().statusCode(200)
+            .body("discardedRows", greaterThanOrEqualTo(9));
+    }
+    
+    @Test
+    void invalidFilters() {
+        given().get("/api/analytics/throws?multiplier=4").then().statusCode(400);
+        given().get("/api/analytics/throws?sector=22").then().statusCode(400);
+        given().get("/api/analytics/throws?from=2025-02-01&to=2025-01-01").then().statusCode(400);
+    }
+    
+    private static void awaitRows(int gameId, int rows) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (given().get("/api/analytics/throws?gameId=" + gameId).then().statusCode(200)
+                .extract().<Integer>path("rowsScanned") != rows) {
+            assertTrue(System.currentTimeMillis() < deadline, "Game not archived in time");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private static void throwDarts(int id, int... darts) {
+        for (int i = 0; i < darts.length; i += 2) {
+            given().contentType(ContentType.JSON)
+                .body(Map.of("sector", darts[i], "multiplier", darts[i + 1]))
+                .post("/api/games/" + id + "/throw")
+                .then().statusCode(200);
+        }
+    }
+    
+    private static void nextPlayer(int id) {
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/next-player").then().statusCode(200);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.dartscorer.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Undoing throws rolls back only the affected turns, across players, busts, wins and cricket marks
+ */
+@QuarkusTest
+class UndoTest {
+    
+    @Test
+    void undoReplaysTheTurnFromItsStartingScore() {
+        int id = createGame("STANDARD_301", "Undo Ada", "Undo Bea");
+        throwDarts(id, 20, 3, 20, 3, 19, 1);
+        
+        undo(id, 1)
+            .body("currentTurn.dartThrows", hasSize(2))
+            .body("currentTurn.remainingScore", is(181))
+            .body("currentPlayerIndex", is(0));
+        
+        // The empty turn opened by next-player is removed and the previous player is back
+        throwDarts(id, 19, 1);
+        nextPlayer(id);
+        undo(id, 1)
+            .body("currentPlayerIndex", is(0))
+            .body("currentPlayer.name", is("Undo Ada"))
+            .body("currentTurn.dartThrows", hasSize(2))
+            .body("recentTurns", hasSize(1))
+            .body("currentTurn.remainingScore", is(181));
+    }
+    
+    @Test
+    void undoClearsABust() {
+        int id = createGame("DOUBLE_OUT_301", "Undo Cid", "Undo Dan");
+        throwDarts(id, 20, 3, 20, 3, 20, 3);
+        nextPlayer(id);
+        throwDarts(id, 0, 0, 0, 0, 0, 0);
+        nextPlayer(id);
+        throwDarts(id, 20, 3, 20, 3);
+        given().get("/api/games/" + id).then().statusCode(200)
+            .body("currentTurn.isBust", is(true))
+            .body("currentTurn.remainingScore", is(121));
+        
+        undo(id, 1)
+            .body("currentTurn.isBust", is(false))
+            .body("currentTurn.remainingScore", is(61));
+    }
+    
+    @Test
+    void undoingTheWinningDartReopensTheGame() {
+        int id = createGame("DOUBLE_OUT_301", "Undo Eve", "Undo Fay");
+        throwDarts(id, 20, 3, 20, 3, 20, 3);
+        nextPlayer(id);
+        throwDarts(id, 0, 0, 0, 0, 0, 0);
+        nextPlayer(id);
+        throwDarts(id, 20, 3, 11, 1, 25, 2);
+        given().get("/api/games/" + id).then().statusCode(200)
+            .body("status", is("COMPLETED"))
+            .body("winner.name", is("Undo Eve"));
+        int eve = given().get("/api/games/" + id).then().extract().path("players[0].id");
+        int fay = given().get("/api/games/" + id).then().extract().path("players[1].id");
+        given().get("/api/players/" + eve + "/head-to-head/" + fay).then().statusCode(200)
+            .body("games", is(1))
+            .body("player.wins", is(1));
+        
+        undo(id, 1)
+            .body("status", is("IN_PROGRESS"))
+            .body("winner", nullValue())
+            .body("currentTurn.remainingScore", is(50));
+        // The reverted completion event takes the game out of the head-to-head record
+        given().get("/api/players/" + eve + "/head-to-head/" + fay).then().statusCode(200)
+            .body("games", is(0))
+            .body("player.wins", is(0));
+        
+        throwDarts(id, 25, 2);
+        given().get("/api/games/" + id).then().statusCode(200)
+            .body("status", is("COMPLETED"));
+        given().get("/api/players/" + eve + "/head-to-head/" + fay).then().statusCode(200)
+            .body("games", is(1))
+            .body("player.wins", is(1))
+            .body("player.highestCheckout", is(121));
+    }
+    
+    @Test
+    void cricketUndoRevertsMarksAndPoints() {
+        int id = createGame("CRICKET", "Undo Gus", "Undo Hal");
+        int gus = given().get("/api/games/" + id).then().extract().path("players[0].id");
+        throwDarts(id, 20, 3, 20, 3);
+        given().get("/api/games/" + id).then().statusCode(200)
+            .body("playerScores." + gus, is(60));
+        
+        undo(id, 1)
+            .body("playerScores." + gus, is(0))
+            .body("cricket.marks.'" + gus + "'[5]", is(3));
+        undo(id, 1)
+            .body("cricket.marks.'" + gus + "'[5]", is(0));
+    }
+    
+    @Test
+    void undoDepthIsLimited() {
+        int id = createGame("TRAINING", "Undo Ivy");
+        for (int turn = 0; turn < 4; turn++) {
+            throwDarts(id, 1, 1, 1, 1, 1, 1);
+            nextPlayer(id);
+        }
+        
+        // darts.undo.max-depth is 10 by default
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/undo?steps=11")
+            .then().statusCode(400)
+            .body("message", is("Cannot undo more than 10 throws"));
+        undo(id, 10)
+            .body("playerScores.values()[0]", is(2));
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/undo")
+            .then().statusCode(400);
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/undo?steps=0")
+            .then().statusCode(400);
+    }
+    
+    private static io.restassured.response.ValidatableResponse undo(int id, int steps) {
+        return given().contentType(ContentType.JSON).post("/api/games/" + id + "/undo?steps=" + steps)
+            .then().statusCode(200);
+    }
+    
+    private static int createGame(String mode, String... players) {
+        return given().contentType(ContentType.JSON)
+            .body(Map.of("gameMode", mode, "playerNames", List.of(players)))
+            .post("/api/games")
+            .then().statusCode(201)
+            .extract().path("id");
+    }
+    
+    private static void throwDarts(int id, int... darts) {
+        for (int i = 0; i < darts.length; i += 2) {
+            given().contentType(ContentType.JSON)
+                .body(Map.of("sector", darts[i], "multiplier", darts[i + 1]))
+                .post("/api/games/" + id + "/throw")
+                .then().statusCode(200);
+        }
+    }
+    
+    private static void nextPlayer(int id) {
+        given().contentType(ContentType.JSON).post("/api/games/" + id + "/next-player").then().statusCode(200);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.dartscorer.rules;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Marks, points and wins on the packed cricket state, and reverting darts
+ */
+class CricketRulesTest {
+    
+    private static final CricketRules STANDARD = CricketRules.STANDARD;
+    private static final CricketRules CUT_THROAT = CricketRules.CUT_THROAT;
+    
+    @Test
+    void dartsAddMarksUntilTheTargetIsClosed() {
+        long[] state = new long[2];
+        int effect = STANDARD.applyThrow(state, 0, 20, 2);
+        assertEquals(2, CricketRules.effectMarks(effect));
+        assertEquals(0, CricketRules.effectPoints(effect));
+        assertEquals(2, CricketRules.marks(state[0], CricketRules.targetIndex(20)));
+        assertFalse(CricketRules.isClosed(state[0], CricketRules.targetIndex(20)));
+        
+        // The third mark closes 20; the extra two marks score while the opponent has it open
+        effect = STANDARD.applyThrow(state, 0, 20, 3);
+        assertEquals(1, CricketRules.effectMarks(effect));
+        assertEquals(40, CricketRules.effectPoints(effect));
+        assertTrue(CricketRules.isClosed(state[0], CricketRules.targetIndex(20)));
+        assertEquals(40, CricketRules.points(state[0]));
+        assertEquals(1 << 5, CricketRules.closedTargets(state[0]));
+        
+        // Darts outside 15-20 and the bull, and misses, change nothing
+        assertEquals(0, STANDARD.applyThrow(state, 1, 14, 3));
+        assertEquals(0, STANDARD.applyThrow(state, 1, 0, 0));
+        assertEquals(0, state[1]);
+    }
+    
+    @Test
+    void closedTargetsStopScoring() {
+        long[] state = new long[2];
+        STANDARD.applyThrow(state, 0, 25, 2);
+        STANDARD.applyThrow(state, 0, 25, 1);
+        STANDARD.applyThrow(state, 1, 25, 2);
+        int effect = STANDARD.applyThrow(state, 1, 25, 2);
+        assertEquals(1, CricketRules.effectMarks(effect));
+        assertEquals(0, CricketRules.effectPoints(effect));
+        assertEquals(1 << 6, CricketRules.closedByAll(state));
+        assertEquals(0, STANDARD.applyThrow(state, 0, 25, 2));
+        assertEquals(0, CricketRules.points(state[0]));
+    }
+    
+    @Test
+    void cutThroatGivesPointsToOpenOpponents() {
+        long[] state = new long[3];
+        CUT_THROAT.applyThrow(state, 2, 19, 3);
+        CUT_THROAT.applyThrow(state, 0, 19, 3);
+        int effect = CUT_THROAT.applyThrow(state, 0, 19, 2);
+        assertEquals(38, CricketRules.effectPoints(effect));
+        assertEquals(0, CricketRules.points(state[0]));
+        assertEquals(38, CricketRules.points(state[1]));
+        assertEquals(0, CricketRules.points(state[2]));
+        
+        CUT_THROAT.revertThrow(state, 0, 19, effect);
+        assertEquals(0, CricketRules.points(state[1]));
+        assertTrue(CricketRules.isClosed(state[0], CricketRules.targetIndex(19)));
+    }
+    
+    @Test
+    void revertRestoresThePackedState() {
+        long[] state = new long[2];
+        STANDARD.applyThrow(state, 1, 17, 1);
+        long[] before = state.clone();
+        int first = STANDARD.applyThrow(state, 0, 17, 3);
+        int second = STANDARD.applyThrow(state, 0, 17, 3);
+        assertEquals(51, CricketRules.points(state[0]));
+        STANDARD.revertThrow(state, 0, 17, second);
+        STANDARD.revertThrow(state, 0, 17, first);
+        assertArrayEquals(before, state);
+    }
+    
+    @Test
+    void winnerHasClosedEverythingAndLeads() {
+        long[] state = new long[2];
+        for (int target : CricketRules.TARGETS) {
+            STANDARD.applyThrow(state, 0, target, target == 25 ? 2 : 3);
+            if (target == 25) {
+                STANDARD.applyThrow(state, 0, 25, 1);
+            }
+        }
+        assertTrue(CricketRules.hasClosedAll(state[0]));
+        assertEquals(0x7F, CricketRules.closedTargets(state[0]));
+        assertEquals(0, STANDARD.findWinner(state));
+        
+        // Behind in points, closing everything is not enough
+        state[1] += 10L << 32;
+        assertEquals(-1, STANDARD.findWinner(state));
+        STANDARD.applyThrow(state, 0, 20, 1);
+        assertEquals(0, STANDARD.findWinner(state));
+        
+        // In cut-throat the lowest score wins
+        long[] cutThroat = {state[0] & 0x3FFF, 5L << 32};
+        assertEquals(0, CUT_THROAT.findWinner(cutThroat));
+        cutThroat[0] += 6L << 32;
+        assertEquals(-1, CUT_THROAT.findWinner(cutThroat));
+    }
+}
@@ -0,0 +1,74 @@
+package com.dartscorer.rules;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Countdown and training rules applied dart by dart
+ */
+class ScoreRulesTest {
+    
+    @Test
+    void straightOutFinishesWithAnyDart() {
+        X01Rules rules = X01Rules.straightOut(301);
+        assertEquals(301, rules.startingScore());
+        assertEquals(241, rules.applyThrow(301, 20, 3));
+        assertEquals(0, rules.applyThrow(20, 20, 1));
+        assertEquals(0, rules.applyThrow(60, 20, 3));
+        assertEquals(1, rules.applyThrow(2, 1, 1));
+        assertEquals(0, rules.applyThrow(1, 1, 1));
+        assertEquals(ScoreRules.BUST, rules.applyThrow(19, 20, 1));
+        assertEquals(19, rules.applyThrow(19, 0, 0));
+    }
+    
+    @Test
+    void doubleOutNeedsADoubleAndBustsOnOneLeft() {
+        X01Rules rules = X01Rules.doubleOut(501);
+        assertEquals(0, rules.applyThrow(40, 20, 2));
+        assertEquals(0, rules.applyThrow(50, 25, 2));
+        assertEquals(ScoreRules.BUST, rules.applyThrow(20, 20, 1));
+        assertEquals(ScoreRules.BUST, rules.applyThrow(60, 20, 3));
+        assertEquals(ScoreRules.BUST, rules.applyThrow(21, 20, 1));
+        assertEquals(ScoreRules.BUST, rules.applyThrow(3, 1, 2));
+        assertEquals(2, rules.applyThrow(3, 1, 1));
+    }
+    
+    @Test
+    void masterOutAcceptsDoublesAndTriples() {
+        X01Rules rules = X01Rules.masterOut(301);
+        assertEquals(0, rules.applyThrow(60, 20, 3));
+        assertEquals(0, rules.applyThrow(40, 20, 2));
+        assertEquals(ScoreRules.BUST, rules.applyThrow(20, 20, 1));
+        assertEquals(ScoreRules.BUST, rules.applyThrow(4, 3, 1));
+    }
+    
+    @Test
+    void doubleInIgnoresDartsUntilADouble() {
+        X01Rules rules = X01Rules.doubleInDoubleOut(301);
+        assertEquals(301, rules.applyThrow(301, 20, 3));
+        assertEquals(301, rules.applyThrow(301, 20, 1));
+        assertEquals(301, rules.applyThrow(301, 0, 0));
+        assertEquals(261, rules.applyThrow(301, 20, 2));
+        // Once opened, any dart counts
+        assertEquals(201, rules.applyThrow(261, 20, 3));
+        assertEquals(ScoreRules.BUST, rules.applyThrow(10, 10, 1));
+    }
+    
+    @Test
+    void winsAndPoints() {
+        X01Rules x01 = X01Rules.doubleOut(301);
+        assertTrue(x01.isWinningScore(0));
+        assertFalse(x01.isWinningScore(1));
+        assertEquals(60, x01.pointsScored(301, 241));
+        
+        TrainingRules training = TrainingRules.INSTANCE;
+        assertEquals(0, training.startingScore());
+        assertEquals(110, training.applyThrow(60, 25, 2));
+        assertEquals(60, training.applyThrow(60, 0, 0));
+        assertFalse(training.isWinningScore(1000));
+        assertEquals(50, training.pointsScored(60, 110));
+    }
+}
@@ -0,0 +1,77 @@
+package com.dartscorer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The lookup grid resolves positions as the polar geometry of the board does
+ */
+class BoardGeometryTest {
+    
+    @Test
+    void gridMatchesPolarGeometry() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000_000; i++) {
+            double x = random.nextDouble() * 400 - 200;
+            double y = random.nextDouble() * 400 - 200;
+            int code = BoardGeometry.resolve(x, y);
+            int[] expected = polar(x, y);
+            assertEquals(expected[0], BoardGeometry.sector(code), "Sector at " + x + ", " + y);
+            assertEquals(expected[1], BoardGeometry.multiplier(code), "Multiplier at " + x + ", " + y);
+        }
+    }
+    
+    @Test
+    void knownPositions() {
+        assertHit(0, 0, 25, 2);
+        assertHit(0, -10, 25, 1);
+        assertHit(0, 103, 20, 3);
+        assertHit(0, 166, 20, 2);
+        assertHit(0, 50, 20, 1);
+        assertHit(103, 0, 6, 3);
+        assertHit(0, -166, 3, 2);
+        assertHit(-50, 0, 11, 1);
+        assertHit(0, 171, 0, 0);
+        assertHit(500, -500, 0, 0);
+    }
+    
+    @Test
+    void fewCellsNeedExactResolution() {
+        assertTrue(BoardGeometry.boundaryShare() < 0.05, "Boundary cells: " + BoardGeometry.boundaryShare());
+    }
+    
+    private static void assertHit(double x, double y, int sector, int multiplier) {
+        int code = BoardGeometry.resolve(x, y);
+        assertEquals(sector, BoardGeometry.sector(code));
+        assertEquals(multiplier, BoardGeometry.multiplier(code));
+    }
+    
+    /**
+     * Sector and multiplier from the distance and angle of a position
+     */
+    private static int[] polar(double x, double y) {
+        double radius = Math.hypot(x, y);
+        if (radius > BoardGeometry.DOUBLE_OUTER_RADIUS) {
+            return new int[] {0, 0};
+        }
+        if (radius <= BoardGeometry.BULLSEYE_RADIUS) {
+            return new int[] {25, 2};
+        }
+        if (radius <= BoardGeometry.BULL_RADIUS) {
+            return new int[] {25, 1};
+        }
+        double angle = (Math.toDegrees(Math.atan2(x, y)) + 360 + 9) % 360;
+        int sector = BoardGeometry.SECTORS[(int) (angle / 18)];
+        if (radius > BoardGeometry.DOUBLE_INNER_RADIUS) {
+            return new int[] {sector, 2};
+        }
+        if (radius > BoardGeometry.TRIPLE_INNER_RADIUS && radius <= BoardGeometry.TRIPLE_OUTER_RADIUS) {
+            return new int[] {sector, 3};
+        }
+        return new int[] {sector, 1};
+    }
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.dartscorer.service;
+
+import com.dartscorer.config.DataSourceRouting;
+import com.dartscorer.model.Game;
+import com.dartscorer.model.GameMode;
+import com.dartscorer.model.GameStatus;
+import com.dartscorer.model.Throw;
+import com.dartscorer.model.Turn;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads recording throws and changing turns on the same game and on separate games.
+ *
+ * Every successful call is remembered, and once the games are over they are
+ * read back and checked: at most 3 throws per turn, turn scores consistent
+ * with their throws and with the previous turn of the player, a single
+ * winner, and exactly the throws that were acknowledged. Throughput is logged
+ * so a contention regression shows up in the test output.
+ */
+@QuarkusTest
+class GameConcurrencyTest {
+    
+    private static final Logger LOG = Logger.getLogger(GameConcurrencyTest.class);
+    
+    private static final int THREADS = 8;
+    
+    private static final int STARTING_SCORE = 301;
+    
+    @Inject
+    GameService gameService;
+    
+    /**
+     * Outcome of the calls of one run
+     */
+    private static final class Run {
+        final Map<Long, Set<Long>> acknowledged = new ConcurrentHashMap<>();
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong duplicates = new AtomicLong();
+    }
+    
+    @Test
+    void threadsSharingOneGame() throws Exception {
+        long gameId = gameService.createGame(GameMode.STANDARD_301, List.of("Stress A", "Stress B", "Stress C")).id;
+        
+        Run run = play(List.of(gameId), THREADS);
+        
+        assertGame(gameId, run);
+        assertTrue(run.rejected.get() > 0, "Threads sharing a game should have been rejected at least once");
+    }
+    
+    @Test
+    void threadsOnSeparateGames() throws Exception {
+        List<Long> gameIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            gameIds.add(gameService.createGame(GameMode.STANDARD_301, List.of("Stress D" + i, "Stress E" + i)).id);
+        }
+        
+        Run run = play(gameIds, THREADS);
+        
+        for (Long gameId : gameIds) {
+            assertGame(gameId, run);
+        }
+    }
+    
+    /**
+     * Play games to the end, each thread picking a game and alternating random throws and turn changes
+     */
+    private Run play(List<Long> gameIds, int threads) throws Exception {
+        Run run = new Run();
+        gameIds.forEach(id -> run.acknowledged.put(id, ConcurrentHashMap.newKeySet()));
+        Set<Long> finished = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long ownGame = gameIds.get(t % gameIds.size());
+            workers.add(executor.submit(() -> {
+                start.await();
+                while (!finished.contains(ownGame)) {
+                    DataSourceRouting.runOnPrimary(() -> step(run, ownGame, finished));
+                }
+                return null;
+            }));
+        }
+        
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        
+        long accepted = run.calls.get() - run.rejected.get();
+        LOG.infof("%d threads on %d games: %d calls (%d accepted, %d rejected) in %d ms, %.0f calls/s, %.0f accepted/s",
+            threads, gameIds.size(), run.calls.get(), accepted, run.rejected.get(), elapsed / 1_000_000,
+            run.calls.get() * 1e9 / elapsed, accepted * 1e9 / elapsed);
+        assertEquals(0, run.duplicates.get(), "A throw was acknowledged twice");
+        return run;
+    }
+    
+    private void step(Run run, long gameId, Set<Long> finished) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        run.calls.incrementAndGet();
+        try {
+            if (random.nextInt(4) == 0) {
+                gameService.nextPlayer(gameId);
+                return;
+            }
+            int sector = 1 + random.nextInt(20);
+            Game game = gameService.recordThrow(gameId, sector, 1 + random.nextInt(3));
+            Turn turn = game.getLastTurn();
+            Throw recorded = turn.dartThrows.get(turn.getThrowCount() - 1);
+            if (!run.acknowledged.get(gameId).add(recorded.id)) {
+                run.duplicates.incrementAndGet();
+            }
+            if (game.isCompleted()) {
+                finished.add(gameId);
+            }
+        } catch (BadRequestException e) {
+            // Turn already complete or not complete yet, or game over: another thread got there first
+            run.rejected.incrementAndGet();
+            if (e.getMessage().equals("Game is not in progress")) {
+                finished.add(gameId);
+            }
+        }
+    }
+    
+    /**
+     * Read a finished game back and check its invariants
+     */
+    private void assertGame(long gameId, Run run) {
+        DataSourceRouting.runOnPrimary(() -> QuarkusTransaction.requiringNew().run(() -> {
+            Game game = Game.findById(gameId);
+            assertEquals(GameStatus.COMPLETED, game.status);
+            assertNotNull(game.winner);
+            
+            Map<Long, Integer> scores = new HashMap<>();
+            Set<Long> stored = ConcurrentHashMap.newKeySet();
+            List<Turn> turns = game.turns;
+            for (int i = 0; i < turns.size(); i++) {
+                Turn turn = turns.get(i);
+                assertTrue(turn.getThrowCount() <= 3, "Turn " + turn.id + " has " + turn.getThrowCount() + " throws");
+                if (i < turns.size() - 1) {
+                    assertEquals(3, turn.getThrowCount(), "Turn " + turn.id + " was left before it was complete");
+                }
+                
+                int expectedStart = scores.getOrDefault(turn.player.id, STARTING_SCORE);
+                assertEquals(expectedStart, turn.startingScore, "Turn " + turn.id + " does not start where the last one ended");
+                int remaining = turn.startingScore;
+                boolean bust = false;
+                for (Throw dartThrow : turn.dartThrows) {
+                    assertTrue(stored.add(dartThrow.id));
+                    // Darts after a bust do not count
+                    if (bust) {
+                        continue;
+                    }
+                    if (remaining - dartThrow.score < 0) {
+                        remaining = turn.startingScore;
+                        bust = true;
+                        continue;
+                    }
+                    remaining -= dartThrow.score;
+                    if (remaining == 0) {
+                        assertEquals(turn.getThrowCount(), dartThrow.throwNumber, "Throw recorded after the winning one");
+                    }
+                }
+                assertEquals(bust, turn.isBust, "Turn " + turn.id + " has an inconsistent bust flag");
+                assertEquals(remaining, turn.remainingScore, "Turn " + turn.id + " has an inconsistent remaining score");
+                scores.put(turn.player.id, remaining);
+            }
+            
+            assertEquals(1, scores.values().stream().filter(score -> score == 0).count(), "There must be exactly one winner");
+            assertEquals(0, scores.get(game.winner.id));
+            assertEquals(game.winner.id, turns.get(turns.size() - 1).player.id);
+            assertEquals(run.acknowledged.get(gameId), stored, "Stored throws differ from the acknowledged ones");
+        }));
+    }
+}
\ No newline at end of file
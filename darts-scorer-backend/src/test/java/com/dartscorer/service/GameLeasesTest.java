@@ -0,0 +1,159 @@
+package com.dartscorer.service;
+
+import com.dartscorer.model.Game;
+import com.dartscorer.model.GameMode;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Several instances sharing the test database, each with its own clock
+ */
+@QuarkusTest
+class GameLeasesTest {
+    
+    private static final Duration LEASE = Duration.ofSeconds(30);
+    private static final String PLAYERS = Game.class.getName() + ".players";
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @Inject
+    GameService gameService;
+    
+    private MutableClock clockA;
+    private MutableClock clockB;
+    private GameLeases instanceA;
+    private GameLeases instanceB;
+    private long gameId;
+    
+    @BeforeEach
+    void setUp() {
+        clockA = new MutableClock();
+        clockB = new MutableClock();
+        instanceA = new GameLeases(entityManager, "instance-a", "http://a:8080", LEASE, clockA);
+        instanceB = new GameLeases(entityManager, "instance-b", "http://b:8080", LEASE, clockB);
+        gameId = gameService.createGame(GameMode.STANDARD_301, List.of("Lease A", "Lease B")).id;
+    }
+    
+    @Test
+    void onlyOneInstanceOwnsAGame() {
+        assertEquals(1, instanceA.acquire(gameId));
+        assertTrue(instanceA.owns(gameId));
+        
+        GameOwnedElsewhereException e = assertThrows(GameOwnedElsewhereException.class, () -> instanceB.acquire(gameId));
+        assertEquals("instance-a", e.ownerId);
+        assertEquals("http://a:8080", e.ownerUrl);
+        assertFalse(instanceB.owns(gameId));
+    }
+    
+    @Test
+    void expiredLeaseIsTakenOverWithNewToken() {
+        assertEquals(1, instanceA.acquire(gameId));
+        
+        clockB.advance(LEASE.plusSeconds(1));
+        assertEquals(2, instanceB.acquire(gameId));
+        
+        clockA.advance(LEASE.plusSeconds(1));
+        assertThrows(GameOwnedElsewhereException.class, () -> instanceA.acquire(gameId));
+    }
+    
+    @Test
+    void heartbeatKeepsLeaseAlive() {
+        instanceA.acquire(gameId);
+        
+        clockA.advance(LEASE.dividedBy(2));
+        assertEquals(1, instanceA.heartbeat());
+        
+        clockB.advance(LEASE.plusSeconds(1));
+        assertThrows(GameOwnedElsewhereException.class, () -> instanceB.acquire(gameId));
+    }
+    
+    @Test
+    void staleOwnerIsFenced() {
+        QuarkusTransaction.requiringNew().run(() -> instanceA.fence(gameId));
+        
+        // B takes over while A, paused, still believes its lease is valid
+        clockB.advance(LEASE.plusSeconds(1));
+        QuarkusTransaction.requiringNew().run(() -> instanceB.fence(gameId));
+        assertTrue(instanceA.owns(gameId));
+        
+        assertThrows(GameOwnedElsewhereException.class,
+            () -> QuarkusTransaction.requiringNew().run(() -> instanceA.fence(gameId)));
+        assertFalse(instanceA.owns(gameId));
+    }
+    
+    @Test
+    void cachedGameIsEvictedWhenOwnershipChanges() {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        QuarkusTransaction.requiringNew().run(() -> Game.findById(gameId));
+        assertTrue(cache.containsEntity(Game.class, gameId));
+        assertTrue(cache.containsCollection(PLAYERS, gameId));
+        
+        // Another instance may have written the game before the lease was claimed
+        instanceA.acquire(gameId);
+        assertFalse(cache.containsEntity(Game.class, gameId));
+        assertFalse(cache.containsCollection(PLAYERS, gameId));
+        
+        clockB.advance(LEASE.plusSeconds(1));
+        instanceB.acquire(gameId);
+        QuarkusTransaction.requiringNew().run(() -> Game.findById(gameId));
+        assertTrue(cache.containsEntity(Game.class, gameId));
+        assertTrue(cache.containsCollection(PLAYERS, gameId));
+        
+        // The stale owner drops the game once fenced out
+        assertThrows(GameOwnedElsewhereException.class,
+            () -> QuarkusTransaction.requiringNew().run(() -> instanceA.fence(gameId)));
+        assertFalse(cache.containsEntity(Game.class, gameId));
+        assertFalse(cache.containsCollection(PLAYERS, gameId));
+    }
+    
+    @Test
+    void releasedLeaseCanBeClaimedAtOnce() {
+        instanceA.acquire(gameId);
+        instanceA.release(gameId);
+        
+        assertEquals(2, instanceB.acquire(gameId));
+    }
+    
+    private static final class MutableClock extends Clock {
+        
+        private Instant instant = Instant.now();
+        
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+        
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+        
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+        
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.dartscorer.service;
+
+import com.dartscorer.event.GameCompletedEvent;
+import com.dartscorer.event.ThrowEvent;
+import com.dartscorer.model.Game;
+import com.dartscorer.model.GameMode;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Events are part of the recomputed totals up to the revision their game was read at
+ */
+class GameRevisionsTest {
+    
+    @Test
+    void eventsUpToTheReadRevisionAreIncluded() {
+        GameRevisions revisions = new GameRevisions(10, 20);
+        revisions.read(12, 3);
+        revisions.read(15, 0);
+        
+        assertTrue(revisions.includes(throwEvent(12, 1)));
+        assertTrue(revisions.includes(throwEvent(12, 3)));
+        assertFalse(revisions.includes(throwEvent(12, 4)));
+        assertTrue(revisions.includes(gameEvent(12, 3)));
+        assertFalse(revisions.includes(gameEvent(12, 4)));
+        
+        // An imported game is read at revision 0
+        assertTrue(revisions.includes(throwEvent(15, 0)));
+    }
+    
+    @Test
+    void gamesNotReadAreReplayedUnlessDeleted() {
+        GameRevisions revisions = new GameRevisions(10, 20);
+        revisions.read(12, 3);
+        
+        // Created after their range was scanned, inside or outside the snapshot range
+        assertFalse(revisions.includes(throwEvent(13, 1)));
+        assertFalse(revisions.includes(throwEvent(5, 1)));
+        assertFalse(revisions.includes(gameEvent(21, 2)));
+        
+        // Deleted before its range was scanned: nothing of it is replayed
+        List<Object> events = List.of(throwEvent(14, 2), throwEvent(14, Game.DELETED_REVISION),
+            throwEvent(12, Game.DELETED_REVISION));
+        revisions.noteDeletions(events);
+        assertTrue(revisions.includes(throwEvent(14, 2)));
+        assertTrue(revisions.includes(throwEvent(14, Game.DELETED_REVISION)));
+        
+        // Deleted after it was read: the reverting events are replayed
+        assertFalse(revisions.includes(throwEvent(12, Game.DELETED_REVISION)));
+    }
+    
+    @Test
+    void emptySnapshotReadsNothing() {
+        GameRevisions revisions = new GameRevisions(1, 0);
+        assertFalse(revisions.includes(throwEvent(1, 1)));
+    }
+    
+    private static ThrowEvent throwEvent(long gameId, long revision) {
+        return new ThrowEvent(1L, gameId, revision, GameMode.STANDARD_501, 1L, 20, 1, 20, false,
+            LocalDateTime.now(), false);
+    }
+    
+    private static GameCompletedEvent gameEvent(long gameId, long revision) {
+        return new GameCompletedEvent(gameId, revision, 1L, GameMode.STANDARD_501, 1L, List.of(1L),
+            new int[] {3}, new int[] {501}, 0, LocalDateTime.now(), false);
+    }
+}
\ No newline at end of file
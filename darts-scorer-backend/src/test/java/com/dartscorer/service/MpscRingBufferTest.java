@@ -0,0 +1,83 @@
+package com.dartscorer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Producers racing on a small buffer lose nothing and keep their own order
+ */
+class MpscRingBufferTest {
+    
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 50_000;
+    
+    @Test
+    void fullBufferRefusesElements() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+        
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(List.of(0, 1, 2), drained);
+        assertTrue(buffer.offer(4));
+        assertEquals(2, buffer.drainTo(drained, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4), drained);
+        assertTrue(buffer.isEmpty());
+    }
+    
+    @Test
+    void concurrentProducersLoseNothing() throws Exception {
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        List<Future<?>> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+            producers.add(executor.submit(() -> {
+                for (long i = 0; i < PER_PRODUCER; i++) {
+                    long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        
+        long[] next = new long[PRODUCERS];
+        List<long[]> batch = new ArrayList<>();
+        long received = 0;
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (received < (long) PRODUCERS * PER_PRODUCER && System.nanoTime() < deadline) {
+            batch.clear();
+            buffer.drainTo(batch, 32);
+            for (long[] element : batch) {
+                assertEquals(next[(int) element[0]]++, element[1], "Producer " + element[0] + " out of order");
+            }
+            received += batch.size();
+            if (batch.isEmpty()) {
+                Thread.yield();
+            }
+        }
+        for (Future<?> producer : producers) {
+            producer.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        
+        assertEquals((long) PRODUCERS * PER_PRODUCER, received);
+        assertTrue(buffer.isEmpty());
+    }
+}
\ No newline at end of file
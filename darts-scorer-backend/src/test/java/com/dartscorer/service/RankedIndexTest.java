@@ -0,0 +1,124 @@
+package com.dartscorer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ranks and top entries follow updates and removals, highest value first and ties by lowest id
+ */
+class RankedIndexTest {
+    
+    @Test
+    void ranksHighestFirstWithTiesByLowestId() {
+        RankedIndex index = new RankedIndex();
+        index.put(7, 50);
+        index.put(3, 80);
+        index.put(5, 50);
+        index.put(9, 10);
+        
+        assertEquals(4, index.size());
+        assertEquals(1, index.rank(3));
+        assertEquals(2, index.rank(5));
+        assertEquals(3, index.rank(7));
+        assertEquals(4, index.rank(9));
+        assertArrayEquals(new long[] {3, 5, 7, 9}, index.top(10));
+        assertArrayEquals(new long[] {3, 5}, index.top(2));
+        assertArrayEquals(new long[0], index.top(0));
+        assertEquals(-1, index.rank(4));
+    }
+    
+    @Test
+    void updatesMoveEntries() {
+        RankedIndex index = new RankedIndex();
+        index.put(1, 10);
+        index.put(2, 20);
+        index.put(3, 30);
+        
+        index.put(1, 40);
+        assertEquals(3, index.size());
+        assertEquals(40, index.value(1));
+        assertArrayEquals(new long[] {1, 3, 2}, index.top(3));
+        
+        // Same value again leaves the entry in place
+        index.put(1, 40);
+        assertEquals(3, index.size());
+        assertEquals(1, index.rank(1));
+        
+        // Dropping to a tie puts the lower id first
+        index.put(3, 20);
+        assertArrayEquals(new long[] {1, 2, 3}, index.top(3));
+    }
+    
+    @Test
+    void removalsKeepSubtreeSizes() {
+        RankedIndex index = new RankedIndex();
+        for (long id = 1; id <= 10; id++) {
+            index.put(id, id * 10);
+        }
+        index.remove(10);
+        index.remove(5);
+        index.remove(42);
+        
+        assertEquals(8, index.size());
+        assertFalse(index.contains(5));
+        assertEquals(0, index.value(5));
+        assertEquals(-1, index.rank(5));
+        assertEquals(1, index.rank(9));
+        assertEquals(5, index.rank(4));
+        assertArrayEquals(new long[] {9, 8, 7, 6, 4, 3, 2, 1}, index.top(20));
+        
+        index.clear();
+        assertEquals(0, index.size());
+        assertFalse(index.contains(1));
+    }
+    
+    @Test
+    void matchesSortedListUnderRandomUpdates() {
+        Random random = new Random(29);
+        RankedIndex index = new RankedIndex();
+        Map<Long, Long> expected = new HashMap<>();
+        
+        for (int step = 0; step < 5_000; step++) {
+            long id = random.nextInt(200);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                expected.remove(id);
+            } else {
+                // Few distinct values, so ties are common
+                long value = random.nextInt(25);
+                index.put(id, value);
+                expected.put(id, value);
+            }
+            
+            if (step % 250 == 0) {
+                assertMatches(expected, index);
+            }
+        }
+        assertMatches(expected, index);
+    }
+    
+    private static void assertMatches(Map<Long, Long> expected, RankedIndex index) {
+        List<Long> sorted = new ArrayList<>(expected.keySet());
+        sorted.sort(Comparator.<Long>comparingLong(expected::get).reversed().thenComparingLong(Long::longValue));
+        
+        assertEquals(sorted.size(), index.size());
+        long[] top = index.top(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            long id = sorted.get(i);
+            assertEquals(id, top[i]);
+            assertEquals(i + 1, index.rank(id));
+            assertTrue(index.contains(id));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.dartscorer.service;
+
+import com.dartscorer.config.DataSourceRouting;
+import com.dartscorer.model.Game;
+import com.dartscorer.model.GameMode;
+import com.dartscorer.model.Turn;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Only the turns of finished games are kept in memory, for one completion,
+ * and the owner of a game reads its row from the cache
+ */
+@QuarkusTest
+class SecondLevelCacheTest {
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @Inject
+    GameService gameService;
+    
+    @Inject
+    FinishedGameCache finishedGames;
+    
+    @Inject
+    AgroalDataSource dataSource;
+    
+    @Test
+    void finishedGameIsReadFromMemory() {
+        long finished = playFinishedGame("Cache Ada", "Cache Bea");
+        Turn first = firstTurn(finished);
+        Turn second = firstTurn(finished);
+        assertSame(first, second);
+        assertEquals(3, first.dartThrows.size());
+        assertEquals(180, first.totalScore);
+        
+        // A game in progress is read from the database every time
+        long playing = gameService.createGame(GameMode.STANDARD_301, List.of("Cache Cid", "Cache Dan")).id;
+        DataSourceRouting.runOnPrimary(() -> throwDarts(playing, 20, 1, 20, 1, 20, 1));
+        assertNotSame(firstTurn(playing), firstTurn(playing));
+        assertFalse(finishedGames.contains(playing));
+    }
+    
+    @Test
+    void finishedGameWonAgainIsReloaded() {
+        long gameId = playFinishedGame("Cache Ivo", "Cache Jon");
+        assertEquals(25, lastTurn(gameId).dartThrows.get(2).sector);
+        
+        // Undo reopens the game, which is then won with other darts
+        DataSourceRouting.runOnPrimary(() -> {
+            gameService.undoThrows(gameId, 2);
+            throwDarts(gameId, 17, 3, 10, 1);
+        });
+        Turn turn = lastTurn(gameId);
+        assertEquals(17, turn.dartThrows.get(1).sector);
+        assertEquals(10, turn.dartThrows.get(2).sector);
+        assertSame(turn, lastTurn(gameId));
+    }
+    
+    @Test
+    void gameCompletedAgainIsReadFromTheDatabase() throws SQLException {
+        long gameId = playFinishedGame("Cache Gus", "Cache Hal");
+        assertEquals(20, firstSector(gameId));
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        long throwId = firstTurn(gameId).dartThrows.get(0).id;
+        
+        // Another instance reopens the game with an undo and wins it again, writing nothing to this instance
+        update("update dart_throw set sector = 19, score = 57 where id = ?", throwId);
+        sessionFactory.getCache().evictEntityData(Game.class, gameId);
+        assertEquals(20, firstSector(gameId));
+        update("update Game set completedAt = ? where id = ?", Timestamp.valueOf(LocalDateTime.now().plusMinutes(1)),
+            gameId);
+        sessionFactory.getCache().evictEntityData(Game.class, gameId);
+        assertEquals(19, firstSector(gameId));
+        assertSame(firstTurn(gameId), firstTurn(gameId));
+    }
+    
+    @Test
+    void otherInstancesGameIsReadFromTheDatabase() throws SQLException {
+        // Neither game is mutated here, so this instance holds no lease on them
+        long gameId = gameService.createGame(GameMode.STANDARD_301, List.of("Cache Kim", "Cache Lou")).id;
+        long playerId = gameService.createGame(GameMode.STANDARD_301, List.of("Cache Max", "Cache Ned"))
+            .players.get(0).id;
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        QuarkusTransaction.requiringNew().run(() -> Game.findById(gameId));
+        assertTrue(sessionFactory.getCache().containsCollection(Game.class.getName() + ".players", gameId));
+        
+        // The owner replaces a player, writing nothing to this instance
+        update("update game_players set player_id = ? where game_id = ? and player_order = 1", playerId, gameId);
+        assertEquals("Cache Max", DataSourceRouting.callOnPrimary(() -> QuarkusTransaction.requiringNew().call(() ->
+            gameService.getGame(gameId).players.get(1).name)));
+    }
+    
+    @Test
+    void ownerMutatesGameFromTheCache() {
+        long gameId = gameService.createGame(GameMode.STANDARD_501, List.of("Cache Eve", "Cache Fay")).id;
+        DataSourceRouting.runOnPrimary(() -> throwDarts(gameId, 20, 1));
+        
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        EntityStatistics games = sessionFactory.getStatistics().getEntityStatistics(Game.class.getName());
+        assertTrue(sessionFactory.getCache().containsEntity(Game.class, gameId));
+        long loads = games.getLoadCount();
+        long hits = games.getCacheHitCount();
+        DataSourceRouting.runOnPrimary(() -> throwDarts(gameId, 20, 1, 20, 1));
+        assertEquals(loads, games.getLoadCount());
+        assertEquals(hits + 2, games.getCacheHitCount());
+    }
+    
+    private void throwDarts(long gameId, int... darts) {
+        for (int i = 0; i < darts.length; i += 2) {
+            gameService.recordThrow(gameId, darts[i], darts[i + 1]);
+        }
+    }
+    
+    /**
+     * Play a game of 301 won by its first player on the third turn
+     */
+    private long playFinishedGame(String first, String second) {
+        long gameId = gameService.createGame(GameMode.STANDARD_301, List.of(first, second)).id;
+        DataSourceRouting.runOnPrimary(() -> {
+            throwDarts(gameId, 20, 3, 20, 3, 20, 3);
+            gameService.nextPlayer(gameId);
+            throwDarts(gameId, 0, 0, 0, 0, 0, 0);
+            gameService.nextPlayer(gameId);
+            throwDarts(gameId, 20, 3, 11, 1, 25, 2);
+        });
+        return gameId;
+    }
+    
+    /**
+     * Read the first turn of a game with its throws, as the game endpoints do
+     */
+    private Turn firstTurn(long gameId) {
+        return DataSourceRouting.callOnPrimary(() -> QuarkusTransaction.requiringNew().call(() -> {
+            Turn turn = gameService.readGame(gameId, true).turns.get(0);
+            turn.dartThrows.size();
+            return turn;
+        }));
+    }
+    
+    private Turn lastTurn(long gameId) {
+        return DataSourceRouting.callOnPrimary(() -> QuarkusTransaction.requiringNew().call(() -> {
+            List<Turn> turns = gameService.readGame(gameId, true).turns;
+            Turn turn = turns.get(turns.size() - 1);
+            turn.dartThrows.size();
+            return turn;
+        }));
+    }
+    
+    private int firstSector(long gameId) {
+        return firstTurn(gameId).dartThrows.get(0).sector;
+    }
+    
+    private void update(String sql, Object... parameters) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            assertEquals(1, statement.executeUpdate());
+        }
+    }
+}
\ No newline at end of file
@@ -71,6 +71,18 @@ const Game = () => {
     }
   };
 
+  const handleUndo = async () => {
+    try {
+      setError(null);
+      const updatedGame = await api.undoThrow(gameId);
+      setGame(updatedGame);
+      setCurrentTurn(updatedGame.currentTurn);
+      setThrowsInTurn(updatedGame.currentTurn?.dartThrows?.length || 0);
+    } catch (err) {
+      setError(err.message);
+    }
+  };
+
   const handleNewGame = () => {
     navigate('/');
   };
@@ -151,6 +163,10 @@ const Game = () => {
               </>
             )}
             
+            <button onClick={handleUndo} className="btn btn-secondary">
+              ↩️ Annulla Lancio
+            </button>
+            
             {isGameOver && (
               <button
                 onClick={handleNewGame}
@@ -1,4 +1,4 @@
-import { useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import api from '../../services/api';
 import './GameSetup.css';
@@ -9,6 +9,26 @@ const GameSetup = () => {
   const [playerNames, setPlayerNames] = useState(['']);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState(null);
+  const [suggestions, setSuggestions] = useState([]);
+  const searchTimeout = useRef(null);
+
+  useEffect(() => () => clearTimeout(searchTimeout.current), []);
+
+  // Suggest existing players while typing, once the typing pauses
+  const searchPlayers = (query) => {
+    clearTimeout(searchTimeout.current);
+    if (query.trim().length < 2) {
+      setSuggestions([]);
+      return;
+    }
+    searchTimeout.current = setTimeout(async () => {
+      try {
+        setSuggestions(await api.searchPlayers(query.trim(), 8));
+      } catch {
+        setSuggestions([]);
+      }
+    }, 150);
+  };
 
   const handleAddPlayer = () => {
     if (playerNames.length < 8) {
@@ -27,6 +47,7 @@ const GameSetup = () => {
     const newPlayers = [...playerNames];
     newPlayers[index] = value;
     setPlayerNames(newPlayers);
+    searchPlayers(value);
   };
 
   const handleStartGame = async (e) => {
@@ -70,11 +91,27 @@ const GameSetup = () => {
               <option value="TRAINING">🎯 Allenamento</option>
               <option value="STANDARD_301">🎲 301 Standard</option>
               <option value="DOUBLE_OUT_301">🎲 301 Double Out</option>
+              <option value="DOUBLE_IN_DOUBLE_OUT_301">🎲 301 Double In / Double Out</option>
+              <option value="MASTER_OUT_301">🎲 301 Master Out</option>
+              <option value="STANDARD_501">🎲 501 Standard</option>
+              <option value="DOUBLE_OUT_501">🎲 501 Double Out</option>
+              <option value="DOUBLE_IN_DOUBLE_OUT_501">🎲 501 Double In / Double Out</option>
+              <option value="MASTER_OUT_501">🎲 501 Master Out</option>
+              <option value="STANDARD_701">🎲 701 Standard</option>
+              <option value="DOUBLE_OUT_701">🎲 701 Double Out</option>
+              <option value="DOUBLE_IN_DOUBLE_OUT_701">🎲 701 Double In / Double Out</option>
+              <option value="MASTER_OUT_701">🎲 701 Master Out</option>
+              <option value="CRICKET">🏏 Cricket</option>
+              <option value="CUT_THROAT_CRICKET">🏏 Cricket Cut-Throat</option>
             </select>
             <small className="form-text">
               {gameMode === 'TRAINING' && 'Modalità libera per praticare'}
-              {gameMode === 'STANDARD_301' && 'Parti da 301 e arriva a 0'}
-              {gameMode === 'DOUBLE_OUT_301' && 'Come 301 ma devi chiudere con un double'}
+              {gameMode.startsWith('STANDARD_') && `Parti da ${gameMode.slice(-3)} e arriva a 0`}
+              {gameMode.startsWith('DOUBLE_OUT_') && `Come ${gameMode.slice(-3)} ma devi chiudere con un double`}
+              {gameMode.startsWith('DOUBLE_IN_DOUBLE_OUT_') && `Come ${gameMode.slice(-3)} ma devi aprire e chiudere con un double`}
+              {gameMode.startsWith('MASTER_OUT_') && `Come ${gameMode.slice(-3)} ma devi chiudere con un double o un triplo`}
+              {gameMode === 'CRICKET' && 'Chiudi 15-20 e il bull, segna sui numeri ancora aperti per gli avversari'}
+              {gameMode === 'CUT_THROAT_CRICKET' && 'Come il cricket ma i punti vanno agli avversari: vince chi ne ha meno'}
             </small>
           </div>
 
@@ -90,6 +127,8 @@ const GameSetup = () => {
                   placeholder={`Giocatore ${index + 1}`}
                   className="form-control"
                   maxLength={50}
+                  list="player-suggestions"
+                  autoComplete="off"
                 />
                 {playerNames.length > 1 && (
                   <button
@@ -103,6 +142,11 @@ const GameSetup = () => {
                 )}
               </div>
             ))}
+            <datalist id="player-suggestions">
+              {suggestions.map((player) => (
+                <option key={player.id} value={player.name} />
+              ))}
+            </datalist>
             {playerNames.length < 8 && (
               <button
                 type="button"
@@ -4,13 +4,15 @@ const Scoreboard = ({ game, currentTurn }) => {
   if (!game) return null;
 
   const getPlayerScore = (player) => {
-    if (game.gameMode === 'TRAINING') {
+    if (game.gameMode === 'TRAINING' || game.cricket) {
       return game.playerScores?.[player.id] || 0;
     } else {
-      return game.playerScores?.[player.id] ?? 301;
+      return game.playerScores?.[player.id] ?? Number(game.gameMode.slice(-3));
     }
   };
 
+  const getMarkSymbol = (marks) => ['', '/', 'X', 'Ⓧ'][marks] ?? '';
+
   const isCurrentPlayer = (player) => {
     return game.currentPlayer?.id === player.id;
   };
@@ -23,8 +25,23 @@ const Scoreboard = ({ game, currentTurn }) => {
         return '🎲 301 Standard';
       case 'DOUBLE_OUT_301':
         return '🎲 301 Double Out';
-      default:
-        return game.gameMode;
+      case 'CRICKET':
+        return '🏏 Cricket';
+      case 'CUT_THROAT_CRICKET':
+        return '🏏 Cricket Cut-Throat';
+      default: {
+        const [, variant, points] = game.gameMode.match(/^(.*)_(\d+)$/) ?? [];
+        if (!variant) {
+          return game.gameMode;
+        }
+        const labels = {
+          STANDARD: 'Standard',
+          DOUBLE_OUT: 'Double Out',
+          DOUBLE_IN_DOUBLE_OUT: 'Double In / Double Out',
+          MASTER_OUT: 'Master Out',
+        };
+        return `🎲 ${points} ${labels[variant] ?? variant}`;
+      }
     }
   };
 
@@ -55,9 +72,22 @@ const Scoreboard = ({ game, currentTurn }) => {
               </div>
               <div className="player-score">
                 {getPlayerScore(player)}
-                {game.gameMode !== 'TRAINING' && <span className="score-label">rimanenti</span>}
+                {game.gameMode !== 'TRAINING' && !game.cricket && <span className="score-label">rimanenti</span>}
               </div>
             </div>
+            {game.cricket && (
+              <div className="cricket-marks">
+                {game.cricket.targets.map((target, index) => (
+                  <div
+                    key={target}
+                    className={`cricket-mark ${game.cricket.closedTargets.includes(target) ? 'closed' : ''}`}
+                  >
+                    <span className="cricket-target">{target === 25 ? 'B' : target}</span>
+                    <span className="cricket-value">{getMarkSymbol(game.cricket.marks[player.id]?.[index])}</span>
+                  </div>
+                ))}
+              </div>
+            )}
           </div>
         ))}
       </div>
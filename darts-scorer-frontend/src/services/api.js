@@ -6,7 +6,7 @@ const API_BASE_URL = 'http://localhost:8080/api';
 class ApiService {
   /**
    * Create a new game
-   * @param {string} gameMode - TRAINING, STANDARD_301, or DOUBLE_OUT_301
+   * @param {string} gameMode - TRAINING or an X01 mode (e.g. STANDARD_501, DOUBLE_OUT_301)
    * @param {string[]} playerNames - Array of player names
    * @returns {Promise<Object>} Game state
    */
@@ -85,6 +85,25 @@ class ApiService {
     return response.json();
   }
 
+  /**
+   * Undo the last throws
+   * @param {number} gameId - Game ID
+   * @param {number} [steps=1] - Number of throws to undo
+   * @returns {Promise<Object>} Updated game state
+   */
+  async undoThrow(gameId, steps = 1) {
+    const response = await fetch(`${API_BASE_URL}/games/${gameId}/undo?steps=${steps}`, {
+      method: 'POST',
+    });
+    
+    if (!response.ok) {
+      const error = await response.json();
+      throw new Error(error.message || 'Failed to undo throw');
+    }
+    
+    return response.json();
+  }
+
   /**
    * Get game history
    * @param {number} gameId - Game ID
@@ -133,17 +152,38 @@ class ApiService {
   }
 
   /**
-   * Get all players
-   * @returns {Promise<Array>} Array of players
+   * Get a page of players, ordered by name
+   * @param {number} [page=0] - Page index, starting from 0
+   * @param {number} [size=50] - Players per page (at most 200)
+   * @returns {Promise<{players: Array, total: number}>} Players of the page and total number of players
    */
-  async getPlayers() {
-    const response = await fetch(`${API_BASE_URL}/players`);
+  async getPlayers(page = 0, size = 50) {
+    const response = await fetch(`${API_BASE_URL}/players?page=${page}&size=${size}`);
     
     if (!response.ok) {
       const error = await response.json();
       throw new Error(error.message || 'Failed to get players');
     }
     
+    const players = await response.json();
+    return { players, total: Number(response.headers.get('X-Total-Count')) };
+  }
+
+  /**
+   * Search players whose name has a word starting with a prefix
+   * @param {string} query - Name prefix
+   * @param {number} [limit=10] - Maximum number of players
+   * @returns {Promise<Array>} Matching players
+   */
+  async searchPlayers(query, limit = 10) {
+    const params = new URLSearchParams({ q: query, limit });
+    const response = await fetch(`${API_BASE_URL}/players/search?${params}`);
+    
+    if (!response.ok) {
+      const error = await response.json();
+      throw new Error(error.message || 'Failed to search players');
+    }
+    
     return response.json();
   }
 }